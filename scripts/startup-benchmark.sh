@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Mede o tempo do início do processo até /actuator/health/readiness responder 200, em três modos:
+#   default  - bootJar, perfil padrão (ddl-auto=update + geração do create.sql)
+#   prod     - bootJar, perfil prod (Flyway + ddl-auto=validate)
+#   prod-cds - jar extraído, perfil prod, contexto AOT e arquivo AppCDS
+#
+# Pré-requisitos: DB_URL, DB_USER e DB_PASSWORD exportados e
+#   ./gradlew bootJar appCdsArchive
+# Uso: scripts/startup-benchmark.sh [execuções por modo, padrão 5]
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${BENCHMARK_PORT:-18080}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+BOOT_JAR="$(ls "$ROOT"/build/libs/*-SNAPSHOT.jar | grep -v plain | head -n 1)"
+CDS_DIR="$ROOT/build/cds"
+CDS_JAR="$CDS_DIR/$(basename "$BOOT_JAR")"
+LOG_LEVEL="${LOG_LEVEL:-WARN}"
+export LOG_LEVEL
+
+now_ms() { date +%s%3N; }
+
+measure() {
+  local mode="$1"; shift
+  local total=0
+  for run in $(seq 1 "$RUNS"); do
+    local start pid elapsed
+    start="$(now_ms)"
+    (cd "$CDS_DIR" && exec java "$@" -Dserver.port="$PORT" -jar "$JAR") > /dev/null 2>&1 &
+    pid=$!
+    until curl -fs "http://localhost:$PORT/actuator/health/readiness" > /dev/null 2>&1; do
+      if ! kill -0 "$pid" 2> /dev/null; then echo "$mode: aplicação encerrou antes de ficar pronta" >&2; exit 1; fi
+      sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+    total=$(( total + elapsed ))
+    kill "$pid" && wait "$pid" 2> /dev/null || true
+    printf '%-9s execução %d: %6d ms\n' "$mode" "$run" "$elapsed"
+  done
+  printf '%-9s média:      %6d ms\n\n' "$mode" $(( total / RUNS ))
+}
+
+JAR="$BOOT_JAR" measure default -Dmanagement.endpoint.health.probes.enabled=true
+JAR="$BOOT_JAR" measure prod -Dspring.profiles.active=prod
+JAR="$CDS_JAR" measure prod-cds -Dspring.profiles.active=prod -Dspring.aot.enabled=true \
+  -XX:SharedArchiveFile=application.jsa
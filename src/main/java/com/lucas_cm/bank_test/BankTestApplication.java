@@ -2,8 +2,10 @@ package com.lucas_cm.bank_test;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class BankTestApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,69 @@
+package com.lucas_cm.bank_test.configuration;
+
+import com.lucas_cm.bank_test.configuration.properties.NettingProperties;
+import com.lucas_cm.bank_test.configuration.properties.ShardingProperties;
+import com.lucas_cm.bank_test.infrastructure.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Com {@code bank.sharding.enabled=true} o DataSource da aplicação passa a ser o
+ * {@link ShardRoutingDataSource}, com um pool Hikari por shard.
+ * <p>
+ * O shard 0 segue a configuração do perfil (ddl-auto + schema.sql ou Flyway no prod); os demais
+ * recebem as migrações de {@code db/migration} na subida.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "bank.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(ShardingProperties properties, NettingProperties nettingProperties) {
+        if (properties.shards().isEmpty()) {
+            throw new IllegalStateException("bank.sharding.shards precisa de ao menos um shard");
+        }
+        // Os deltas do netting são aplicados em lote sem saber o shard de cada carteira
+        if (nettingProperties.enabled()) {
+            throw new IllegalStateException("bank.pix.netting.enabled não é suportado com bank.sharding.enabled");
+        }
+
+        List<DataSource> pools = new ArrayList<>();
+        for (int i = 0; i < properties.shards().size(); i++) {
+            ShardingProperties.Shard shard = properties.shards().get(i);
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName("org.postgresql.Driver")
+                    .url(shard.url())
+                    .username(shard.username())
+                    .password(shard.password())
+                    .build();
+            pool.setPoolName("shard-" + i);
+            pool.setMaximumPoolSize(properties.poolSize());
+            pools.add(pool);
+        }
+
+        for (int i = 1; i < pools.size(); i++) {
+            Flyway.configure()
+                    .dataSource(pools.get(i))
+                    .locations("classpath:db/migration")
+                    .baselineOnMigrate(true)
+                    .load()
+                    .migrate();
+        }
+
+        log.info("Sharding habilitado com {} shard(s)", pools.size());
+        return new ShardRoutingDataSource(pools);
+    }
+}
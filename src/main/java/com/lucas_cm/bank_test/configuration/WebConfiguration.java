@@ -0,0 +1,25 @@
+package com.lucas_cm.bank_test.configuration;
+
+import com.lucas_cm.bank_test.infrastructure.interceptors.ConcurrencyLimitInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfiguration implements WebMvcConfigurer {
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Caminhos que disputam locks de carteira e conexões do pool
+        registry.addInterceptor(concurrencyLimitInterceptor)
+                .addPathPatterns(
+                        "/pix/transfers",
+                        "/pix/webhook",
+                        "/wallets/*/deposit",
+                        "/wallets/*/withdraw"
+                );
+    }
+}
@@ -1,9 +1,15 @@
 package com.lucas_cm.bank_test.configuration.exception;
 
 
+import com.lucas_cm.bank_test.domain.exceptions.ServiceOverloadedException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletLockTimeoutException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletRateLimitExceededException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
@@ -26,6 +32,29 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
         return new ResponseEntity<>(body, HttpStatus.UNPROCESSABLE_ENTITY);
     }
 
+    @ExceptionHandler(WalletRateLimitExceededException.class)
+    public ResponseEntity<Object> handleWalletRateLimitError(WalletRateLimitExceededException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", e.getMessage());
+        body.put("error_code", e.getErrorCode());
+        body.put("data", e.getData());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    @ExceptionHandler({ServiceOverloadedException.class, WalletLockTimeoutException.class})
+    public ResponseEntity<Object> handleTemporarilyUnavailableError(BusinessException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", e.getMessage());
+        body.put("error_code", e.getErrorCode());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleInternalServerError(Exception e) {
         log.error("Exception", e);
@@ -35,6 +64,17 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
         return new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    // Pool de conexões esgotado (connection-timeout do Hikari): a requisição pode ser repetida
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class})
+    public ResponseEntity<Object> handleDatabaseUnavailableError(Exception e) {
+        log.warn("Conexão com o banco indisponível", e);
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", "Serviço temporariamente indisponível, tente novamente");
+        body.put("error_code", "DATABASE_UNAVAILABLE");
+        return new ResponseEntity<>(body, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<Object> handleNotFoundExceptionError(NotFoundException e) {
         log.info("NotFoundException", e);
@@ -0,0 +1,27 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração do cache colunar de transações confirmadas para agregados analíticos.
+ *
+ * @param enabled          mantém o cache em memória nesta instância e expõe {@code /reports/analytics}
+ * @param window           janela de transações recentes mantida no cache e máximo aceito nas consultas
+ * @param segmentSize      linhas por segmento; segmentos inteiros fora da janela são descartados
+ * @param parallelism      partições de segmentos agregadas em paralelo por consulta
+ * @param maxTopWallets    maior {@code limit} aceito no ranking de carteiras
+ * @param evictionInterval intervalo entre os descartes de segmentos fora da janela
+ */
+@ConfigurationProperties(prefix = "bank.analytics.cache")
+public record AnalyticsCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("24h") Duration window,
+        @DefaultValue("65536") int segmentSize,
+        @DefaultValue("4") int parallelism,
+        @DefaultValue("100") int maxTopWallets,
+        @DefaultValue("1m") Duration evictionInterval
+) {
+}
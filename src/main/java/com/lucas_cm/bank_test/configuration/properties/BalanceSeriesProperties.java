@@ -0,0 +1,15 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração da série de saldos de uma carteira.
+ *
+ * @param maxPoints pontos aceitos em uma única consulta
+ */
+@ConfigurationProperties(prefix = "bank.wallet.balance-series")
+public record BalanceSeriesProperties(
+        @DefaultValue("1000") int maxPoints
+) {
+}
@@ -0,0 +1,25 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração do cache local de saldos e da invalidação entre instâncias via LISTEN/NOTIFY.
+ *
+ * @param enabled        cacheia o saldo atual das carteiras e mantém a conexão escutando invalidações
+ * @param ttl            validade máxima de uma entrada, como proteção caso uma notificação se perca
+ * @param maxEntries     carteiras mantidas em cache; acima disso o cache é esvaziado
+ * @param channel        canal do {@code LISTEN/NOTIFY}
+ * @param coalesceWindow janela em que as invalidações são acumuladas e enviadas em uma única notificação
+ */
+@ConfigurationProperties(prefix = "bank.cache")
+public record CacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("30s") Duration ttl,
+        @DefaultValue("100000") int maxEntries,
+        @DefaultValue("bank_cache_invalidation") String channel,
+        @DefaultValue("50ms") Duration coalesceWindow
+) {
+}
@@ -0,0 +1,27 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração do limite adaptativo de concorrência dos endpoints que usam o banco.
+ *
+ * @param enabled          aplica o limite
+ * @param initialLimit     requisições simultâneas permitidas no startup
+ * @param minLimit         piso do limite
+ * @param maxLimit         teto do limite
+ * @param backoffRatio     fator aplicado ao limite quando a latência degrada ou há 5xx (decréscimo multiplicativo)
+ * @param latencyTolerance quantas vezes a latência pode superar a média de longo prazo antes de reduzir o limite
+ * @param baselineWindow   amostras na média móvel de longo prazo da latência
+ */
+@ConfigurationProperties(prefix = "bank.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("5") int minLimit,
+        @DefaultValue("200") int maxLimit,
+        @DefaultValue("0.9") double backoffRatio,
+        @DefaultValue("2.0") double latencyTolerance,
+        @DefaultValue("500") int baselineWindow
+) {
+}
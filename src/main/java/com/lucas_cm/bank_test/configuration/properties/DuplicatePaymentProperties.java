@@ -0,0 +1,25 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Detecção de transferências PIX repetidas com {@code Idempotency-Key} diferente.
+ *
+ * @param enabled checa cada transferência contra as anteriores da janela
+ * @param mode    {@code reject} recusa a transferência repetida; {@code tag} (padrão) aceita e marca as
+ *                duas pernas com {@code suspected_duplicate}
+ * @param window  intervalo em que mesma origem, chave PIX de destino e valor contam como repetição
+ */
+@ConfigurationProperties(prefix = "bank.pix.duplicate-detection")
+public record DuplicatePaymentProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("tag") Mode mode,
+        @DefaultValue("2m") Duration window
+) {
+    public enum Mode {
+        REJECT, TAG
+    }
+}
@@ -0,0 +1,31 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Espera máxima pelo lock de linha das carteiras ({@code SET LOCAL lock_timeout}).
+ *
+ * @param mode    {@code wait} usa o padrão do Postgres (espera indefinida); {@code timeout} espera até
+ *                {@code timeout}; {@code fail-fast} desiste quase imediatamente se a linha estiver travada
+ * @param timeout espera máxima no modo {@code timeout}
+ */
+@ConfigurationProperties(prefix = "bank.lock-timeout")
+public record LockTimeoutProperties(
+        @DefaultValue("timeout") Mode mode,
+        @DefaultValue("2s") Duration timeout
+) {
+    public enum Mode {
+        WAIT, TIMEOUT, FAIL_FAST
+    }
+
+    /**
+     * Valor para o {@code lock_timeout} em milissegundos. Zero desliga o limite no Postgres, então o
+     * modo fail-fast usa o menor valor possível.
+     */
+    public long lockTimeoutMillis() {
+        return mode == Mode.FAIL_FAST ? 1 : Math.max(1, timeout.toMillis());
+    }
+}
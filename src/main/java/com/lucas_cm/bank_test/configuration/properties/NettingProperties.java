@@ -0,0 +1,21 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração do modo de compensação (netting) de saldos das transferências PIX.
+ *
+ * @param enabled   acumula os efeitos das transferências confirmadas em memória em vez de atualizar os saldos na hora
+ * @param window    intervalo entre as aplicações dos deltas acumulados no banco
+ * @param chunkSize quantidade de carteiras atualizadas por transação na aplicação dos deltas
+ */
+@ConfigurationProperties(prefix = "bank.pix.netting")
+public record NettingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("200ms") Duration window,
+        @DefaultValue("500") int chunkSize
+) {
+}
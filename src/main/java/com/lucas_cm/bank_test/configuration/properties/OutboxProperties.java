@@ -0,0 +1,34 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração do outbox transacional de eventos do ledger.
+ *
+ * @param enabled   grava os eventos no outbox e executa o relay
+ * @param batchSize quantidade máxima de eventos enviados ao sink por transação do relay
+ * @param linger    espera entre as drenagens do relay; um evento fica no máximo esse tempo parado no outbox
+ * @param sink      destino dos eventos ({@code file})
+ * @param file      configuração do sink em arquivo
+ */
+@ConfigurationProperties(prefix = "bank.outbox")
+public record OutboxProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("500ms") Duration linger,
+        @DefaultValue("file") String sink,
+        @DefaultValue File file
+) {
+    /**
+     * @param path  arquivo JSON lines onde os eventos são anexados
+     * @param fsync força a gravação em disco a cada lote antes de remover os eventos do outbox
+     */
+    public record File(
+            @DefaultValue("outbox/ledger-events.jsonl") String path,
+            @DefaultValue("true") boolean fsync
+    ) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração do sweeper de transferências PIX que nunca receberam webhook.
+ *
+ * @param enabled          executa o sweeper periodicamente
+ * @param timeout          idade mínima de uma transferência PENDING para ser expirada
+ * @param interval         intervalo entre as execuções
+ * @param batchSize        quantidade de transferências expiradas por UPDATE
+ * @param maxBatchesPerRun limite de lotes por execução, para não monopolizar uma conexão
+ */
+@ConfigurationProperties(prefix = "bank.pix.sweeper")
+public record PendingTransferSweeperProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("30m") Duration timeout,
+        @DefaultValue("1m") Duration interval,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("100") int maxBatchesPerRun
+) {
+}
@@ -0,0 +1,17 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração dos lotes de pagamentos PIX.
+ *
+ * @param chunkSize quantidade de pagamentos processados por transação
+ * @param maxItems  quantidade máxima de pagamentos aceitos em um único lote
+ */
+@ConfigurationProperties(prefix = "bank.pix.batch")
+public record PixBatchPayoutProperties(
+        @DefaultValue("500") int chunkSize,
+        @DefaultValue("10000") int maxItems
+) {
+}
@@ -0,0 +1,21 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração dos streams SSE de status de transferências PIX.
+ *
+ * @param maxConnections streams abertos ao mesmo tempo nesta instância; acima disso a assinatura é recusada
+ * @param bufferSize     eventos aguardando envio por assinante; um assinante que não acompanha é desconectado
+ * @param timeout        duração máxima de um stream, depois disso o cliente reconecta
+ */
+@ConfigurationProperties(prefix = "bank.pix.status-stream")
+public record PixStatusStreamProperties(
+        @DefaultValue("10000") int maxConnections,
+        @DefaultValue("16") int bufferSize,
+        @DefaultValue("5m") Duration timeout
+) {
+}
@@ -0,0 +1,19 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração da transferência PIX individual.
+ *
+ * @param mode {@code jpa} (padrão) executa a transferência com várias consultas via JPA;
+ *             {@code native} executa tudo em um único comando SQL
+ */
+@ConfigurationProperties(prefix = "bank.pix.transfer")
+public record PixTransferProperties(
+        @DefaultValue("jpa") Mode mode
+) {
+    public enum Mode {
+        JPA, NATIVE
+    }
+}
@@ -0,0 +1,21 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração da saga de transferências PIX entre shards (só usada com {@code bank.sharding.enabled}).
+ *
+ * @param recoveryInterval intervalo entre as varreduras de sagas paradas em cada shard
+ * @param batchSize        sagas reservadas por varredura
+ * @param retryDelay       espera antes da recuperação assumir uma saga; também é o lease de cada tentativa
+ */
+@ConfigurationProperties(prefix = "bank.pix.saga")
+public record PixTransferSagaProperties(
+        @DefaultValue("10s") Duration recoveryInterval,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("30s") Duration retryDelay
+) {
+}
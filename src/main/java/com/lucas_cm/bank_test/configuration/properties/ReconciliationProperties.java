@@ -0,0 +1,27 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração da reconciliação entre {@code wallet.current_balance} e o ledger de transações.
+ *
+ * @param enabled          executa a reconciliação periodicamente
+ * @param interval         intervalo entre as execuções agendadas
+ * @param rangeSize        quantidade de carteiras por faixa verificada em uma única consulta
+ * @param parallelism      quantidade máxima de faixas verificadas ao mesmo tempo (conexões do pool em uso)
+ * @param overlap          margem subtraída do high-water mark para cobrir transações commitadas com atraso
+ * @param maxReportedDrifts quantidade máxima de divergências detalhadas no relatório
+ */
+@ConfigurationProperties(prefix = "bank.reconciliation")
+public record ReconciliationProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10m") Duration interval,
+        @DefaultValue("1000") int rangeSize,
+        @DefaultValue("4") int parallelism,
+        @DefaultValue("5m") Duration overlap,
+        @DefaultValue("100") int maxReportedDrifts
+) {
+}
@@ -0,0 +1,29 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Particionamento das carteiras entre vários bancos PostgreSQL.
+ *
+ * @param enabled  roteia carteiras e transações para o shard escolhido pelo hash do id da carteira;
+ *                 desabilitado, tudo usa o {@code spring.datasource}
+ * @param shards   bancos na ordem dos shards ({@code bank.sharding.shards[0].url=...}); a posição faz parte
+ *                 do hash, então novos shards entram sempre no fim da lista
+ * @param poolSize conexões por shard
+ */
+@ConfigurationProperties(prefix = "bank.sharding")
+public record ShardingProperties(
+        @DefaultValue("false") boolean enabled,
+        List<Shard> shards,
+        @DefaultValue("10") int poolSize
+) {
+    public ShardingProperties {
+        shards = shards == null ? List.of() : List.copyOf(shards);
+    }
+
+    public record Shard(String url, String username, String password) {
+    }
+}
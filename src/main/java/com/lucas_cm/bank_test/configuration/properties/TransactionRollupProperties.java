@@ -0,0 +1,17 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração dos rollups diários de transações.
+ *
+ * @param enabled mantém {@code transaction_daily_rollup} na mesma transação de cada escrita em {@code transaction}
+ * @param maxDays dias aceitos em uma consulta de rollups
+ */
+@ConfigurationProperties(prefix = "bank.rollup")
+public record TransactionRollupProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("366") int maxDays
+) {
+}
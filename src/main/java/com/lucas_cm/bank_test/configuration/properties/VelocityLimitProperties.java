@@ -0,0 +1,30 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Limites de movimentação por carteira em saques e transferências PIX. Um limite {@code 0} não é aplicado.
+ *
+ * @param enabled            aplica os limites
+ * @param maxCountPerMinute  débitos aceitos por carteira no último minuto
+ * @param maxAmountPerMinute valor debitado aceito por carteira no último minuto
+ * @param maxCountPerDay     débitos aceitos por carteira nas últimas 24 horas
+ * @param maxAmountPerDay    valor debitado aceito por carteira nas últimas 24 horas
+ * @param maxWallets         carteiras rastreadas ao mesmo tempo; acima disso novas carteiras passam sem limite
+ * @param evictionInterval   intervalo entre os descartes de carteiras sem débitos nas últimas 24 horas
+ */
+@ConfigurationProperties(prefix = "bank.velocity-limit")
+public record VelocityLimitProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10") int maxCountPerMinute,
+        @DefaultValue("10000.00") BigDecimal maxAmountPerMinute,
+        @DefaultValue("200") int maxCountPerDay,
+        @DefaultValue("50000.00") BigDecimal maxAmountPerDay,
+        @DefaultValue("50000") int maxWallets,
+        @DefaultValue("5m") Duration evictionInterval
+) {
+}
@@ -0,0 +1,21 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração dos lotes de depósito/saque.
+ *
+ * @param chunkSize quantidade de carteiras processadas por transação
+ * @param maxItems  quantidade máxima de itens aceitos em um único lote
+ * @param retention tempo que o resultado de um lote finalizado fica disponível para consulta
+ */
+@ConfigurationProperties(prefix = "bank.wallet.batch")
+public record WalletBatchProperties(
+        @DefaultValue("500") int chunkSize,
+        @DefaultValue("100000") int maxItems,
+        @DefaultValue("1h") Duration retention
+) {
+}
@@ -0,0 +1,38 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Controle de concorrência do saldo em depósitos e saques.
+ *
+ * @param mode        {@code pessimistic} trava a linha com {@code FOR UPDATE}; {@code optimistic} lê sem lock e
+ *                    valida a coluna {@code version} no UPDATE, repetindo em caso de conflito
+ * @param overrides   modo por carteira ({@code bank.wallet-concurrency.overrides[<id>]=optimistic}), sobrepõe o global
+ * @param maxAttempts tentativas no modo otimista antes de responder 503
+ * @param backoffBase espera base entre tentativas; dobra a cada conflito e é sorteada entre zero e o teto (jitter)
+ * @param backoffMax  teto da espera entre tentativas
+ */
+@ConfigurationProperties(prefix = "bank.wallet-concurrency")
+public record WalletConcurrencyProperties(
+        @DefaultValue("pessimistic") Mode mode,
+        Map<String, Mode> overrides,
+        @DefaultValue("5") int maxAttempts,
+        @DefaultValue("5ms") Duration backoffBase,
+        @DefaultValue("100ms") Duration backoffMax
+) {
+    public WalletConcurrencyProperties {
+        overrides = overrides == null ? Map.of() : Map.copyOf(overrides);
+    }
+
+    public Mode modeFor(String walletId) {
+        return overrides.getOrDefault(walletId, mode);
+    }
+
+    public enum Mode {
+        PESSIMISTIC, OPTIMISTIC
+    }
+}
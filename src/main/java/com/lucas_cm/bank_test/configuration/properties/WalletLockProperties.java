@@ -0,0 +1,25 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração da fila por carteira antes da transação.
+ *
+ * @param mode           {@code none} desliga; {@code local} enfileira na JVM; {@code advisory} enfileira na JVM e
+ *                       serializa entre instâncias com {@code pg_advisory_xact_lock}
+ * @param stripes        quantidade de locks locais (potência de 2); carteiras diferentes podem compartilhar um lock
+ * @param acquireTimeout espera máxima pelo lock local antes de responder 503
+ */
+@ConfigurationProperties(prefix = "bank.wallet-lock")
+public record WalletLockProperties(
+        @DefaultValue("local") Mode mode,
+        @DefaultValue("1024") int stripes,
+        @DefaultValue("5s") Duration acquireTimeout
+) {
+    public enum Mode {
+        NONE, LOCAL, ADVISORY
+    }
+}
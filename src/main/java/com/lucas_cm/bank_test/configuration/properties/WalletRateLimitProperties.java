@@ -0,0 +1,25 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração do token bucket por carteira aplicado nos controllers.
+ *
+ * @param enabled          aplica o limite
+ * @param capacity         requisições em rajada permitidas por carteira (tamanho do bucket)
+ * @param refillPerSecond  tokens repostos por segundo em cada carteira
+ * @param maxWallets       carteiras rastreadas ao mesmo tempo; acima disso novas carteiras passam sem limite
+ * @param idleTimeout      tempo com o bucket cheio até ele ser descartado
+ */
+@ConfigurationProperties(prefix = "bank.rate-limit.wallet")
+public record WalletRateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int capacity,
+        @DefaultValue("10") double refillPerSecond,
+        @DefaultValue("100000") int maxWallets,
+        @DefaultValue("1m") Duration idleTimeout
+) {
+}
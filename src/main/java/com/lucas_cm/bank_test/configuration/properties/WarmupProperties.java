@@ -0,0 +1,25 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração do aquecimento executado antes do readiness.
+ *
+ * @param enabled    executa o aquecimento no startup
+ * @param timeout    tempo máximo de aquecimento; ao estourar, a aplicação fica pronta assim mesmo
+ * @param iterations iterações dos exercícios de leitura (saldo, chave PIX e replay idempotente)
+ * @param hotWallets quantidade de carteiras mais movimentadas pré-carregadas
+ * @param lookback   janela usada para escolher as carteiras e transferências mais recentes
+ */
+@ConfigurationProperties(prefix = "bank.warmup")
+public record WarmupProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("60s") Duration timeout,
+        @DefaultValue("1000") int iterations,
+        @DefaultValue("500") int hotWallets,
+        @DefaultValue("1h") Duration lookback
+) {
+}
@@ -0,0 +1,30 @@
+package com.lucas_cm.bank_test.configuration.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração da fila durável de webhooks PIX.
+ *
+ * @param enabled      grava o webhook na fila e responde na hora; desabilitado, o webhook é processado na requisição
+ * @param workers      workers drenando a fila em paralelo em cada instância
+ * @param batchSize    webhooks reservados por worker a cada consulta
+ * @param pollInterval espera entre as drenagens quando a fila esvazia
+ * @param lease        tempo em que um webhook reservado fica invisível aos outros workers; se a instância cair,
+ *                     ele volta para a fila depois desse tempo
+ * @param maxAttempts  tentativas antes do webhook ficar parado na fila para análise
+ * @param retryDelay   espera antes de uma nova tentativa, multiplicada pelo número de tentativas
+ */
+@ConfigurationProperties(prefix = "bank.pix.webhook.inbox")
+public record WebhookInboxProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("4") int workers,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("200ms") Duration pollInterval,
+        @DefaultValue("30s") Duration lease,
+        @DefaultValue("10") int maxAttempts,
+        @DefaultValue("1s") Duration retryDelay
+) {
+}
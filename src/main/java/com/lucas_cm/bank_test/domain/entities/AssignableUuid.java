@@ -0,0 +1,18 @@
+package com.lucas_cm.bank_test.domain.entities;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id UUID gerado no insert, a menos que a entidade já tenha um. Com sharding o id da carteira
+ * é definido antes do insert, porque é ele que escolhe o shard.
+ */
+@IdGeneratorType(AssignableUuidGenerator.class)
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AssignableUuid {
+}
@@ -0,0 +1,31 @@
+package com.lucas_cm.bank_test.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "outbox_event")
+public class OutboxEventEntity {
+    // Sequence (e não IDENTITY) para o Hibernate conseguir agrupar os INSERTs dos lotes
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    @Column(name = "id", updatable = false, unique = true, nullable = false)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private OutboxEventTypeEnum eventType;
+    @Column(name = "aggregate_id", nullable = false)
+    private String aggregateId;
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
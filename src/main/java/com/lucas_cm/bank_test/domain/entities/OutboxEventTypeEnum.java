@@ -0,0 +1,5 @@
+package com.lucas_cm.bank_test.domain.entities;
+
+public enum OutboxEventTypeEnum {
+    DEPOSIT_CONFIRMED, WITHDRAW_CONFIRMED, PIX_TRANSFER_CREATED, PIX_TRANSFER_STATUS_CHANGED
+}
@@ -12,7 +12,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "transaction")
+@Table(name = "transaction", indexes = {
+        @Index(name = "idx_transaction_wallet_status", columnList = "wallet_id, status"),
+        @Index(name = "idx_transaction_updated_at", columnList = "updated_at")
+})
 public class TransactionEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -36,4 +39,7 @@ public class TransactionEntity {
     private LocalDateTime createdAt;
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
+    // Marcada pelo detector de pagamentos duplicados no modo TAG
+    @Column(name = "suspected_duplicate", nullable = false, columnDefinition = "boolean NOT NULL DEFAULT false")
+    private boolean suspectedDuplicate;
 }
@@ -0,0 +1,19 @@
+package com.lucas_cm.bank_test.domain.entities;
+
+/**
+ * Estados da saga de uma transferência PIX entre shards.
+ * <ul>
+ *     <li>{@code STARTED}: perna OUT PENDING gravada no shard de origem</li>
+ *     <li>{@code PREPARED}: perna IN PENDING gravada no shard de destino; aguardando o webhook</li>
+ *     <li>{@code CONFIRMING}/{@code REJECTING}: webhook aplicado na origem; falta aplicar no destino</li>
+ *     <li>{@code CONFIRMED}/{@code REJECTED}: as duas pernas no estado final</li>
+ *     <li>{@code COMPENSATED}: o destino não pôde ser aplicado e a origem foi desfeita</li>
+ * </ul>
+ */
+public enum TransferSagaStateEnum {
+    STARTED, PREPARED, CONFIRMING, REJECTING, CONFIRMED, REJECTED, COMPENSATED;
+
+    public boolean isTerminal() {
+        return this == CONFIRMED || this == REJECTED || this == COMPENSATED;
+    }
+}
@@ -1,11 +1,13 @@
 package com.lucas_cm.bank_test.domain.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.*;
-import org.hibernate.annotations.UuidGenerator;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -16,10 +18,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "wallet")
+@Table(name = "wallet", indexes = @Index(name = "idx_wallet_updated_at", columnList = "updated_at"))
 public class WalletEntity {
     @Id
-    @UuidGenerator
+    @AssignableUuid
     @Column(name = "id", updatable = false, unique = true, nullable = false)
     private String id;
     @Column(name = "user_id", nullable = false)
@@ -32,4 +34,9 @@ public class WalletEntity {
     private LocalDateTime createdAt;
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
+    // Usada só no modo otimista; o default permite adicionar a coluna em tabelas já populadas
+    @Version
+    @JsonIgnore
+    @Column(name = "version", nullable = false, columnDefinition = "bigint NOT NULL DEFAULT 0")
+    private long version;
 }
@@ -0,0 +1,16 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+
+public class CrossShardTransferException extends BusinessException {
+
+    @Override
+    public String getMessage() {
+        return "Transferência entre carteiras de shards diferentes não é suportada.";
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "CROSS_SHARD_TRANSFER";
+    }
+}
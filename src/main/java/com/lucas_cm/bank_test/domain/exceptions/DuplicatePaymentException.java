@@ -0,0 +1,31 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+import lombok.AllArgsConstructor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@AllArgsConstructor
+public class DuplicatePaymentException extends BusinessException {
+    private Duration window;
+
+    @Override
+    public String getMessage() {
+        return "Transferência idêntica enviada há menos de " + window
+                + ". Para repetir uma transferência, reenvie com a mesma Idempotency-Key.";
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "DUPLICATE_PIX_TRANSFER";
+    }
+
+    @Override
+    public Object getData() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("window", window.toString());
+        return data;
+    }
+}
@@ -0,0 +1,32 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+import lombok.AllArgsConstructor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@AllArgsConstructor
+public class InvalidAnalyticsQueryException extends BusinessException {
+    private Duration window;
+    private int maxLimit;
+
+    @Override
+    public String getMessage() {
+        return "Informe since como duração entre 1s e " + window + " e limit entre 1 e " + maxLimit + ".";
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "INVALID_ANALYTICS_QUERY";
+    }
+
+    @Override
+    public Object getData() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("window", window.toString());
+        data.put("max_limit", maxLimit);
+        return data;
+    }
+}
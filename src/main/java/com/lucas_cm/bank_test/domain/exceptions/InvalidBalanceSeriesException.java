@@ -0,0 +1,30 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+import lombok.AllArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@AllArgsConstructor
+public class InvalidBalanceSeriesException extends BusinessException {
+    private int maxPoints;
+
+    @Override
+    public String getMessage() {
+        return "Informe from e to em ISO-8601 com from <= to, step em segundos inteiros (mínimo 1s) e no máximo "
+                + maxPoints + " pontos.";
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "INVALID_BALANCE_SERIES";
+    }
+
+    @Override
+    public Object getData() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("max_points", maxPoints);
+        return data;
+    }
+}
@@ -0,0 +1,29 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+import lombok.AllArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@AllArgsConstructor
+public class InvalidPixPayoutBatchException extends BusinessException {
+    private int maxItems;
+
+    @Override
+    public String getMessage() {
+        return "O lote de pagamentos PIX deve conter entre 1 e " + maxItems + " pagamentos.";
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "INVALID_PIX_PAYOUT_BATCH";
+    }
+
+    @Override
+    public Object getData() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("max_items", maxItems);
+        return data;
+    }
+}
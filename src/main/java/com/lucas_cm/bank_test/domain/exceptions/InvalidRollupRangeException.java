@@ -0,0 +1,29 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+import lombok.AllArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@AllArgsConstructor
+public class InvalidRollupRangeException extends BusinessException {
+    private int maxDays;
+
+    @Override
+    public String getMessage() {
+        return "Informe from e to no formato yyyy-MM-dd com from <= to e no máximo " + maxDays + " dias.";
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "INVALID_ROLLUP_RANGE";
+    }
+
+    @Override
+    public Object getData() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("max_days", maxDays);
+        return data;
+    }
+}
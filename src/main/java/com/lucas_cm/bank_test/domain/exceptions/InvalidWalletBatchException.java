@@ -0,0 +1,29 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+import lombok.AllArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@AllArgsConstructor
+public class InvalidWalletBatchException extends BusinessException {
+    private int maxItems;
+
+    @Override
+    public String getMessage() {
+        return "O lote deve conter entre 1 e " + maxItems + " itens.";
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "INVALID_WALLET_BATCH";
+    }
+
+    @Override
+    public Object getData() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("max_items", maxItems);
+        return data;
+    }
+}
@@ -0,0 +1,16 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+
+public class ServiceOverloadedException extends BusinessException {
+
+    @Override
+    public String getMessage() {
+        return "Serviço sobrecarregado, tente novamente em instantes.";
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "SERVICE_OVERLOADED";
+    }
+}
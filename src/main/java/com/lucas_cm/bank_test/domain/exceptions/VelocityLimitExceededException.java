@@ -0,0 +1,36 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+@AllArgsConstructor
+public class VelocityLimitExceededException extends BusinessException {
+    @Getter
+    private String window;
+    private int maxCount;
+    private BigDecimal maxAmount;
+
+    @Override
+    public String getMessage() {
+        return "Limite de movimentação da carteira excedido na janela de " + window + ".";
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "VELOCITY_LIMIT_EXCEEDED";
+    }
+
+    @Override
+    public Object getData() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("window", window);
+        data.put("max_count", maxCount);
+        data.put("max_amount", maxAmount);
+        return data;
+    }
+}
@@ -0,0 +1,15 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+
+public class WalletBatchNotFoundException extends BusinessException {
+    @Override
+    public String getMessage() {
+        return "Lote não encontrado.";
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "WALLET_BATCH_NOT_FOUND";
+    }
+}
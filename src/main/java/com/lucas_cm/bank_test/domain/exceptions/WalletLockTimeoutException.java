@@ -0,0 +1,16 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+
+public class WalletLockTimeoutException extends BusinessException {
+
+    @Override
+    public String getMessage() {
+        return "Carteira ocupada por outra operação, tente novamente em instantes.";
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "WALLET_LOCK_TIMEOUT";
+    }
+}
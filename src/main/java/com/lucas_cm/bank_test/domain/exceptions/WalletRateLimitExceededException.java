@@ -0,0 +1,31 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@AllArgsConstructor
+public class WalletRateLimitExceededException extends BusinessException {
+    @Getter
+    private long retryAfterSeconds;
+
+    @Override
+    public String getMessage() {
+        return "Limite de requisições para esta carteira excedido. Tente novamente em " + retryAfterSeconds + "s.";
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "WALLET_RATE_LIMIT_EXCEEDED";
+    }
+
+    @Override
+    public Object getData() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("retry_after_seconds", retryAfterSeconds);
+        return data;
+    }
+}
@@ -0,0 +1,10 @@
+package com.lucas_cm.bank_test.domain.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Um ponto da série de saldos: o mesmo valor de {@code GET /wallets/{id}/balance?at=} no instante {@code at}.
+ */
+public record BalancePoint(LocalDateTime at, BigDecimal balance) {
+}
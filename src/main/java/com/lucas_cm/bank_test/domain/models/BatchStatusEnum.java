@@ -0,0 +1,5 @@
+package com.lucas_cm.bank_test.domain.models;
+
+public enum BatchStatusEnum {
+    PENDING, PROCESSING, COMPLETED
+}
@@ -0,0 +1,15 @@
+package com.lucas_cm.bank_test.domain.models;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+
+/**
+ * Mudança de status de uma transferência PIX, publicada dentro da transação que a gravou.
+ * {@code toWalletId} é nulo quando a carteira de destino não é conhecida neste shard.
+ */
+public record PixTransferStatusChangedEvent(
+        String endToEndId,
+        String fromWalletId,
+        String toWalletId,
+        TransactionStatusEnum status
+) {
+}
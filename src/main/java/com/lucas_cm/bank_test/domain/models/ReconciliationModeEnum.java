@@ -0,0 +1,6 @@
+package com.lucas_cm.bank_test.domain.models;
+
+public enum ReconciliationModeEnum {
+    FULL,
+    INCREMENTAL
+}
@@ -0,0 +1,7 @@
+package com.lucas_cm.bank_test.domain.models;
+
+public enum ReconciliationStatusEnum {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
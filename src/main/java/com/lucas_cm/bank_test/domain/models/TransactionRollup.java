@@ -0,0 +1,22 @@
+package com.lucas_cm.bank_test.domain.models;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Quantidade e soma das transações de um dia (data de criação) por carteira, tipo e status.
+ * Nos totais de todas as carteiras {@code walletId} é nulo; nas alterações incrementais os
+ * valores são deltas e podem ser negativos.
+ */
+public record TransactionRollup(
+        String walletId,
+        LocalDate day,
+        TransactionTypeEnum type,
+        TransactionStatusEnum status,
+        long count,
+        BigDecimal amount
+) {
+}
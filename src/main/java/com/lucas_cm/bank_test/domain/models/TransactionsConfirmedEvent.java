@@ -0,0 +1,11 @@
+package com.lucas_cm.bank_test.domain.models;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+
+import java.util.List;
+
+/**
+ * Transações que passaram a CONFIRMED, publicadas dentro da transação que as gravou.
+ */
+public record TransactionsConfirmedEvent(List<TransactionEntity> transactions) {
+}
@@ -0,0 +1,19 @@
+package com.lucas_cm.bank_test.domain.models;
+
+import com.lucas_cm.bank_test.domain.entities.TransferSagaStateEnum;
+
+import java.math.BigDecimal;
+
+/**
+ * Registro da saga de uma transferência entre shards, gravado no shard de origem. O destino é
+ * conhecido pela chave PIX; a carteira e o shard dela são preenchidos quando a perna IN é criada.
+ */
+public record TransferSaga(String endToEndId,
+                           String fromWalletId,
+                           String toPixKey,
+                           String toWalletId,
+                           Integer toShard,
+                           BigDecimal amount,
+                           TransferSagaStateEnum state,
+                           int attempts) {
+}
@@ -0,0 +1,104 @@
+package com.lucas_cm.bank_test.domain.models;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.infrastructure.dtos.WalletBatchDto;
+import com.lucas_cm.bank_test.infrastructure.dtos.WalletBatchItemDto;
+import com.lucas_cm.bank_test.infrastructure.dtos.WalletBatchItemResultDto;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Estado em memória de um lote de depósitos/saques. Os resultados por item são
+ * preenchidos à medida que cada chunk é confirmado no banco.
+ */
+public class WalletBatch {
+    @Getter
+    private final String id;
+    @Getter
+    private final TransactionTypeEnum type;
+    @Getter
+    private final List<WalletBatchItemDto> items;
+    @Getter
+    private final LocalDateTime createdAt;
+    private final WalletBatchItemResultDto[] results;
+    private BatchStatusEnum status = BatchStatusEnum.PENDING;
+    private LocalDateTime finishedAt;
+    private int succeeded;
+    private int failed;
+
+    public WalletBatch(String id, TransactionTypeEnum type, List<WalletBatchItemDto> items) {
+        this.id = id;
+        this.type = type;
+        this.items = List.copyOf(items);
+        this.createdAt = LocalDateTime.now();
+        this.results = new WalletBatchItemResultDto[items.size()];
+    }
+
+    /**
+     * Índices dos itens agrupados por carteira, com as carteiras em ordem crescente de id
+     * para que os locks sejam sempre adquiridos na mesma ordem.
+     */
+    public SortedMap<String, List<Integer>> indexesByWallet() {
+        SortedMap<String, List<Integer>> grouped = new TreeMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            String walletId = items.get(i).walletId();
+            grouped.computeIfAbsent(walletId == null ? "" : walletId, k -> new ArrayList<>()).add(i);
+        }
+        return grouped;
+    }
+
+    public synchronized void start() {
+        status = BatchStatusEnum.PROCESSING;
+    }
+
+    public synchronized void succeed(int index, String endToEndId) {
+        record(index, BatchItemStatusEnum.SUCCEEDED, endToEndId, null);
+    }
+
+    public synchronized void fail(int index, String errorCode) {
+        record(index, BatchItemStatusEnum.FAILED, null, errorCode);
+    }
+
+    public synchronized void finish() {
+        status = BatchStatusEnum.COMPLETED;
+        finishedAt = LocalDateTime.now();
+    }
+
+    public synchronized boolean isFinishedBefore(LocalDateTime limit) {
+        return finishedAt != null && finishedAt.isBefore(limit);
+    }
+
+    public synchronized WalletBatchDto toDto() {
+        List<WalletBatchItemResultDto> processed = Arrays.stream(results)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingInt(WalletBatchItemResultDto::index))
+                .toList();
+        return new WalletBatchDto(
+                id,
+                type,
+                status,
+                items.size(),
+                succeeded + failed,
+                succeeded,
+                failed,
+                createdAt,
+                finishedAt,
+                processed
+        );
+    }
+
+    private void record(int index, BatchItemStatusEnum itemStatus, String endToEndId, String errorCode) {
+        WalletBatchItemResultDto previous = results[index];
+        if (previous != null) {
+            if (previous.status() == BatchItemStatusEnum.SUCCEEDED) succeeded--;
+            else failed--;
+        }
+        WalletBatchItemDto item = items.get(index);
+        results[index] = new WalletBatchItemResultDto(
+                index, item.walletId(), item.amount(), itemStatus, endToEndId, errorCode);
+        if (itemStatus == BatchItemStatusEnum.SUCCEEDED) succeeded++;
+        else failed++;
+    }
+}
@@ -0,0 +1,20 @@
+package com.lucas_cm.bank_test.domain.models;
+
+import java.math.BigDecimal;
+
+/**
+ * Saldo de uma carteira comparado com a soma das suas transações CONFIRMED.
+ */
+public record WalletDrift(
+        String walletId,
+        BigDecimal currentBalance,
+        BigDecimal ledgerBalance
+) {
+    public BigDecimal drift() {
+        return ledgerBalance.subtract(currentBalance);
+    }
+
+    public boolean hasDrift() {
+        return drift().signum() != 0;
+    }
+}
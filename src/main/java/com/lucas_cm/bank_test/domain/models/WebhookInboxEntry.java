@@ -0,0 +1,9 @@
+package com.lucas_cm.bank_test.domain.models;
+
+import com.lucas_cm.bank_test.infrastructure.dtos.PixWebhookRequest;
+
+/**
+ * Webhook reservado da fila, com o número da tentativa corrente.
+ */
+public record WebhookInboxEntry(long id, int attempts, PixWebhookRequest request) {
+}
@@ -0,0 +1,54 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import com.lucas_cm.bank_test.domain.models.BalancePoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Série de saldos de uma carteira em um único comando SQL.
+ * <p>
+ * As transações confirmadas a partir de {@code from} são lidas uma vez e agrupadas no intervalo do
+ * ponto que as antecede (o último intervalo vai até o fim). O valor de cada ponto é a soma dos
+ * intervalos dali em diante, calculada por uma função de janela sobre os pontos gerados por
+ * {@code generate_series}, sem uma consulta por ponto.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BalanceSeriesRepository {
+    private static final String SERIES_SQL = "WITH buckets AS (" +
+            "  SELECT CAST(LEAST(FLOOR(EXTRACT(EPOCH FROM t.created_at - :from) / :stepSeconds), :lastIndex) AS int) AS idx," +
+            "         SUM(t.amount) AS amount" +
+            "  FROM transaction t" +
+            "  WHERE t.wallet_id = :walletId AND t.status = 'CONFIRMED' AND t.created_at >= :from" +
+            "  GROUP BY 1" +
+            ") " +
+            "SELECT :from + p.idx * make_interval(secs => :stepSeconds) AS point_at," +
+            "       COALESCE(SUM(b.amount) OVER (ORDER BY p.idx DESC), 0) AS balance" +
+            " FROM generate_series(0, :lastIndex) AS p(idx)" +
+            " LEFT JOIN buckets b ON b.idx = p.idx" +
+            " ORDER BY p.idx";
+
+    private static final RowMapper<BalancePoint> POINT_MAPPER = (rs, rowNum) -> new BalancePoint(
+            rs.getTimestamp("point_at").toLocalDateTime(),
+            rs.getBigDecimal("balance"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * {@code points} pontos a partir de {@code from}, espaçados de {@code step} (em segundos inteiros).
+     */
+    public List<BalancePoint> findSeries(String walletId, LocalDateTime from, Duration step, int points) {
+        return jdbcTemplate.query(SERIES_SQL, new MapSqlParameterSource("walletId", walletId)
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("stepSeconds", step.toSeconds())
+                .addValue("lastIndex", points - 1), POINT_MAPPER);
+    }
+}
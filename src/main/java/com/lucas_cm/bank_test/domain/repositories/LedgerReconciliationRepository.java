@@ -0,0 +1,93 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import com.lucas_cm.bank_test.domain.models.WalletDrift;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Consultas da reconciliação do ledger. Saldo e soma das transações são lidos no mesmo
+ * comando SQL, então a comparação usa um único snapshot mesmo com escritas concorrentes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerReconciliationRepository {
+    private static final String LEDGER_SELECT = "SELECT w.id, w.current_balance, COALESCE(l.total, 0) AS ledger_balance " +
+            "FROM wallet w " +
+            "LEFT JOIN (SELECT t.wallet_id, SUM(t.amount) AS total FROM transaction t " +
+            "           WHERE t.status = 'CONFIRMED' AND %1$s GROUP BY t.wallet_id) l ON l.wallet_id = w.id " +
+            "WHERE %2$s";
+
+    private static final String DRIFT_IN_RANGE_SQL = LEDGER_SELECT.formatted(
+            "t.wallet_id > :after AND t.wallet_id <= :upTo",
+            "w.id > :after AND w.id <= :upTo AND w.current_balance <> COALESCE(l.total, 0)");
+
+    private static final String DRIFT_IN_IDS_SQL = LEDGER_SELECT.formatted(
+            "t.wallet_id IN (:ids)",
+            "w.id IN (:ids) AND w.current_balance <> COALESCE(l.total, 0)");
+
+    private static final String LEDGER_BALANCE_SQL = LEDGER_SELECT.formatted(
+            "t.wallet_id = :id",
+            "w.id = :id");
+
+    private static final String WALLET_IDS_PAGE_SQL = "SELECT id FROM wallet WHERE id > :after ORDER BY id LIMIT :limit";
+
+    private static final String CHANGED_WALLET_IDS_PAGE_SQL = "SELECT id FROM (" +
+            "SELECT t.wallet_id AS id FROM transaction t WHERE t.updated_at > :since AND t.wallet_id IS NOT NULL " +
+            "UNION " +
+            "SELECT w.id FROM wallet w WHERE w.updated_at > :since" +
+            ") changed WHERE id > :after ORDER BY id LIMIT :limit";
+
+    private static final RowMapper<WalletDrift> DRIFT_MAPPER = (rs, rowNum) -> new WalletDrift(
+            rs.getString("id"),
+            rs.getBigDecimal("current_balance"),
+            rs.getBigDecimal("ledger_balance"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Próxima página de ids de carteira em ordem crescente (keyset), usada para montar as faixas.
+     */
+    public List<String> findWalletIdsAfter(String after, int limit) {
+        return jdbcTemplate.queryForList(WALLET_IDS_PAGE_SQL,
+                new MapSqlParameterSource("after", after).addValue("limit", limit), String.class);
+    }
+
+    /**
+     * Próxima página de ids de carteiras com transações ou saldo alterados desde {@code since}.
+     */
+    public List<String> findChangedWalletIdsAfter(LocalDateTime since, String after, int limit) {
+        return jdbcTemplate.queryForList(CHANGED_WALLET_IDS_PAGE_SQL,
+                new MapSqlParameterSource("since", Timestamp.valueOf(since))
+                        .addValue("after", after)
+                        .addValue("limit", limit),
+                String.class);
+    }
+
+    /**
+     * Carteiras divergentes na faixa {@code (after, upTo]}.
+     */
+    public List<WalletDrift> findDriftInRange(String after, String upTo) {
+        return jdbcTemplate.query(DRIFT_IN_RANGE_SQL,
+                new MapSqlParameterSource("after", after).addValue("upTo", upTo), DRIFT_MAPPER);
+    }
+
+    public List<WalletDrift> findDriftIn(Collection<String> walletIds) {
+        if (walletIds.isEmpty()) return List.of();
+        return jdbcTemplate.query(DRIFT_IN_IDS_SQL, new MapSqlParameterSource("ids", walletIds), DRIFT_MAPPER);
+    }
+
+    public Optional<WalletDrift> findLedgerBalance(String walletId) {
+        return jdbcTemplate.query(LEDGER_BALANCE_SQL, new MapSqlParameterSource("id", walletId), DRIFT_MAPPER)
+                .stream()
+                .findFirst();
+    }
+}
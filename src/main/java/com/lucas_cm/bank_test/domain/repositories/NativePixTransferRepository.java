@@ -0,0 +1,124 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Transferência PIX em um único comando SQL: checagem de idempotência, lock das duas carteiras
+ * em ordem de id, validação de saldo, inserção das duas pernas (com a marca de suspeita de
+ * duplicidade já calculada pelo serviço), do evento de outbox e dos rollups
+ * diários. Fora de
+ * uma transação do Spring o comando roda em autocommit, então a transferência custa uma única
+ * ida e volta ao banco.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NativePixTransferRepository {
+    private static final String TRANSFER_SQL = "WITH existing AS (" +
+            "  SELECT status FROM transaction WHERE end_to_end_id = :outId" +
+            "), locked AS (" +
+            // ORDER BY antes do FOR UPDATE: as linhas são travadas na ordem dos ids
+            "  SELECT id, pix_key, current_balance FROM wallet" +
+            "  WHERE (id = :fromWalletId OR pix_key = :toPixKey) AND NOT EXISTS (SELECT 1 FROM existing)" +
+            "  ORDER BY id" +
+            "  FOR UPDATE" +
+            "), source AS (" +
+            "  SELECT id, current_balance FROM locked WHERE id = :fromWalletId" +
+            "), target AS (" +
+            "  SELECT id, pix_key FROM locked WHERE pix_key = :toPixKey" +
+            "), checked AS (" +
+            "  SELECT s.id AS from_id, t.id AS to_id, t.pix_key FROM source s CROSS JOIN target t" +
+            "  WHERE s.current_balance + CAST(:availableDelta AS numeric) >= CAST(:amount AS numeric)" +
+            "), debit AS (" +
+            "  INSERT INTO transaction (end_to_end_id, amount, status, type, wallet_id, pix_key, suspected_duplicate, created_at, updated_at)" +
+            "  SELECT :outId, -CAST(:amount AS numeric), 'PENDING', 'PIX_TRANSFER_OUT', from_id, pix_key, :suspectedDuplicate, :now, :now" +
+            "  FROM checked" +
+            "  ON CONFLICT (end_to_end_id) DO NOTHING" +
+            "  RETURNING 1" +
+            "), credit AS (" +
+            "  INSERT INTO transaction (end_to_end_id, amount, status, type, wallet_id, pix_key, suspected_duplicate, created_at, updated_at)" +
+            "  SELECT :inId, CAST(:amount AS numeric), 'PENDING', 'PIX_TRANSFER_IN', to_id, pix_key, :suspectedDuplicate, :now, :now" +
+            "  FROM checked" +
+            "  WHERE EXISTS (SELECT 1 FROM debit)" +
+            "), outbox AS (" +
+            "  INSERT INTO outbox_event (id, event_type, aggregate_id, payload, created_at)" +
+            "  SELECT nextval('outbox_event_seq'), 'PIX_TRANSFER_CREATED', :endToEndId," +
+            "         json_build_object('endToEndId', CAST(:endToEndId AS text), 'walletId', from_id," +
+            "                           'counterpartyWalletId', to_id, 'type', 'PIX_TRANSFER_OUT'," +
+            "                           'amount', CAST(:amount AS numeric), 'status', 'PENDING'," +
+            "                           'occurredAt', CAST(:now AS timestamp))::text," +
+            "         :now" +
+            "  FROM checked WHERE :outboxEnabled AND EXISTS (SELECT 1 FROM debit)" +
+            "), rollup AS (" +
+            "  INSERT INTO transaction_daily_rollup (wallet_id, type, status, day, tx_count, amount)" +
+            "  SELECT leg.wallet_id, leg.type, 'PENDING', CAST(:now AS date), 1, leg.amount" +
+            "  FROM checked CROSS JOIN LATERAL (VALUES" +
+            "         (from_id, 'PIX_TRANSFER_OUT', -CAST(:amount AS numeric))," +
+            "         (to_id, 'PIX_TRANSFER_IN', CAST(:amount AS numeric))) AS leg (wallet_id, type, amount)" +
+            "  WHERE :rollupEnabled AND EXISTS (SELECT 1 FROM debit)" +
+            // Mesma ordem de chaves do TransactionRollupService
+            "  ORDER BY leg.wallet_id COLLATE \"C\", leg.type COLLATE \"C\"" +
+            "  ON CONFLICT (wallet_id, type, status, day) DO UPDATE" +
+            "  SET tx_count = transaction_daily_rollup.tx_count + EXCLUDED.tx_count," +
+            "      amount = transaction_daily_rollup.amount + EXCLUDED.amount" +
+            ") " +
+            "SELECT (SELECT status FROM existing) AS existing_status," +
+            "       EXISTS (SELECT 1 FROM source) AS source_found," +
+            "       EXISTS (SELECT 1 FROM target) AS target_found," +
+            "       (SELECT current_balance FROM source) AS current_balance," +
+            "       EXISTS (SELECT 1 FROM debit) AS created";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TransferResult transfer(String endToEndId,
+                                   String fromWalletId,
+                                   String toPixKey,
+                                   BigDecimal amount,
+                                   BigDecimal availableDelta,
+                                   boolean suspectedDuplicate,
+                                   boolean outboxEnabled,
+                                   boolean rollupEnabled) {
+        MapSqlParameterSource params = new MapSqlParameterSource("endToEndId", endToEndId)
+                .addValue("outId", "OUT" + endToEndId)
+                .addValue("inId", "IN" + endToEndId)
+                .addValue("fromWalletId", fromWalletId)
+                .addValue("toPixKey", toPixKey)
+                .addValue("amount", amount)
+                .addValue("availableDelta", availableDelta)
+                .addValue("suspectedDuplicate", suspectedDuplicate)
+                .addValue("outboxEnabled", outboxEnabled)
+                .addValue("rollupEnabled", rollupEnabled)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+
+        return jdbcTemplate.queryForObject(TRANSFER_SQL, params, (rs, rowNum) -> {
+            String existingStatus = rs.getString("existing_status");
+            return new TransferResult(
+                    existingStatus == null ? null : TransactionStatusEnum.valueOf(existingStatus),
+                    rs.getBoolean("source_found"),
+                    rs.getBoolean("target_found"),
+                    rs.getBigDecimal("current_balance"),
+                    rs.getBoolean("created"));
+        });
+    }
+
+    /**
+     * @param existingStatus status da transferência já existente com a mesma chave de idempotência
+     * @param currentBalance saldo persistido da carteira de origem (com lock)
+     * @param created        {@code true} se as duas pernas foram inseridas
+     */
+    public record TransferResult(
+            TransactionStatusEnum existingStatus,
+            boolean sourceFound,
+            boolean targetFound,
+            BigDecimal currentBalance,
+            boolean created
+    ) {
+    }
+}
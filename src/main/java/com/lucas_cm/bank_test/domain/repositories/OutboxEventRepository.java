@@ -0,0 +1,16 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import com.lucas_cm.bank_test.domain.entities.OutboxEventEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+    // SKIP LOCKED: cada instância do relay pega um lote diferente sem esperar as demais
+    @Query(value = "SELECT * FROM outbox_event ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEventEntity> findNextBatchForUpdate(@Param("limit") int limit);
+}
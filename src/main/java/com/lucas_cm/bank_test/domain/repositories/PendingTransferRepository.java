@@ -0,0 +1,97 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Expiração de transferências PIX PENDING em lote. Um único comando trava as pernas OUT mais
+ * antigas com {@code FOR UPDATE SKIP LOCKED} (usando o índice parcial de PENDING), rejeita as
+ * duas pernas e registra o evento de expiração (e o evento do outbox, se habilitado). Linhas travadas por outra instância ou por um
+ * webhook em andamento são puladas e ficam para a próxima execução. Com os rollups habilitados, as
+ * pernas expiradas passam de PENDING para REJECTED no rollup do dia de criação no mesmo comando.
+ * O comando retorna as transferências expiradas, para que o status seja publicado aos streams.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PendingTransferRepository {
+    private static final String EXPIRE_SQL = "WITH expired AS (" +
+            "  SELECT t.id FROM transaction t" +
+            "  WHERE t.status = 'PENDING' AND t.type = 'PIX_TRANSFER_OUT' AND t.created_at < :cutoff" +
+            "  ORDER BY t.created_at" +
+            "  LIMIT :limit" +
+            "  FOR UPDATE SKIP LOCKED" +
+            "), out_legs AS (" +
+            "  UPDATE transaction t SET status = 'REJECTED', updated_at = :now" +
+            "  FROM expired e WHERE t.id = e.id" +
+            "  RETURNING substring(t.end_to_end_id FROM 4) AS end_to_end_id, t.wallet_id, t.amount, t.type, t.created_at" +
+            "), in_legs AS (" +
+            "  UPDATE transaction t SET status = 'REJECTED', updated_at = :now" +
+            "  FROM out_legs o WHERE t.end_to_end_id = 'IN' || o.end_to_end_id AND t.status = 'PENDING'" +
+            "  RETURNING substring(t.end_to_end_id FROM 3) AS end_to_end_id, t.wallet_id, t.amount, t.type, t.created_at" +
+            "), events AS (" +
+            "  INSERT INTO event_pix (event_id, event_type, occurred_at, created_at, end_to_end_id)" +
+            "  SELECT 'EXPIRED:' || o.end_to_end_id, 'REJECTED', :now, :now, o.end_to_end_id FROM out_legs o" +
+            "  ON CONFLICT (event_id) DO NOTHING" +
+            "), outbox AS (" +
+            "  INSERT INTO outbox_event (id, event_type, aggregate_id, payload, created_at)" +
+            "  SELECT nextval('outbox_event_seq'), 'PIX_TRANSFER_STATUS_CHANGED', o.end_to_end_id," +
+            "         json_build_object('endToEndId', o.end_to_end_id, 'walletId', o.wallet_id," +
+            "                           'counterpartyWalletId', i.wallet_id, 'type', 'PIX_TRANSFER_OUT'," +
+            "                           'amount', -o.amount, 'status', 'REJECTED', 'occurredAt', CAST(:now AS timestamp))::text," +
+            "         :now" +
+            "  FROM out_legs o LEFT JOIN in_legs i ON i.end_to_end_id = o.end_to_end_id" +
+            "  WHERE :outboxEnabled" +
+            "), legs AS (" +
+            "  SELECT wallet_id, type, amount, CAST(created_at AS date) AS day FROM out_legs" +
+            "  UNION ALL" +
+            "  SELECT wallet_id, type, amount, CAST(created_at AS date) AS day FROM in_legs" +
+            "), rollup AS (" +
+            "  INSERT INTO transaction_daily_rollup (wallet_id, type, status, day, tx_count, amount)" +
+            "  SELECT l.wallet_id, l.type, m.status, l.day, SUM(m.sign), SUM(m.sign * l.amount)" +
+            "  FROM legs l CROSS JOIN (VALUES ('PENDING', -1), ('REJECTED', 1)) AS m (status, sign)" +
+            "  WHERE :rollupEnabled AND l.wallet_id IS NOT NULL" +
+            "  GROUP BY l.wallet_id, l.type, m.status, l.day" +
+            // Mesma ordem de chaves do TransactionRollupService
+            "  ORDER BY l.wallet_id COLLATE \"C\", l.type COLLATE \"C\", m.status COLLATE \"C\", l.day" +
+            "  ON CONFLICT (wallet_id, type, status, day) DO UPDATE" +
+            "  SET tx_count = transaction_daily_rollup.tx_count + EXCLUDED.tx_count," +
+            "      amount = transaction_daily_rollup.amount + EXCLUDED.amount" +
+            ") " +
+            "SELECT o.end_to_end_id, o.wallet_id AS from_wallet_id, i.wallet_id AS to_wallet_id" +
+            " FROM out_legs o LEFT JOIN in_legs i ON i.end_to_end_id = o.end_to_end_id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Expira até {@code limit} transferências criadas antes de {@code cutoff} e retorna as expiradas.
+     */
+    public List<ExpiredTransfer> expirePendingBefore(LocalDateTime cutoff, LocalDateTime now, int limit,
+                                                     boolean outboxEnabled, boolean rollupEnabled) {
+        return jdbcTemplate.query(EXPIRE_SQL,
+                new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff))
+                        .addValue("now", Timestamp.valueOf(now))
+                        .addValue("limit", limit)
+                        .addValue("outboxEnabled", outboxEnabled)
+                        .addValue("rollupEnabled", rollupEnabled),
+                (rs, rowNum) -> new ExpiredTransfer(
+                        rs.getString("end_to_end_id"),
+                        rs.getString("from_wallet_id"),
+                        rs.getString("to_wallet_id")));
+    }
+
+    /**
+     * @param toWalletId carteira da perna IN, nula quando ela está em outro shard
+     */
+    public record ExpiredTransfer(
+            String endToEndId,
+            String fromWalletId,
+            String toWalletId
+    ) {
+    }
+}
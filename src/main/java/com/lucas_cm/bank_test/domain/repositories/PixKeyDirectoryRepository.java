@@ -0,0 +1,63 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import com.lucas_cm.bank_test.infrastructure.sharding.ShardRoutingDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+
+/**
+ * Diretório global de chaves PIX usado com sharding: diz em qual shard está a carteira de cada
+ * chave e garante a unicidade da chave entre shards. A tabela fica no shard 0 e é acessada pelo
+ * pool dele diretamente, fora da transação do shard da carteira.
+ */
+@Repository
+public class PixKeyDirectoryRepository {
+    private static final String REGISTER_SQL = "INSERT INTO pix_key_directory (pix_key, wallet_id, shard, updated_at) " +
+            "VALUES (?, ?, ?, now()) " +
+            "ON CONFLICT (pix_key) DO UPDATE SET shard = EXCLUDED.shard, updated_at = EXCLUDED.updated_at " +
+            "WHERE pix_key_directory.wallet_id = EXCLUDED.wallet_id";
+
+    private static final String UPSERT_SQL = "INSERT INTO pix_key_directory (pix_key, wallet_id, shard, updated_at) " +
+            "VALUES (?, ?, ?, now()) " +
+            "ON CONFLICT (pix_key) DO UPDATE SET wallet_id = EXCLUDED.wallet_id, shard = EXCLUDED.shard, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PixKeyDirectoryRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource instanceof ShardRoutingDataSource routing
+                ? routing.shard(0)
+                : dataSource);
+    }
+
+    public Optional<Integer> findShard(String pixKey) {
+        return jdbcTemplate.queryForList("SELECT shard FROM pix_key_directory WHERE pix_key = ?", Integer.class, pixKey)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Registra a chave para a carteira. Retorna {@code false} se ela já pertence a outra carteira.
+     */
+    public boolean register(String pixKey, String walletId, int shard) {
+        return jdbcTemplate.update(REGISTER_SQL, pixKey, walletId, shard) == 1;
+    }
+
+    public void release(String pixKey, String walletId) {
+        jdbcTemplate.update("DELETE FROM pix_key_directory WHERE pix_key = ? AND wallet_id = ?", pixKey, walletId);
+    }
+
+    /**
+     * Grava a localização observada no shard, sobrescrevendo a anterior (backfill e rebalanceamento).
+     */
+    public void upsert(String pixKey, String walletId, int shard) {
+        jdbcTemplate.update(UPSERT_SQL, pixKey, walletId, shard);
+    }
+
+    public int moveWallet(String walletId, int shard) {
+        return jdbcTemplate.update("UPDATE pix_key_directory SET shard = ?, updated_at = now() WHERE wallet_id = ?",
+                shard, walletId);
+    }
+}
@@ -0,0 +1,124 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import com.lucas_cm.bank_test.infrastructure.sharding.ShardRoutingDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acesso direto aos pools dos shards para o rebalanceamento: a cópia de uma carteira precisa
+ * de conexões de dois shards ao mesmo tempo, o que o roteamento por thread não permite.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "bank.sharding", name = "enabled", havingValue = "true")
+public class ShardRebalanceRepository {
+    // Transferências PENDING ou sagas em andamento originadas pela carteira
+    private static final String PENDING_SQL = "SELECT EXISTS (SELECT 1 FROM transaction " +
+            "WHERE wallet_id = ? AND status = 'PENDING') " +
+            "OR EXISTS (SELECT 1 FROM transfer_saga WHERE from_wallet_id = ? " +
+            "AND state NOT IN ('CONFIRMED', 'REJECTED', 'COMPENSATED'))";
+
+    // Eventos de webhook das transferências em que a carteira é a origem (a perna OUT define o shard)
+    private static final String EVENTS_SQL = "SELECT e.* FROM event_pix e " +
+            "JOIN transaction t ON t.end_to_end_id = 'OUT' || e.end_to_end_id " +
+            "WHERE t.wallet_id = ?";
+
+    // Rollups diários da carteira, na mesma ordem de chaves do TransactionRollupService
+    private static final String ROLLUPS_SQL = "SELECT wallet_id, type, status, day, tx_count, amount " +
+            "FROM transaction_daily_rollup WHERE wallet_id = ? " +
+            "ORDER BY type COLLATE \"C\", status COLLATE \"C\", day";
+
+    private static final String ADD_ROLLUP_SQL = "INSERT INTO transaction_daily_rollup " +
+            "(wallet_id, type, status, day, tx_count, amount) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (wallet_id, type, status, day) DO UPDATE " +
+            "SET tx_count = transaction_daily_rollup.tx_count + EXCLUDED.tx_count, " +
+            "amount = transaction_daily_rollup.amount + EXCLUDED.amount";
+
+    private final List<JdbcTemplate> jdbcTemplates = new ArrayList<>();
+    private final List<TransactionTemplate> transactionTemplates = new ArrayList<>();
+
+    public ShardRebalanceRepository(ShardRoutingDataSource dataSource) {
+        for (int i = 0; i < dataSource.shardCount(); i++) {
+            jdbcTemplates.add(new JdbcTemplate(dataSource.shard(i)));
+            transactionTemplates.add(new TransactionTemplate(new DataSourceTransactionManager(dataSource.shard(i))));
+        }
+    }
+
+    public List<String> findWalletIdsAfter(int shard, String after, int limit) {
+        return jdbcTemplates.get(shard).queryForList(
+                "SELECT id FROM wallet WHERE id > ? ORDER BY id LIMIT ?", String.class, after, limit);
+    }
+
+    /**
+     * Próxima página de pares (id da carteira, chave PIX) do shard.
+     */
+    public List<Map<String, Object>> findPixKeysAfter(int shard, String after, int limit) {
+        return jdbcTemplates.get(shard).queryForList(
+                "SELECT id, pix_key FROM wallet WHERE pix_key IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                after, limit);
+    }
+
+    /**
+     * Copia a carteira, suas transações, seus rollups diários e os eventos das transferências que ela
+     * originou para o shard de destino e então as remove da origem. A linha da carteira fica travada na origem
+     * durante toda a cópia. Carteiras com transferências PENDING ou sagas em andamento não são
+     * movidas, porque as pernas e a saga precisam continuar onde estão até o fim da transferência.
+     * <p>
+     * A cópia é idempotente ({@code ON CONFLICT DO NOTHING}): se a remoção na origem falhar, a
+     * próxima execução completa o movimento sem sobrescrever o que já foi gravado no destino. Os
+     * rollups são somados aos do destino, então só são copiados junto com a carteira: se ela já
+     * estava no destino, os rollups também já estavam.
+     *
+     * @return {@code false} se a carteira não existe mais na origem ou tem transferências em andamento
+     */
+    public boolean moveWallet(String walletId, int from, int to) {
+        JdbcTemplate source = jdbcTemplates.get(from);
+        JdbcTemplate target = jdbcTemplates.get(to);
+
+        return Boolean.TRUE.equals(transactionTemplates.get(from).execute(status -> {
+            List<Map<String, Object>> wallet = source.queryForList("SELECT * FROM wallet WHERE id = ? FOR UPDATE", walletId);
+            if (wallet.isEmpty()) return false;
+            if (Boolean.TRUE.equals(source.queryForObject(PENDING_SQL, Boolean.class, walletId, walletId))) return false;
+
+            List<Map<String, Object>> transactions = source.queryForList("SELECT * FROM transaction WHERE wallet_id = ?", walletId);
+            List<Map<String, Object>> events = source.queryForList(EVENTS_SQL, walletId);
+            List<Object[]> rollups = source.query(ROLLUPS_SQL, (rs, rowNum) -> new Object[]{
+                    rs.getString("wallet_id"), rs.getString("type"), rs.getString("status"),
+                    rs.getDate("day"), rs.getLong("tx_count"), rs.getBigDecimal("amount")}, walletId);
+
+            transactionTemplates.get(to).executeWithoutResult(targetStatus -> {
+                boolean copied = insert(target, "wallet", wallet.get(0)) > 0;
+                // Ids identity são por shard: as linhas recebem ids novos no destino
+                transactions.forEach(row -> insert(target, "transaction", withoutId(row)));
+                events.forEach(row -> insert(target, "event_pix", withoutId(row)));
+                if (copied && !rollups.isEmpty()) target.batchUpdate(ADD_ROLLUP_SQL, rollups);
+            });
+
+            // Os eventos continuam na origem: são só o registro de idempotência dos webhooks
+            source.update("DELETE FROM transaction_daily_rollup WHERE wallet_id = ?", walletId);
+            source.update("DELETE FROM transaction WHERE wallet_id = ?", walletId);
+            source.update("DELETE FROM wallet WHERE id = ?", walletId);
+            return true;
+        }));
+    }
+
+    private int insert(JdbcTemplate jdbcTemplate, String table, Map<String, Object> row) {
+        String columns = String.join(", ", row.keySet());
+        String placeholders = String.join(", ", row.keySet().stream().map(column -> "?").toList());
+        return jdbcTemplate.update("INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ") ON CONFLICT DO NOTHING",
+                row.values().toArray());
+    }
+
+    private Map<String, Object> withoutId(Map<String, Object> row) {
+        Map<String, Object> copy = new LinkedHashMap<>(row);
+        copy.remove("id");
+        return copy;
+    }
+}
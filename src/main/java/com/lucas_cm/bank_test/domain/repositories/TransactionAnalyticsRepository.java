@@ -0,0 +1,48 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Carga inicial do cache analítico: transações confirmadas no intervalo, em ordem de
+ * {@code updated_at} (índice {@code idx_transaction_updated_at}), entregues linha a linha.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionAnalyticsRepository {
+    private static final String CONFIRMED_SQL = "SELECT wallet_id, type, amount, updated_at FROM transaction" +
+            " WHERE updated_at >= :from AND updated_at < :to AND status = 'CONFIRMED' AND wallet_id IS NOT NULL" +
+            " ORDER BY updated_at";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Entrega cada transação ao {@code consumer} e retorna quantas foram lidas.
+     */
+    public long forEachConfirmed(LocalDateTime from, LocalDateTime to, Consumer<TransactionEntity> consumer) {
+        AtomicLong rows = new AtomicLong();
+        jdbcTemplate.query(CONFIRMED_SQL, new MapSqlParameterSource("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to)), (RowCallbackHandler) rs -> {
+            rows.incrementAndGet();
+            consumer.accept(TransactionEntity.builder()
+                    .walletId(rs.getString("wallet_id"))
+                    .type(TransactionTypeEnum.valueOf(rs.getString("type")))
+                    .amount(rs.getBigDecimal("amount"))
+                    .status(TransactionStatusEnum.CONFIRMED)
+                    .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+                    .build());
+        });
+        return rows.get();
+    }
+}
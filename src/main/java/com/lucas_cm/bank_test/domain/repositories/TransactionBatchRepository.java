@@ -0,0 +1,38 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Inserção em lote de transações via JDBC. O id da tabela é IDENTITY, o que impede o
+ * Hibernate de agrupar os INSERTs, por isso as operações em massa passam por aqui.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionBatchRepository {
+    private static final String INSERT_SQL = "INSERT INTO transaction " +
+            "(end_to_end_id, amount, status, type, wallet_id, pix_key, suspected_duplicate, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<TransactionEntity> transactions, int batchSize) {
+        if (transactions.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactions, batchSize, (ps, transaction) -> {
+            ps.setString(1, transaction.getEndToEndId());
+            ps.setBigDecimal(2, transaction.getAmount());
+            ps.setString(3, transaction.getStatus().name());
+            ps.setString(4, transaction.getType().name());
+            ps.setString(5, transaction.getWalletId());
+            ps.setString(6, transaction.getPixKey());
+            ps.setBoolean(7, transaction.isSuspectedDuplicate());
+            ps.setTimestamp(8, Timestamp.valueOf(transaction.getCreatedAt()));
+            ps.setTimestamp(9, Timestamp.valueOf(transaction.getUpdatedAt()));
+        });
+    }
+}
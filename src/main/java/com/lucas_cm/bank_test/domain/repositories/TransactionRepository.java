@@ -1,13 +1,18 @@
 package com.lucas_cm.bank_test.domain.repositories;
 
 import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +22,15 @@ public interface TransactionRepository extends JpaRepository<TransactionEntity,
 
     Optional<TransactionEntity> findByEndToEndId(String endToEndId);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TransactionEntity t WHERE t.endToEndId = :endToEndId")
+    Optional<TransactionEntity> findByEndToEndIdWithLock(@Param("endToEndId") String endToEndId);
+
+    List<TransactionEntity> findByEndToEndIdIn(Collection<String> endToEndIds);
+
+    @Query("SELECT t.walletId FROM TransactionEntity t WHERE t.endToEndId IN :endToEndIds")
+    List<String> findWalletIdsByEndToEndIdIn(@Param("endToEndIds") Collection<String> endToEndIds);
+
     boolean existsByEndToEndId(String endToEndId);
 
     @Query("SELECT SUM(t.amount) FROM TransactionEntity t " +
@@ -27,4 +41,15 @@ public interface TransactionRepository extends JpaRepository<TransactionEntity,
             @Param("walletId") String walletId,
             @Param("at") LocalDateTime at
     );
+
+    List<TransactionEntity> findByTypeAndUpdatedAtAfterOrderByUpdatedAtDesc(
+            TransactionTypeEnum type, LocalDateTime since, Limit limit);
+
+    @Query(value = "SELECT wallet_id FROM transaction " +
+            "WHERE updated_at >= :since AND wallet_id IS NOT NULL " +
+            "GROUP BY wallet_id ORDER BY count(*) DESC LIMIT :limit", nativeQuery = true)
+    List<String> findMostActiveWalletIdsSince(
+            @Param("since") LocalDateTime since,
+            @Param("limit") int limit
+    );
 }
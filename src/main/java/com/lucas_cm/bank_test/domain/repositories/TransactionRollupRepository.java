@@ -0,0 +1,84 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.models.TransactionRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rollups diários em {@code transaction_daily_rollup}. As alterações são deltas somados com
+ * {@code INSERT ... ON CONFLICT DO UPDATE}, na transação de quem chama; as consultas dos painéis
+ * leem só os rollups, nunca a tabela {@code transaction}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionRollupRepository {
+    private static final String UPSERT_SQL = "INSERT INTO transaction_daily_rollup" +
+            " (wallet_id, type, status, day, tx_count, amount) VALUES (?, ?, ?, ?, ?, ?)" +
+            " ON CONFLICT (wallet_id, type, status, day) DO UPDATE" +
+            " SET tx_count = transaction_daily_rollup.tx_count + EXCLUDED.tx_count," +
+            "     amount = transaction_daily_rollup.amount + EXCLUDED.amount";
+
+    private static final String BY_WALLET_SQL = "SELECT wallet_id, day, type, status, tx_count, amount" +
+            " FROM transaction_daily_rollup" +
+            " WHERE wallet_id = :walletId AND day BETWEEN :from AND :to AND tx_count <> 0" +
+            " ORDER BY day, type, status";
+
+    private static final String TOTALS_SQL = "SELECT NULL AS wallet_id, day, type, status," +
+            "       SUM(tx_count) AS tx_count, SUM(amount) AS amount" +
+            " FROM transaction_daily_rollup" +
+            " WHERE day BETWEEN :from AND :to" +
+            " GROUP BY day, type, status" +
+            " HAVING SUM(tx_count) <> 0" +
+            " ORDER BY day, type, status";
+
+    private static final RowMapper<TransactionRollup> ROLLUP_MAPPER = (rs, rowNum) -> new TransactionRollup(
+            rs.getString("wallet_id"),
+            rs.getDate("day").toLocalDate(),
+            TransactionTypeEnum.valueOf(rs.getString("type")),
+            TransactionStatusEnum.valueOf(rs.getString("status")),
+            rs.getLong("tx_count"),
+            rs.getBigDecimal("amount"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Soma os deltas nas linhas existentes. Quem chama entrega as chaves ordenadas, para que
+     * transações concorrentes travem as linhas na mesma ordem.
+     */
+    public void add(List<TransactionRollup> deltas) {
+        if (deltas.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setString(1, delta.walletId());
+            ps.setString(2, delta.type().name());
+            ps.setString(3, delta.status().name());
+            ps.setDate(4, Date.valueOf(delta.day()));
+            ps.setLong(5, delta.count());
+            ps.setBigDecimal(6, delta.amount());
+        });
+    }
+
+    public List<TransactionRollup> findByWallet(String walletId, LocalDate from, LocalDate to) {
+        return namedParameterJdbcTemplate.query(BY_WALLET_SQL, new MapSqlParameterSource("walletId", walletId)
+                .addValue("from", Date.valueOf(from))
+                .addValue("to", Date.valueOf(to)), ROLLUP_MAPPER);
+    }
+
+    /**
+     * Totais de todas as carteiras deste banco por dia, tipo e status.
+     */
+    public List<TransactionRollup> findTotals(LocalDate from, LocalDate to) {
+        return namedParameterJdbcTemplate.query(TOTALS_SQL, new MapSqlParameterSource("from", Date.valueOf(from))
+                .addValue("to", Date.valueOf(to)), ROLLUP_MAPPER);
+    }
+}
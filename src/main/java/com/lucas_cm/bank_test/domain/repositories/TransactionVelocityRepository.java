@@ -0,0 +1,43 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Recarga dos limites de movimentação: saques e PIX de saída criados desde um instante, em qualquer
+ * status, entregues linha a linha.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionVelocityRepository {
+    private static final String DEBITS_SQL = "SELECT wallet_id, amount, created_at FROM transaction" +
+            " WHERE created_at >= :from AND type IN ('WITHDRAW', 'PIX_TRANSFER_OUT') AND wallet_id IS NOT NULL";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Entrega cada débito ao {@code consumer} e retorna quantos foram lidos.
+     */
+    public long forEachDebitSince(LocalDateTime from, Consumer<TransactionEntity> consumer) {
+        AtomicLong rows = new AtomicLong();
+        jdbcTemplate.query(DEBITS_SQL, new MapSqlParameterSource("from", Timestamp.valueOf(from)),
+                (RowCallbackHandler) rs -> {
+                    rows.incrementAndGet();
+                    consumer.accept(TransactionEntity.builder()
+                            .walletId(rs.getString("wallet_id"))
+                            .amount(rs.getBigDecimal("amount"))
+                            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                            .build());
+                });
+        return rows.get();
+    }
+}
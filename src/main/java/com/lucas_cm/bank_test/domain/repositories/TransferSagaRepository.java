@@ -0,0 +1,113 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import com.lucas_cm.bank_test.domain.entities.TransferSagaStateEnum;
+import com.lucas_cm.bank_test.domain.models.TransferSaga;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Log das sagas de transferências entre shards na tabela {@code transfer_saga} do shard de origem.
+ * <p>
+ * A recuperação reserva com {@code FOR UPDATE SKIP LOCKED} as sagas que precisam avançar e empurra o
+ * {@code next_attempt_at} para o fim do lease, como a fila de webhooks. Sagas PREPARED só entram
+ * quando a perna OUT saiu de PENDING sem passar pelo webhook (expiradas pelo sweeper).
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransferSagaRepository {
+    private static final String COLUMNS = "end_to_end_id, from_wallet_id, to_pix_key, to_wallet_id, to_shard, amount, state, attempts";
+
+    private static final String INSERT_SQL = "INSERT INTO transfer_saga" +
+            " (end_to_end_id, from_wallet_id, to_pix_key, amount, state, attempts, next_attempt_at, created_at, updated_at)" +
+            " VALUES (:endToEndId, :fromWalletId, :toPixKey, :amount, 'STARTED', 0, :nextAttemptAt, :now, :now)";
+
+    private static final String CLAIM_SQL = "WITH claimed AS (" +
+            "  SELECT s.end_to_end_id FROM transfer_saga s" +
+            "  WHERE s.next_attempt_at <= :now" +
+            "    AND (s.state IN ('STARTED', 'CONFIRMING', 'REJECTING')" +
+            "         OR (s.state = 'PREPARED' AND EXISTS (SELECT 1 FROM transaction t" +
+            "             WHERE t.end_to_end_id = 'OUT' || s.end_to_end_id AND t.status <> 'PENDING')))" +
+            "  ORDER BY s.next_attempt_at" +
+            "  LIMIT :limit" +
+            "  FOR UPDATE SKIP LOCKED" +
+            ") " +
+            "UPDATE transfer_saga s SET next_attempt_at = :leaseUntil, attempts = s.attempts + 1" +
+            " FROM claimed c WHERE s.end_to_end_id = c.end_to_end_id" +
+            " RETURNING s.end_to_end_id";
+
+    private static final RowMapper<TransferSaga> ROW_MAPPER = (rs, rowNum) -> new TransferSaga(
+            rs.getString("end_to_end_id"),
+            rs.getString("from_wallet_id"),
+            rs.getString("to_pix_key"),
+            rs.getString("to_wallet_id"),
+            rs.getObject("to_shard", Integer.class),
+            rs.getBigDecimal("amount"),
+            TransferSagaStateEnum.valueOf(rs.getString("state")),
+            rs.getInt("attempts"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Grava a saga como STARTED; a recuperação só a assume depois de {@code nextAttemptAt}.
+     */
+    public void insert(TransferSaga saga, LocalDateTime now, LocalDateTime nextAttemptAt) {
+        jdbcTemplate.update(INSERT_SQL, new MapSqlParameterSource("endToEndId", saga.endToEndId())
+                .addValue("fromWalletId", saga.fromWalletId())
+                .addValue("toPixKey", saga.toPixKey())
+                .addValue("amount", saga.amount())
+                .addValue("nextAttemptAt", Timestamp.valueOf(nextAttemptAt))
+                .addValue("now", Timestamp.valueOf(now)));
+    }
+
+    public Optional<TransferSaga> find(String endToEndId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM transfer_saga WHERE end_to_end_id = :endToEndId",
+                new MapSqlParameterSource("endToEndId", endToEndId), ROW_MAPPER).stream().findFirst();
+    }
+
+    public Optional<TransferSaga> findWithLock(String endToEndId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM transfer_saga WHERE end_to_end_id = :endToEndId FOR UPDATE",
+                new MapSqlParameterSource("endToEndId", endToEndId), ROW_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Muda o estado da saga; destino nulo mantém o valor gravado.
+     */
+    public void updateState(String endToEndId, TransferSagaStateEnum state, String toWalletId, Integer toShard,
+                            LocalDateTime now, LocalDateTime nextAttemptAt) {
+        jdbcTemplate.update("UPDATE transfer_saga SET state = :state," +
+                        " to_wallet_id = COALESCE(:toWalletId, to_wallet_id), to_shard = COALESCE(:toShard, to_shard)," +
+                        " next_attempt_at = :nextAttemptAt, last_error = NULL, updated_at = :now" +
+                        " WHERE end_to_end_id = :endToEndId",
+                new MapSqlParameterSource("endToEndId", endToEndId)
+                        .addValue("state", state.name())
+                        .addValue("toWalletId", toWalletId)
+                        .addValue("toShard", toShard)
+                        .addValue("nextAttemptAt", Timestamp.valueOf(nextAttemptAt))
+                        .addValue("now", Timestamp.valueOf(now)));
+    }
+
+    /**
+     * Reserva até {@code limit} sagas paradas até {@code leaseUntil} e retorna os endToEndIds.
+     */
+    public List<String> claim(int limit, LocalDateTime now, LocalDateTime leaseUntil) {
+        return jdbcTemplate.queryForList(CLAIM_SQL, new MapSqlParameterSource("limit", limit)
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("leaseUntil", Timestamp.valueOf(leaseUntil)), String.class);
+    }
+
+    public void reschedule(String endToEndId, LocalDateTime nextAttemptAt, String error) {
+        jdbcTemplate.update("UPDATE transfer_saga SET next_attempt_at = :nextAttemptAt, last_error = :error" +
+                        " WHERE end_to_end_id = :endToEndId",
+                new MapSqlParameterSource("endToEndId", endToEndId)
+                        .addValue("nextAttemptAt", Timestamp.valueOf(nextAttemptAt))
+                        .addValue("error", error));
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,6 +20,11 @@ public interface WalletRepository extends JpaRepository<WalletEntity, String> {
 
     Optional<WalletEntity> findByPixKey(String id);
 
+    List<WalletEntity> findAllByPixKeyIn(Collection<String> pixKeys);
+
+    @Query("SELECT w.id FROM WalletEntity w WHERE w.pixKey = :pixKey")
+    Optional<String> findIdByPixKey(@Param("pixKey") String pixKey);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT w FROM WalletEntity w WHERE w.id = :id")
     Optional<WalletEntity> findByIdWithLock(@Param("id") String id);
@@ -25,4 +32,8 @@ public interface WalletRepository extends JpaRepository<WalletEntity, String> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT w FROM WalletEntity w WHERE w.pixKey = :pixKey")
     Optional<WalletEntity> findByPixKeyWithLock(@Param("pixKey") String pixKey);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WalletEntity w WHERE w.id IN :ids ORDER BY w.id")
+    List<WalletEntity> findAllByIdWithLock(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,86 @@
+package com.lucas_cm.bank_test.domain.repositories;
+
+import com.lucas_cm.bank_test.domain.models.WebhookInboxEntry;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixWebhookRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Fila durável de webhooks PIX na tabela {@code webhook_inbox}.
+ * <p>
+ * A reserva trava com {@code FOR UPDATE SKIP LOCKED} apenas o webhook mais antigo ainda ativo de
+ * cada endToEndId e empurra o {@code next_attempt_at} para o fim do lease, então instâncias
+ * diferentes nunca processam dois eventos da mesma transferência ao mesmo tempo nem fora de ordem.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WebhookInboxRepository {
+    private static final String ENQUEUE_SQL = "INSERT INTO webhook_inbox" +
+            " (event_id, end_to_end_id, event_type, occurred_at, received_at, next_attempt_at, attempts)" +
+            " VALUES (:eventId, :endToEndId, :eventType, :occurredAt, :now, :now, 0)" +
+            " ON CONFLICT (event_id) DO NOTHING";
+
+    private static final String CLAIM_SQL = "WITH claimed AS (" +
+            "  SELECT w.id FROM webhook_inbox w" +
+            "  WHERE w.next_attempt_at <= :now AND w.attempts < :maxAttempts" +
+            "    AND NOT EXISTS (SELECT 1 FROM webhook_inbox p" +
+            "                    WHERE p.end_to_end_id = w.end_to_end_id AND p.id < w.id AND p.attempts < :maxAttempts)" +
+            "  ORDER BY w.id" +
+            "  LIMIT :limit" +
+            "  FOR UPDATE SKIP LOCKED" +
+            ") " +
+            "UPDATE webhook_inbox w SET next_attempt_at = :leaseUntil, attempts = w.attempts + 1" +
+            " FROM claimed c WHERE w.id = c.id" +
+            " RETURNING w.id, w.attempts, w.end_to_end_id, w.event_id, w.event_type, w.occurred_at";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Grava o webhook na fila e retorna {@code false} se o eventId já estava na fila.
+     */
+    public boolean enqueue(PixWebhookRequest request, LocalDateTime now) {
+        return jdbcTemplate.update(ENQUEUE_SQL, new MapSqlParameterSource("eventId", request.eventId())
+                .addValue("endToEndId", request.endToEndId())
+                .addValue("eventType", request.eventType())
+                .addValue("occurredAt", request.occurredAt())
+                .addValue("now", Timestamp.valueOf(now))) > 0;
+    }
+
+    /**
+     * Reserva até {@code limit} webhooks prontos até {@code leaseUntil}, em ordem de chegada.
+     */
+    public List<WebhookInboxEntry> claim(int limit, int maxAttempts, LocalDateTime now, LocalDateTime leaseUntil) {
+        List<WebhookInboxEntry> entries = jdbcTemplate.query(CLAIM_SQL,
+                new MapSqlParameterSource("limit", limit)
+                        .addValue("maxAttempts", maxAttempts)
+                        .addValue("now", Timestamp.valueOf(now))
+                        .addValue("leaseUntil", Timestamp.valueOf(leaseUntil)),
+                (rs, rowNum) -> new WebhookInboxEntry(
+                        rs.getLong("id"),
+                        rs.getInt("attempts"),
+                        new PixWebhookRequest(
+                                rs.getString("end_to_end_id"),
+                                rs.getString("event_id"),
+                                rs.getString("event_type"),
+                                rs.getString("occurred_at"))));
+        // RETURNING não garante a ordem do SELECT
+        return entries.stream().sorted((a, b) -> Long.compare(a.id(), b.id())).toList();
+    }
+
+    public void delete(long id) {
+        jdbcTemplate.update("DELETE FROM webhook_inbox WHERE id = :id", new MapSqlParameterSource("id", id));
+    }
+
+    public void reschedule(long id, LocalDateTime nextAttemptAt, String error) {
+        jdbcTemplate.update("UPDATE webhook_inbox SET next_attempt_at = :nextAttemptAt, last_error = :error WHERE id = :id",
+                new MapSqlParameterSource("id", id)
+                        .addValue("nextAttemptAt", Timestamp.valueOf(nextAttemptAt))
+                        .addValue("error", error));
+    }
+}
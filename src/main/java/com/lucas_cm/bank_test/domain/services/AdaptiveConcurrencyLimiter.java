@@ -0,0 +1,98 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de requisições simultâneas ajustado pela latência observada (AIMD). Cada requisição
+ * concluída é uma amostra: se a latência passa de {@code latencyTolerance} vezes a média de
+ * longo prazo, ou a resposta foi 5xx, o limite é multiplicado por {@code backoffRatio}; se não,
+ * e o limite estava sendo usado, cresce em 1. Acima do limite a requisição é rejeitada na hora,
+ * antes de ocupar uma conexão do pool.
+ */
+@Service
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejectedCounter;
+
+    private volatile double limit;
+    // Média móvel exponencial da latência (nanos); 0 até a primeira amostra
+    private double baselineNanos;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = properties.initialLimit();
+        this.rejectedCounter = Counter.builder("bank.concurrency-limit.rejected")
+                .description("Requisições rejeitadas pelo limite adaptativo de concorrência")
+                .register(meterRegistry);
+        Gauge.builder("bank.concurrency-limit.limit", this, AdaptiveConcurrencyLimiter::currentLimit)
+                .description("Limite atual de requisições simultâneas")
+                .register(meterRegistry);
+        Gauge.builder("bank.concurrency-limit.in-flight", inFlight, AtomicInteger::get)
+                .description("Requisições em andamento nos endpoints limitados")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * @return a quantidade em andamento antes desta requisição, ou -1 se o limite foi atingido
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejectedCounter.increment();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) return current;
+        }
+    }
+
+    /**
+     * Libera a vaga e ajusta o limite com a amostra.
+     *
+     * @param inFlightAtStart valor retornado por {@link #tryAcquire()}
+     * @param latencyNanos    duração da requisição
+     * @param dropped         a requisição falhou por sobrecarga (5xx)
+     */
+    public void release(int inFlightAtStart, long latencyNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        onSample(inFlightAtStart, latencyNanos, dropped);
+    }
+
+    private synchronized void onSample(int inFlightAtStart, long latencyNanos, boolean dropped) {
+        if (baselineNanos == 0) baselineNanos = latencyNanos;
+        boolean degraded = dropped || latencyNanos > baselineNanos * properties.latencyTolerance();
+        baselineNanos += (latencyNanos - baselineNanos) / properties.baselineWindow();
+
+        double previous = limit;
+        if (degraded) {
+            limit = Math.max(properties.minLimit(), limit * properties.backoffRatio());
+        } else if (inFlightAtStart + 1 >= limit / 2) {
+            // Só cresce quando o limite está de fato sendo usado
+            limit = Math.min(properties.maxLimit(), limit + 1);
+        }
+        if ((int) previous != (int) limit) {
+            log.debug("Limite de concorrência ajustado de {} para {}", (int) previous, (int) limit);
+        }
+    }
+
+    public int currentLimit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,158 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.NettingProperties;
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Compensação intradiária de saldos. Com o modo habilitado, as transferências PIX confirmadas
+ * não atualizam os saldos na hora: os valores são acumulados por carteira como deltas líquidos
+ * e aplicados a cada janela com um único UPDATE por carteira.
+ * <p>
+ * Os deltas vivem em memória na instância que confirmou a transferência, então o saldo exato só
+ * é garantido nessa instância; nas demais ele converge em até uma janela.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BalanceNettingEngine {
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final NettingProperties properties;
+
+    // Deltas confirmados ainda não aplicados
+    private final Map<String, BigDecimal> pending = new ConcurrentHashMap<>();
+    // Deltas sendo aplicados pelo flush atual
+    private final Map<String, BigDecimal> inFlight = new ConcurrentHashMap<>();
+    // Leitores de saldo não podem observar o intervalo entre o commit do flush e a limpeza do inFlight
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    // Validações de saldo não podem observar um delta no meio da passagem entre pending e inFlight.
+    // Não é o flushLock porque este fica travado durante o UPDATE das carteiras, e quem valida saldo
+    // já tem a linha da carteira travada
+    private final ReentrantReadWriteLock handoffLock = new ReentrantReadWriteLock();
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Acumula o delta da carteira após o commit da transação corrente.
+     */
+    public void accumulate(String walletId, BigDecimal delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.merge(walletId, delta, BigDecimal::add);
+                }
+            });
+        } else {
+            pending.merge(walletId, delta, BigDecimal::add);
+        }
+    }
+
+    /**
+     * Delta disponível para validações de saldo feitas com a carteira travada. Deltas em
+     * aplicação podem já ter sido commitados pelo flush, então só os negativos são considerados:
+     * a validação nunca conta o mesmo crédito duas vezes.
+     */
+    public BigDecimal availableDelta(String walletId) {
+        handoffLock.readLock().lock();
+        try {
+            BigDecimal inFlightDelta = inFlight.getOrDefault(walletId, BigDecimal.ZERO);
+            return pending.getOrDefault(walletId, BigDecimal.ZERO).add(inFlightDelta.min(BigDecimal.ZERO));
+        } finally {
+            handoffLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lê o saldo persistido e soma os deltas em memória de forma consistente com o flush.
+     */
+    public BigDecimal withPendingDelta(String walletId, Supplier<BigDecimal> persistedBalance) {
+        flushLock.readLock().lock();
+        try {
+            return persistedBalance.get()
+                    .add(pending.getOrDefault(walletId, BigDecimal.ZERO))
+                    .add(inFlight.getOrDefault(walletId, BigDecimal.ZERO));
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bank.pix.netting.window:200ms}")
+    public void flush() {
+        if (!isEnabled() || pending.isEmpty()) return;
+
+        flushLock.writeLock().lock();
+        try {
+            handoff(pending, inFlight, new ArrayList<>(pending.keySet()));
+
+            List<String> walletIds = new ArrayList<>(new TreeSet<>(inFlight.keySet()));
+            for (int from = 0; from < walletIds.size(); from += properties.chunkSize()) {
+                List<String> chunk = walletIds.subList(from, Math.min(from + properties.chunkSize(), walletIds.size()));
+                try {
+                    transactionTemplate.execute(status -> apply(chunk));
+                    chunk.forEach(inFlight::remove);
+                } catch (RuntimeException e) {
+                    log.error("Falha ao aplicar deltas de netting, tentando novamente na próxima janela", e);
+                    handoff(inFlight, pending, chunk);
+                }
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Move os deltas das carteiras de um mapa para o outro sem que {@link #availableDelta} veja o
+     * intervalo em que o delta não está em nenhum dos dois.
+     */
+    private void handoff(Map<String, BigDecimal> source, Map<String, BigDecimal> target, List<String> walletIds) {
+        handoffLock.writeLock().lock();
+        try {
+            for (String walletId : walletIds) {
+                BigDecimal delta = source.remove(walletId);
+                if (delta != null) target.merge(walletId, delta, BigDecimal::add);
+            }
+        } finally {
+            handoffLock.writeLock().unlock();
+        }
+    }
+
+    private int apply(List<String> walletIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<WalletEntity> wallets = walletRepository.findAllByIdWithLock(walletIds);
+        for (WalletEntity wallet : wallets) {
+            BigDecimal delta = inFlight.getOrDefault(wallet.getId(), BigDecimal.ZERO);
+            wallet.setCurrentBalance(wallet.getCurrentBalance().add(delta));
+            wallet.setUpdatedAt(now);
+        }
+        walletRepository.saveAll(wallets);
+        log.debug("Deltas de netting aplicados em {} carteiras", wallets.size());
+        return wallets.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.error("Encerrando com deltas de netting não aplicados para {} carteiras", pending.size());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.BalanceSeriesProperties;
+import com.lucas_cm.bank_test.domain.exceptions.InvalidBalanceSeriesException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.repositories.BalanceSeriesRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.BalanceSeriesDto;
+import com.lucas_cm.bank_test.infrastructure.sharding.ShardedBy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Série de saldos para gráficos: todos os pontos saem de uma única consulta, em vez de uma
+ * chamada a {@code GET /wallets/{id}/balance?at=} por ponto.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BalanceSeriesService {
+    private final BalanceSeriesRepository balanceSeriesRepository;
+    private final WalletRepository walletRepository;
+    private final BalanceSeriesProperties properties;
+
+    /**
+     * @param from início da série em ISO-8601 com fuso (ex.: {@code 2025-10-09T00:00:00Z})
+     * @param to   fim da série, incluído quando cai exatamente em um ponto
+     * @param step intervalo entre os pontos, como {@code 1h} ou {@code PT1H}
+     */
+    @ShardedBy("#walletId")
+    public BalanceSeriesDto getSeries(String walletId, String from, String to, String step) {
+        LocalDateTime start;
+        LocalDateTime end;
+        Duration interval;
+        try {
+            start = LocalDateTime.ofInstant(Instant.parse(from), ZoneOffset.UTC);
+            end = LocalDateTime.ofInstant(Instant.parse(to), ZoneOffset.UTC);
+            interval = DurationStyle.detectAndParse(step);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new InvalidBalanceSeriesException(properties.maxPoints());
+        }
+
+        if (end.isBefore(start) || interval.toSeconds() < 1 || interval.getNano() != 0) {
+            throw new InvalidBalanceSeriesException(properties.maxPoints());
+        }
+        long points = Duration.between(start, end).dividedBy(interval) + 1;
+        if (points > properties.maxPoints()) {
+            log.warn("Série de saldos com {} pontos recusada (máximo {})", points, properties.maxPoints());
+            throw new InvalidBalanceSeriesException(properties.maxPoints());
+        }
+
+        if (!walletRepository.existsById(walletId)) throw new WalletNotFoundException();
+        return new BalanceSeriesDto(walletId,
+                balanceSeriesRepository.findSeries(walletId, start, interval, (int) points));
+    }
+}
@@ -0,0 +1,264 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.DuplicatePaymentProperties;
+import com.lucas_cm.bank_test.domain.exceptions.DuplicatePaymentException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Detecta transferências PIX com mesma carteira de origem, chave PIX de destino e valor dentro da
+ * janela, enviadas com {@code Idempotency-Key} diferente.
+ * <p>
+ * Cada transferência vira uma impressão de 64 bits guardada em conjuntos de hash de endereçamento
+ * aberto ({@code long[]}), um por bucket de {@code janela / 8}; a checagem olha os 8 buckets anteriores
+ * e o atual, então a janela efetiva fica entre a configurada e 1/8 a mais. O bucket mais antigo é
+ * zerado e reaproveitado quando o tempo avança. A impressão é registrada na checagem e descontada se a
+ * transação corrente for desfeita, para que uma nova tentativa depois de uma falha não seja marcada;
+ * cada impressão conta as transferências que a registraram e só sai do conjunto quando todas foram
+ * desfeitas.
+ * O detector é local à instância.
+ */
+@Service
+@Slf4j
+public class DuplicatePaymentDetector {
+    private static final int BUCKETS = 8;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final DuplicatePaymentProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+    private final long bucketMillis;
+    private final FingerprintSet[] sets = new FingerprintSet[BUCKETS + 1];
+    // Bucket absoluto (instante / bucketMillis) guardado em cada posição
+    private final long[] setBuckets = new long[BUCKETS + 1];
+
+    @Autowired
+    public DuplicatePaymentDetector(DuplicatePaymentProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    DuplicatePaymentDetector(DuplicatePaymentProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.bucketMillis = Math.max(1, properties.window().toMillis() / BUCKETS);
+        for (int i = 0; i < sets.length; i++) {
+            sets[i] = new FingerprintSet();
+            setBuckets[i] = Long.MIN_VALUE;
+        }
+        Gauge.builder("bank.pix.duplicate-detection.fingerprints", this, DuplicatePaymentDetector::fingerprints)
+                .description("Impressões de transferências PIX na janela do detector de duplicidade")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra a transferência e informa se houve outra idêntica na janela. No modo {@code reject}
+     * lança {@link DuplicatePaymentException} em vez de retornar {@code true}.
+     */
+    public boolean check(String fromWalletId, String toPixKey, BigDecimal amount) {
+        if (!properties.enabled()) return false;
+
+        long fingerprint = fingerprint(fromWalletId, toPixKey, amount);
+        long bucket = clock.getAsLong() / bucketMillis;
+        boolean reject = properties.mode() == DuplicatePaymentProperties.Mode.REJECT;
+        boolean seen;
+        boolean added;
+        synchronized (this) {
+            rotate(bucket);
+            seen = contains(fingerprint, bucket);
+            added = !seen || !reject;
+            if (added) sets[slot(bucket)].add(fingerprint);
+        }
+
+        if (added && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) remove(fingerprint, bucket);
+                }
+            });
+        }
+        if (!seen) return false;
+
+        Counter.builder("bank.pix.duplicate-detection.flagged")
+                .description("Transferências PIX idênticas a outra da janela")
+                .tag("mode", properties.mode().name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        log.warn("Transferência PIX idêntica a outra dos últimos {} ({})", properties.window(), properties.mode());
+        if (reject) throw new DuplicatePaymentException(properties.window());
+        return true;
+    }
+
+    /**
+     * Desconta a impressão registrada por {@link #check}, para quem grava fora de transação ou
+     * desiste da transferência depois da checagem. Procura do bucket atual para trás e desconta a
+     * ocorrência mais recente.
+     */
+    public void discard(String fromWalletId, String toPixKey, BigDecimal amount) {
+        if (!properties.enabled()) return;
+
+        long fingerprint = fingerprint(fromWalletId, toPixKey, amount);
+        long bucket = clock.getAsLong() / bucketMillis;
+        synchronized (this) {
+            for (long b = bucket; b >= bucket - BUCKETS; b--) {
+                int slot = slot(b);
+                if (setBuckets[slot] == b && sets[slot].contains(fingerprint)) {
+                    sets[slot].remove(fingerprint);
+                    return;
+                }
+            }
+        }
+    }
+
+    synchronized long fingerprints() {
+        long bucket = clock.getAsLong() / bucketMillis;
+        long total = 0;
+        for (int i = 0; i < sets.length; i++) {
+            if (setBuckets[i] >= bucket - BUCKETS) total += sets[i].size;
+        }
+        return total;
+    }
+
+    private synchronized void remove(long fingerprint, long bucket) {
+        int slot = slot(bucket);
+        if (setBuckets[slot] == bucket) sets[slot].remove(fingerprint);
+    }
+
+    private void rotate(long bucket) {
+        int slot = slot(bucket);
+        if (setBuckets[slot] != bucket) {
+            sets[slot].clear();
+            setBuckets[slot] = bucket;
+        }
+    }
+
+    private boolean contains(long fingerprint, long bucket) {
+        for (int i = 0; i < sets.length; i++) {
+            if (setBuckets[i] >= bucket - BUCKETS && setBuckets[i] <= bucket && sets[i].contains(fingerprint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) BUCKETS + 1);
+    }
+
+    /**
+     * FNV-1a dos campos separados por {@code \0}, com o valor normalizado ({@code 10.0} e {@code 10.00}
+     * são o mesmo valor), misturado para espalhar os bits baixos usados no endereçamento.
+     */
+    private static long fingerprint(String fromWalletId, String toPixKey, BigDecimal amount) {
+        String key = fromWalletId + '\0' + toPixKey + '\0' + amount.stripTrailingZeros().toPlainString();
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        // 0 marca posição vazia na tabela
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Multiconjunto de {@code long} com sondagem linear, ocupação máxima de 1/2 e remoção por
+     * deslocamento (sem marcadores de remoção). Cada chave guarda quantas vezes foi adicionada e só
+     * sai da tabela quando a contagem chega a zero. Zerar mantém a capacidade, então a memória segue
+     * o pico de transferências por bucket.
+     */
+    private static final class FingerprintSet {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private long[] table = new long[INITIAL_CAPACITY];
+        private int[] counts = new int[INITIAL_CAPACITY];
+        private int size;
+
+        private boolean contains(long key) {
+            int mask = table.length - 1;
+            for (int i = index(key, mask); table[i] != 0; i = (i + 1) & mask) {
+                if (table[i] == key) return true;
+            }
+            return false;
+        }
+
+        private void add(long key) {
+            if ((size + 1) * 2 > table.length) resize(table.length * 2);
+            int mask = table.length - 1;
+            int i = index(key, mask);
+            for (; table[i] != 0; i = (i + 1) & mask) {
+                if (table[i] == key) {
+                    counts[i]++;
+                    return;
+                }
+            }
+            table[i] = key;
+            counts[i] = 1;
+            size++;
+        }
+
+        private void remove(long key) {
+            int mask = table.length - 1;
+            int hole = index(key, mask);
+            while (table[hole] != key) {
+                if (table[hole] == 0) return;
+                hole = (hole + 1) & mask;
+            }
+            if (--counts[hole] > 0) return;
+            // Puxa para o buraco as chaves seguintes cuja posição de origem não fica entre ele e elas
+            for (int j = (hole + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+                int home = index(table[j], mask);
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    table[hole] = table[j];
+                    counts[hole] = counts[j];
+                    hole = j;
+                }
+            }
+            table[hole] = 0;
+            counts[hole] = 0;
+            size--;
+        }
+
+        private void clear() {
+            if (size == 0) return;
+            Arrays.fill(table, 0);
+            Arrays.fill(counts, 0);
+            size = 0;
+        }
+
+        private void resize(int capacity) {
+            long[] previous = table;
+            int[] previousCounts = counts;
+            table = new long[capacity];
+            counts = new int[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < previous.length; j++) {
+                if (previous[j] == 0) continue;
+                int i = index(previous[j], mask);
+                while (table[i] != 0) i = (i + 1) & mask;
+                table[i] = previous[j];
+                counts[i] = previousCounts[j];
+            }
+        }
+
+        private static int index(long key, int mask) {
+            return (int) key & mask;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.ReconciliationProperties;
+import com.lucas_cm.bank_test.domain.models.ReconciliationModeEnum;
+import com.lucas_cm.bank_test.domain.models.ReconciliationStatusEnum;
+import com.lucas_cm.bank_test.domain.models.WalletDrift;
+import com.lucas_cm.bank_test.domain.repositories.LedgerReconciliationRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.ReconciliationReportDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Reconciliação de {@code wallet.current_balance} com a soma das transações CONFIRMED.
+ * <p>
+ * A primeira execução percorre todas as carteiras em faixas de ids (keyset) verificadas em
+ * paralelo por virtual threads, com no máximo {@code parallelism} consultas simultâneas. As
+ * execuções seguintes são incrementais: verificam apenas as carteiras alteradas desde o
+ * high-water mark da última execução concluída, além das que já estavam divergentes.
+ * <p>
+ * Com sharding cada execução percorre os shards em sequência com o mesmo high-water mark.
+ */
+@Service
+@Slf4j
+public class LedgerReconciliationService {
+    private final LedgerReconciliationRepository repository;
+    private final BalanceNettingEngine balanceNettingEngine;
+    private final ReconciliationProperties properties;
+    private final ShardRouter shardRouter;
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Counter walletsCheckedCounter;
+
+    // Divergências conhecidas na última execução concluída, por carteira
+    private volatile Map<String, WalletDrift> knownDrifts = Map.of();
+    private volatile BigDecimal totalAbsoluteDrift = BigDecimal.ZERO;
+    private volatile LocalDateTime highWaterMark;
+    private volatile LocalDateTime lastSuccessAt;
+    private volatile ReconciliationReportDto lastReport;
+
+    public LedgerReconciliationService(LedgerReconciliationRepository repository,
+                                       BalanceNettingEngine balanceNettingEngine,
+                                       ReconciliationProperties properties,
+                                       ShardRouter shardRouter,
+                                       MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.balanceNettingEngine = balanceNettingEngine;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.meterRegistry = meterRegistry;
+
+        this.walletsCheckedCounter = Counter.builder("bank.reconciliation.wallets.checked")
+                .description("Carteiras verificadas pela reconciliação")
+                .register(meterRegistry);
+        Gauge.builder("bank.reconciliation.drift.wallets", this, service -> service.knownDrifts.size())
+                .description("Carteiras com saldo divergente do ledger na última reconciliação")
+                .register(meterRegistry);
+        Gauge.builder("bank.reconciliation.drift.amount", this, service -> service.totalAbsoluteDrift.doubleValue())
+                .description("Soma absoluta das divergências na última reconciliação")
+                .register(meterRegistry);
+        Gauge.builder("bank.reconciliation.last.success", this, service -> service.lastSuccessAt == null
+                        ? 0 : service.lastSuccessAt.atZone(ZoneId.systemDefault()).toEpochSecond())
+                .description("Epoch em segundos da última reconciliação concluída")
+                .register(meterRegistry);
+    }
+
+    public ReconciliationReportDto lastReport() {
+        return lastReport;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.reconciliation.interval:10m}",
+            initialDelayString = "${bank.reconciliation.interval:10m}")
+    public void scheduledRun() {
+        if (!properties.enabled()) return;
+        run(false);
+    }
+
+    /**
+     * Dispara uma reconciliação em segundo plano. Retorna {@code false} se já houver uma em andamento.
+     */
+    public boolean trigger(boolean full) {
+        if (!running.compareAndSet(false, true)) return false;
+        executor.submit(() -> {
+            try {
+                execute(full);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Executa a reconciliação na thread atual. Retorna vazio se já houver uma em andamento.
+     */
+    public Optional<ReconciliationReportDto> run(boolean full) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Reconciliação já em andamento, ignorando execução");
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(execute(full));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReconciliationReportDto execute(boolean full) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime previousHighWaterMark = highWaterMark;
+        ReconciliationModeEnum mode = full || previousHighWaterMark == null
+                ? ReconciliationModeEnum.FULL
+                : ReconciliationModeEnum.INCREMENTAL;
+
+        MDC.put("operation", "reconciliation");
+        MDC.put("mode", mode.name());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ReconciliationStatusEnum status = ReconciliationStatusEnum.FAILED;
+        AtomicLong walletsChecked = new AtomicLong();
+
+        try {
+            log.info("Iniciando reconciliação do ledger");
+            lastReport = report(mode, ReconciliationStatusEnum.RUNNING, startedAt, null, previousHighWaterMark, 0, knownDrifts);
+
+            List<WalletDrift> drifts = new ArrayList<>();
+            shardRouter.forEachShard(() -> drifts.addAll(mode == ReconciliationModeEnum.FULL
+                    ? reconcileAll(walletsChecked)
+                    : reconcileChangedSince(previousHighWaterMark.minus(properties.overlap()), walletsChecked)));
+
+            Map<String, WalletDrift> found = new HashMap<>();
+            drifts.forEach(drift -> found.put(drift.walletId(), drift));
+            knownDrifts = Map.copyOf(found);
+            totalAbsoluteDrift = found.values().stream()
+                    .map(drift -> drift.drift().abs())
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            highWaterMark = startedAt;
+            lastSuccessAt = LocalDateTime.now();
+            status = ReconciliationStatusEnum.COMPLETED;
+
+            if (found.isEmpty()) {
+                log.info("Reconciliação concluída sem divergências: {} carteiras verificadas", walletsChecked.get());
+            } else {
+                log.warn("Reconciliação concluída com {} carteira(s) divergente(s) de {} verificadas",
+                        found.size(), walletsChecked.get());
+            }
+            lastReport = report(mode, status, startedAt, lastSuccessAt, startedAt, walletsChecked.get(), knownDrifts);
+        } catch (RuntimeException e) {
+            log.error("Falha na reconciliação do ledger", e);
+            lastReport = report(mode, status, startedAt, LocalDateTime.now(), previousHighWaterMark,
+                    walletsChecked.get(), knownDrifts);
+        } finally {
+            walletsCheckedCounter.increment(walletsChecked.get());
+            sample.stop(Timer.builder("bank.reconciliation.duration")
+                    .description("Duração das execuções da reconciliação")
+                    .tag("mode", mode.name())
+                    .tag("status", status.name())
+                    .register(meterRegistry));
+            MDC.clear();
+        }
+        return lastReport;
+    }
+
+    private List<WalletDrift> reconcileAll(AtomicLong walletsChecked) {
+        return checkPages(
+                after -> repository.findWalletIdsAfter(after, properties.rangeSize()),
+                (after, page) -> repository.findDriftInRange(after, page.get(page.size() - 1)),
+                walletsChecked);
+    }
+
+    private List<WalletDrift> reconcileChangedSince(LocalDateTime since, AtomicLong walletsChecked) {
+        Set<String> changed = new HashSet<>();
+        List<WalletDrift> drifts = new ArrayList<>(checkPages(
+                after -> repository.findChangedWalletIdsAfter(since, after, properties.rangeSize()),
+                (after, page) -> {
+                    synchronized (changed) {
+                        changed.addAll(page);
+                    }
+                    return repository.findDriftIn(page);
+                },
+                walletsChecked));
+
+        // Divergências anteriores em carteiras não alteradas (deste shard) também são reverificadas
+        int shard = shardRouter.currentShard();
+        List<String> previous = knownDrifts.keySet().stream()
+                .filter(id -> !changed.contains(id) && shardRouter.shardOf(id) == shard)
+                .sorted()
+                .toList();
+        for (int from = 0; from < previous.size(); from += properties.rangeSize()) {
+            List<String> page = previous.subList(from, Math.min(from + properties.rangeSize(), previous.size()));
+            repository.findDriftIn(page).stream().map(this::confirmDrift).flatMap(Optional::stream).forEach(drifts::add);
+            walletsChecked.addAndGet(page.size());
+        }
+        return drifts;
+    }
+
+    /**
+     * Busca as páginas de ids em sequência e verifica cada uma em uma virtual thread. O semáforo
+     * limita as consultas simultâneas e também segura a paginação quando todas as permissões estão em uso.
+     */
+    private List<WalletDrift> checkPages(Function<String, List<String>> nextPage,
+                                         BiFunction<String, List<String>, List<WalletDrift>> check,
+                                         AtomicLong walletsChecked) {
+        Semaphore permits = new Semaphore(properties.parallelism());
+        List<Future<List<WalletDrift>>> futures = new ArrayList<>();
+        String after = "";
+        // As virtual threads não herdam o shard da thread que pagina
+        int shard = shardRouter.currentShard();
+
+        try {
+            while (true) {
+                List<String> page = nextPage.apply(after);
+                if (page.isEmpty()) break;
+
+                String rangeStart = after;
+                permits.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        return shardRouter.onShard(shard, () -> check.apply(rangeStart, page).stream()
+                                .map(this::confirmDrift)
+                                .flatMap(Optional::stream)
+                                .toList());
+                    } finally {
+                        permits.release();
+                    }
+                }));
+                walletsChecked.addAndGet(page.size());
+                after = page.get(page.size() - 1);
+                if (page.size() < properties.rangeSize()) break;
+            }
+
+            List<WalletDrift> drifts = new ArrayList<>();
+            for (Future<List<WalletDrift>> future : futures) {
+                drifts.addAll(future.get());
+            }
+            return drifts;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Reconciliação interrompida", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Falha ao verificar faixa de carteiras", e.getCause());
+        }
+    }
+
+    /**
+     * Com o netting habilitado parte da diferença é esperada: relê a carteira somando os deltas
+     * ainda não aplicados, de forma consistente com o flush, e descarta o que eles explicam.
+     */
+    private Optional<WalletDrift> confirmDrift(WalletDrift candidate) {
+        if (!balanceNettingEngine.isEnabled()) return Optional.of(candidate);
+
+        AtomicReference<WalletDrift> current = new AtomicReference<>(candidate);
+        BigDecimal balance = balanceNettingEngine.withPendingDelta(candidate.walletId(), () -> {
+            repository.findLedgerBalance(candidate.walletId()).ifPresent(current::set);
+            return current.get().currentBalance();
+        });
+        WalletDrift adjusted = new WalletDrift(candidate.walletId(), balance, current.get().ledgerBalance());
+        return adjusted.hasDrift() ? Optional.of(adjusted) : Optional.empty();
+    }
+
+    private ReconciliationReportDto report(ReconciliationModeEnum mode,
+                                           ReconciliationStatusEnum status,
+                                           LocalDateTime startedAt,
+                                           LocalDateTime finishedAt,
+                                           LocalDateTime highWaterMark,
+                                           long walletsChecked,
+                                           Map<String, WalletDrift> drifts) {
+        List<WalletDrift> reported = drifts.values().stream()
+                .sorted(Comparator.comparing((WalletDrift drift) -> drift.drift().abs()).reversed())
+                .limit(properties.maxReportedDrifts())
+                .toList();
+        BigDecimal total = drifts.values().stream()
+                .map(drift -> drift.drift().abs())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new ReconciliationReportDto(mode, status, startedAt, finishedAt, highWaterMark,
+                walletsChecked, drifts.size(), total, reported);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,144 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.OutboxProperties;
+import com.lucas_cm.bank_test.configuration.properties.PixTransferProperties;
+import com.lucas_cm.bank_test.configuration.properties.TransactionRollupProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.exceptions.DuplicatePaymentException;
+import com.lucas_cm.bank_test.domain.exceptions.InsufficientBalanceException;
+import com.lucas_cm.bank_test.domain.exceptions.PixTransferNotFoundException;
+import com.lucas_cm.bank_test.domain.exceptions.VelocityLimitExceededException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.repositories.NativePixTransferRepository;
+import com.lucas_cm.bank_test.domain.repositories.NativePixTransferRepository.TransferResult;
+import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferRequest;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferResponse;
+import com.lucas_cm.bank_test.infrastructure.locking.WalletLocked;
+import com.lucas_cm.bank_test.infrastructure.sharding.ShardedBy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Modo {@code native} da transferência PIX: mesmo contrato de {@link PixService#transfer}, mas
+ * executado em um único comando SQL sem transação do Spring (autocommit).
+ * <p>
+ * Sem transação, a impressão do detector de duplicidade e o uso dos limites de movimentação são
+ * registrados antes do comando e devolvidos explicitamente quando ele não cria a transferência.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class NativePixTransferService {
+    private final NativePixTransferRepository nativePixTransferRepository;
+    private final TransactionRepository transactionRepository;
+    private final BalanceNettingEngine balanceNettingEngine;
+    private final PixTransferProperties properties;
+    private final OutboxProperties outboxProperties;
+    private final TransactionRollupProperties rollupProperties;
+    private final ShardRouter shardRouter;
+    private final VelocityLimiter velocityLimiter;
+    private final DuplicatePaymentDetector duplicatePaymentDetector;
+
+    public boolean isEnabled() {
+        return properties.mode() == PixTransferProperties.Mode.NATIVE;
+    }
+
+    @ShardedBy("#request.fromWalletId()")
+    @WalletLocked({"#request.fromWalletId()", "@walletLockKeys.walletIdOfPixKey(#request.toPixKey())"})
+    public PixTransferResponse transfer(String idempotencyKey, PixTransferRequest request) {
+        MDC.put("idempotencyKey", idempotencyKey);
+        MDC.put("fromWalletId", request.fromWalletId());
+        MDC.put("toPixKey", request.toPixKey());
+        MDC.put("amount", request.amount().toString());
+
+        try {
+            log.info("Iniciando transferência PIX (native)");
+            shardRouter.requireSameShard(request.fromWalletId(), request.toPixKey());
+
+            // Deltas de netting ficam em memória, então entram como parâmetro da validação de saldo
+            BigDecimal availableDelta = balanceNettingEngine.isEnabled()
+                    ? balanceNettingEngine.availableDelta(request.fromWalletId())
+                    : BigDecimal.ZERO;
+
+            boolean suspectedDuplicate;
+            Runnable releaseVelocity;
+            try {
+                // Mesma origem, destino e valor há pouco com outra Idempotency-Key: recusa ou marca as pernas
+                suspectedDuplicate = duplicatePaymentDetector.check(
+                        request.fromWalletId(), request.toPixKey(), request.amount());
+                try {
+                    releaseVelocity = velocityLimiter.acquire(request.fromWalletId(), request.amount());
+                } catch (VelocityLimitExceededException e) {
+                    duplicatePaymentDetector.discard(request.fromWalletId(), request.toPixKey(), request.amount());
+                    throw e;
+                }
+            } catch (DuplicatePaymentException | VelocityLimitExceededException e) {
+                // Uma repetição de transferência já criada não debita de novo, então não é recusada
+                Optional<TransactionStatusEnum> existing = transactionRepository.findByEndToEndId("OUT" + idempotencyKey)
+                        .map(TransactionEntity::getStatus);
+                if (existing.isEmpty()) throw e;
+                log.info("Transferência já processada (idempotência), retornando resultado existente");
+                return new PixTransferResponse(idempotencyKey, existing.get());
+            }
+            Runnable undo = () -> {
+                releaseVelocity.run();
+                duplicatePaymentDetector.discard(request.fromWalletId(), request.toPixKey(), request.amount());
+            };
+
+            TransferResult result;
+            try {
+                result = nativePixTransferRepository.transfer(
+                        idempotencyKey,
+                        request.fromWalletId(),
+                        request.toPixKey(),
+                        request.amount(),
+                        availableDelta,
+                        suspectedDuplicate,
+                        outboxProperties.enabled(),
+                        rollupProperties.enabled());
+            } catch (RuntimeException e) {
+                undo.run();
+                throw e;
+            }
+            if (!result.created()) undo.run();
+
+            if (result.existingStatus() != null) {
+                log.info("Transferência já processada (idempotência), retornando resultado existente");
+                return new PixTransferResponse(idempotencyKey, result.existingStatus());
+            }
+            if (!result.sourceFound()) {
+                log.error("Carteira origem não encontrada");
+                throw new WalletNotFoundException();
+            }
+            if (!result.targetFound()) {
+                log.error("Carteira destino não encontrada para chave PIX");
+                throw new WalletNotFoundException();
+            }
+            if (!result.created()) {
+                BigDecimal availableBalance = result.currentBalance().add(availableDelta);
+                if (availableBalance.compareTo(request.amount()) < 0) {
+                    log.warn("Saldo insuficiente para transferência");
+                    throw new InsufficientBalanceException(availableBalance);
+                }
+                // Outra requisição com a mesma chave foi commitada enquanto esperávamos o lock
+                log.info("Transferência criada concorrentemente (idempotência), retornando resultado existente");
+                TransactionStatusEnum status = transactionRepository.findByEndToEndId("OUT" + idempotencyKey)
+                        .orElseThrow(PixTransferNotFoundException::new)
+                        .getStatus();
+                return new PixTransferResponse(idempotencyKey, status);
+            }
+
+            log.info("Transferência PIX criada com sucesso");
+            return new PixTransferResponse(idempotencyKey, TransactionStatusEnum.PENDING);
+        } finally {
+            MDC.clear();
+        }
+    }
+}
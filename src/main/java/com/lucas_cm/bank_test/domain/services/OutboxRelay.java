@@ -0,0 +1,106 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.OutboxProperties;
+import com.lucas_cm.bank_test.domain.entities.OutboxEventEntity;
+import com.lucas_cm.bank_test.domain.repositories.OutboxEventRepository;
+import com.lucas_cm.bank_test.infrastructure.outbox.OutboxSink;
+import com.lucas_cm.bank_test.infrastructure.sharding.OnEachShard;
+import io.micrometer.core.instrument.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drena o outbox para o {@link OutboxSink} em lotes. Cada lote é travado com
+ * {@code FOR UPDATE SKIP LOCKED}, publicado e removido na mesma transação, então várias
+ * instâncias drenam em paralelo sem publicar o mesmo evento duas vezes (exceto em falha
+ * entre a publicação e o commit, por isso a entrega é at-least-once).
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink outboxSink;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxProperties properties;
+
+    private final Counter publishedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer lagTimer;
+    // Idade, em milissegundos, do evento mais antigo do último lote publicado
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink outboxSink,
+                       TransactionTemplate transactionTemplate,
+                       OutboxProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSink = outboxSink;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+
+        this.publishedCounter = Counter.builder("bank.outbox.relay.published")
+                .description("Eventos publicados pelo relay do outbox")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("bank.outbox.relay.batch.size")
+                .description("Eventos por lote publicado")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("bank.outbox.relay.lag")
+                .description("Tempo entre a gravação do evento no outbox e a sua publicação")
+                .register(meterRegistry);
+        Gauge.builder("bank.outbox.relay.lag.current", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Idade em segundos do evento mais antigo do último lote publicado")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${bank.outbox.linger:500ms}")
+    @OnEachShard
+    public void scheduledRelay() {
+        if (!properties.enabled()) return;
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.error("Falha ao publicar eventos do outbox, tentando novamente na próxima janela", e);
+        }
+    }
+
+    /**
+     * Publica lotes cheios em sequência até o outbox esvaziar e retorna o total publicado.
+     */
+    public int relay() {
+        int total = 0;
+        while (true) {
+            Integer published = transactionTemplate.execute(status -> relayBatch());
+            int count = published == null ? 0 : published;
+            total += count;
+            if (count < properties.batchSize()) return total;
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEventEntity> events = outboxEventRepository.findNextBatchForUpdate(properties.batchSize());
+        if (events.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+
+        outboxSink.publish(events);
+        outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEventEntity::getId).toList());
+
+        LocalDateTime now = LocalDateTime.now();
+        events.forEach(event -> lagTimer.record(Duration.between(event.getCreatedAt(), now)));
+        lagMillis.set(Duration.between(events.get(0).getCreatedAt(), now).toMillis());
+        publishedCounter.increment(events.size());
+        batchSizeSummary.record(events.size());
+        log.debug("{} evento(s) do outbox publicados", events.size());
+        return events.size();
+    }
+}
@@ -0,0 +1,121 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lucas_cm.bank_test.configuration.properties.OutboxProperties;
+import com.lucas_cm.bank_test.domain.entities.OutboxEventEntity;
+import com.lucas_cm.bank_test.domain.entities.OutboxEventTypeEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.repositories.OutboxEventRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.LedgerEventDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Grava eventos do ledger no outbox dentro da transação de quem chama, então o evento
+ * existe se e somente se a alteração no ledger foi commitada.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties properties;
+
+    public void appendTransaction(OutboxEventTypeEnum eventType, TransactionEntity transaction) {
+        if (!properties.enabled()) return;
+        outboxEventRepository.save(toEntity(eventType, transaction.getEndToEndId(), fromTransaction(transaction)));
+    }
+
+    public void appendTransactions(OutboxEventTypeEnum eventType, List<TransactionEntity> transactions) {
+        if (!properties.enabled() || transactions.isEmpty()) return;
+        outboxEventRepository.saveAll(transactions.stream()
+                .map(transaction -> toEntity(eventType, transaction.getEndToEndId(), fromTransaction(transaction)))
+                .toList());
+    }
+
+    /**
+     * Um evento por transferência, a partir das pernas OUT e IN.
+     */
+    public void appendPixTransfer(OutboxEventTypeEnum eventType, String endToEndId,
+                                  TransactionEntity debit, TransactionEntity credit) {
+        if (!properties.enabled()) return;
+        outboxEventRepository.save(toEntity(eventType, endToEndId, fromPixTransfer(endToEndId, debit, credit)));
+    }
+
+    /**
+     * Transferência entre shards: só a perna OUT está neste banco, a carteira de destino vem da saga.
+     */
+    public void appendCrossShardPixTransfer(OutboxEventTypeEnum eventType, String endToEndId,
+                                            TransactionEntity debit, String toWalletId) {
+        if (!properties.enabled()) return;
+        outboxEventRepository.save(toEntity(eventType, endToEndId, new LedgerEventDto(
+                endToEndId,
+                debit.getWalletId(),
+                toWalletId,
+                TransactionTypeEnum.PIX_TRANSFER_OUT,
+                debit.getAmount().negate(),
+                debit.getStatus(),
+                debit.getUpdatedAt()
+        )));
+    }
+
+    public void appendPixTransfers(OutboxEventTypeEnum eventType, List<TransactionEntity> legs) {
+        if (!properties.enabled() || legs.isEmpty()) return;
+        outboxEventRepository.saveAll(pairs(legs).stream()
+                .map(pair -> {
+                    String endToEndId = pair[0].getEndToEndId().substring("OUT".length());
+                    return toEntity(eventType, endToEndId, fromPixTransfer(endToEndId, pair[0], pair[1]));
+                })
+                .toList());
+    }
+
+    // As pernas chegam intercaladas: OUT seguida da IN correspondente
+    private List<TransactionEntity[]> pairs(List<TransactionEntity> legs) {
+        return IntStream.range(0, legs.size() / 2)
+                .mapToObj(i -> new TransactionEntity[]{legs.get(2 * i), legs.get(2 * i + 1)})
+                .toList();
+    }
+
+    private LedgerEventDto fromTransaction(TransactionEntity transaction) {
+        return new LedgerEventDto(
+                transaction.getEndToEndId(),
+                transaction.getWalletId(),
+                null,
+                transaction.getType(),
+                transaction.getAmount(),
+                transaction.getStatus(),
+                transaction.getUpdatedAt()
+        );
+    }
+
+    private LedgerEventDto fromPixTransfer(String endToEndId, TransactionEntity debit, TransactionEntity credit) {
+        return new LedgerEventDto(
+                endToEndId,
+                debit.getWalletId(),
+                credit.getWalletId(),
+                TransactionTypeEnum.PIX_TRANSFER_OUT,
+                credit.getAmount(),
+                debit.getStatus(),
+                debit.getUpdatedAt()
+        );
+    }
+
+    private OutboxEventEntity toEntity(OutboxEventTypeEnum eventType, String aggregateId, LedgerEventDto event) {
+        try {
+            return OutboxEventEntity.builder()
+                    .eventType(eventType)
+                    .aggregateId(aggregateId)
+                    .payload(objectMapper.writeValueAsString(event))
+                    .createdAt(LocalDateTime.now())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar evento do outbox", e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.OutboxProperties;
+import com.lucas_cm.bank_test.configuration.properties.PendingTransferSweeperProperties;
+import com.lucas_cm.bank_test.configuration.properties.TransactionRollupProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.models.PixTransferStatusChangedEvent;
+import com.lucas_cm.bank_test.domain.repositories.PendingTransferRepository;
+import com.lucas_cm.bank_test.domain.repositories.PendingTransferRepository.ExpiredTransfer;
+import com.lucas_cm.bank_test.infrastructure.sharding.OnEachShard;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Expira transferências PIX que continuam PENDING além do timeout configurado. As duas pernas
+ * passam para REJECTED, o que não afeta saldos (só CONFIRMED altera saldo) e faz um webhook
+ * tardio ser ignorado pela máquina de estados. Cada lote roda em uma transação que publica a
+ * mudança de status de cada transferência expirada, entregue aos streams depois do commit.
+ */
+@Service
+@Slf4j
+public class PendingTransferSweeper {
+    private final PendingTransferRepository pendingTransferRepository;
+    private final PendingTransferSweeperProperties properties;
+    private final OutboxProperties outboxProperties;
+    private final TransactionRollupProperties rollupProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter expiredCounter;
+
+    public PendingTransferSweeper(PendingTransferRepository pendingTransferRepository,
+                                  PendingTransferSweeperProperties properties,
+                                  OutboxProperties outboxProperties,
+                                  TransactionRollupProperties rollupProperties,
+                                  TransactionTemplate transactionTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry) {
+        this.pendingTransferRepository = pendingTransferRepository;
+        this.properties = properties;
+        this.outboxProperties = outboxProperties;
+        this.rollupProperties = rollupProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.expiredCounter = Counter.builder("bank.pix.sweeper.expired")
+                .description("Transferências PIX expiradas por falta de webhook")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${bank.pix.sweeper.interval:1m}")
+    @OnEachShard
+    public void scheduledSweep() {
+        if (!properties.enabled()) return;
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            log.error("Falha ao expirar transferências PIX pendentes", e);
+        }
+    }
+
+    /**
+     * Expira lotes até não restarem transferências vencidas desbloqueadas ou até o limite de lotes.
+     */
+    public int sweep() {
+        MDC.put("operation", "pix-sweeper");
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(properties.timeout());
+            int total = 0;
+            for (int batch = 0; batch < properties.maxBatchesPerRun(); batch++) {
+                int expired = transactionTemplate.execute(status -> expireBatch(cutoff));
+                total += expired;
+                expiredCounter.increment(expired);
+                if (expired < properties.batchSize()) break;
+            }
+
+            if (total > 0) log.info("{} transferência(s) PIX pendente(s) expirada(s)", total);
+            return total;
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private int expireBatch(LocalDateTime cutoff) {
+        List<ExpiredTransfer> expired = pendingTransferRepository.expirePendingBefore(
+                cutoff, LocalDateTime.now(), properties.batchSize(),
+                outboxProperties.enabled(), rollupProperties.enabled());
+        for (ExpiredTransfer transfer : expired) {
+            eventPublisher.publishEvent(new PixTransferStatusChangedEvent(
+                    transfer.endToEndId(), transfer.fromWalletId(), transfer.toWalletId(), TransactionStatusEnum.REJECTED));
+        }
+        return expired.size();
+    }
+}
@@ -0,0 +1,258 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.exception.BusinessException;
+import com.lucas_cm.bank_test.configuration.properties.PixBatchPayoutProperties;
+import com.lucas_cm.bank_test.domain.entities.OutboxEventTypeEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.exceptions.DuplicatePaymentException;
+import com.lucas_cm.bank_test.domain.exceptions.InvalidPixPayoutBatchException;
+import com.lucas_cm.bank_test.domain.exceptions.VelocityLimitExceededException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.repositories.TransactionBatchRepository;
+import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixBatchPayoutRequest;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixBatchPayoutResponse;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixPayoutItemDto;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixPayoutResultDto;
+import com.lucas_cm.bank_test.infrastructure.sharding.ShardedBy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pagamentos PIX em lote a partir de uma única carteira de origem. Cada chunk trava a
+ * carteira de origem uma única vez, resolve todas as chaves de destino em uma consulta e
+ * insere as pernas OUT/IN em lote. As carteiras de destino não são travadas: a transferência
+ * só cria transações PENDING e os saldos são alterados apenas pelo webhook.
+ * <p>
+ * Com sharding o lote roda no shard da origem e chaves de carteiras de outros shards são
+ * rejeitadas como {@code WALLET_NOT_FOUND}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PixBatchPayoutService {
+    static final String INVALID_IDEMPOTENCY_KEY = "INVALID_IDEMPOTENCY_KEY";
+    static final String DUPLICATE_IDEMPOTENCY_KEY = "DUPLICATE_IDEMPOTENCY_KEY";
+    static final String INVALID_AMOUNT = "INVALID_AMOUNT";
+    static final String WALLET_NOT_FOUND = "WALLET_NOT_FOUND";
+    static final String INSUFFICIENT_BALANCE = "INSUFFICIENT_BALANCE";
+    static final String VELOCITY_LIMIT_EXCEEDED = "VELOCITY_LIMIT_EXCEEDED";
+    static final String DUPLICATE_PIX_TRANSFER = "DUPLICATE_PIX_TRANSFER";
+    static final String INTERNAL_ERROR = "INTERNAL_ERROR";
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceNettingEngine balanceNettingEngine;
+    private final OutboxService outboxService;
+    private final TransactionRollupService transactionRollupService;
+    private final VelocityLimiter velocityLimiter;
+    private final DuplicatePaymentDetector duplicatePaymentDetector;
+    private final PixBatchPayoutProperties properties;
+
+    @ShardedBy("#request.fromWalletId()")
+    public PixBatchPayoutResponse payout(PixBatchPayoutRequest request) {
+        List<PixPayoutItemDto> payouts = request.payouts();
+        if (payouts == null || payouts.isEmpty() || payouts.size() > properties.maxItems()) {
+            throw new InvalidPixPayoutBatchException(properties.maxItems());
+        }
+
+        MDC.put("fromWalletId", request.fromWalletId());
+        MDC.put("operation", "pix-batch-payout");
+
+        try {
+            log.info("Iniciando lote de pagamentos PIX com {} itens", payouts.size());
+
+            PixPayoutResultDto[] results = new PixPayoutResultDto[payouts.size()];
+            List<Integer> candidates = rejectInvalidItems(payouts, results);
+
+            BigDecimal reserved = BigDecimal.ZERO;
+            for (int from = 0; from < candidates.size(); from += properties.chunkSize()) {
+                List<Integer> chunk = candidates.subList(from, Math.min(from + properties.chunkSize(), candidates.size()));
+                BigDecimal alreadyReserved = reserved;
+                try {
+                    BigDecimal chunkTotal = transactionTemplate.execute(
+                            status -> processChunk(request.fromWalletId(), payouts, chunk, alreadyReserved, results));
+                    reserved = reserved.add(chunkTotal);
+                } catch (BusinessException e) {
+                    throw e;
+                } catch (RuntimeException e) {
+                    // Os chunks anteriores já foram commitados: o lote segue e o chunk é rejeitado
+                    log.error("Falha ao processar chunk de pagamentos PIX", e);
+                    chunk.forEach(i -> results[i] = rejected(payouts.get(i), INTERNAL_ERROR));
+                }
+            }
+
+            int accepted = (int) Arrays.stream(results).filter(result -> result.errorCode() == null).count();
+            log.info("Lote de pagamentos PIX processado: {} aceitos, {} rejeitados",
+                    accepted, results.length - accepted);
+            return new PixBatchPayoutResponse(
+                    request.fromWalletId(),
+                    results.length,
+                    accepted,
+                    results.length - accepted,
+                    List.of(results)
+            );
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private List<Integer> rejectInvalidItems(List<PixPayoutItemDto> payouts, PixPayoutResultDto[] results) {
+        Set<String> seenKeys = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < payouts.size(); i++) {
+            PixPayoutItemDto payout = payouts.get(i);
+            if (payout.idempotencyKey() == null || payout.idempotencyKey().isBlank()) {
+                results[i] = rejected(payout, INVALID_IDEMPOTENCY_KEY);
+            } else if (!seenKeys.add(payout.idempotencyKey())) {
+                results[i] = rejected(payout, DUPLICATE_IDEMPOTENCY_KEY);
+            } else if (payout.amount() == null || payout.amount().signum() <= 0) {
+                results[i] = rejected(payout, INVALID_AMOUNT);
+            } else {
+                candidates.add(i);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Processa um chunk dentro de uma transação e retorna o total dos novos pagamentos aceitos.
+     */
+    private BigDecimal processChunk(String fromWalletId,
+                                    List<PixPayoutItemDto> payouts,
+                                    List<Integer> chunk,
+                                    BigDecimal alreadyReserved,
+                                    PixPayoutResultDto[] results) {
+        WalletEntity fromWallet = walletRepository.findByIdWithLock(fromWalletId)
+                .orElseThrow(() -> {
+                    log.error("Carteira origem não encontrada");
+                    return new WalletNotFoundException();
+                });
+
+        // Idempotência por pagamento: uma única consulta para todas as chaves do chunk
+        Map<String, TransactionEntity> existing = transactionRepository.findByEndToEndIdIn(
+                        chunk.stream().map(i -> "OUT" + payouts.get(i).idempotencyKey()).toList())
+                .stream()
+                .collect(Collectors.toMap(TransactionEntity::getEndToEndId, Function.identity()));
+
+        List<Integer> newPayouts = new ArrayList<>();
+        for (int i : chunk) {
+            PixPayoutItemDto payout = payouts.get(i);
+            TransactionEntity previous = existing.get("OUT" + payout.idempotencyKey());
+            if (previous != null) {
+                results[i] = new PixPayoutResultDto(
+                        payout.idempotencyKey(), payout.idempotencyKey(), previous.getStatus(), null);
+            } else {
+                newPayouts.add(i);
+            }
+        }
+        if (newPayouts.isEmpty()) return BigDecimal.ZERO;
+
+        // Resolve todas as chaves de destino em uma consulta
+        Map<String, WalletEntity> destinations = walletRepository.findAllByPixKeyIn(
+                        newPayouts.stream().map(i -> payouts.get(i).toPixKey()).filter(Objects::nonNull).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(WalletEntity::getPixKey, Function.identity()));
+
+        List<Integer> resolved = new ArrayList<>();
+        BigDecimal chunkTotal = BigDecimal.ZERO;
+        for (int i : newPayouts) {
+            PixPayoutItemDto payout = payouts.get(i);
+            if (!destinations.containsKey(payout.toPixKey())) {
+                results[i] = rejected(payout, WALLET_NOT_FOUND);
+            } else {
+                resolved.add(i);
+                chunkTotal = chunkTotal.add(payout.amount());
+            }
+        }
+
+        // Valida o total agregado (lote inteiro até aqui) contra o saldo uma única vez
+        BigDecimal availableBalance = balanceNettingEngine.isEnabled()
+                ? fromWallet.getCurrentBalance().add(balanceNettingEngine.availableDelta(fromWallet.getId()))
+                : fromWallet.getCurrentBalance();
+        if (availableBalance.compareTo(alreadyReserved.add(chunkTotal)) < 0) {
+            log.warn("Saldo insuficiente para o chunk de pagamentos. Saldo atual: {}", availableBalance);
+            resolved.forEach(i -> results[i] = rejected(payouts.get(i), INSUFFICIENT_BALANCE));
+            return BigDecimal.ZERO;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionEntity> legs = new ArrayList<>(resolved.size() * 2);
+        for (int i : resolved) {
+            PixPayoutItemDto payout = payouts.get(i);
+            WalletEntity toWallet = destinations.get(payout.toPixKey());
+
+            // Cada pagamento passa pelo detector de duplicidade e conta nos limites da origem; impressão e
+            // uso são devolvidos se o chunk for desfeito
+            boolean suspectedDuplicate;
+            try {
+                suspectedDuplicate = duplicatePaymentDetector.check(fromWallet.getId(), payout.toPixKey(), payout.amount());
+            } catch (DuplicatePaymentException e) {
+                results[i] = rejected(payout, DUPLICATE_PIX_TRANSFER);
+                chunkTotal = chunkTotal.subtract(payout.amount());
+                continue;
+            }
+            try {
+                velocityLimiter.acquire(fromWallet.getId(), payout.amount());
+            } catch (VelocityLimitExceededException e) {
+                duplicatePaymentDetector.discard(fromWallet.getId(), payout.toPixKey(), payout.amount());
+                results[i] = rejected(payout, VELOCITY_LIMIT_EXCEEDED);
+                chunkTotal = chunkTotal.subtract(payout.amount());
+                continue;
+            }
+
+            legs.add(TransactionEntity.builder()
+                    .walletId(fromWallet.getId())
+                    .endToEndId("OUT" + payout.idempotencyKey())
+                    .amount(payout.amount().negate())
+                    .type(TransactionTypeEnum.PIX_TRANSFER_OUT)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .pixKey(toWallet.getPixKey())
+                    .status(TransactionStatusEnum.PENDING)
+                    .suspectedDuplicate(suspectedDuplicate)
+                    .build());
+
+            legs.add(TransactionEntity.builder()
+                    .walletId(toWallet.getId())
+                    .endToEndId("IN" + payout.idempotencyKey())
+                    .amount(payout.amount())
+                    .type(TransactionTypeEnum.PIX_TRANSFER_IN)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .pixKey(toWallet.getPixKey())
+                    .status(TransactionStatusEnum.PENDING)
+                    .suspectedDuplicate(suspectedDuplicate)
+                    .build());
+
+            results[i] = new PixPayoutResultDto(
+                    payout.idempotencyKey(), payout.idempotencyKey(), TransactionStatusEnum.PENDING, null);
+        }
+
+        if (legs.isEmpty()) return BigDecimal.ZERO;
+
+        transactionBatchRepository.insertAll(legs, legs.size());
+        transactionRollupService.recordCreated(legs);
+        outboxService.appendPixTransfers(OutboxEventTypeEnum.PIX_TRANSFER_CREATED, legs);
+        return chunkTotal;
+    }
+
+    private PixPayoutResultDto rejected(PixPayoutItemDto payout, String errorCode) {
+        return new PixPayoutResultDto(payout.idempotencyKey(), null, null, errorCode);
+    }
+}
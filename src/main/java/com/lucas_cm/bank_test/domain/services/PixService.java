@@ -4,15 +4,21 @@ import com.lucas_cm.bank_test.domain.entities.*;
 import com.lucas_cm.bank_test.domain.exceptions.InsufficientBalanceException;
 import com.lucas_cm.bank_test.domain.exceptions.PixTransferNotFoundException;
 import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.models.PixTransferStatusChangedEvent;
+import com.lucas_cm.bank_test.domain.models.TransactionsConfirmedEvent;
 import com.lucas_cm.bank_test.domain.repositories.EventPixRepository;
 import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
 import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
 import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferRequest;
 import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferResponse;
+import com.lucas_cm.bank_test.infrastructure.cache.CacheInvalidationBus;
 import com.lucas_cm.bank_test.infrastructure.dtos.PixWebhookRequest;
+import com.lucas_cm.bank_test.infrastructure.locking.WalletLocked;
+import com.lucas_cm.bank_test.infrastructure.sharding.ShardedBy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +26,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -29,7 +36,18 @@ public class PixService {
     private final EventPixRepository eventPixRepository;
     private final TransactionRepository transactionRepository;
     private final WalletRepository walletRepository;
-
+    private final BalanceNettingEngine balanceNettingEngine;
+    private final OutboxService outboxService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ShardRouter shardRouter;
+    private final PixTransferSaga pixTransferSaga;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionRollupService transactionRollupService;
+    private final VelocityLimiter velocityLimiter;
+    private final DuplicatePaymentDetector duplicatePaymentDetector;
+
+    @ShardedBy("#request.fromWalletId()")
+    @WalletLocked({"#request.fromWalletId()", "@walletLockKeys.walletIdOfPixKey(#request.toPixKey())"})
     @Transactional
     public PixTransferResponse transfer(String idempotencyKey, PixTransferRequest request) {
         // Adicionar contexto de log estruturado
@@ -54,6 +72,9 @@ public class PixService {
                 );
             }
 
+            // Com sharding as duas pernas precisam estar no mesmo banco; entre shards o caminho é a saga
+            shardRouter.requireSameShard(request.fromWalletId(), request.toPixKey());
+
             // Buscar carteiras com lock pessimista para prevenir race conditions
             WalletEntity fromWallet = walletRepository.findByIdWithLock(request.fromWalletId())
                     .orElseThrow(() -> {
@@ -68,11 +89,19 @@ public class PixService {
                     });
 
             // Validar saldo (com lock já aplicado)
-            if (fromWallet.getCurrentBalance().compareTo(request.amount()) < 0) {
+            BigDecimal availableBalance = availableBalance(fromWallet);
+            if (availableBalance.compareTo(request.amount()) < 0) {
                 log.warn("Saldo insuficiente para transferência");
-                throw new InsufficientBalanceException(fromWallet.getCurrentBalance());
+                throw new InsufficientBalanceException(availableBalance);
             }
 
+            // Mesma origem, destino e valor há pouco com outra Idempotency-Key: recusa ou marca as pernas
+            boolean suspectedDuplicate = duplicatePaymentDetector.check(
+                    request.fromWalletId(), request.toPixKey(), request.amount());
+
+            // Registra a transferência nos limites de movimentação; devolvida se a transação for desfeita
+            velocityLimiter.acquire(fromWallet.getId(), request.amount());
+
             LocalDateTime now = LocalDateTime.now();
 
             // Criar transação de débito (saída)
@@ -85,6 +114,7 @@ public class PixService {
                     .updatedAt(now)
                     .pixKey(toWallet.getPixKey())
                     .status(TransactionStatusEnum.PENDING)
+                    .suspectedDuplicate(suspectedDuplicate)
                     .build();
 
             transactionRepository.save(debit);
@@ -99,9 +129,12 @@ public class PixService {
                     .updatedAt(now)
                     .pixKey(toWallet.getPixKey())
                     .status(TransactionStatusEnum.PENDING)
+                    .suspectedDuplicate(suspectedDuplicate)
                     .build();
 
             transactionRepository.save(credit);
+            transactionRollupService.recordCreated(List.of(debit, credit));
+            outboxService.appendPixTransfer(OutboxEventTypeEnum.PIX_TRANSFER_CREATED, idempotencyKey, debit, credit);
 
             log.info("Transferência PIX criada com sucesso");
             MDC.put("endToEndId", idempotencyKey);
@@ -112,6 +145,8 @@ public class PixService {
         }
     }
 
+    @ShardedBy(value = "#request.endToEndId()", key = ShardedBy.Key.END_TO_END_ID)
+    @WalletLocked("@walletLockKeys.walletIdsOfTransfer(#request.endToEndId())")
     @Transactional
     public void processWebhook(PixWebhookRequest request) {
         // Adicionar contexto de log estruturado
@@ -135,14 +170,18 @@ public class PixService {
 
             TransactionStatusEnum newStatus = TransactionStatusEnum.valueOf(request.eventType());
 
-            // Buscar transações associadas
+            // Buscar transações associadas. O débito é travado para serializar com outros
+            // webhooks e com o sweeper de transferências expiradas
             TransactionEntity debit = transactionRepository
-                    .findByEndToEndId("OUT" + request.endToEndId())
+                    .findByEndToEndIdWithLock("OUT" + request.endToEndId())
                     .orElseThrow(() -> {
                         log.error("Transação de débito não encontrada");
                         return new PixTransferNotFoundException();
                     });
 
+            // Transferência entre shards: a perna IN está no shard de destino e é atualizada pela saga
+            if (pixTransferSaga.processWebhook(request, debit, newStatus, occurredAt)) return;
+
             TransactionEntity credit = transactionRepository
                     .findByEndToEndId("IN" + request.endToEndId())
                     .orElseThrow(() -> {
@@ -199,7 +238,11 @@ public class PixService {
             credit.setUpdatedAt(LocalDateTime.now());
 
             // Atualizar saldos apenas quando CONFIRMED
-            if (newStatus == TransactionStatusEnum.CONFIRMED) {
+            if (newStatus == TransactionStatusEnum.CONFIRMED && balanceNettingEngine.isEnabled()) {
+                balanceNettingEngine.accumulate(debit.getWalletId(), debit.getAmount());
+                balanceNettingEngine.accumulate(credit.getWalletId(), credit.getAmount());
+                log.info("Transferência PIX confirmada, saldos acumulados para netting");
+            } else if (newStatus == TransactionStatusEnum.CONFIRMED) {
                 updateBalance(debit.getAmount(), debit.getWalletId());
                 updateBalance(credit.getAmount(), credit.getWalletId());
                 log.info("Transferência PIX confirmada e saldos atualizados");
@@ -210,12 +253,38 @@ public class PixService {
             transactionRepository.save(debit);
             transactionRepository.save(credit);
             eventPixRepository.save(event);
+            if (newStatus != TransactionStatusEnum.PENDING) {
+                transactionRollupService.recordStatusChanges(List.of(debit, credit), TransactionStatusEnum.PENDING);
+                if (newStatus == TransactionStatusEnum.CONFIRMED) {
+                    eventPublisher.publishEvent(new TransactionsConfirmedEvent(List.of(debit, credit)));
+                }
+                outboxService.appendPixTransfer(
+                        OutboxEventTypeEnum.PIX_TRANSFER_STATUS_CHANGED, request.endToEndId(), debit, credit);
+                // Entregue aos streams de status só depois do commit
+                eventPublisher.publishEvent(new PixTransferStatusChangedEvent(
+                        request.endToEndId(), debit.getWalletId(), credit.getWalletId(), newStatus));
+            }
         } finally {
             // Limpar contexto MDC
             MDC.clear();
         }
     }
 
+    /**
+     * Status atual da transferência, a partir da perna de débito.
+     */
+    @ShardedBy(value = "#endToEndId", key = ShardedBy.Key.END_TO_END_ID)
+    public PixTransferResponse findTransferStatus(String endToEndId) {
+        return transactionRepository.findByEndToEndId("OUT" + endToEndId)
+                .map(debit -> new PixTransferResponse(endToEndId, debit.getStatus()))
+                .orElseThrow(PixTransferNotFoundException::new);
+    }
+
+    private BigDecimal availableBalance(WalletEntity wallet) {
+        if (!balanceNettingEngine.isEnabled()) return wallet.getCurrentBalance();
+        return wallet.getCurrentBalance().add(balanceNettingEngine.availableDelta(wallet.getId()));
+    }
+
     private void updateBalance(BigDecimal amount, String walletId) {
         // Usar lock pessimista para atualizar saldo
         WalletEntity wallet = walletRepository.findByIdWithLock(walletId)
@@ -225,6 +294,7 @@ public class PixService {
                 });
         wallet.setCurrentBalance(wallet.getCurrentBalance().add(amount));
         walletRepository.save(wallet);
+        cacheInvalidationBus.publishWallet(walletId);
         log.debug("Saldo atualizado: walletId={}, amount={}, newBalance={}",
                 walletId, amount, wallet.getCurrentBalance());
     }
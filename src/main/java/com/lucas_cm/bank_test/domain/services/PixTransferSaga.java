@@ -0,0 +1,527 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.PixTransferSagaProperties;
+import com.lucas_cm.bank_test.domain.entities.*;
+import com.lucas_cm.bank_test.domain.exceptions.InsufficientBalanceException;
+import com.lucas_cm.bank_test.domain.exceptions.PixTransferNotFoundException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.models.PixTransferStatusChangedEvent;
+import com.lucas_cm.bank_test.domain.models.TransactionsConfirmedEvent;
+import com.lucas_cm.bank_test.domain.models.TransferSaga;
+import com.lucas_cm.bank_test.domain.repositories.EventPixRepository;
+import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
+import com.lucas_cm.bank_test.domain.repositories.TransferSagaRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.cache.CacheInvalidationBus;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferRequest;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferResponse;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixWebhookRequest;
+import com.lucas_cm.bank_test.infrastructure.sharding.OnEachShard;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Transferências PIX entre carteiras de shards diferentes, que não cabem em uma transação. A saga
+ * avança em transações locais, cada uma em um único shard:
+ * <ol>
+ *     <li>origem: trava a carteira, valida o saldo e grava a perna OUT PENDING junto com a saga (STARTED);</li>
+ *     <li>destino: grava a perna IN PENDING (PREPARED);</li>
+ *     <li>origem: o webhook atualiza a perna OUT e, se confirmado, debita a origem (CONFIRMING/REJECTING);</li>
+ *     <li>destino: atualiza a perna IN e, se confirmado, credita o destino (CONFIRMED/REJECTED).</li>
+ * </ol>
+ * Se o destino não puder ser aplicado (carteira fora do shard), a origem é compensada: a perna OUT
+ * vira REJECTED e o débito, se houve, é estornado (COMPENSATED). Cada passo é idempotente e o log
+ * fica no shard de origem, então uma saga interrompida por queda da instância ou do shard de destino
+ * é retomada pela recuperação periódica, que também roda logo após o startup.
+ */
+@Service
+@Slf4j
+public class PixTransferSaga {
+    private final TransferSagaRepository transferSagaRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletRepository walletRepository;
+    private final EventPixRepository eventPixRepository;
+    private final OutboxService outboxService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final PixTransferSagaProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionRollupService transactionRollupService;
+    private final VelocityLimiter velocityLimiter;
+    private final DuplicatePaymentDetector duplicatePaymentDetector;
+
+    private final Counter startedCounter;
+    private final Counter completedCounter;
+    private final Counter compensatedCounter;
+    private final Counter recoveredCounter;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PixTransferSaga(TransferSagaRepository transferSagaRepository,
+                           TransactionRepository transactionRepository,
+                           WalletRepository walletRepository,
+                           EventPixRepository eventPixRepository,
+                           OutboxService outboxService,
+                           CacheInvalidationBus cacheInvalidationBus,
+                           ShardRouter shardRouter,
+                           TransactionTemplate transactionTemplate,
+                           PixTransferSagaProperties properties,
+                           ApplicationEventPublisher eventPublisher,
+                           TransactionRollupService transactionRollupService,
+                           VelocityLimiter velocityLimiter,
+                           DuplicatePaymentDetector duplicatePaymentDetector,
+                           MeterRegistry meterRegistry) {
+        this.transferSagaRepository = transferSagaRepository;
+        this.transactionRepository = transactionRepository;
+        this.walletRepository = walletRepository;
+        this.eventPixRepository = eventPixRepository;
+        this.outboxService = outboxService;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.transactionRollupService = transactionRollupService;
+        this.velocityLimiter = velocityLimiter;
+        this.duplicatePaymentDetector = duplicatePaymentDetector;
+
+        this.startedCounter = Counter.builder("bank.pix.saga.started")
+                .description("Transferências PIX entre shards iniciadas")
+                .register(meterRegistry);
+        this.completedCounter = Counter.builder("bank.pix.saga.completed")
+                .description("Sagas concluídas com as duas pernas no estado final")
+                .register(meterRegistry);
+        this.compensatedCounter = Counter.builder("bank.pix.saga.compensated")
+                .description("Sagas desfeitas na origem porque o destino não pôde ser aplicado")
+                .register(meterRegistry);
+        this.recoveredCounter = Counter.builder("bank.pix.saga.recovered")
+                .description("Sagas paradas retomadas pela recuperação")
+                .register(meterRegistry);
+    }
+
+    public boolean isCrossShard(PixTransferRequest request) {
+        return shardRouter.isCrossShard(request.fromWalletId(), request.toPixKey());
+    }
+
+    /**
+     * Mesmo contrato de {@link PixService#transfer}. Se a carteira de destino não existir no shard
+     * dela, a perna OUT já gravada é rejeitada e a chamada lança {@link WalletNotFoundException}.
+     */
+    public PixTransferResponse transfer(String idempotencyKey, PixTransferRequest request) {
+        MDC.put("idempotencyKey", idempotencyKey);
+        MDC.put("fromWalletId", request.fromWalletId());
+        MDC.put("toPixKey", request.toPixKey());
+        MDC.put("amount", request.amount().toString());
+
+        try {
+            log.info("Iniciando transferência PIX entre shards");
+            int sourceShard = shardRouter.shardOf(request.fromWalletId());
+
+            TransactionStatusEnum existingStatus = shardRouter.onShard(sourceShard, () -> transactionTemplate.execute(
+                    status -> start(idempotencyKey, request)));
+            if (existingStatus != null) {
+                log.info("Transferência já processada (idempotência), retornando resultado existente");
+                return new PixTransferResponse(idempotencyKey, existingStatus);
+            }
+            startedCounter.increment();
+
+            // O destino é preparado na própria requisição; se falhar, a recuperação tenta de novo
+            if (advanceQuietly(sourceShard, idempotencyKey) == TransferSagaStateEnum.COMPENSATED) {
+                log.error("Carteira destino não encontrada para chave PIX");
+                throw new WalletNotFoundException();
+            }
+
+            log.info("Transferência PIX entre shards criada com sucesso");
+            return new PixTransferResponse(idempotencyKey, TransactionStatusEnum.PENDING);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Aplica o webhook de uma transferência entre shards no shard de origem, dentro da transação do
+     * {@link PixService#processWebhook}, e agenda o passo do destino para depois do commit.
+     *
+     * @return {@code false} se a transferência não tem saga (as duas pernas estão neste shard)
+     */
+    public boolean processWebhook(PixWebhookRequest request,
+                                  TransactionEntity debit,
+                                  TransactionStatusEnum newStatus,
+                                  LocalDateTime occurredAt) {
+        if (!shardRouter.isEnabled()) return false;
+        Optional<TransferSaga> saga = transferSagaRepository.findWithLock(request.endToEndId());
+        if (saga.isEmpty()) return false;
+
+        if (debit.getStatus() != TransactionStatusEnum.PENDING) {
+            log.info("Transferência entre shards já {}, ignorando evento", debit.getStatus());
+            return true;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        eventPixRepository.save(EventPixEntity.builder()
+                .eventId(request.eventId())
+                .endToEndId(request.endToEndId())
+                .eventType(newStatus)
+                .occurredAt(occurredAt)
+                .createdAt(now)
+                .build());
+        if (newStatus == TransactionStatusEnum.PENDING) return true;
+
+        debit.setStatus(newStatus);
+        debit.setUpdatedAt(now);
+        if (newStatus == TransactionStatusEnum.CONFIRMED) {
+            addToBalance(debit.getWalletId(), debit.getAmount());
+        }
+        transactionRepository.save(debit);
+        transactionRollupService.recordStatusChange(debit, TransactionStatusEnum.PENDING);
+        if (newStatus == TransactionStatusEnum.CONFIRMED) {
+            eventPublisher.publishEvent(new TransactionsConfirmedEvent(List.of(debit)));
+        }
+
+        transferSagaRepository.updateState(request.endToEndId(),
+                newStatus == TransactionStatusEnum.CONFIRMED ? TransferSagaStateEnum.CONFIRMING : TransferSagaStateEnum.REJECTING,
+                null, null, now, now.plus(properties.retryDelay()));
+        outboxService.appendCrossShardPixTransfer(
+                OutboxEventTypeEnum.PIX_TRANSFER_STATUS_CHANGED, request.endToEndId(), debit, saga.get().toWalletId());
+        eventPublisher.publishEvent(new PixTransferStatusChangedEvent(
+                request.endToEndId(), debit.getWalletId(), saga.get().toWalletId(), newStatus));
+        log.info("Webhook aplicado na origem da transferência entre shards, destino pendente");
+
+        advanceAfterCommit(shardRouter.currentShard(), request.endToEndId());
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.pix.saga.recovery-interval:10s}")
+    @OnEachShard
+    public void scheduledRecovery() {
+        if (!shardRouter.isEnabled()) return;
+        try {
+            recover();
+        } catch (RuntimeException e) {
+            log.error("Falha na recuperação de sagas, tentando novamente na próxima janela", e);
+        }
+    }
+
+    /**
+     * Retoma as sagas paradas do shard corrente e retorna quantas foram reservadas.
+     */
+    public int recover() {
+        MDC.put("operation", "pix-saga-recovery");
+        try {
+            int sourceShard = shardRouter.currentShard();
+            LocalDateTime now = LocalDateTime.now();
+            List<String> endToEndIds = transferSagaRepository.claim(
+                    properties.batchSize(), now, now.plus(properties.retryDelay()));
+
+            for (String endToEndId : endToEndIds) {
+                try {
+                    advance(sourceShard, endToEndId);
+                    recoveredCounter.increment();
+                } catch (RuntimeException e) {
+                    log.warn("Falha ao retomar a saga {}, reagendando", endToEndId, e);
+                    transferSagaRepository.reschedule(endToEndId, LocalDateTime.now().plus(properties.retryDelay()),
+                            e.getClass().getSimpleName() + ": " + e.getMessage());
+                }
+            }
+
+            if (!endToEndIds.isEmpty()) log.info("{} saga(s) de transferência entre shards retomada(s)", endToEndIds.size());
+            return endToEndIds.size();
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Executa os passos possíveis até a saga terminar ou ficar aguardando o webhook.
+     */
+    TransferSagaStateEnum advance(int sourceShard, String endToEndId) {
+        while (true) {
+            TransferSaga saga = shardRouter.onShard(sourceShard, () -> transferSagaRepository.find(endToEndId))
+                    .orElseThrow(PixTransferNotFoundException::new);
+            boolean progressed = switch (saga.state()) {
+                case STARTED -> prepare(sourceShard, saga);
+                case PREPARED -> followSource(sourceShard, saga);
+                case CONFIRMING, REJECTING -> complete(sourceShard, saga);
+                case CONFIRMED, REJECTED, COMPENSATED -> false;
+            };
+            if (!progressed) return saga.state();
+        }
+    }
+
+    private TransferSagaStateEnum advanceQuietly(int sourceShard, String endToEndId) {
+        try {
+            return advance(sourceShard, endToEndId);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao avançar a saga, a recuperação tenta novamente", e);
+            return null;
+        }
+    }
+
+    private void advanceAfterCommit(int sourceShard, String endToEndId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    executor.submit(() -> advanceQuietly(sourceShard, endToEndId));
+                }
+            });
+        } else {
+            executor.submit(() -> advanceQuietly(sourceShard, endToEndId));
+        }
+    }
+
+    /**
+     * Passo 1, no shard de origem. Retorna o status existente se a transferência já foi criada.
+     */
+    private TransactionStatusEnum start(String endToEndId, PixTransferRequest request) {
+        Optional<TransactionEntity> existing = transactionRepository.findByEndToEndId("OUT" + endToEndId);
+        if (existing.isPresent()) return existing.get().getStatus();
+
+        WalletEntity fromWallet = walletRepository.findByIdWithLock(request.fromWalletId())
+                .orElseThrow(() -> {
+                    log.error("Carteira origem não encontrada");
+                    return new WalletNotFoundException();
+                });
+
+        if (fromWallet.getCurrentBalance().compareTo(request.amount()) < 0) {
+            log.warn("Saldo insuficiente para transferência");
+            throw new InsufficientBalanceException(fromWallet.getCurrentBalance());
+        }
+
+        // Impressão e uso dos limites são devolvidos se a transação do passo 1 for desfeita. A saga não
+        // guarda a marca de duplicidade, então só a perna OUT sai marcada
+        boolean suspectedDuplicate = duplicatePaymentDetector.check(
+                request.fromWalletId(), request.toPixKey(), request.amount());
+        velocityLimiter.acquire(fromWallet.getId(), request.amount());
+
+        LocalDateTime now = LocalDateTime.now();
+        TransactionEntity debit = transactionRepository.save(TransactionEntity.builder()
+                .walletId(fromWallet.getId())
+                .endToEndId("OUT" + endToEndId)
+                .amount(request.amount().negate())
+                .type(TransactionTypeEnum.PIX_TRANSFER_OUT)
+                .createdAt(now)
+                .updatedAt(now)
+                .pixKey(request.toPixKey())
+                .status(TransactionStatusEnum.PENDING)
+                .suspectedDuplicate(suspectedDuplicate)
+                .build());
+        transactionRollupService.recordCreated(debit);
+
+        // A recuperação só assume a saga se a própria requisição não conseguir prepará-la
+        transferSagaRepository.insert(new TransferSaga(endToEndId, fromWallet.getId(), request.toPixKey(),
+                null, null, request.amount(), TransferSagaStateEnum.STARTED, 0), now, now.plus(properties.retryDelay()));
+        return null;
+    }
+
+    /**
+     * Passo 2: grava a perna IN PENDING no shard da chave de destino.
+     */
+    private boolean prepare(int sourceShard, TransferSaga saga) {
+        Optional<Integer> targetShard = shardRouter.shardOfPixKey(saga.toPixKey());
+        String toWalletId = targetShard.isEmpty() ? null : shardRouter.onShard(targetShard.get(),
+                () -> transactionTemplate.execute(status -> createCredit(saga)));
+        if (toWalletId == null) return compensate(sourceShard, saga);
+
+        return shardRouter.onShard(sourceShard, () -> Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            TransferSaga locked = lock(saga.endToEndId());
+            if (locked.state().isTerminal()) return true;
+
+            // Se o webhook chegou antes, a saga já avançou; o destino é gravado mesmo assim
+            boolean started = locked.state() == TransferSagaStateEnum.STARTED;
+            LocalDateTime now = LocalDateTime.now();
+            transferSagaRepository.updateState(saga.endToEndId(),
+                    started ? TransferSagaStateEnum.PREPARED : locked.state(),
+                    toWalletId, targetShard.get(), now, now.plus(properties.retryDelay()));
+            if (started) {
+                TransactionEntity debit = transactionRepository.findByEndToEndId("OUT" + saga.endToEndId())
+                        .orElseThrow(PixTransferNotFoundException::new);
+                outboxService.appendCrossShardPixTransfer(
+                        OutboxEventTypeEnum.PIX_TRANSFER_CREATED, saga.endToEndId(), debit, toWalletId);
+            }
+            return true;
+        })));
+    }
+
+    /**
+     * Perna OUT que saiu de PENDING sem o webhook (expirada pelo sweeper): leva o estado ao destino.
+     */
+    private boolean followSource(int sourceShard, TransferSaga saga) {
+        return shardRouter.onShard(sourceShard, () -> Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            TransferSaga locked = lock(saga.endToEndId());
+            if (locked.state() != TransferSagaStateEnum.PREPARED) return true;
+
+            TransactionStatusEnum debitStatus = transactionRepository.findByEndToEndId("OUT" + saga.endToEndId())
+                    .orElseThrow(PixTransferNotFoundException::new)
+                    .getStatus();
+            if (debitStatus == TransactionStatusEnum.PENDING) return false;
+
+            LocalDateTime now = LocalDateTime.now();
+            transferSagaRepository.updateState(saga.endToEndId(),
+                    debitStatus == TransactionStatusEnum.CONFIRMED ? TransferSagaStateEnum.CONFIRMING : TransferSagaStateEnum.REJECTING,
+                    null, null, now, now.plus(properties.retryDelay()));
+            return true;
+        })));
+    }
+
+    /**
+     * Passo 4: aplica na perna IN o status que a origem já tem e fecha a saga.
+     */
+    private boolean complete(int sourceShard, TransferSaga saga) {
+        TransactionStatusEnum target = saga.state() == TransferSagaStateEnum.CONFIRMING
+                ? TransactionStatusEnum.CONFIRMED
+                : TransactionStatusEnum.REJECTED;
+        Integer targetShard = saga.toShard() != null
+                ? saga.toShard()
+                : shardRouter.shardOfPixKey(saga.toPixKey()).orElse(null);
+
+        boolean applied = targetShard != null && shardRouter.onShard(targetShard,
+                () -> Boolean.TRUE.equals(transactionTemplate.execute(status -> applyCredit(saga, target))));
+        if (!applied) return compensate(sourceShard, saga);
+
+        return shardRouter.onShard(sourceShard, () -> Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            TransferSaga locked = lock(saga.endToEndId());
+            if (locked.state() == saga.state()) {
+                LocalDateTime now = LocalDateTime.now();
+                transferSagaRepository.updateState(saga.endToEndId(),
+                        target == TransactionStatusEnum.CONFIRMED ? TransferSagaStateEnum.CONFIRMED : TransferSagaStateEnum.REJECTED,
+                        null, null, now, now);
+                completedCounter.increment();
+                log.info("Saga da transferência {} concluída como {}", saga.endToEndId(), target);
+            }
+            return true;
+        })));
+    }
+
+    /**
+     * Desfaz a origem quando o destino não pode ser aplicado: rejeita a perna OUT e estorna o
+     * débito se o webhook já o confirmou. Sem nada debitado, uma saga já rejeitada só termina.
+     */
+    private boolean compensate(int sourceShard, TransferSaga saga) {
+        return shardRouter.onShard(sourceShard, () -> Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            TransferSaga locked = lock(saga.endToEndId());
+            if (locked.state().isTerminal()) return true;
+
+            TransactionEntity debit = transactionRepository.findByEndToEndIdWithLock("OUT" + saga.endToEndId())
+                    .orElseThrow(PixTransferNotFoundException::new);
+            LocalDateTime now = LocalDateTime.now();
+            if (debit.getStatus() == TransactionStatusEnum.REJECTED) {
+                transferSagaRepository.updateState(saga.endToEndId(), TransferSagaStateEnum.REJECTED, null, null, now, now);
+                return true;
+            }
+
+            TransactionStatusEnum previous = debit.getStatus();
+            if (previous == TransactionStatusEnum.CONFIRMED) {
+                addToBalance(debit.getWalletId(), debit.getAmount().negate());
+            }
+            debit.setStatus(TransactionStatusEnum.REJECTED);
+            debit.setUpdatedAt(now);
+            transactionRepository.save(debit);
+            transactionRollupService.recordStatusChange(debit, previous);
+
+            transferSagaRepository.updateState(saga.endToEndId(), TransferSagaStateEnum.COMPENSATED, null, null, now, now);
+            outboxService.appendCrossShardPixTransfer(
+                    OutboxEventTypeEnum.PIX_TRANSFER_STATUS_CHANGED, saga.endToEndId(), debit, locked.toWalletId());
+            eventPublisher.publishEvent(new PixTransferStatusChangedEvent(
+                    saga.endToEndId(), debit.getWalletId(), locked.toWalletId(), TransactionStatusEnum.REJECTED));
+            compensatedCounter.increment();
+            log.warn("Saga da transferência {} compensada: destino não pôde ser aplicado", saga.endToEndId());
+            return true;
+        })));
+    }
+
+    /**
+     * Cria a perna IN PENDING se ainda não existe e retorna a carteira de destino, ou {@code null}
+     * se a chave não pertence a nenhuma carteira deste shard.
+     */
+    private String createCredit(TransferSaga saga) {
+        Optional<TransactionEntity> existing = transactionRepository.findByEndToEndIdWithLock("IN" + saga.endToEndId());
+        if (existing.isPresent()) return existing.get().getWalletId();
+
+        Optional<WalletEntity> toWallet = walletRepository.findByPixKey(saga.toPixKey());
+        if (toWallet.isEmpty()) {
+            log.error("Carteira destino não encontrada no shard da chave PIX");
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        TransactionEntity credit = transactionRepository.save(TransactionEntity.builder()
+                .walletId(toWallet.get().getId())
+                .endToEndId("IN" + saga.endToEndId())
+                .amount(saga.amount())
+                .type(TransactionTypeEnum.PIX_TRANSFER_IN)
+                .createdAt(now)
+                .updatedAt(now)
+                .pixKey(saga.toPixKey())
+                .status(TransactionStatusEnum.PENDING)
+                .build());
+        transactionRollupService.recordCreated(credit);
+        return toWallet.get().getId();
+    }
+
+    private boolean applyCredit(TransferSaga saga, TransactionStatusEnum target) {
+        if (createCredit(saga) == null) return false;
+        TransactionEntity credit = transactionRepository.findByEndToEndIdWithLock("IN" + saga.endToEndId())
+                .orElseThrow(PixTransferNotFoundException::new);
+
+        if (credit.getStatus() == target) return true;
+        if (credit.getStatus() != TransactionStatusEnum.PENDING) {
+            log.error("Perna IN em {} divergente da saga ({})", credit.getStatus(), target);
+            return false;
+        }
+
+        if (target == TransactionStatusEnum.CONFIRMED) {
+            Optional<WalletEntity> toWallet = walletRepository.findByIdWithLock(credit.getWalletId());
+            if (toWallet.isEmpty()) return false;
+            addToBalance(toWallet.get(), credit.getAmount());
+        }
+        credit.setStatus(target);
+        credit.setUpdatedAt(LocalDateTime.now());
+        transactionRepository.save(credit);
+        transactionRollupService.recordStatusChange(credit, TransactionStatusEnum.PENDING);
+        if (target == TransactionStatusEnum.CONFIRMED) {
+            eventPublisher.publishEvent(new TransactionsConfirmedEvent(List.of(credit)));
+        }
+        return true;
+    }
+
+    private void addToBalance(String walletId, BigDecimal amount) {
+        addToBalance(walletRepository.findByIdWithLock(walletId)
+                .orElseThrow(() -> {
+                    log.error("Carteira não encontrada para atualização de saldo");
+                    return new WalletNotFoundException();
+                }), amount);
+    }
+
+    private void addToBalance(WalletEntity wallet, BigDecimal amount) {
+        wallet.setCurrentBalance(wallet.getCurrentBalance().add(amount));
+        wallet.setUpdatedAt(LocalDateTime.now());
+        walletRepository.save(wallet);
+        cacheInvalidationBus.publishWallet(wallet.getId());
+    }
+
+    private TransferSaga lock(String endToEndId) {
+        return transferSagaRepository.findWithLock(endToEndId).orElseThrow(PixTransferNotFoundException::new);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
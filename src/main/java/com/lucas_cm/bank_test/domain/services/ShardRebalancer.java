@@ -0,0 +1,133 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.domain.repositories.PixKeyDirectoryRepository;
+import com.lucas_cm.bank_test.domain.repositories.ShardRebalanceRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.ShardRebalanceReportDto;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ferramenta de manutenção do sharding.
+ * <p>
+ * O backfill grava no diretório a chave PIX de cada carteira com o shard em que ela está de fato
+ * (necessário ao habilitar o sharding em uma base existente). O rebalanceamento move para o
+ * shard certo as carteiras cujo hash mudou, normalmente depois de adicionar um shard; durante o
+ * movimento as requisições da carteira já vão para o shard novo e falham com carteira não
+ * encontrada, então ele deve rodar em uma janela de manutenção.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "bank.sharding", name = "enabled", havingValue = "true")
+public class ShardRebalancer {
+    private static final int PAGE_SIZE = 500;
+
+    private final ShardRouter shardRouter;
+    private final ShardRebalanceRepository shardRebalanceRepository;
+    private final PixKeyDirectoryRepository pixKeyDirectoryRepository;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile ShardRebalanceReportDto lastReport;
+
+    public ShardRebalanceReportDto lastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Dispara backfill e rebalanceamento em segundo plano. Retorna {@code false} se já houver um em andamento.
+     */
+    public boolean trigger(boolean backfillOnly) {
+        if (!running.compareAndSet(false, true)) return false;
+        executor.submit(() -> {
+            try {
+                run(backfillOnly);
+            } catch (RuntimeException e) {
+                log.error("Falha no rebalanceamento dos shards", e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    ShardRebalanceReportDto run(boolean backfillOnly) {
+        MDC.put("operation", "shard-rebalance");
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            lastReport = new ShardRebalanceReportDto(true, startedAt, null, 0, 0, 0, 0);
+            long backfilled = backfillDirectory();
+            long[] counts = backfillOnly ? new long[3] : rebalance();
+            lastReport = new ShardRebalanceReportDto(false, startedAt, LocalDateTime.now(),
+                    counts[0], counts[1], counts[2], backfilled);
+            log.info("Rebalanceamento concluído: {} carteira(s) verificada(s), {} movida(s), {} adiada(s), {} chave(s) PIX no diretório",
+                    counts[0], counts[1], counts[2], backfilled);
+            return lastReport;
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    long backfillDirectory() {
+        long total = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            String after = "";
+            while (true) {
+                List<Map<String, Object>> page = shardRebalanceRepository.findPixKeysAfter(shard, after, PAGE_SIZE);
+                for (Map<String, Object> row : page) {
+                    pixKeyDirectoryRepository.upsert((String) row.get("pix_key"), (String) row.get("id"), shard);
+                }
+                total += page.size();
+                if (page.size() < PAGE_SIZE) break;
+                after = (String) page.get(page.size() - 1).get("id");
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return carteiras verificadas, movidas e adiadas (transferências pendentes)
+     */
+    long[] rebalance() {
+        long checked = 0;
+        long moved = 0;
+        long skipped = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            String after = "";
+            while (true) {
+                List<String> page = shardRebalanceRepository.findWalletIdsAfter(shard, after, PAGE_SIZE);
+                for (String walletId : page) {
+                    int target = shardRouter.shardOf(walletId);
+                    if (target == shard) continue;
+                    if (shardRebalanceRepository.moveWallet(walletId, shard, target)) {
+                        pixKeyDirectoryRepository.moveWallet(walletId, target);
+                        moved++;
+                    } else {
+                        log.warn("Carteira {} não movida (transferências pendentes ou já removida do shard {})", walletId, shard);
+                        skipped++;
+                    }
+                }
+                checked += page.size();
+                if (page.size() < PAGE_SIZE) break;
+                after = page.get(page.size() - 1);
+            }
+        }
+        return new long[]{checked, moved, skipped};
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,166 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.ShardingProperties;
+import com.lucas_cm.bank_test.domain.exceptions.CrossShardTransferException;
+import com.lucas_cm.bank_test.domain.repositories.PixKeyDirectoryRepository;
+import com.lucas_cm.bank_test.infrastructure.sharding.ShardContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Decide o shard de cada carteira e executa código com o shard definido na thread.
+ * <p>
+ * O shard é o jump consistent hash do FNV-1a de 64 bits do id da carteira: adicionar um shard
+ * no fim da lista move só ~1/N das carteiras, todas para o shard novo. Chaves PIX são resolvidas
+ * pelo diretório no shard 0. Com o sharding desabilitado tudo mapeia para o shard 0 e as
+ * chamadas rodam direto.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ShardRouter {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ShardingProperties properties;
+    private final PixKeyDirectoryRepository pixKeyDirectoryRepository;
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public int shardCount() {
+        return isEnabled() ? properties.shards().size() : 1;
+    }
+
+    public int shardOf(String walletId) {
+        if (!isEnabled() || walletId == null) return 0;
+        return jumpHash(fnv1a(walletId), shardCount());
+    }
+
+    /**
+     * Shard da carteira dona da chave, vazio se a chave não estiver no diretório.
+     */
+    public Optional<Integer> shardOfPixKey(String pixKey) {
+        if (!isEnabled()) return Optional.of(0);
+        return pixKeyDirectoryRepository.findShard(pixKey);
+    }
+
+    public int currentShard() {
+        Integer shard = ShardContext.current();
+        return shard == null ? 0 : shard;
+    }
+
+    /**
+     * Executa a chamada com o shard definido na thread. A conexão de uma transação já aberta
+     * pertence ao shard dela, então trocar de shard dentro de uma transação é um erro.
+     */
+    public <T, E extends Throwable> T onShard(int shard, ShardCall<T, E> call) throws E {
+        if (!isEnabled()) return call.call();
+
+        Integer previous = ShardContext.current();
+        if (previous != null && previous == shard) return call.call();
+        if (TransactionSynchronizationManager.isActualTransactionActive() && currentShard() != shard) {
+            throw new IllegalStateException("Troca para o shard %d dentro de uma transação do shard %d"
+                    .formatted(shard, currentShard()));
+        }
+
+        ShardContext.set(shard);
+        try {
+            return call.call();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    /**
+     * Executa a chamada uma vez em cada shard, em sequência.
+     */
+    public <E extends Throwable> void forEachShard(ShardCall<?, E> call) throws E {
+        for (int shard = 0; shard < shardCount(); shard++) {
+            onShard(shard, call);
+        }
+    }
+
+    /**
+     * Primeiro shard em que a verificação é verdadeira.
+     */
+    public Optional<Integer> findShard(BooleanSupplier probe) {
+        for (int shard = 0; shard < shardCount(); shard++) {
+            if (onShard(shard, probe::getAsBoolean)) return Optional.of(shard);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reserva a chave no diretório para a carteira antes de gravá-la no shard.
+     */
+    public void registerPixKey(String pixKey, String walletId) {
+        if (!isEnabled()) return;
+        if (!pixKeyDirectoryRepository.register(pixKey, walletId, shardOf(walletId))) {
+            log.warn("Chave PIX já registrada para outra carteira no diretório");
+            throw new DuplicateKeyException("Chave PIX já registrada para outra carteira");
+        }
+    }
+
+    public void releasePixKey(String pixKey, String walletId) {
+        if (!isEnabled() || pixKey == null) return;
+        pixKeyDirectoryRepository.release(pixKey, walletId);
+    }
+
+    /**
+     * Indica se a chave PIX de destino está em outro shard que a carteira de origem. Chaves fora do
+     * diretório não contam: a transferência falha no shard da origem como carteira não encontrada.
+     */
+    public boolean isCrossShard(String fromWalletId, String toPixKey) {
+        if (!isEnabled()) return false;
+        Optional<Integer> target = shardOfPixKey(toPixKey);
+        return target.isPresent() && target.get() != shardOf(fromWalletId);
+    }
+
+    /**
+     * Transferências em uma única transação só são atômicas dentro de um shard: rejeita destinos
+     * em outro shard, que devem passar pela {@link PixTransferSaga}.
+     */
+    public void requireSameShard(String fromWalletId, String toPixKey) {
+        if (isCrossShard(fromWalletId, toPixKey)) {
+            log.warn("Transferência entre shards rejeitada fora da saga: origem no shard {}", shardOf(fromWalletId));
+            throw new CrossShardTransferException();
+        }
+    }
+
+    static long fnv1a(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Jump consistent hash (Lamping e Veach).
+     */
+    static int jumpHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    @FunctionalInterface
+    public interface ShardCall<T, E extends Throwable> {
+        T call() throws E;
+    }
+}
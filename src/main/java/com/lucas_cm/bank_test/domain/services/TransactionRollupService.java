@@ -0,0 +1,139 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.TransactionRollupProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.exceptions.InvalidRollupRangeException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.models.TransactionRollup;
+import com.lucas_cm.bank_test.domain.repositories.TransactionRollupRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.TransactionRollupDto;
+import com.lucas_cm.bank_test.infrastructure.sharding.ShardedBy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Mantém os rollups diários de transações e responde as consultas dos painéis a partir deles.
+ * <p>
+ * As escritas acontecem na transação de quem grava em {@code transaction}, como o outbox, então
+ * rollup e ledger são commitados juntos. Cada transação conta no dia de criação; uma mudança de
+ * status move quantidade e valor do status antigo para o novo no mesmo dia. Os deltas são somados
+ * por chave e gravados em ordem, para que escritas concorrentes travem as linhas na mesma ordem.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionRollupService {
+    // Mesma ordem do ORDER BY ... COLLATE "C" dos comandos SQL que também gravam rollups
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::walletId)
+            .thenComparing(key -> key.type().name())
+            .thenComparing(key -> key.status().name())
+            .thenComparing(Key::day);
+
+    private final TransactionRollupRepository transactionRollupRepository;
+    private final WalletRepository walletRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionRollupProperties properties;
+
+    public void recordCreated(TransactionEntity transaction) {
+        recordCreated(List.of(transaction));
+    }
+
+    public void recordCreated(Collection<TransactionEntity> transactions) {
+        if (!properties.enabled() || transactions.isEmpty()) return;
+        Map<Key, TransactionRollup> deltas = new TreeMap<>(KEY_ORDER);
+        transactions.forEach(transaction -> add(deltas, transaction, transaction.getStatus(), 1));
+        transactionRollupRepository.add(List.copyOf(deltas.values()));
+    }
+
+    /**
+     * Registra a saída de {@code previous} para o status atual da transação.
+     */
+    public void recordStatusChange(TransactionEntity transaction, TransactionStatusEnum previous) {
+        recordStatusChanges(List.of(transaction), previous);
+    }
+
+    public void recordStatusChanges(Collection<TransactionEntity> transactions, TransactionStatusEnum previous) {
+        if (!properties.enabled() || transactions.isEmpty()) return;
+        Map<Key, TransactionRollup> deltas = new TreeMap<>(KEY_ORDER);
+        for (TransactionEntity transaction : transactions) {
+            if (transaction.getStatus() == previous) continue;
+            add(deltas, transaction, previous, -1);
+            add(deltas, transaction, transaction.getStatus(), 1);
+        }
+        transactionRollupRepository.add(List.copyOf(deltas.values()));
+    }
+
+    /**
+     * @param from primeiro dia, {@code yyyy-MM-dd}
+     * @param to   último dia, incluído
+     */
+    @ShardedBy("#walletId")
+    public TransactionRollupDto findByWallet(String walletId, String from, String to) {
+        LocalDate start = parse(from);
+        LocalDate end = parse(to);
+        validateRange(start, end);
+        if (!walletRepository.existsById(walletId)) throw new WalletNotFoundException();
+        return new TransactionRollupDto(walletId, start, end,
+                transactionRollupRepository.findByWallet(walletId, start, end));
+    }
+
+    /**
+     * Totais de todas as carteiras; com sharding, soma os totais de cada shard.
+     */
+    public TransactionRollupDto findTotals(String from, String to) {
+        LocalDate start = parse(from);
+        LocalDate end = parse(to);
+        validateRange(start, end);
+
+        List<TransactionRollup> rows = new ArrayList<>();
+        shardRouter.forEachShard(() -> rows.addAll(transactionRollupRepository.findTotals(start, end)));
+
+        Map<Key, TransactionRollup> totals = new TreeMap<>(Comparator.comparing(Key::day)
+                .thenComparing(Key::type)
+                .thenComparing(Key::status));
+        rows.forEach(rollup -> totals.merge(new Key(null, rollup.day(), rollup.type(), rollup.status()),
+                rollup, TransactionRollupService::sum));
+        return new TransactionRollupDto(null, start, end, List.copyOf(totals.values()));
+    }
+
+    private void add(Map<Key, TransactionRollup> deltas, TransactionEntity transaction,
+                     TransactionStatusEnum status, int sign) {
+        // Pernas PIX de chaves externas não têm carteira neste banco
+        if (transaction.getWalletId() == null) return;
+        LocalDate day = transaction.getCreatedAt().toLocalDate();
+        BigDecimal amount = sign < 0 ? transaction.getAmount().negate() : transaction.getAmount();
+        deltas.merge(new Key(transaction.getWalletId(), day, transaction.getType(), status),
+                new TransactionRollup(transaction.getWalletId(), day, transaction.getType(), status, sign, amount),
+                TransactionRollupService::sum);
+    }
+
+    private static TransactionRollup sum(TransactionRollup a, TransactionRollup b) {
+        return new TransactionRollup(a.walletId(), a.day(), a.type(), a.status(),
+                a.count() + b.count(), a.amount().add(b.amount()));
+    }
+
+    private LocalDate parse(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRollupRangeException(properties.maxDays());
+        }
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) + 1 > properties.maxDays()) {
+            throw new InvalidRollupRangeException(properties.maxDays());
+        }
+    }
+
+    private record Key(String walletId, LocalDate day, TransactionTypeEnum type, TransactionStatusEnum status) {
+    }
+}
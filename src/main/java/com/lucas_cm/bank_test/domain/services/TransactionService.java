@@ -1,9 +1,12 @@
 package com.lucas_cm.bank_test.domain.services;
 
 import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
 import com.lucas_cm.bank_test.domain.exceptions.TransactionEndToEndIdAlreadyExistsException;
+import com.lucas_cm.bank_test.domain.models.TransactionsConfirmedEvent;
 import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -15,11 +18,18 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TransactionService {
     private final TransactionRepository transactionRepository;
+    private final TransactionRollupService transactionRollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public TransactionEntity create(TransactionEntity transaction) {
         var findTransaction = transactionRepository.existsByEndToEndId(transaction.getEndToEndId());
         if (findTransaction) throw new TransactionEndToEndIdAlreadyExistsException();
-        return transactionRepository.save(transaction);
+        TransactionEntity saved = transactionRepository.save(transaction);
+        transactionRollupService.recordCreated(saved);
+        if (saved.getStatus() == TransactionStatusEnum.CONFIRMED) {
+            eventPublisher.publishEvent(new TransactionsConfirmedEvent(List.of(saved)));
+        }
+        return saved;
     }
 
     public List<TransactionEntity> findByWalletId(String walletId) {
@@ -0,0 +1,284 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.VelocityLimitProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.exceptions.VelocityLimitExceededException;
+import com.lucas_cm.bank_test.domain.repositories.TransactionVelocityRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limites de movimentação por carteira (quantidade e valor debitados no último minuto e nas últimas
+ * 24 horas), checados em memória sem consultar {@code transaction}.
+ * <p>
+ * Cada carteira tem duas janelas deslizantes em arrays circulares de buckets (12 de 5s e 96 de 15min)
+ * com os totais mantidos a cada rotação, então a checagem não depende do número de débitos. O uso é
+ * registrado na checagem e devolvido se a transação corrente for desfeita. No startup, antes do
+ * readiness, as janelas são reconstruídas com os débitos das últimas 24 horas de todos os shards.
+ * <p>
+ * Uma carteira sem débitos nas últimas 24 horas equivale a uma carteira nova, então descartá-la não
+ * muda o comportamento; a memória fica limitada às carteiras com débitos recentes. Os limites são
+ * locais à instância.
+ */
+@Service
+@Slf4j
+public class VelocityLimiter implements ApplicationRunner {
+    private static final String MINUTE = "1m";
+    private static final String DAY = "24h";
+    private static final long MINUTE_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+    private static final int MINUTE_BUCKETS = 12;
+    private static final int DAY_BUCKETS = 96;
+
+    private final VelocityLimitProperties properties;
+    private final TransactionVelocityRepository transactionVelocityRepository;
+    private final ShardRouter shardRouter;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+    private final long maxAmountPerMinute;
+    private final long maxAmountPerDay;
+    private final Map<String, WalletWindows> wallets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public VelocityLimiter(VelocityLimitProperties properties,
+                           TransactionVelocityRepository transactionVelocityRepository,
+                           ShardRouter shardRouter,
+                           MeterRegistry meterRegistry) {
+        this(properties, transactionVelocityRepository, shardRouter, meterRegistry, System::currentTimeMillis);
+    }
+
+    VelocityLimiter(VelocityLimitProperties properties,
+                    TransactionVelocityRepository transactionVelocityRepository,
+                    ShardRouter shardRouter,
+                    MeterRegistry meterRegistry,
+                    LongSupplier clock) {
+        this.properties = properties;
+        this.transactionVelocityRepository = transactionVelocityRepository;
+        this.shardRouter = shardRouter;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.maxAmountPerMinute = cents(properties.maxAmountPerMinute());
+        this.maxAmountPerDay = cents(properties.maxAmountPerDay());
+        Gauge.builder("bank.velocity-limit.tracked", wallets, Map::size)
+                .description("Carteiras com janelas de limite em memória")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.enabled()) load();
+    }
+
+    /**
+     * Reconstrói as janelas com os débitos das últimas 24 horas. Falhas não impedem o startup; os
+     * limites passam a contar só os novos débitos.
+     */
+    public void load() {
+        long now = clock.getAsLong();
+        LocalDateTime from = LocalDateTime.ofInstant(Instant.ofEpochMilli(now - DAY_MILLIS), ZoneId.systemDefault());
+        AtomicLong loaded = new AtomicLong();
+        try {
+            shardRouter.forEachShard(() -> loaded.addAndGet(
+                    transactionVelocityRepository.forEachDebitSince(from, transaction -> restore(transaction, now))));
+            log.info("Limites de movimentação reconstruídos com {} débitos de {} carteiras", loaded.get(), wallets.size());
+        } catch (RuntimeException e) {
+            log.error("Falha ao reconstruir os limites de movimentação, seguindo só com novos débitos", e);
+        }
+    }
+
+    /**
+     * Registra um débito da carteira ou lança {@link VelocityLimitExceededException} se ele passar de
+     * algum limite. Dentro de uma transação, o uso é devolvido se ela não for commitada.
+     *
+     * @return ação que devolve o uso, para quem debita fora de transação e desiste do débito
+     */
+    public Runnable acquire(String walletId, BigDecimal amount) {
+        if (!properties.enabled() || walletId == null) return () -> {
+        };
+
+        long now = clock.getAsLong();
+        long amountCents = cents(amount.abs());
+        String window = tryAcquire(walletId, amountCents, now);
+        if (window != null) {
+            Counter.builder("bank.velocity-limit.rejected")
+                    .description("Débitos rejeitados pelos limites de movimentação")
+                    .tag("window", window)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Limite de movimentação excedido para a carteira {} na janela de {}", walletId, window);
+            throw MINUTE.equals(window)
+                    ? new VelocityLimitExceededException(MINUTE, properties.maxCountPerMinute(), properties.maxAmountPerMinute())
+                    : new VelocityLimitExceededException(DAY, properties.maxCountPerDay(), properties.maxAmountPerDay());
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) release(walletId, amountCents, now);
+                }
+            });
+        }
+        return () -> release(walletId, amountCents, now);
+    }
+
+    /**
+     * @return {@code null} se o débito foi registrado, senão a janela cujo limite ele excederia
+     */
+    String tryAcquire(String walletId, long amountCents, long now) {
+        while (true) {
+            WalletWindows windows = windows(walletId, now);
+            if (windows == null) {
+                log.warn("Limite de carteiras rastreadas atingido, carteira {} sem limite de movimentação", walletId);
+                return null;
+            }
+            synchronized (windows) {
+                if (windows.evicted) continue;
+                return windows.tryAdd(amountCents, now);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bank.velocity-limit.eviction-interval:5m}")
+    public void evictIdle() {
+        evictIdle(clock.getAsLong());
+    }
+
+    int trackedWallets() {
+        return wallets.size();
+    }
+
+    private void release(String walletId, long amountCents, long time) {
+        WalletWindows windows = wallets.get(walletId);
+        if (windows == null) return;
+        synchronized (windows) {
+            if (!windows.evicted) windows.add(-1, -amountCents, time);
+        }
+    }
+
+    private void restore(TransactionEntity transaction, long now) {
+        long time = transaction.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        WalletWindows windows = windows(transaction.getWalletId(), now);
+        if (windows == null) return;
+        synchronized (windows) {
+            if (!windows.evicted) windows.add(1, cents(transaction.getAmount().abs()), time);
+        }
+    }
+
+    private WalletWindows windows(String walletId, long now) {
+        WalletWindows windows = wallets.get(walletId);
+        if (windows != null) return windows;
+        if (wallets.size() >= properties.maxWallets()) {
+            evictIdle(now);
+            if (wallets.size() >= properties.maxWallets()) return null;
+        }
+        return wallets.computeIfAbsent(walletId, id -> new WalletWindows());
+    }
+
+    private void evictIdle(long now) {
+        wallets.forEach((walletId, windows) -> {
+            synchronized (windows) {
+                windows.day.advance(now);
+                if (windows.day.count == 0) {
+                    windows.evicted = true;
+                    wallets.remove(walletId, windows);
+                }
+            }
+        });
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private final class WalletWindows {
+        private final Ring minute = new Ring(MINUTE_BUCKETS, MINUTE_MILLIS);
+        private final Ring day = new Ring(DAY_BUCKETS, DAY_MILLIS);
+        // Descartada do mapa: quem ainda tem a referência busca de novo
+        private boolean evicted;
+
+        private String tryAdd(long amountCents, long now) {
+            minute.advance(now);
+            day.advance(now);
+            if (exceeds(minute, properties.maxCountPerMinute(), maxAmountPerMinute, amountCents)) return MINUTE;
+            if (exceeds(day, properties.maxCountPerDay(), maxAmountPerDay, amountCents)) return DAY;
+            add(1, amountCents, now);
+            return null;
+        }
+
+        private void add(int count, long amountCents, long time) {
+            minute.add(count, amountCents, time);
+            day.add(count, amountCents, time);
+        }
+
+        private boolean exceeds(Ring ring, int maxCount, long maxAmount, long amountCents) {
+            return (maxCount > 0 && ring.count + 1 > maxCount)
+                    || (maxAmount > 0 && ring.amount + amountCents > maxAmount);
+        }
+    }
+
+    /**
+     * Janela deslizante em buckets: o bucket de um instante é {@code instante / bucketMillis} e ocupa a
+     * posição {@code bucket % tamanho}. Avançar zera os buckets que saíram da janela e desconta seus
+     * valores dos totais.
+     */
+    private static final class Ring {
+        private final long bucketMillis;
+        private final int[] counts;
+        private final long[] amounts;
+        private long head;
+        private long count;
+        private long amount;
+
+        private Ring(int buckets, long windowMillis) {
+            this.bucketMillis = windowMillis / buckets;
+            this.counts = new int[buckets];
+            this.amounts = new long[buckets];
+        }
+
+        private void advance(long now) {
+            long bucket = now / bucketMillis;
+            if (bucket <= head) return;
+            for (long b = Math.max(head + 1, bucket - counts.length + 1); b <= bucket; b++) {
+                int slot = (int) (b % counts.length);
+                count -= counts[slot];
+                amount -= amounts[slot];
+                counts[slot] = 0;
+                amounts[slot] = 0;
+            }
+            head = bucket;
+        }
+
+        private void add(int count, long amount, long time) {
+            long bucket = time / bucketMillis;
+            if (bucket > head) advance(time);
+            // Fora da janela: o bucket já foi reaproveitado
+            if (bucket <= head - counts.length) return;
+            int slot = (int) (bucket % counts.length);
+            counts[slot] += count;
+            amounts[slot] += amount;
+            this.count += count;
+            this.amount += amount;
+        }
+    }
+}
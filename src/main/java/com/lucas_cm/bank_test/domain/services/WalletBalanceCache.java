@@ -0,0 +1,79 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.CacheProperties;
+import com.lucas_cm.bank_test.infrastructure.cache.CacheInvalidationListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cache local do saldo atual das carteiras, invalidado pelo {@code CacheInvalidationBus} quando
+ * o saldo muda nesta ou em outra instância.
+ * <p>
+ * Uma leitura que começou antes de uma invalidação não grava o valor lido: ele pode ser anterior
+ * ao commit que causou a invalidação.
+ */
+@Service
+public class WalletBalanceCache implements CacheInvalidationListener {
+    private final CacheProperties properties;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Incrementado a cada invalidação; leituras concorrentes com uma invalidação não entram no cache
+    private final AtomicLong generation = new AtomicLong();
+
+    public WalletBalanceCache(CacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    WalletBalanceCache(CacheProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+        Gauge.builder("bank.cache.balance.size", entries, Map::size)
+                .description("Saldos de carteira em cache nesta instância")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public BigDecimal get(String walletId, Supplier<BigDecimal> loader) {
+        long now = clock.getAsLong();
+        Entry entry = entries.get(walletId);
+        if (entry != null && now - entry.loadedAt() < properties.ttl().toNanos()) {
+            return entry.balance();
+        }
+
+        long before = generation.get();
+        BigDecimal balance = loader.get();
+        if (generation.get() == before) {
+            if (entries.size() >= properties.maxEntries()) entries.clear();
+            entries.put(walletId, new Entry(balance, now));
+        }
+        return balance;
+    }
+
+    @Override
+    public void invalidate(Collection<String> walletIds, Collection<String> pixKeys) {
+        if (walletIds.isEmpty()) return;
+        generation.incrementAndGet();
+        walletIds.forEach(entries::remove);
+    }
+
+    @Override
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private record Entry(BigDecimal balance, long loadedAt) {
+    }
+}
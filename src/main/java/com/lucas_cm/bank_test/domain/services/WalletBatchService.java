@@ -0,0 +1,229 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.WalletBatchProperties;
+import com.lucas_cm.bank_test.domain.entities.OutboxEventTypeEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.exceptions.InvalidWalletBatchException;
+import com.lucas_cm.bank_test.domain.exceptions.VelocityLimitExceededException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletBatchNotFoundException;
+import com.lucas_cm.bank_test.domain.models.TransactionsConfirmedEvent;
+import com.lucas_cm.bank_test.domain.models.WalletBatch;
+import com.lucas_cm.bank_test.domain.repositories.TransactionBatchRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.cache.CacheInvalidationBus;
+import com.lucas_cm.bank_test.infrastructure.dtos.WalletBatchDto;
+import com.lucas_cm.bank_test.infrastructure.dtos.WalletBatchItemDto;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Depósitos e saques em massa. Os itens são agrupados por carteira e processados em
+ * chunks: cada chunk trava suas carteiras com um único SELECT FOR UPDATE, aplica um
+ * UPDATE de saldo por carteira e insere as transações em lote. Com sharding os chunks são
+ * montados por shard, já que uma transação só alcança um banco.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class WalletBatchService {
+    static final String WALLET_NOT_FOUND = "WALLET_NOT_FOUND";
+    static final String INSUFFICIENT_BALANCE = "INSUFFICIENT_BALANCE";
+    static final String INVALID_AMOUNT = "INVALID_AMOUNT";
+    static final String VELOCITY_LIMIT_EXCEEDED = "VELOCITY_LIMIT_EXCEEDED";
+    static final String INTERNAL_ERROR = "INTERNAL_ERROR";
+
+    private final WalletRepository walletRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceNettingEngine balanceNettingEngine;
+    private final OutboxService outboxService;
+    private final TransactionRollupService transactionRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WalletBatchProperties properties;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ShardRouter shardRouter;
+    private final VelocityLimiter velocityLimiter;
+
+    private final Map<String, WalletBatch> batches = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public WalletBatchDto submit(TransactionTypeEnum type, List<WalletBatchItemDto> items) {
+        if (items == null || items.isEmpty() || items.size() > properties.maxItems()) {
+            throw new InvalidWalletBatchException(properties.maxItems());
+        }
+        evictFinishedBatches();
+
+        WalletBatch batch = new WalletBatch(UUID.randomUUID().toString(), type, items);
+        batches.put(batch.getId(), batch);
+        log.info("Lote {} de {} recebido com {} itens", batch.getId(), type, items.size());
+
+        executor.submit(() -> process(batch));
+        return batch.toDto();
+    }
+
+    public WalletBatchDto findById(String batchId) {
+        WalletBatch batch = batches.get(batchId);
+        if (batch == null) throw new WalletBatchNotFoundException();
+        return batch.toDto();
+    }
+
+    void process(WalletBatch batch) {
+        MDC.put("batchId", batch.getId());
+        MDC.put("operation", batch.getType().name());
+
+        try {
+            batch.start();
+            SortedMap<String, List<Integer>> indexesByWallet = batch.indexesByWallet();
+            Map<Integer, List<String>> walletIdsByShard = indexesByWallet.keySet().stream()
+                    .collect(Collectors.groupingBy(shardRouter::shardOf, TreeMap::new, Collectors.toList()));
+
+            walletIdsByShard.forEach((shard, walletIds) -> {
+                for (int from = 0; from < walletIds.size(); from += properties.chunkSize()) {
+                    List<String> chunk = walletIds.subList(from, Math.min(from + properties.chunkSize(), walletIds.size()));
+                    try {
+                        List<ItemOutcome> outcomes = shardRouter.onShard(shard, () -> transactionTemplate.execute(
+                                status -> processChunk(batch, chunk, indexesByWallet)));
+                        apply(batch, outcomes);
+                    } catch (RuntimeException e) {
+                        log.error("Falha ao processar chunk do lote", e);
+                        chunk.forEach(walletId -> indexesByWallet.get(walletId)
+                                .forEach(index -> batch.fail(index, INTERNAL_ERROR)));
+                    }
+                }
+            });
+
+            batch.finish();
+            WalletBatchDto result = batch.toDto();
+            log.info("Lote processado: {} sucesso(s), {} falha(s)", result.succeeded(), result.failed());
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private List<ItemOutcome> processChunk(WalletBatch batch,
+                                           List<String> walletIds,
+                                           Map<String, List<Integer>> indexesByWallet) {
+        Map<String, WalletEntity> wallets = walletRepository.findAllByIdWithLock(walletIds).stream()
+                .collect(Collectors.toMap(WalletEntity::getId, Function.identity()));
+
+        boolean withdraw = batch.getType() == TransactionTypeEnum.WITHDRAW;
+        LocalDateTime now = LocalDateTime.now();
+        List<ItemOutcome> outcomes = new ArrayList<>();
+        List<TransactionEntity> transactions = new ArrayList<>();
+        List<WalletEntity> changedWallets = new ArrayList<>();
+
+        for (String walletId : walletIds) {
+            List<Integer> indexes = indexesByWallet.get(walletId);
+            WalletEntity wallet = wallets.get(walletId);
+            if (wallet == null) {
+                indexes.forEach(index -> outcomes.add(ItemOutcome.failed(index, WALLET_NOT_FOUND)));
+                continue;
+            }
+
+            BigDecimal balance = wallet.getCurrentBalance();
+            // Deltas de netting ainda não aplicados entram apenas na validação dos saques
+            BigDecimal pendingDelta = balanceNettingEngine.isEnabled()
+                    ? balanceNettingEngine.availableDelta(walletId)
+                    : BigDecimal.ZERO;
+            for (int index : indexes) {
+                BigDecimal amount = batch.getItems().get(index).amount();
+                if (amount == null || amount.signum() <= 0) {
+                    outcomes.add(ItemOutcome.failed(index, INVALID_AMOUNT));
+                    continue;
+                }
+                if (withdraw && balance.add(pendingDelta).compareTo(amount) < 0) {
+                    outcomes.add(ItemOutcome.failed(index, INSUFFICIENT_BALANCE));
+                    continue;
+                }
+                // Saques contam nos limites de movimentação; o uso é devolvido se o chunk for desfeito
+                if (withdraw && !acquireVelocity(walletId, amount)) {
+                    outcomes.add(ItemOutcome.failed(index, VELOCITY_LIMIT_EXCEEDED));
+                    continue;
+                }
+                balance = withdraw ? balance.subtract(amount) : balance.add(amount);
+
+                TransactionEntity transaction = TransactionEntity.builder()
+                        .walletId(walletId)
+                        .amount(withdraw ? amount.negate() : amount)
+                        .type(batch.getType())
+                        .status(TransactionStatusEnum.CONFIRMED)
+                        .endToEndId(UUID.randomUUID().toString())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build();
+                transactions.add(transaction);
+                outcomes.add(ItemOutcome.succeeded(index, transaction.getEndToEndId()));
+            }
+
+            if (balance.compareTo(wallet.getCurrentBalance()) != 0) {
+                wallet.setCurrentBalance(balance);
+                wallet.setUpdatedAt(now);
+                changedWallets.add(wallet);
+            }
+        }
+
+        transactionBatchRepository.insertAll(transactions, properties.chunkSize());
+        transactionRollupService.recordCreated(transactions);
+        if (!transactions.isEmpty()) eventPublisher.publishEvent(new TransactionsConfirmedEvent(transactions));
+        outboxService.appendTransactions(withdraw
+                ? OutboxEventTypeEnum.WITHDRAW_CONFIRMED
+                : OutboxEventTypeEnum.DEPOSIT_CONFIRMED, transactions);
+        walletRepository.saveAll(changedWallets);
+        cacheInvalidationBus.publish(changedWallets.stream().map(WalletEntity::getId).toList(), List.of());
+        log.debug("Chunk processado: {} carteiras, {} transações", walletIds.size(), transactions.size());
+        return outcomes;
+    }
+
+    private boolean acquireVelocity(String walletId, BigDecimal amount) {
+        try {
+            velocityLimiter.acquire(walletId, amount);
+            return true;
+        } catch (VelocityLimitExceededException e) {
+            return false;
+        }
+    }
+
+    private void apply(WalletBatch batch, List<ItemOutcome> outcomes) {
+        for (ItemOutcome outcome : outcomes) {
+            if (outcome.errorCode() == null) batch.succeed(outcome.index(), outcome.endToEndId());
+            else batch.fail(outcome.index(), outcome.errorCode());
+        }
+    }
+
+    private void evictFinishedBatches() {
+        LocalDateTime limit = LocalDateTime.now().minus(properties.retention());
+        batches.values().removeIf(batch -> batch.isFinishedBefore(limit));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private record ItemOutcome(int index, String endToEndId, String errorCode) {
+        static ItemOutcome succeeded(int index, String endToEndId) {
+            return new ItemOutcome(index, endToEndId, null);
+        }
+
+        static ItemOutcome failed(int index, String errorCode) {
+            return new ItemOutcome(index, null, errorCode);
+        }
+    }
+}
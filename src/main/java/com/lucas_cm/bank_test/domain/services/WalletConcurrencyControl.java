@@ -0,0 +1,81 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.WalletConcurrencyProperties;
+import com.lucas_cm.bank_test.domain.exceptions.WalletLockTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Executa uma operação de saldo de uma carteira em transação própria, no modo de concorrência
+ * configurado para ela. No modo otimista, um conflito de {@code version} no commit desfaz a
+ * transação e a operação inteira é repetida após um backoff exponencial com jitter.
+ * <p>
+ * Quando já existe uma transação em andamento (lock advisory), a operação participa dela e não
+ * há repetição: a transação externa já estaria marcada para rollback.
+ */
+@Service
+@Slf4j
+public class WalletConcurrencyControl {
+    private final WalletConcurrencyProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter conflicts;
+    private final Counter exhausted;
+
+    public WalletConcurrencyControl(WalletConcurrencyProperties properties,
+                                    TransactionTemplate transactionTemplate,
+                                    MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.conflicts = Counter.builder("bank.wallet-concurrency.optimistic.conflicts")
+                .description("Conflitos de versão no modo otimista")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("bank.wallet-concurrency.optimistic.exhausted")
+                .description("Operações que esgotaram as tentativas no modo otimista")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param operation recebe {@code true} quando a carteira deve ser lida sem lock (modo otimista)
+     */
+    public <T> T execute(String walletId, Function<Boolean, T> operation) {
+        boolean optimistic = properties.modeFor(walletId) == WalletConcurrencyProperties.Mode.OPTIMISTIC;
+        if (!optimistic || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(status -> operation.apply(optimistic));
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> operation.apply(true));
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempt >= properties.maxAttempts()) {
+                    exhausted.increment();
+                    log.warn("Conflito de versão na carteira após {} tentativas", attempt);
+                    throw new WalletLockTimeoutException();
+                }
+                log.debug("Conflito de versão na carteira, tentativa {}", attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(properties.backoffMax().toNanos(),
+                properties.backoffBase().toNanos() << Math.min(attempt - 1, 20));
+        long sleep = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletLockTimeoutException();
+        }
+    }
+}
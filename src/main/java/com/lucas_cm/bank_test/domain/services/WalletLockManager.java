@@ -0,0 +1,106 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.WalletLockProperties;
+import com.lucas_cm.bank_test.domain.exceptions.WalletLockTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks por carteira na JVM, distribuídos em stripes. As chaves de uma operação são mapeadas
+ * para stripes e travadas em ordem crescente de índice, então duas operações que tocam as
+ * mesmas carteiras nunca entram em deadlock.
+ * <p>
+ * No modo {@code advisory}, depois dos locks locais é aberta a transação e cada chave é travada
+ * com {@code pg_advisory_xact_lock}, serializando também entre instâncias; o método anotado
+ * participa dessa transação.
+ */
+@Service
+@Slf4j
+public class WalletLockManager {
+    private final WalletLockProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] stripes;
+    private final Timer waitTimer;
+
+    public WalletLockManager(WalletLockProperties properties,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, properties.stripes()))];
+        for (int i = 0; i < stripes.length; i++) {
+            // Justo: as operações da mesma carteira são atendidas em ordem de chegada
+            stripes[i] = new ReentrantLock(true);
+        }
+        this.waitTimer = Timer.builder("bank.wallet-lock.wait")
+                .description("Espera pelo lock local da carteira")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.mode() != WalletLockProperties.Mode.NONE;
+    }
+
+    public <T> T withLocks(Collection<String> keys, LockedCall<T> call) {
+        List<String> sortedKeys = keys.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        int[] indexes = sortedKeys.stream().mapToInt(this::stripeIndex).distinct().sorted().toArray();
+
+        int acquired = 0;
+        long start = System.nanoTime();
+        try {
+            long deadline = start + properties.acquireTimeout().toNanos();
+            for (int index : indexes) {
+                long remaining = deadline - System.nanoTime();
+                if (!stripes[index].tryLock(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                    log.warn("Timeout aguardando lock local das carteiras {}", sortedKeys);
+                    throw new WalletLockTimeoutException();
+                }
+                acquired++;
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            return properties.mode() == WalletLockProperties.Mode.ADVISORY
+                    ? withAdvisoryLocks(sortedKeys, call)
+                    : call.call();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletLockTimeoutException();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    private <T> T withAdvisoryLocks(List<String> sortedKeys, LockedCall<T> call) {
+        return transactionTemplate.execute(status -> {
+            for (String key : sortedKeys) {
+                jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(hashtext(?))", Integer.class, key);
+            }
+            return call.call();
+        });
+    }
+
+    int stripeIndex(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    @FunctionalInterface
+    public interface LockedCall<T> {
+        T call();
+    }
+}
@@ -0,0 +1,112 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.WalletRateLimitProperties;
+import com.lucas_cm.bank_test.domain.exceptions.WalletRateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket por carteira, checado nos controllers antes de qualquer acesso ao banco. Cada
+ * bucket é um único {@link AtomicLong} com o instante teórico de chegada (GCRA): consumir um
+ * token é um compare-and-set, sem lock.
+ * <p>
+ * Um bucket com o instante teórico no passado está cheio e equivale a um bucket novo, então
+ * descartá-lo não muda o comportamento; assim a memória fica limitada às carteiras ativas.
+ */
+@Service
+@Slf4j
+public class WalletRateLimiter {
+    private final WalletRateLimitProperties properties;
+    private final LongSupplier nanoClock;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public WalletRateLimiter(WalletRateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    WalletRateLimiter(WalletRateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / properties.refillPerSecond());
+        this.burstNanos = intervalNanos * properties.capacity();
+        Gauge.builder("bank.rate-limit.wallet.tracked", buckets, Map::size)
+                .description("Carteiras com token bucket em memória")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Consome um token da carteira ou lança {@link WalletRateLimitExceededException} com o
+     * tempo até o próximo token.
+     */
+    public void acquire(String walletId, String operation) {
+        long waitNanos = tryAcquire(walletId);
+        if (waitNanos > 0) {
+            Counter.builder("bank.rate-limit.wallet.rejected")
+                    .description("Requisições rejeitadas pelo limite por carteira")
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Limite de requisições excedido para a carteira {} em {}", walletId, operation);
+            throw new WalletRateLimitExceededException(
+                    Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+        }
+    }
+
+    /**
+     * @return 0 se o token foi consumido, senão os nanossegundos até haver um token disponível
+     */
+    long tryAcquire(String walletId) {
+        if (!properties.enabled() || walletId == null) return 0;
+
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(walletId);
+        if (bucket == null) {
+            if (buckets.size() >= properties.maxWallets()) {
+                evictIdle(now);
+                if (buckets.size() >= properties.maxWallets()) {
+                    log.debug("Limite de carteiras rastreadas atingido, carteira {} sem limite", walletId);
+                    return 0;
+                }
+            }
+            bucket = buckets.computeIfAbsent(walletId, id -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long theoreticalArrival = bucket.get();
+            long next = Math.max(theoreticalArrival, now) + intervalNanos;
+            long excess = next - now - burstNanos;
+            if (excess > 0) return excess;
+            if (bucket.compareAndSet(theoreticalArrival, next)) return 0;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bank.rate-limit.wallet.idle-timeout:1m}")
+    public void evictIdle() {
+        evictIdle(nanoClock.getAsLong());
+    }
+
+    private void evictIdle(long now) {
+        long idleNanos = properties.idleTimeout().toNanos();
+        buckets.entrySet().removeIf(entry -> entry.getValue().get() + idleNanos <= now);
+    }
+
+    int trackedWallets() {
+        return buckets.size();
+    }
+}
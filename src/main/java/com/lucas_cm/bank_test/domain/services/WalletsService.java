@@ -1,5 +1,6 @@
 package com.lucas_cm.bank_test.domain.services;
 
+import com.lucas_cm.bank_test.domain.entities.OutboxEventTypeEnum;
 import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
 import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
 import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
@@ -8,16 +9,22 @@ import com.lucas_cm.bank_test.domain.exceptions.InsufficientBalanceException;
 import com.lucas_cm.bank_test.domain.exceptions.UserAlreadyHasWalletException;
 import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
 import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.cache.CacheInvalidationBus;
+import com.lucas_cm.bank_test.infrastructure.locking.WalletLocked;
+import com.lucas_cm.bank_test.infrastructure.sharding.ShardedBy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -29,49 +36,84 @@ public class WalletsService {
 
     private final WalletRepository walletRepository;
 
+    private final BalanceNettingEngine balanceNettingEngine;
+
+    private final OutboxService outboxService;
+
+    private final WalletConcurrencyControl walletConcurrencyControl;
+
+    private final WalletBalanceCache walletBalanceCache;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final ShardRouter shardRouter;
+
+    private final VelocityLimiter velocityLimiter;
+
     public WalletEntity create(String userId) {
 
-        var existing = walletRepository.existsByUserId(userId);
-        if (existing) {
+        var existing = shardRouter.findShard(() -> walletRepository.existsByUserId(userId));
+        if (existing.isPresent()) {
             throw new UserAlreadyHasWalletException();
         }
 
+        // Com sharding o id é definido antes do insert, porque é ele que escolhe o shard
         WalletEntity wallet = WalletEntity.builder()
+                .id(shardRouter.isEnabled() ? UUID.randomUUID().toString() : null)
                 .userId(userId)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .currentBalance(BigDecimal.ZERO)
                 .build();
 
-        return walletRepository.save(wallet);
+        return shardRouter.onShard(shardRouter.shardOf(wallet.getId()), () -> walletRepository.save(wallet));
     }
 
+    @ShardedBy("#wallet.id")
     public WalletEntity save(WalletEntity wallet) {
         wallet.setUpdatedAt(LocalDateTime.now());
-        return walletRepository.save(wallet);
+        WalletEntity saved = walletRepository.save(wallet);
+        cacheInvalidationBus.publishWallet(saved.getId());
+        return saved;
     }
 
+    @ShardedBy("#id")
     public WalletEntity insertPixKey(String id, String pixKey) {
         WalletEntity wallet = walletRepository.findById(id)
                 .orElseThrow(WalletNotFoundException::new);
 
+        String previousPixKey = wallet.getPixKey();
         wallet.setPixKey(pixKey);
         wallet.setUpdatedAt(LocalDateTime.now());
 
-        return walletRepository.save(wallet);
+        // O diretório garante a unicidade da chave entre shards, então é reservado primeiro
+        shardRouter.registerPixKey(pixKey, id);
+        WalletEntity saved;
+        try {
+            saved = walletRepository.save(wallet);
+        } catch (RuntimeException e) {
+            shardRouter.releasePixKey(pixKey, id);
+            throw e;
+        }
+        if (!Objects.equals(pixKey, previousPixKey)) shardRouter.releasePixKey(previousPixKey, id);
+        cacheInvalidationBus.publish(List.of(id), Arrays.asList(previousPixKey, pixKey));
+        return saved;
     }
 
+    @ShardedBy("#id")
     public WalletEntity findById(String id) {
         return walletRepository.findById(id)
                 .orElseThrow(WalletNotFoundException::new);
     }
 
+    @ShardedBy(value = "#pixKey", key = ShardedBy.Key.PIX_KEY)
     public WalletEntity findByPixKey(String pixKey) {
         return walletRepository.findByPixKey(pixKey)
                 .orElseThrow(WalletNotFoundException::new);
     }
 
-    @Transactional
+    @ShardedBy("#walletId")
+    @WalletLocked("#walletId")
     public WalletEntity deposit(String walletId, BigDecimal amount) {
         MDC.put("walletId", walletId);
         MDC.put("amount", amount.toString());
@@ -80,36 +122,40 @@ public class WalletsService {
         try {
             log.info("Processando depósito");
 
-            // Usar lock pessimista para prevenir race conditions
-            WalletEntity wallet = walletRepository.findByIdWithLock(walletId)
-                    .orElseThrow(() -> {
-                        log.error("Carteira não encontrada para depósito");
-                        return new WalletNotFoundException();
-                    });
-
-            wallet.setCurrentBalance(wallet.getCurrentBalance().add(amount));
-
-            TransactionEntity transaction = TransactionEntity.builder()
-                    .walletId(wallet.getId())
-                    .amount(amount)
-                    .type(TransactionTypeEnum.DEPOSIT)
-                    .status(TransactionStatusEnum.CONFIRMED)
-                    .endToEndId(UUID.randomUUID().toString())
-                    .createdAt(LocalDateTime.now())
-                    .updatedAt(LocalDateTime.now())
-                    .build();
-
-            transactionService.create(transaction);
-            walletRepository.save(wallet);
-
-            log.info("Depósito processado com sucesso. Novo saldo: {}", wallet.getCurrentBalance());
-            return wallet;
+            return walletConcurrencyControl.execute(walletId, optimistic -> {
+                WalletEntity wallet = loadForUpdate(walletId, optimistic)
+                        .orElseThrow(() -> {
+                            log.error("Carteira não encontrada para depósito");
+                            return new WalletNotFoundException();
+                        });
+
+                wallet.setCurrentBalance(wallet.getCurrentBalance().add(amount));
+
+                TransactionEntity transaction = TransactionEntity.builder()
+                        .walletId(wallet.getId())
+                        .amount(amount)
+                        .type(TransactionTypeEnum.DEPOSIT)
+                        .status(TransactionStatusEnum.CONFIRMED)
+                        .endToEndId(UUID.randomUUID().toString())
+                        .createdAt(LocalDateTime.now())
+                        .updatedAt(LocalDateTime.now())
+                        .build();
+
+                transactionService.create(transaction);
+                outboxService.appendTransaction(OutboxEventTypeEnum.DEPOSIT_CONFIRMED, transaction);
+                walletRepository.save(wallet);
+                cacheInvalidationBus.publishWallet(walletId);
+
+                log.info("Depósito processado com sucesso. Novo saldo: {}", wallet.getCurrentBalance());
+                return wallet;
+            });
         } finally {
             MDC.clear();
         }
     }
 
-    @Transactional
+    @ShardedBy("#walletId")
+    @WalletLocked("#walletId")
     public WalletEntity withdraw(String walletId, BigDecimal amount) {
         MDC.put("walletId", walletId);
         MDC.put("amount", amount.toString());
@@ -118,42 +164,70 @@ public class WalletsService {
         try {
             log.info("Processando saque");
 
-            // Usar lock pessimista para prevenir race conditions
-            WalletEntity wallet = walletRepository.findByIdWithLock(walletId)
-                    .orElseThrow(() -> {
-                        log.error("Carteira não encontrada para saque");
-                        return new WalletNotFoundException();
-                    });
-
-            // Validar saldo (com lock já aplicado, garantindo consistência)
-            if (wallet.getCurrentBalance().compareTo(amount) < 0) {
-                log.warn("Saldo insuficiente para saque. Saldo atual: {}", wallet.getCurrentBalance());
-                throw new InsufficientBalanceException(wallet.getCurrentBalance());
-            }
-
-            wallet.setCurrentBalance(wallet.getCurrentBalance().subtract(amount));
-
-            TransactionEntity transaction = TransactionEntity.builder()
-                    .walletId(wallet.getId())
-                    .amount(amount.negate())
-                    .type(TransactionTypeEnum.WITHDRAW)
-                    .status(TransactionStatusEnum.CONFIRMED)
-                    .endToEndId(UUID.randomUUID().toString())
-                    .createdAt(LocalDateTime.now())
-                    .updatedAt(LocalDateTime.now())
-                    .build();
-
-            transactionService.create(transaction);
-            walletRepository.save(wallet);
-
-            log.info("Saque processado com sucesso. Novo saldo: {}", wallet.getCurrentBalance());
-            return wallet;
+            return walletConcurrencyControl.execute(walletId, optimistic -> {
+                WalletEntity wallet = loadForUpdate(walletId, optimistic)
+                        .orElseThrow(() -> {
+                            log.error("Carteira não encontrada para saque");
+                            return new WalletNotFoundException();
+                        });
+
+                // Validar saldo (com lock ou versão da linha, garantindo consistência)
+                BigDecimal availableBalance = availableBalance(wallet);
+                if (availableBalance.compareTo(amount) < 0) {
+                    log.warn("Saldo insuficiente para saque. Saldo atual: {}", availableBalance);
+                    throw new InsufficientBalanceException(availableBalance);
+                }
+
+                // Registra o saque nos limites de movimentação; devolvido se a transação for desfeita
+                velocityLimiter.acquire(walletId, amount);
+
+                wallet.setCurrentBalance(wallet.getCurrentBalance().subtract(amount));
+
+                TransactionEntity transaction = TransactionEntity.builder()
+                        .walletId(wallet.getId())
+                        .amount(amount.negate())
+                        .type(TransactionTypeEnum.WITHDRAW)
+                        .status(TransactionStatusEnum.CONFIRMED)
+                        .endToEndId(UUID.randomUUID().toString())
+                        .createdAt(LocalDateTime.now())
+                        .updatedAt(LocalDateTime.now())
+                        .build();
+
+                transactionService.create(transaction);
+                outboxService.appendTransaction(OutboxEventTypeEnum.WITHDRAW_CONFIRMED, transaction);
+                walletRepository.save(wallet);
+                cacheInvalidationBus.publishWallet(walletId);
+
+                log.info("Saque processado com sucesso. Novo saldo: {}", wallet.getCurrentBalance());
+                return wallet;
+            });
         } finally {
             MDC.clear();
         }
     }
 
+    /**
+     * Pessimista: {@code SELECT ... FOR UPDATE}. Otimista: leitura simples, o conflito aparece no
+     * UPDATE com a coluna {@code version}.
+     */
+    private Optional<WalletEntity> loadForUpdate(String walletId, boolean optimistic) {
+        return optimistic ? walletRepository.findById(walletId) : walletRepository.findByIdWithLock(walletId);
+    }
+
+    private BigDecimal availableBalance(WalletEntity wallet) {
+        if (!balanceNettingEngine.isEnabled()) return wallet.getCurrentBalance();
+        return wallet.getCurrentBalance().add(balanceNettingEngine.availableDelta(wallet.getId()));
+    }
+
+    @ShardedBy("#id")
     public BigDecimal getBalance(String id, String at) {
+        if (at == null && balanceNettingEngine.isEnabled()) {
+            // Soma os deltas de transferências confirmadas ainda não aplicados no banco
+            return balanceNettingEngine.withPendingDelta(id, () -> findById(id).getCurrentBalance());
+        }
+        if (at == null && walletBalanceCache.isEnabled()) {
+            return walletBalanceCache.get(id, () -> findById(id).getCurrentBalance());
+        }
         var wallet = findById(id);
         if (at == null) {
             return wallet.getCurrentBalance();
@@ -0,0 +1,169 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.WebhookInboxProperties;
+import com.lucas_cm.bank_test.domain.models.WebhookInboxEntry;
+import com.lucas_cm.bank_test.domain.repositories.WebhookInboxRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixWebhookRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fila durável de webhooks PIX. O endpoint só grava o webhook e responde; os workers drenam a
+ * fila em lotes e processam cada webhook em uma transação própria, que também o remove da fila.
+ * Um webhook que falha volta para a fila com espera crescente e segura os eventos seguintes da
+ * mesma transferência até ser processado ou esgotar as tentativas.
+ * <p>
+ * Com sharding a fila fica no shard 0 e a transferência no shard dela, então não há transação
+ * comum: o webhook é processado e só depois removido. Uma falha entre os dois passos reprocessa
+ * um evento que o {@link PixService#processWebhook} já ignora pelo eventId.
+ */
+@Service
+@Slf4j
+public class WebhookInboxService {
+    private final WebhookInboxRepository webhookInboxRepository;
+    private final PixService pixService;
+    private final TransactionTemplate transactionTemplate;
+    private final WebhookInboxProperties properties;
+    private final ShardRouter shardRouter;
+
+    private final Counter processedCounter;
+    private final Counter failedCounter;
+    private final Counter exhaustedCounter;
+    private final Timer ackTimer;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public WebhookInboxService(WebhookInboxRepository webhookInboxRepository,
+                               PixService pixService,
+                               TransactionTemplate transactionTemplate,
+                               WebhookInboxProperties properties,
+                               ShardRouter shardRouter,
+                               MeterRegistry meterRegistry) {
+        this.webhookInboxRepository = webhookInboxRepository;
+        this.pixService = pixService;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+
+        this.processedCounter = Counter.builder("bank.pix.webhook.inbox.processed")
+                .description("Webhooks processados a partir da fila")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("bank.pix.webhook.inbox.failed")
+                .description("Tentativas de processamento de webhook que falharam")
+                .register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("bank.pix.webhook.inbox.exhausted")
+                .description("Webhooks que esgotaram as tentativas e ficaram parados na fila")
+                .register(meterRegistry);
+        this.ackTimer = Timer.builder("bank.pix.webhook.inbox.enqueue")
+                .description("Tempo para gravar o webhook na fila antes de responder")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public void enqueue(PixWebhookRequest request) {
+        long start = System.nanoTime();
+        boolean inserted = webhookInboxRepository.enqueue(request, LocalDateTime.now());
+        ackTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        if (!inserted) log.info("Webhook {} já estava na fila, ignorando", request.eventId());
+    }
+
+    @Scheduled(fixedDelayString = "${bank.pix.webhook.inbox.poll-interval:200ms}")
+    public void scheduledDrain() {
+        if (!isEnabled()) return;
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.error("Falha ao drenar a fila de webhooks, tentando novamente na próxima janela", e);
+        }
+    }
+
+    /**
+     * Roda os workers até a fila não ter mais webhooks prontos e retorna quantos foram processados.
+     */
+    public int drain() {
+        List<Callable<Integer>> workers = new ArrayList<>(properties.workers());
+        for (int i = 0; i < properties.workers(); i++) {
+            workers.add(this::drainUntilEmpty);
+        }
+        try {
+            int total = 0;
+            for (Future<Integer> future : executor.invokeAll(workers)) {
+                total += future.get();
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Worker da fila de webhooks falhou", e.getCause());
+        }
+    }
+
+    private int drainUntilEmpty() {
+        int total = 0;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            List<WebhookInboxEntry> entries = webhookInboxRepository.claim(
+                    properties.batchSize(), properties.maxAttempts(), now, now.plus(properties.lease()));
+            entries.forEach(this::process);
+            total += entries.size();
+            if (entries.size() < properties.batchSize()) return total;
+        }
+    }
+
+    void process(WebhookInboxEntry entry) {
+        try {
+            if (shardRouter.isEnabled()) {
+                pixService.processWebhook(entry.request());
+                webhookInboxRepository.delete(entry.id());
+            } else {
+                transactionTemplate.executeWithoutResult(status -> {
+                    pixService.processWebhook(entry.request());
+                    webhookInboxRepository.delete(entry.id());
+                });
+            }
+            processedCounter.increment();
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            MDC.put("eventId", entry.request().eventId());
+            MDC.put("endToEndId", entry.request().endToEndId());
+            try {
+                if (entry.attempts() >= properties.maxAttempts()) {
+                    exhaustedCounter.increment();
+                    log.error("Webhook esgotou as {} tentativas e ficou parado na fila", entry.attempts(), e);
+                } else {
+                    log.warn("Falha ao processar webhook (tentativa {}), reagendando", entry.attempts(), e);
+                }
+                webhookInboxRepository.reschedule(entry.id(),
+                        LocalDateTime.now().plus(properties.retryDelay().multipliedBy(entry.attempts())),
+                        e.getClass().getSimpleName() + ": " + e.getMessage());
+            } finally {
+                MDC.clear();
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,34 @@
+package com.lucas_cm.bank_test.infrastructure.actuator;
+
+import com.lucas_cm.bank_test.domain.services.LedgerReconciliationService;
+import com.lucas_cm.bank_test.infrastructure.dtos.ReconciliationReportDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/reconciliation} retorna o último relatório e
+ * {@code POST /actuator/reconciliation} dispara uma nova execução ({@code {"full": true}} força a varredura completa).
+ */
+@Component
+@Endpoint(id = "reconciliation")
+@RequiredArgsConstructor
+public class ReconciliationEndpoint {
+    private final LedgerReconciliationService ledgerReconciliationService;
+
+    @ReadOperation
+    public ReconciliationReportDto report() {
+        return ledgerReconciliationService.lastReport();
+    }
+
+    @WriteOperation
+    public Map<String, Object> run(@Nullable Boolean full) {
+        boolean started = ledgerReconciliationService.trigger(Boolean.TRUE.equals(full));
+        return Map.of("started", started);
+    }
+}
@@ -0,0 +1,36 @@
+package com.lucas_cm.bank_test.infrastructure.actuator;
+
+import com.lucas_cm.bank_test.domain.services.ShardRebalancer;
+import com.lucas_cm.bank_test.infrastructure.dtos.ShardRebalanceReportDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/sharding} retorna o último rebalanceamento e {@code POST /actuator/sharding}
+ * dispara backfill do diretório de chaves PIX + rebalanceamento ({@code {"backfillOnly": true}} só o backfill).
+ */
+@Component
+@Endpoint(id = "sharding")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "bank.sharding", name = "enabled", havingValue = "true")
+public class ShardingEndpoint {
+    private final ShardRebalancer shardRebalancer;
+
+    @ReadOperation
+    public ShardRebalanceReportDto report() {
+        return shardRebalancer.lastReport();
+    }
+
+    @WriteOperation
+    public Map<String, Object> run(@Nullable Boolean backfillOnly) {
+        boolean started = shardRebalancer.trigger(Boolean.TRUE.equals(backfillOnly));
+        return Map.of("started", started);
+    }
+}
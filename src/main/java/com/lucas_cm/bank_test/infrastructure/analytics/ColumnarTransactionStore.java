@@ -0,0 +1,302 @@
+package com.lucas_cm.bank_test.infrastructure.analytics;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.infrastructure.dtos.AnalyticsBucketDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Transações em colunas de tipos primitivos, divididas em segmentos de tamanho fixo: carteira
+ * codificada por dicionário ({@code int}), tipo ({@code byte}), valor em centavos e instante em
+ * milissegundos ({@code long}).
+ * <p>
+ * Um único escritor por vez acrescenta linhas no segmento ativo e publica o novo tamanho em um
+ * campo volátil; as consultas leem cada segmento até o tamanho visto, sem lock. As agregações são
+ * laços sobre as colunas, com os segmentos divididos em partições agregadas em paralelo e
+ * combinadas no fim. Segmentos inteiramente fora do intervalo são pulados e os inteiramente
+ * dentro dispensam a comparação de instante por linha.
+ * <p>
+ * Ao descartar segmentos, os que sobram são recodificados em um dicionário novo, só com as carteiras
+ * que ainda aparecem, e publicados junto com ele em uma nova geração. Cada consulta lê uma geração só,
+ * então nunca mistura códigos de um dicionário com nomes de outro.
+ */
+public class ColumnarTransactionStore {
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final TransactionTypeEnum[] TYPES = TransactionTypeEnum.values();
+
+    private final int segmentSize;
+    private final int parallelism;
+    private volatile Generation generation;
+    private Segment active;
+
+    public ColumnarTransactionStore(int segmentSize, int parallelism) {
+        this.segmentSize = segmentSize;
+        this.parallelism = parallelism;
+        this.generation = new Generation();
+        this.active = new Segment(segmentSize);
+        this.generation.segments.add(active);
+    }
+
+    public synchronized void append(String walletId, TransactionTypeEnum type, long amountCents, long epochMillis) {
+        Generation current = generation;
+        if (active.size == segmentSize) {
+            active = new Segment(segmentSize);
+            current.segments.add(active);
+        }
+        active.append(current.encode(walletId), (byte) type.ordinal(), amountCents, epochMillis);
+    }
+
+    /**
+     * Descarta os segmentos fechados cuja linha mais recente é anterior a {@code epochMillis}
+     * e retorna quantas linhas saíram. Se algo saiu, recodifica os segmentos restantes para que o
+     * dicionário de carteiras acompanhe a janela.
+     */
+    public synchronized int evictBefore(long epochMillis) {
+        int evicted = 0;
+        List<Segment> surviving = new ArrayList<>();
+        for (Segment segment : generation.segments) {
+            if (segment != active && segment.maxTime < epochMillis) {
+                evicted += segment.size;
+            } else {
+                surviving.add(segment);
+            }
+        }
+        if (evicted > 0) reencode(surviving);
+        return evicted;
+    }
+
+    public long rows() {
+        return generation.segments.stream().mapToLong(segment -> segment.size).sum();
+    }
+
+    public int wallets() {
+        return generation.walletCount;
+    }
+
+    public List<AnalyticsBucketDto> volumeByType(long from) {
+        List<Slice> slices = snapshot(generation, from);
+        Totals totals = aggregate(slices, part -> new Totals(TYPES.length), (slice, acc) -> {
+            Segment s = slice.segment;
+            if (s.minTime >= from) {
+                for (int i = 0; i < slice.size; i++) {
+                    acc.add(s.types[i], s.amounts[i]);
+                }
+            } else {
+                for (int i = 0; i < slice.size; i++) {
+                    if (s.times[i] >= from) acc.add(s.types[i], s.amounts[i]);
+                }
+            }
+        });
+
+        List<AnalyticsBucketDto> buckets = new ArrayList<>();
+        for (int type = 0; type < TYPES.length; type++) {
+            if (totals.counts[type] > 0) buckets.add(totals.bucket(type, TYPES[type].name()));
+        }
+        return buckets;
+    }
+
+    /**
+     * Um bucket por hora cheia a partir da hora de {@code from} até a de {@code to}, incluindo as vazias.
+     */
+    public List<AnalyticsBucketDto> volumeByHour(long from, long to) {
+        long firstHour = Math.floorDiv(from, HOUR_MILLIS) * HOUR_MILLIS;
+        int hours = (int) (Math.floorDiv(to, HOUR_MILLIS) - firstHour / HOUR_MILLIS) + 1;
+        List<Slice> slices = snapshot(generation, from);
+        Totals totals = aggregate(slices, part -> new Totals(hours), (slice, acc) -> {
+            Segment s = slice.segment;
+            for (int i = 0; i < slice.size; i++) {
+                long time = s.times[i];
+                if (time < from) continue;
+                int hour = (int) ((time - firstHour) / HOUR_MILLIS);
+                if (hour < hours) acc.add(hour, s.amounts[i]);
+            }
+        });
+
+        List<AnalyticsBucketDto> buckets = new ArrayList<>(hours);
+        for (int hour = 0; hour < hours; hour++) {
+            LocalDateTime start = LocalDateTime.ofEpochSecond((firstHour + hour * HOUR_MILLIS) / 1000, 0, ZoneOffset.UTC);
+            buckets.add(totals.bucket(hour, start.toString()));
+        }
+        return buckets;
+    }
+
+    /**
+     * As {@code limit} carteiras de maior volume desde {@code from}, em ordem decrescente.
+     */
+    public List<AnalyticsBucketDto> topWallets(long from, int limit) {
+        Generation current = generation;
+        List<Slice> slices = snapshot(current, from);
+        // Lido depois dos tamanhos dos segmentos: todo código nas linhas vistas é menor que ele
+        int wallets = current.walletCount;
+        String[] ids = current.walletIds;
+        Totals totals = aggregate(slices, part -> new Totals(wallets), (slice, acc) -> {
+            Segment s = slice.segment;
+            if (s.minTime >= from) {
+                for (int i = 0; i < slice.size; i++) {
+                    acc.add(s.wallets[i], s.amounts[i]);
+                }
+            } else {
+                for (int i = 0; i < slice.size; i++) {
+                    if (s.times[i] >= from) acc.add(s.wallets[i], s.amounts[i]);
+                }
+            }
+        });
+
+        PriorityQueue<Integer> top = new PriorityQueue<>(Comparator.comparingLong(code -> totals.volumes[code]));
+        for (int code = 0; code < wallets; code++) {
+            if (totals.counts[code] == 0) continue;
+            top.add(code);
+            if (top.size() > limit) top.poll();
+        }
+        List<AnalyticsBucketDto> buckets = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int code = top.poll();
+            buckets.add(totals.bucket(code, ids[code]));
+        }
+        Collections.reverse(buckets);
+        return buckets;
+    }
+
+    /**
+     * Copia as linhas de {@code surviving} para segmentos novos codificados em um dicionário novo e
+     * publica tudo de uma vez. O último segmento copiado vira o ativo.
+     */
+    private void reencode(List<Segment> surviving) {
+        Generation current = generation;
+        Generation next = new Generation();
+        Segment copy = null;
+        for (Segment segment : surviving) {
+            copy = new Segment(segmentSize);
+            for (int i = 0; i < segment.size; i++) {
+                int code = next.encode(current.walletIds[segment.wallets[i]]);
+                copy.append(code, segment.types[i], segment.amounts[i], segment.times[i]);
+            }
+            next.segments.add(copy);
+        }
+        if (copy == null) {
+            copy = new Segment(segmentSize);
+            next.segments.add(copy);
+        }
+        active = copy;
+        generation = next;
+    }
+
+    private List<Slice> snapshot(Generation current, long from) {
+        List<Slice> slices = new ArrayList<>();
+        for (Segment segment : current.segments) {
+            int size = segment.size;
+            if (size > 0 && segment.maxTime >= from) slices.add(new Slice(segment, size));
+        }
+        return slices;
+    }
+
+    private Totals aggregate(List<Slice> slices, IntFunction<Totals> partial, SliceScanner scanner) {
+        int parts = Math.max(1, Math.min(parallelism, slices.size()));
+        return IntStream.range(0, parts)
+                .parallel()
+                .mapToObj(part -> {
+                    Totals acc = partial.apply(part);
+                    for (int i = part; i < slices.size(); i += parts) {
+                        scanner.scan(slices.get(i), acc);
+                    }
+                    return acc;
+                })
+                .reduce(Totals::merge)
+                .orElseGet(() -> partial.apply(0));
+    }
+
+    @FunctionalInterface
+    private interface SliceScanner {
+        void scan(Slice slice, Totals acc);
+    }
+
+    private record Slice(Segment segment, int size) {
+    }
+
+    /**
+     * Segmentos e o dicionário em que estão codificados. Só o escritor chama {@link #encode}.
+     */
+    private static final class Generation {
+        private final List<Segment> segments = new CopyOnWriteArrayList<>();
+        private final Map<String, Integer> walletCodes = new HashMap<>();
+        private volatile String[] walletIds = new String[1024];
+        // Escrito depois de walletIds: quem lê a quantidade enxerga os ids até ela
+        private volatile int walletCount;
+
+        private int encode(String walletId) {
+            Integer code = walletCodes.get(walletId);
+            if (code != null) return code;
+
+            int next = walletCount;
+            String[] ids = walletIds;
+            if (next == ids.length) ids = Arrays.copyOf(ids, ids.length * 2);
+            ids[next] = walletId;
+            walletIds = ids;
+            walletCount = next + 1;
+            walletCodes.put(walletId, next);
+            return next;
+        }
+    }
+
+    private static final class Segment {
+        private final int[] wallets;
+        private final byte[] types;
+        private final long[] amounts;
+        private final long[] times;
+        private volatile long minTime = Long.MAX_VALUE;
+        private volatile long maxTime = Long.MIN_VALUE;
+        private volatile int size;
+
+        private Segment(int capacity) {
+            this.wallets = new int[capacity];
+            this.types = new byte[capacity];
+            this.amounts = new long[capacity];
+            this.times = new long[capacity];
+        }
+
+        private void append(int wallet, byte type, long amount, long time) {
+            int i = size;
+            wallets[i] = wallet;
+            types[i] = type;
+            amounts[i] = amount;
+            times[i] = time;
+            if (time < minTime) minTime = time;
+            if (time > maxTime) maxTime = time;
+            // Publica a linha para as consultas
+            size = i + 1;
+        }
+    }
+
+    private static final class Totals {
+        private final long[] counts;
+        private final long[] volumes;
+
+        private Totals(int keys) {
+            this.counts = new long[keys];
+            this.volumes = new long[keys];
+        }
+
+        private void add(int key, long amount) {
+            counts[key]++;
+            volumes[key] += Math.abs(amount);
+        }
+
+        private Totals merge(Totals other) {
+            for (int key = 0; key < counts.length; key++) {
+                counts[key] += other.counts[key];
+                volumes[key] += other.volumes[key];
+            }
+            return this;
+        }
+
+        private AnalyticsBucketDto bucket(int key, String name) {
+            return new AnalyticsBucketDto(name, counts[key], BigDecimal.valueOf(volumes[key], 2));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.lucas_cm.bank_test.infrastructure.analytics;
+
+import com.lucas_cm.bank_test.configuration.properties.AnalyticsCacheProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.exceptions.InvalidAnalyticsQueryException;
+import com.lucas_cm.bank_test.domain.models.TransactionsConfirmedEvent;
+import com.lucas_cm.bank_test.domain.repositories.TransactionAnalyticsRepository;
+import com.lucas_cm.bank_test.domain.services.ShardRouter;
+import com.lucas_cm.bank_test.infrastructure.dtos.AnalyticsBucketDto;
+import com.lucas_cm.bank_test.infrastructure.dtos.AnalyticsReportDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Cache colunar em memória das transações confirmadas na janela recente, para agregados que não
+ * devem ir ao Postgres (volume por tipo, por hora e ranking de carteiras).
+ * <p>
+ * No startup, antes do readiness, o cache é carregado do banco (todos os shards) com as
+ * confirmações anteriores à sua criação; as posteriores chegam por {@link TransactionsConfirmedEvent}
+ * depois do commit. O instante de criação separa as duas fontes, então nenhuma linha entra duas
+ * vezes. O cache é local à instância: depois do startup, só vê as confirmações commitadas por ela.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "bank.analytics.cache", name = "enabled", havingValue = "true")
+public class TransactionAnalyticsCache implements ApplicationRunner {
+    private final TransactionAnalyticsRepository transactionAnalyticsRepository;
+    private final ShardRouter shardRouter;
+    private final AnalyticsCacheProperties properties;
+    private final ColumnarTransactionStore store;
+    // Confirmações anteriores vêm da carga inicial; a partir daqui, dos eventos
+    private final LocalDateTime loadBoundary = LocalDateTime.now();
+
+    public TransactionAnalyticsCache(TransactionAnalyticsRepository transactionAnalyticsRepository,
+                                     ShardRouter shardRouter,
+                                     AnalyticsCacheProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.transactionAnalyticsRepository = transactionAnalyticsRepository;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.store = new ColumnarTransactionStore(properties.segmentSize(), properties.parallelism());
+
+        Gauge.builder("bank.analytics.cache.rows", store, ColumnarTransactionStore::rows)
+                .description("Transações confirmadas no cache analítico")
+                .register(meterRegistry);
+        Gauge.builder("bank.analytics.cache.wallets", store, ColumnarTransactionStore::wallets)
+                .description("Carteiras no dicionário do cache analítico")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        load();
+    }
+
+    /**
+     * Carrega as confirmações da janela anteriores à criação do cache. Falhas não impedem o startup;
+     * o cache segue só com os eventos.
+     */
+    public void load() {
+        long startedAt = System.nanoTime();
+        LocalDateTime from = LocalDateTime.now().minus(properties.window());
+        AtomicLong loaded = new AtomicLong();
+        try {
+            shardRouter.forEachShard(() -> loaded.addAndGet(
+                    transactionAnalyticsRepository.forEachConfirmed(from, loadBoundary, this::append)));
+            log.info("Cache analítico carregado com {} transações em {} ms",
+                    loaded.get(), Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+        } catch (RuntimeException e) {
+            log.error("Falha ao carregar o cache analítico, seguindo só com novas confirmações", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfirmed(TransactionsConfirmedEvent event) {
+        for (TransactionEntity transaction : event.transactions()) {
+            if (transaction.getStatus() != TransactionStatusEnum.CONFIRMED
+                    || transaction.getUpdatedAt().isBefore(loadBoundary)) continue;
+            append(transaction);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bank.analytics.cache.eviction-interval:1m}")
+    public void evict() {
+        int evicted = store.evictBefore(epochMillis(LocalDateTime.now().minus(properties.window())));
+        if (evicted > 0) log.debug("{} transações fora da janela descartadas do cache analítico", evicted);
+    }
+
+    /**
+     * @param since duração até agora, como {@code 1h} ou {@code PT30M}, de no máximo a janela do cache
+     */
+    public AnalyticsReportDto volumeByType(String since) {
+        return report(since, store::volumeByType);
+    }
+
+    public AnalyticsReportDto volumeByHour(String since) {
+        LocalDateTime to = LocalDateTime.now();
+        return report(since, to, from -> store.volumeByHour(from, epochMillis(to)));
+    }
+
+    public AnalyticsReportDto topWallets(String since, int limit) {
+        if (limit < 1 || limit > properties.maxTopWallets()) {
+            throw new InvalidAnalyticsQueryException(properties.window(), properties.maxTopWallets());
+        }
+        return report(since, from -> store.topWallets(from, limit));
+    }
+
+    private AnalyticsReportDto report(String since, LongFunction<List<AnalyticsBucketDto>> query) {
+        return report(since, LocalDateTime.now(), query);
+    }
+
+    private AnalyticsReportDto report(String since, LocalDateTime to, LongFunction<List<AnalyticsBucketDto>> query) {
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(since);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidAnalyticsQueryException(properties.window(), properties.maxTopWallets());
+        }
+        if (duration.toSeconds() < 1 || duration.compareTo(properties.window()) > 0) {
+            throw new InvalidAnalyticsQueryException(properties.window(), properties.maxTopWallets());
+        }
+
+        LocalDateTime from = to.minus(duration);
+        return new AnalyticsReportDto(from, to, query.apply(epochMillis(from)));
+    }
+
+    private void append(TransactionEntity transaction) {
+        if (transaction.getWalletId() == null) return;
+        store.append(transaction.getWalletId(), transaction.getType(),
+                transaction.getAmount().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact(),
+                epochMillis(transaction.getUpdatedAt()));
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
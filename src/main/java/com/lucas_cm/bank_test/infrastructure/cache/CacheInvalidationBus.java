@@ -0,0 +1,228 @@
+package com.lucas_cm.bank_test.infrastructure.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lucas_cm.bank_test.configuration.properties.CacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Barramento de invalidação de caches locais sobre {@code LISTEN/NOTIFY} do Postgres.
+ * <p>
+ * As mudanças publicadas dentro de uma transação só valem após o commit: os caches desta instância
+ * são invalidados na hora e as chaves ficam acumuladas até a próxima janela, quando seguem em uma
+ * única notificação (rajadas na mesma carteira viram uma chave só). Cada instância mantém uma
+ * conexão fora do fluxo das requisições escutando o canal; ao reconectar, os caches são esvaziados
+ * porque notificações podem ter sido perdidas.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus {
+    // O limite do payload do NOTIFY é 8000 bytes
+    private static final int MAX_PAYLOAD_CHARS = 7000;
+
+    private final CacheProperties properties;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final List<CacheInvalidationListener> listeners;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<String> pendingWalletIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingPixKeys = ConcurrentHashMap.newKeySet();
+    private final Counter publishedCounter;
+    private final Counter receivedCounter;
+    private final Timer lagTimer;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public CacheInvalidationBus(CacheProperties properties,
+                                DataSource dataSource,
+                                JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                List<CacheInvalidationListener> listeners,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.listeners = listeners;
+
+        this.publishedCounter = Counter.builder("bank.cache.invalidation.published")
+                .description("Notificações de invalidação enviadas")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("bank.cache.invalidation.received")
+                .description("Notificações de invalidação recebidas de outras instâncias")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("bank.cache.invalidation.lag")
+                .description("Tempo entre o envio da notificação e a invalidação nesta instância")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Publica a mudança das carteiras e chaves PIX após o commit da transação corrente.
+     */
+    public void publish(Collection<String> walletIds, Collection<String> pixKeys) {
+        if (!isEnabled()) return;
+        List<String> wallets = walletIds.stream().filter(Objects::nonNull).toList();
+        List<String> keys = pixKeys.stream().filter(Objects::nonNull).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(wallets, keys);
+                }
+            });
+        } else {
+            enqueue(wallets, keys);
+        }
+    }
+
+    public void publishWallet(String walletId) {
+        publish(List.of(walletId), List.of());
+    }
+
+    private void enqueue(List<String> walletIds, List<String> pixKeys) {
+        listeners.forEach(listener -> listener.invalidate(walletIds, pixKeys));
+        pendingWalletIds.addAll(walletIds);
+        pendingPixKeys.addAll(pixKeys);
+    }
+
+    @Scheduled(fixedDelayString = "${bank.cache.coalesce-window:50ms}")
+    public void flush() {
+        if (!isEnabled() || (pendingWalletIds.isEmpty() && pendingPixKeys.isEmpty())) return;
+
+        List<String> walletIds = drain(pendingWalletIds);
+        List<String> pixKeys = drain(pendingPixKeys);
+        try {
+            for (InvalidationMessage message : split(walletIds, pixKeys)) {
+                jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class,
+                        properties.channel(), objectMapper.writeValueAsString(message));
+                publishedCounter.increment();
+            }
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.error("Falha ao enviar invalidações de cache, tentando novamente na próxima janela", e);
+            pendingWalletIds.addAll(walletIds);
+            pendingPixKeys.addAll(pixKeys);
+        }
+    }
+
+    private List<String> drain(Set<String> pending) {
+        List<String> drained = new ArrayList<>();
+        for (Iterator<String> iterator = pending.iterator(); iterator.hasNext(); ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+
+    List<InvalidationMessage> split(List<String> walletIds, List<String> pixKeys) {
+        List<InvalidationMessage> messages = new ArrayList<>();
+        List<String> wallets = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        int size = 0;
+        for (int i = 0; i < walletIds.size() + pixKeys.size(); i++) {
+            boolean wallet = i < walletIds.size();
+            String key = wallet ? walletIds.get(i) : pixKeys.get(i - walletIds.size());
+            if (size + key.length() + 3 > MAX_PAYLOAD_CHARS && size > 0) {
+                messages.add(new InvalidationMessage(nodeId, System.currentTimeMillis(), wallets, keys));
+                wallets = new ArrayList<>();
+                keys = new ArrayList<>();
+                size = 0;
+            }
+            (wallet ? wallets : keys).add(key);
+            size += key.length() + 3;
+        }
+        if (size > 0) messages.add(new InvalidationMessage(nodeId, System.currentTimeMillis(), wallets, keys));
+        return messages;
+    }
+
+    void onNotification(String payload) {
+        try {
+            InvalidationMessage message = objectMapper.readValue(payload, InvalidationMessage.class);
+            // Esta instância já invalidou os próprios caches no commit
+            if (nodeId.equals(message.node())) return;
+            listeners.forEach(listener -> listener.invalidate(message.walletIds(), message.pixKeys()));
+            receivedCounter.increment();
+            lagTimer.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - message.sentAt())));
+        } catch (JsonProcessingException e) {
+            log.warn("Notificação de invalidação inválida ignorada: {}", payload);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) return;
+        running = true;
+        listenerThread = Thread.ofPlatform().daemon().name("cache-invalidation-listener").start(this::listen);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                connection.setAutoCommit(true);
+                statement.execute("LISTEN " + properties.channel());
+                // Notificações enviadas enquanto não havia LISTEN foram perdidas
+                listeners.forEach(CacheInvalidationListener::invalidateAll);
+                log.info("Escutando invalidações de cache no canal {}", properties.channel());
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(500);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        onNotification(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.error("Conexão de invalidação de cache perdida, reconectando", e);
+                listeners.forEach(CacheInvalidationListener::invalidateAll);
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+        running = false;
+        if (listenerThread != null) listenerThread.interrupt();
+    }
+
+    record InvalidationMessage(String node, long sentAt, List<String> walletIds, List<String> pixKeys) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.lucas_cm.bank_test.infrastructure.cache;
+
+import java.util.Collection;
+
+/**
+ * Cache local que deve ser invalidado quando carteiras mudam em qualquer instância.
+ */
+public interface CacheInvalidationListener {
+
+    void invalidate(Collection<String> walletIds, Collection<String> pixKeys);
+
+    /**
+     * Chamado quando notificações podem ter sido perdidas (reconexão do LISTEN).
+     */
+    void invalidateAll();
+}
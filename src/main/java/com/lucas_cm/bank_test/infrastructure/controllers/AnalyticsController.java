@@ -0,0 +1,36 @@
+package com.lucas_cm.bank_test.infrastructure.controllers;
+
+import com.lucas_cm.bank_test.infrastructure.analytics.TransactionAnalyticsCache;
+import com.lucas_cm.bank_test.infrastructure.dtos.AnalyticsReportDto;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/reports/analytics")
+@Tag(name = "Reports")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "bank.analytics.cache", name = "enabled", havingValue = "true")
+public class AnalyticsController {
+    private final TransactionAnalyticsCache transactionAnalyticsCache;
+
+    @GetMapping("/volume-by-type")
+    AnalyticsReportDto volumeByType(@RequestParam(defaultValue = "1h") final String since) {
+        return transactionAnalyticsCache.volumeByType(since);
+    }
+
+    @GetMapping("/volume-by-hour")
+    AnalyticsReportDto volumeByHour(@RequestParam(defaultValue = "24h") final String since) {
+        return transactionAnalyticsCache.volumeByHour(since);
+    }
+
+    @GetMapping("/top-wallets")
+    AnalyticsReportDto topWallets(@RequestParam(defaultValue = "1h") final String since,
+                                  @RequestParam(defaultValue = "10") final int limit) {
+        return transactionAnalyticsCache.topWallets(since, limit);
+    }
+}
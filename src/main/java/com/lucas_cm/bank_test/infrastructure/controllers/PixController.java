@@ -1,13 +1,19 @@
 package com.lucas_cm.bank_test.infrastructure.controllers;
 
+import com.lucas_cm.bank_test.domain.services.NativePixTransferService;
+import com.lucas_cm.bank_test.domain.services.PixBatchPayoutService;
 import com.lucas_cm.bank_test.domain.services.PixService;
-import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferRequest;
-import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferResponse;
-import com.lucas_cm.bank_test.infrastructure.dtos.PixWebhookRequest;
+import com.lucas_cm.bank_test.domain.services.PixTransferSaga;
+import com.lucas_cm.bank_test.domain.services.WalletRateLimiter;
+import com.lucas_cm.bank_test.domain.services.WebhookInboxService;
+import com.lucas_cm.bank_test.infrastructure.dtos.*;
+import com.lucas_cm.bank_test.infrastructure.streaming.PixTransferStatusStreams;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/pix")
@@ -15,16 +21,45 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class PixController {
     private final PixService pixService;
+    private final PixBatchPayoutService pixBatchPayoutService;
+    private final NativePixTransferService nativePixTransferService;
+    private final WalletRateLimiter walletRateLimiter;
+    private final WebhookInboxService webhookInboxService;
+    private final PixTransferSaga pixTransferSaga;
+    private final PixTransferStatusStreams pixTransferStatusStreams;
 
     @PostMapping("/transfers")
     public ResponseEntity<PixTransferResponse> transferPix(
             @RequestHeader("Idempotency-Key") String idempotencyKey,
             @RequestBody PixTransferRequest request) {
 
-        PixTransferResponse response = pixService.transfer(
-                idempotencyKey,
-                request
-        );
+        walletRateLimiter.acquire(request.fromWalletId(), "pix-transfer");
+        // Entre shards não há transação comum: a saga coordena transações locais em cada shard.
+        // O modo native roda fora de transação do Spring para caber em uma única ida ao banco
+        PixTransferResponse response;
+        if (pixTransferSaga.isCrossShard(request)) {
+            response = pixTransferSaga.transfer(idempotencyKey, request);
+        } else if (nativePixTransferService.isEnabled()) {
+            response = nativePixTransferService.transfer(idempotencyKey, request);
+        } else {
+            response = pixService.transfer(idempotencyKey, request);
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(value = "/transfers/{endToEndId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter transferEvents(@PathVariable String endToEndId) {
+
+        // Começa pelo status atual e termina quando a transferência chega a CONFIRMED ou REJECTED
+        return pixTransferStatusStreams.subscribeTransfer(endToEndId, () -> pixService.findTransferStatus(endToEndId));
+    }
+
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<PixBatchPayoutResponse> transferPixBatch(@RequestBody PixBatchPayoutRequest request) {
+
+        walletRateLimiter.acquire(request.fromWalletId(), "pix-batch-payout");
+        PixBatchPayoutResponse response = pixBatchPayoutService.payout(request);
 
         return ResponseEntity.ok(response);
     }
@@ -32,7 +67,9 @@ public class PixController {
     @PostMapping("/webhook")
     public ResponseEntity<Void> receiveWebhook(@RequestBody PixWebhookRequest request) {
 
-        pixService.processWebhook(request);
+        // Com a fila habilitada o webhook só é gravado; os workers processam em seguida
+        if (webhookInboxService.isEnabled()) webhookInboxService.enqueue(request);
+        else pixService.processWebhook(request);
 
         // Sempre 200 OK, como webhooks reais
         return ResponseEntity.ok().build();
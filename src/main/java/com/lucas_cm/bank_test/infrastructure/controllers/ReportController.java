@@ -0,0 +1,23 @@
+package com.lucas_cm.bank_test.infrastructure.controllers;
+
+import com.lucas_cm.bank_test.domain.services.TransactionRollupService;
+import com.lucas_cm.bank_test.infrastructure.dtos.TransactionRollupDto;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/reports")
+@Tag(name = "Reports")
+@RequiredArgsConstructor
+public class ReportController {
+    private final TransactionRollupService transactionRollupService;
+
+    @GetMapping("/transactions/daily")
+    TransactionRollupDto dailyTransactions(@RequestParam final String from, @RequestParam final String to) {
+        return transactionRollupService.findTotals(from, to);
+    }
+}
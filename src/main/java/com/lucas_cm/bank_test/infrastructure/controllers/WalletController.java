@@ -1,15 +1,21 @@
 package com.lucas_cm.bank_test.infrastructure.controllers;
 
 
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
 import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.services.BalanceSeriesService;
+import com.lucas_cm.bank_test.domain.services.TransactionRollupService;
+import com.lucas_cm.bank_test.domain.services.WalletBatchService;
+import com.lucas_cm.bank_test.domain.services.WalletRateLimiter;
 import com.lucas_cm.bank_test.domain.services.WalletsService;
-import com.lucas_cm.bank_test.infrastructure.dtos.CreateWalletDto;
-import com.lucas_cm.bank_test.infrastructure.dtos.DepositDto;
-import com.lucas_cm.bank_test.infrastructure.dtos.GetBalanceDto;
-import com.lucas_cm.bank_test.infrastructure.dtos.RegisterPixKeyDto;
+import com.lucas_cm.bank_test.infrastructure.dtos.*;
+import com.lucas_cm.bank_test.infrastructure.streaming.PixTransferStatusStreams;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/wallets")
@@ -17,6 +23,11 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class WalletController {
     private final WalletsService walletsService;
+    private final WalletBatchService walletBatchService;
+    private final BalanceSeriesService balanceSeriesService;
+    private final TransactionRollupService transactionRollupService;
+    private final WalletRateLimiter walletRateLimiter;
+    private final PixTransferStatusStreams pixTransferStatusStreams;
 
     @PostMapping
     WalletEntity createWallet(@RequestBody final CreateWalletDto body) {
@@ -25,6 +36,7 @@ public class WalletController {
 
     @PostMapping(value = "/{id}/pix-keys")
     WalletEntity registerPixKey(@PathVariable final String id, @RequestBody final RegisterPixKeyDto body) {
+        walletRateLimiter.acquire(id, "pix-key");
         return walletsService.insertPixKey(id, body.key());
     }
 
@@ -34,17 +46,64 @@ public class WalletController {
             @RequestParam(required = false)
             String at
     ) {
+        walletRateLimiter.acquire(id, "balance");
         var amount = walletsService.getBalance(id, at);
         return new GetBalanceDto(id, amount);
     }
 
+    @GetMapping(value = "/{id}/balance/series")
+    BalanceSeriesDto getBalanceSeries(
+            @PathVariable final String id,
+            @RequestParam final String from,
+            @RequestParam final String to,
+            @RequestParam final String step
+    ) {
+        walletRateLimiter.acquire(id, "balance");
+        return balanceSeriesService.getSeries(id, from, to, step);
+    }
+
+    @GetMapping(value = "/{id}/rollups/daily")
+    TransactionRollupDto getDailyRollups(
+            @PathVariable final String id,
+            @RequestParam final String from,
+            @RequestParam final String to
+    ) {
+        walletRateLimiter.acquire(id, "rollups");
+        return transactionRollupService.findByWallet(id, from, to);
+    }
+
+    @GetMapping(value = "/{id}/transfers/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter transferEvents(@PathVariable final String id) {
+        walletRateLimiter.acquire(id, "transfer-events");
+        return pixTransferStatusStreams.subscribeWallet(id);
+    }
+
     @PostMapping(value = "/{id}/deposit")
     WalletEntity deposit(@PathVariable final String id, @RequestBody final DepositDto body) {
+        walletRateLimiter.acquire(id, "deposit");
         return walletsService.deposit(id, body.amount());
     }
 
     @PostMapping(value = "/{id}/withdraw")
     WalletEntity withdraw(@PathVariable final String id, @RequestBody final DepositDto body) {
+        walletRateLimiter.acquire(id, "withdraw");
         return walletsService.withdraw(id, body.amount());
     }
+
+    @PostMapping(value = "/deposits/batch")
+    ResponseEntity<WalletBatchDto> depositBatch(@RequestBody final WalletBatchRequest body) {
+        return ResponseEntity.accepted()
+                .body(walletBatchService.submit(TransactionTypeEnum.DEPOSIT, body.items()));
+    }
+
+    @PostMapping(value = "/withdraws/batch")
+    ResponseEntity<WalletBatchDto> withdrawBatch(@RequestBody final WalletBatchRequest body) {
+        return ResponseEntity.accepted()
+                .body(walletBatchService.submit(TransactionTypeEnum.WITHDRAW, body.items()));
+    }
+
+    @GetMapping(value = "/batches/{batchId}")
+    WalletBatchDto getBatch(@PathVariable final String batchId) {
+        return walletBatchService.findById(batchId);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import java.math.BigDecimal;
+
+/**
+ * @param key    tipo da transação, início da hora ({@code yyyy-MM-ddTHH:00}) ou id da carteira
+ * @param volume soma dos valores absolutos
+ */
+public record AnalyticsBucketDto(String key, long count, BigDecimal volume) {
+}
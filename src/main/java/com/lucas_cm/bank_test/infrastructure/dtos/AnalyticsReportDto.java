@@ -0,0 +1,7 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record AnalyticsReportDto(LocalDateTime from, LocalDateTime to, List<AnalyticsBucketDto> buckets) {
+}
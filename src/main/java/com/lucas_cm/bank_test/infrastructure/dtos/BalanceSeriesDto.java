@@ -0,0 +1,11 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import com.lucas_cm.bank_test.domain.models.BalancePoint;
+
+import java.util.List;
+
+public record BalanceSeriesDto(
+        String walletId,
+        List<BalancePoint> points
+) {
+}
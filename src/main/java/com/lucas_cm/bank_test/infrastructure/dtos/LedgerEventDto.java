@@ -0,0 +1,18 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record LedgerEventDto(
+        String endToEndId,
+        String walletId,
+        String counterpartyWalletId,
+        TransactionTypeEnum type,
+        BigDecimal amount,
+        TransactionStatusEnum status,
+        LocalDateTime occurredAt
+) {
+}
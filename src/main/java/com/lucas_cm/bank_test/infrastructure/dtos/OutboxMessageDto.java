@@ -0,0 +1,15 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.lucas_cm.bank_test.domain.entities.OutboxEventTypeEnum;
+
+import java.time.LocalDateTime;
+
+public record OutboxMessageDto(
+        Long id,
+        OutboxEventTypeEnum eventType,
+        String aggregateId,
+        LocalDateTime createdAt,
+        @JsonRawValue String payload
+) {
+}
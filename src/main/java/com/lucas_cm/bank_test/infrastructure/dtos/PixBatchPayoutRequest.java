@@ -0,0 +1,9 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import java.util.List;
+
+public record PixBatchPayoutRequest(
+        String fromWalletId,
+        List<PixPayoutItemDto> payouts
+) {
+}
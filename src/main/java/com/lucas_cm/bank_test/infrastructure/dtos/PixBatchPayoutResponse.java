@@ -0,0 +1,12 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import java.util.List;
+
+public record PixBatchPayoutResponse(
+        String fromWalletId,
+        int total,
+        int accepted,
+        int rejected,
+        List<PixPayoutResultDto> payouts
+) {
+}
@@ -0,0 +1,10 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import java.math.BigDecimal;
+
+public record PixPayoutItemDto(
+        String idempotencyKey,
+        String toPixKey,
+        BigDecimal amount
+) {
+}
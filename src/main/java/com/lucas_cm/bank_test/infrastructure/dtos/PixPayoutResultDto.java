@@ -0,0 +1,11 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+
+public record PixPayoutResultDto(
+        String idempotencyKey,
+        String endToEndId,
+        TransactionStatusEnum status,
+        String errorCode
+) {
+}
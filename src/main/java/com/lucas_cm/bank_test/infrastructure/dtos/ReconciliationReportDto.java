@@ -0,0 +1,22 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import com.lucas_cm.bank_test.domain.models.ReconciliationModeEnum;
+import com.lucas_cm.bank_test.domain.models.ReconciliationStatusEnum;
+import com.lucas_cm.bank_test.domain.models.WalletDrift;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ReconciliationReportDto(
+        ReconciliationModeEnum mode,
+        ReconciliationStatusEnum status,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        LocalDateTime highWaterMark,
+        long walletsChecked,
+        int walletsDrifted,
+        BigDecimal totalAbsoluteDrift,
+        List<WalletDrift> drifts
+) {
+}
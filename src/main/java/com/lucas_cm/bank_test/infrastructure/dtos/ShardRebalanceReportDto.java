@@ -0,0 +1,14 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import java.time.LocalDateTime;
+
+public record ShardRebalanceReportDto(
+        boolean running,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        long walletsChecked,
+        long walletsMoved,
+        long walletsSkipped,
+        long pixKeysBackfilled
+) {
+}
@@ -0,0 +1,14 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import com.lucas_cm.bank_test.domain.models.TransactionRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record TransactionRollupDto(
+        String walletId,
+        LocalDate from,
+        LocalDate to,
+        List<TransactionRollup> rollups
+) {
+}
@@ -0,0 +1,21 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.models.BatchStatusEnum;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record WalletBatchDto(
+        String batchId,
+        TransactionTypeEnum type,
+        BatchStatusEnum status,
+        int total,
+        int processed,
+        int succeeded,
+        int failed,
+        LocalDateTime createdAt,
+        LocalDateTime finishedAt,
+        List<WalletBatchItemResultDto> items
+) {
+}
@@ -0,0 +1,9 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import java.math.BigDecimal;
+
+public record WalletBatchItemDto(
+        String walletId,
+        BigDecimal amount
+) {
+}
@@ -0,0 +1,15 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import com.lucas_cm.bank_test.domain.models.BatchItemStatusEnum;
+
+import java.math.BigDecimal;
+
+public record WalletBatchItemResultDto(
+        int index,
+        String walletId,
+        BigDecimal amount,
+        BatchItemStatusEnum status,
+        String endToEndId,
+        String errorCode
+) {
+}
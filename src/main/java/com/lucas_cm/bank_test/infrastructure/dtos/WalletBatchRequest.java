@@ -0,0 +1,8 @@
+package com.lucas_cm.bank_test.infrastructure.dtos;
+
+import java.util.List;
+
+public record WalletBatchRequest(
+        List<WalletBatchItemDto> items
+) {
+}
@@ -0,0 +1,49 @@
+package com.lucas_cm.bank_test.infrastructure.interceptors;
+
+import com.lucas_cm.bank_test.domain.exceptions.ServiceOverloadedException;
+import com.lucas_cm.bank_test.domain.services.AdaptiveConcurrencyLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Aplica o {@link AdaptiveConcurrencyLimiter} antes do controller; a requisição rejeitada vira
+ * 503 {@code SERVICE_OVERLOADED} sem tocar no banco.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+    private static final String IN_FLIGHT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".inFlight";
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!limiter.isEnabled()) return true;
+
+        int inFlight = limiter.tryAcquire();
+        if (inFlight < 0) {
+            log.warn("Limite de concorrência atingido ({}), rejeitando {} {}",
+                    limiter.currentLimit(), request.getMethod(), request.getRequestURI());
+            throw new ServiceOverloadedException();
+        }
+        request.setAttribute(IN_FLIGHT_ATTRIBUTE, inFlight);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object inFlight = request.getAttribute(IN_FLIGHT_ATTRIBUTE);
+        if (inFlight == null) return;
+
+        long latency = System.nanoTime() - (long) request.getAttribute(START_ATTRIBUTE);
+        boolean dropped = ex != null || response.getStatus() >= 500;
+        limiter.release((int) inFlight, latency, dropped);
+    }
+}
@@ -0,0 +1,101 @@
+package com.lucas_cm.bank_test.infrastructure.locking;
+
+import com.lucas_cm.bank_test.configuration.properties.LockTimeoutProperties;
+import com.lucas_cm.bank_test.domain.exceptions.WalletLockTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PessimisticLockException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.MDC;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Limita a espera dos {@code SELECT ... FOR UPDATE} de carteira (uma ou várias, como nos chunks de
+ * lote e no flush do netting) e da perna de débito travada pelo webhook PIX. Antes do primeiro lock da
+ * transação executa {@code SET LOCAL lock_timeout} (o hint {@code jakarta.persistence.lock.timeout}
+ * não é aplicado pelo Hibernate no Postgres), e traduz o estouro para
+ * {@link WalletLockTimeoutException} (503 com Retry-After) em vez de um 500 genérico.
+ */
+@Aspect
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LockTimeoutAspect {
+    // Marca na transação corrente de que o lock_timeout já foi configurado
+    private static final Object LOCK_TIMEOUT_SET = new Object();
+    // Endpoint dos locks feitos fora de requisições HTTP e sem operação no MDC (flush do netting, fila de webhooks)
+    private static final Map<String, String> LOCK_ENDPOINTS = Map.of(
+            "findAllByIdWithLock", "wallet-batch-lock",
+            "findByEndToEndIdWithLock", "pix-webhook");
+
+    private final LockTimeoutProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(* com.lucas_cm.bank_test.domain.repositories.WalletRepository.findByIdWithLock(..))"
+            + " || execution(* com.lucas_cm.bank_test.domain.repositories.WalletRepository.findByPixKeyWithLock(..))"
+            + " || execution(* com.lucas_cm.bank_test.domain.repositories.WalletRepository.findAllByIdWithLock(..))"
+            + " || execution(* com.lucas_cm.bank_test.domain.repositories.TransactionRepository.findByEndToEndIdWithLock(..))")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (properties.mode() == LockTimeoutProperties.Mode.WAIT) return joinPoint.proceed();
+
+        applyLockTimeout();
+        try {
+            return joinPoint.proceed();
+        } catch (PessimisticLockingFailureException | LockTimeoutException | PessimisticLockException e) {
+            String endpoint = endpoint(joinPoint.getSignature().getName());
+            Counter.builder("bank.lock-timeout")
+                    .description("Locks de carteira que estouraram o lock_timeout")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Timeout aguardando lock da carteira em {} ({})", endpoint, joinPoint.getSignature().getName());
+            throw new WalletLockTimeoutException();
+        }
+    }
+
+    private void applyLockTimeout() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(LOCK_TIMEOUT_SET)) {
+            return;
+        }
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + properties.lockTimeoutMillis());
+        TransactionSynchronizationManager.bindResource(LOCK_TIMEOUT_SET, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(LOCK_TIMEOUT_SET);
+            }
+        });
+    }
+
+    /**
+     * Rota da requisição HTTP corrente ou, fora de requisições, a operação do MDC e por último o
+     * caminho de lock da consulta.
+     */
+    private String endpoint(String method) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object pattern = attributes.getAttribute(
+                    HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (pattern != null) return pattern.toString();
+        }
+        String operation = MDC.get("operation");
+        return operation != null ? operation : LOCK_ENDPOINTS.getOrDefault(method, "unknown");
+    }
+}
@@ -0,0 +1,85 @@
+package com.lucas_cm.bank_test.infrastructure.locking;
+
+import com.lucas_cm.bank_test.domain.services.WalletLockManager;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aplica o {@link WalletLocked}. Roda antes do interceptor de transação (atrás só do
+ * {@code ExposeInvocationInterceptor} e do roteamento de shard), então a espera pelo lock acontece
+ * sem conexão com o banco.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@RequiredArgsConstructor
+public class WalletLockAspect {
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final WalletLockManager walletLockManager;
+    private final BeanFactory beanFactory;
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Around("@annotation(walletLocked)")
+    public Object around(ProceedingJoinPoint joinPoint, WalletLocked walletLocked) throws Throwable {
+        if (!walletLockManager.isEnabled()) return joinPoint.proceed();
+
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                joinPoint.getTarget(), ((MethodSignature) joinPoint.getSignature()).getMethod(),
+                joinPoint.getArgs(), PARAMETER_NAMES);
+        context.setBeanResolver(new BeanFactoryResolver(beanFactory));
+        List<String> keys = new ArrayList<>(walletLocked.value().length);
+        for (String expression : walletLocked.value()) {
+            Object value = expressions.computeIfAbsent(expression, PARSER::parseExpression).getValue(context);
+            if (value instanceof Collection<?> values) {
+                values.stream().filter(Objects::nonNull).forEach(key -> keys.add(key.toString()));
+            } else if (value != null) {
+                keys.add(value.toString());
+            }
+        }
+        try {
+            return walletLockManager.withLocks(keys, () -> {
+                try {
+                    return joinPoint.proceed();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new CheckedFailure(e);
+                }
+            });
+        } catch (CheckedFailure e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Leva pelo {@link WalletLockManager#withLocks} uma exceção checada do método anotado, que é
+     * relançada como está depois de liberar os locks.
+     */
+    private static final class CheckedFailure extends RuntimeException {
+        private CheckedFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+}
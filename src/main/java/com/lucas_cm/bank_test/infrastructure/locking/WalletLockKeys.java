@@ -0,0 +1,36 @@
+package com.lucas_cm.bank_test.infrastructure.locking;
+
+import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Resolve para ids de carteira as chaves do {@link WalletLocked} que chegam por outro identificador,
+ * para que todas as operações de uma carteira caiam no mesmo lock. Usado nas expressões como
+ * {@code "@walletLockKeys.walletIdOfPixKey(#request.toPixKey())"}.
+ */
+@Component
+@RequiredArgsConstructor
+public class WalletLockKeys {
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+
+    /**
+     * Chave PIX desconhecida trava a própria chave; a operação falha depois como carteira não encontrada.
+     */
+    public String walletIdOfPixKey(String pixKey) {
+        if (pixKey == null) return null;
+        return walletRepository.findIdByPixKey(pixKey).orElse("pix:" + pixKey);
+    }
+
+    /**
+     * Carteiras das pernas da transferência no shard corrente (entre shards, só a de origem).
+     */
+    public List<String> walletIdsOfTransfer(String endToEndId) {
+        if (endToEndId == null) return List.of();
+        return transactionRepository.findWalletIdsByEndToEndIdIn(List.of("OUT" + endToEndId, "IN" + endToEndId));
+    }
+}
@@ -0,0 +1,21 @@
+package com.lucas_cm.bank_test.infrastructure.locking;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enfileira as chamadas do método por carteira antes de abrir a transação, para que operações
+ * concorrentes na mesma carteira esperem na JVM em vez de segurar uma conexão esperando o lock
+ * da linha.
+ * <p>
+ * Cada valor é uma expressão SpEL sobre os parâmetros do método que resulta no id da carteira a
+ * travar, ou em uma coleção de ids, por exemplo {@code "#walletId"}. Beans podem ser usados com
+ * {@code @}, como {@code "@walletLockKeys.walletIdOfPixKey(#request.toPixKey())"}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WalletLocked {
+    String[] value();
+}
@@ -0,0 +1,102 @@
+package com.lucas_cm.bank_test.infrastructure.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lucas_cm.bank_test.configuration.properties.OutboxProperties;
+import com.lucas_cm.bank_test.domain.entities.OutboxEventEntity;
+import com.lucas_cm.bank_test.infrastructure.dtos.OutboxMessageDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sink que anexa os eventos em um arquivo local no formato JSON lines. Cada lote é escrito
+ * com uma única chamada de escrita e, com {@code fsync}, forçado para o disco antes de retornar.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "bank.outbox", name = "sink", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private final boolean fsync;
+    // ReentrantLock (e não synchronized) para não prender a carrier thread durante o fsync em virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+
+    public FileOutboxSink(ObjectMapper objectMapper, OutboxProperties properties) {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(properties.file().path());
+        this.fsync = properties.file().fsync();
+    }
+
+    @Override
+    public void publish(List<OutboxEventEntity> events) {
+        if (events.isEmpty()) return;
+
+        StringBuilder lines = new StringBuilder(events.size() * 256);
+        for (OutboxEventEntity event : events) {
+            lines.append(toJson(event)).append('\n');
+        }
+
+        lock.lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            FileChannel output = channel();
+            while (buffer.hasRemaining()) {
+                output.write(buffer);
+            }
+            if (fsync) output.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar eventos do outbox em " + path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String toJson(OutboxEventEntity event) {
+        try {
+            return objectMapper.writeValueAsString(new OutboxMessageDto(
+                    event.getId(),
+                    event.getEventType(),
+                    event.getAggregateId(),
+                    event.getCreatedAt(),
+                    event.getPayload()
+            ));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar evento do outbox", e);
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            log.info("Sink de outbox gravando em {}", path.toAbsolutePath());
+        }
+        return channel;
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel != null) channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.lucas_cm.bank_test.infrastructure.outbox;
+
+import com.lucas_cm.bank_test.domain.entities.OutboxEventEntity;
+
+import java.util.List;
+
+/**
+ * Destino dos eventos drenados do outbox. O relay só remove os eventos depois que
+ * {@link #publish(List)} retorna, então a entrega é at-least-once: consumidores devem
+ * deduplicar pelo id do evento.
+ */
+public interface OutboxSink {
+    /**
+     * Publica o lote em ordem, lançando exceção se nenhum evento puder ser considerado entregue.
+     */
+    void publish(List<OutboxEventEntity> events);
+}
@@ -0,0 +1,15 @@
+package com.lucas_cm.bank_test.infrastructure.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Executa o método uma vez em cada shard, em sequência. Para jobs {@code void} que trabalham
+ * só com dados locais do banco (outbox, sweeper). Sem sharding a anotação não tem efeito.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OnEachShard {
+}
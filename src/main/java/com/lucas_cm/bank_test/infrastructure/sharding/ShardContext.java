@@ -0,0 +1,22 @@
+package com.lucas_cm.bank_test.infrastructure.sharding;
+
+/**
+ * Shard da thread corrente, lido pelo {@link ShardRoutingDataSource} ao abrir uma conexão.
+ * Sem shard definido as conexões vão para o shard 0, onde também ficam as tabelas globais
+ * (fila de webhooks e diretório de chaves PIX).
+ */
+public final class ShardContext {
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Integer shard) {
+        if (shard == null) CURRENT.remove();
+        else CURRENT.set(shard);
+    }
+}
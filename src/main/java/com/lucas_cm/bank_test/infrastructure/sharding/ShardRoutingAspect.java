@@ -0,0 +1,71 @@
+package com.lucas_cm.bank_test.infrastructure.sharding;
+
+import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
+import com.lucas_cm.bank_test.domain.services.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aplica o {@link ShardedBy} e o {@link OnEachShard}. Roda logo depois do
+ * {@code ExposeInvocationInterceptor} (necessário para o binding de {@code @annotation}) e antes dos
+ * outros aspectos, inclusive do {@link com.lucas_cm.bank_test.infrastructure.locking.WalletLockAspect},
+ * cujo modo advisory já abre uma conexão.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final ShardRouter shardRouter;
+    private final TransactionRepository transactionRepository;
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Around("@annotation(shardedBy)")
+    public Object route(ProceedingJoinPoint joinPoint, ShardedBy shardedBy) throws Throwable {
+        if (!shardRouter.isEnabled()) return joinPoint.proceed();
+
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                joinPoint.getTarget(), ((MethodSignature) joinPoint.getSignature()).getMethod(),
+                joinPoint.getArgs(), PARAMETER_NAMES);
+        Object value = expressions.computeIfAbsent(shardedBy.value(), PARSER::parseExpression).getValue(context);
+        return shardRouter.onShard(shardOf(shardedBy.key(), value == null ? null : value.toString()), joinPoint::proceed);
+    }
+
+    @Around("@annotation(com.lucas_cm.bank_test.infrastructure.sharding.OnEachShard)")
+    public Object eachShard(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!shardRouter.isEnabled()) return joinPoint.proceed();
+        shardRouter.forEachShard(joinPoint::proceed);
+        return null;
+    }
+
+    /**
+     * Chaves desconhecidas vão para o shard 0, onde a busca falha normalmente (carteira ou
+     * transferência não encontrada).
+     */
+    private int shardOf(ShardedBy.Key key, String value) {
+        if (value == null) return 0;
+        return switch (key) {
+            case WALLET_ID -> shardRouter.shardOf(value);
+            case PIX_KEY -> shardRouter.shardOfPixKey(value).orElse(0);
+            case END_TO_END_ID -> shardRouter.findShard(
+                    () -> transactionRepository.existsByEndToEndId("OUT" + value)).orElse(0);
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.lucas_cm.bank_test.infrastructure.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Executa o método no shard da carteira, antes de abrir a transação.
+ * <p>
+ * O valor é uma expressão SpEL sobre os parâmetros do método, por exemplo {@code "#walletId"};
+ * {@link #key()} diz o que a expressão resolve. Sem sharding a anotação não tem efeito.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardedBy {
+    String value();
+
+    Key key() default Key.WALLET_ID;
+
+    enum Key {
+        /** Id da carteira, roteado pelo hash. */
+        WALLET_ID,
+        /** Chave PIX, roteada pelo diretório de chaves. */
+        PIX_KEY,
+        /** endToEndId de uma transferência, localizado procurando a perna de débito em cada shard. */
+        END_TO_END_ID
+    }
+}
@@ -0,0 +1,230 @@
+package com.lucas_cm.bank_test.infrastructure.streaming;
+
+import com.lucas_cm.bank_test.configuration.properties.PixStatusStreamProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.exceptions.ServiceOverloadedException;
+import com.lucas_cm.bank_test.domain.models.PixTransferStatusChangedEvent;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Streams SSE de status de transferências PIX, por transferência e por carteira.
+ * <p>
+ * As mudanças chegam como {@link PixTransferStatusChangedEvent} depois do commit, então o cliente
+ * nunca vê um status que foi desfeito. Cada assinante tem um buffer limitado drenado em uma virtual
+ * thread; quem não acompanha é desconectado e reconecta, recebendo o status atual na assinatura.
+ * Os streams são locais à instância: o número de conexões é limitado por instância e um evento só
+ * chega aos assinantes da instância que processou o webhook.
+ */
+@Component
+@Slf4j
+public class PixTransferStatusStreams {
+    // Marca o fim do stream na fila, depois do último evento
+    private static final Object END = new Object();
+
+    private final PixStatusStreamProperties properties;
+    private final Executor executor;
+
+    private final Map<String, Set<Subscriber>> transferSubscribers = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> walletSubscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter rejectedCounter;
+    private final Counter droppedCounter;
+
+    @Autowired
+    public PixTransferStatusStreams(PixStatusStreamProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    PixTransferStatusStreams(PixStatusStreamProperties properties, MeterRegistry meterRegistry, Executor executor) {
+        this.properties = properties;
+        this.executor = executor;
+
+        Gauge.builder("bank.pix.status-stream.connections", connections, AtomicInteger::get)
+                .description("Streams SSE de status abertos nesta instância")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("bank.pix.status-stream.rejected")
+                .description("Assinaturas recusadas pelo limite de conexões")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("bank.pix.status-stream.dropped")
+                .description("Assinantes desconectados por não acompanhar os eventos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre o stream de uma transferência começando pelo status atual; o stream termina no status final.
+     * A assinatura é registrada antes da leitura do status atual para não perder uma mudança no meio.
+     */
+    public SseEmitter subscribeTransfer(String endToEndId, Supplier<PixTransferResponse> currentStatus) {
+        Subscriber subscriber = open(endToEndId, transferSubscribers, true);
+        PixTransferResponse current;
+        try {
+            current = currentStatus.get();
+        } catch (RuntimeException e) {
+            subscriber.close();
+            throw e;
+        }
+        subscriber.offer(current);
+        if (current.status() != TransactionStatusEnum.PENDING) subscriber.finish();
+        return subscriber.emitter;
+    }
+
+    public SseEmitter subscribeWallet(String walletId) {
+        return open(walletId, walletSubscribers, false).emitter;
+    }
+
+    @TransactionalEventListener
+    public void onStatusChanged(PixTransferStatusChangedEvent event) {
+        PixTransferResponse payload = new PixTransferResponse(event.endToEndId(), event.status());
+        dispatch(transferSubscribers.get(event.endToEndId()), payload);
+        dispatch(walletSubscribers.get(event.fromWalletId()), payload);
+        if (event.toWalletId() != null && !event.toWalletId().equals(event.fromWalletId())) {
+            dispatch(walletSubscribers.get(event.toWalletId()), payload);
+        }
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    private void dispatch(Set<Subscriber> subscribers, PixTransferResponse payload) {
+        if (subscribers == null) return;
+        for (Subscriber subscriber : List.copyOf(subscribers)) {
+            subscriber.offer(payload);
+            if (subscriber.completeOnFinalStatus && payload.status() != TransactionStatusEnum.PENDING) {
+                subscriber.finish();
+            }
+        }
+    }
+
+    private Subscriber open(String key, Map<String, Set<Subscriber>> registry, boolean completeOnFinalStatus) {
+        if (connections.incrementAndGet() > properties.maxConnections()) {
+            connections.decrementAndGet();
+            rejectedCounter.increment();
+            log.warn("Limite de streams de status atingido ({}), recusando assinatura", properties.maxConnections());
+            throw new ServiceOverloadedException();
+        }
+
+        Subscriber subscriber = new Subscriber(key, registry, completeOnFinalStatus,
+                new SseEmitter(properties.timeout().toMillis()));
+        registry.compute(key, (k, subscribers) -> {
+            Set<Subscriber> set = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+            set.add(subscriber);
+            return set;
+        });
+        subscriber.emitter.onCompletion(subscriber::close);
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(e -> subscriber.close());
+        return subscriber;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        transferSubscribers.values().forEach(subscribers -> subscribers.forEach(Subscriber::closeEmitter));
+        walletSubscribers.values().forEach(subscribers -> subscribers.forEach(Subscriber::closeEmitter));
+    }
+
+    private final class Subscriber {
+        private final String key;
+        private final Map<String, Set<Subscriber>> registry;
+        private final boolean completeOnFinalStatus;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(String key, Map<String, Set<Subscriber>> registry, boolean completeOnFinalStatus,
+                           SseEmitter emitter) {
+            this.key = key;
+            this.registry = registry;
+            this.completeOnFinalStatus = completeOnFinalStatus;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(properties.bufferSize() + 1);
+        }
+
+        private void offer(PixTransferResponse payload) {
+            if (closed.get()) return;
+            // Uma posição fica reservada para o fim do stream
+            if (buffer.remainingCapacity() <= 1 || !buffer.offer(payload)) {
+                droppedCounter.increment();
+                log.warn("Assinante de status não acompanha os eventos, desconectando: {}", key);
+                close();
+                emitter.completeWithError(new IllegalStateException("Buffer do stream de status cheio"));
+                return;
+            }
+            drain();
+        }
+
+        private void finish() {
+            if (closed.get()) return;
+            // Sai do registro já, para não receber eventos depois do status final
+            unregister();
+            if (buffer.offer(END)) drain();
+        }
+
+        private void drain() {
+            if (!draining.compareAndSet(false, true)) return;
+            executor.execute(() -> {
+                do {
+                    Object next;
+                    while ((next = buffer.poll()) != null) {
+                        if (!send(next)) return;
+                    }
+                    draining.set(false);
+                } while (!buffer.isEmpty() && draining.compareAndSet(false, true));
+            });
+        }
+
+        private boolean send(Object next) {
+            if (next == END) {
+                close();
+                emitter.complete();
+                return false;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("status").data(next));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Stream de status encerrado pelo cliente: {}", key);
+                close();
+                return false;
+            }
+        }
+
+        private void unregister() {
+            registry.computeIfPresent(key, (k, subscribers) -> {
+                subscribers.remove(this);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            unregister();
+            buffer.clear();
+            connections.decrementAndGet();
+        }
+
+        private void closeEmitter() {
+            close();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.lucas_cm.bank_test.infrastructure.warmup;
+
+import com.lucas_cm.bank_test.configuration.properties.WarmupProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.domain.services.PixService;
+import com.lucas_cm.bank_test.domain.services.WalletsService;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferRequest;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aquecimento antes do readiness: preenche o pool de conexões, carrega as carteiras e chaves
+ * PIX mais movimentadas (buffers do Postgres) e exercita os caminhos de leitura do
+ * {@link WalletsService} e do {@link PixService} (replay idempotente) para o JIT compilar.
+ * <p>
+ * O Spring Boot só publica {@link ReadinessState#ACCEPTING_TRAFFIC} depois dos
+ * {@link ApplicationRunner}s, então {@code /actuator/health/readiness} responde 503 até o fim
+ * do aquecimento. Falhas e timeout não impedem o startup.
+ */
+@Component
+@Slf4j
+public class ApplicationWarmup implements ApplicationRunner {
+    private static final int PIX_REPLAY_EVERY = 10;
+
+    private final DataSource dataSource;
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletsService walletsService;
+    private final PixService pixService;
+    private final WarmupProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Timer durationTimer;
+
+    private volatile double firstIterationsMicros;
+    private volatile double lastIterationsMicros;
+
+    public ApplicationWarmup(DataSource dataSource,
+                             WalletRepository walletRepository,
+                             TransactionRepository transactionRepository,
+                             WalletsService walletsService,
+                             PixService pixService,
+                             WarmupProperties properties,
+                             ApplicationEventPublisher eventPublisher,
+                             MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.walletsService = walletsService;
+        this.pixService = pixService;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.durationTimer = Timer.builder("bank.warmup.duration")
+                .description("Duração do aquecimento antes do readiness")
+                .register(meterRegistry);
+        Gauge.builder("bank.warmup.iteration.latency", this, warmup -> warmup.firstIterationsMicros)
+                .description("Latência média (µs) de uma iteração de aquecimento")
+                .tag("phase", "first")
+                .register(meterRegistry);
+        Gauge.builder("bank.warmup.iteration.latency", this, warmup -> warmup.lastIterationsMicros)
+                .description("Latência média (µs) de uma iteração de aquecimento")
+                .tag("phase", "last")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.enabled()) return;
+
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        MDC.put("operation", "warmup");
+        long start = System.nanoTime();
+        try {
+            log.info("Iniciando aquecimento antes do readiness");
+            int connections = fillConnectionPool();
+            List<WalletEntity> wallets = loadHotWallets();
+            List<TransactionEntity> transfers = transactionRepository.findByTypeAndUpdatedAtAfterOrderByUpdatedAtDesc(
+                    TransactionTypeEnum.PIX_TRANSFER_OUT, LocalDateTime.now().minus(properties.lookback()),
+                    Limit.of(Math.max(1, properties.iterations() / PIX_REPLAY_EVERY)));
+            int iterations = exercise(wallets, transfers, start);
+
+            log.info("Aquecimento concluído em {} ms: {} conexões, {} carteiras, {} iterações; " +
+                            "latência média por iteração de {} µs no início e {} µs no fim",
+                    (System.nanoTime() - start) / 1_000_000, connections, wallets.size(), iterations,
+                    Math.round(firstIterationsMicros), Math.round(lastIterationsMicros));
+        } catch (RuntimeException e) {
+            log.warn("Falha no aquecimento, seguindo para o readiness", e);
+        } finally {
+            durationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Abre todas as conexões do pool de uma vez, em vez de deixar o primeiro tráfego pagar o handshake.
+     */
+    int fillConnectionPool() {
+        int size = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 1;
+        List<Connection> connections = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } catch (SQLException e) {
+            log.warn("Não foi possível preencher o pool de conexões ({} de {})", connections.size(), size, e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Falha ao devolver conexão ao pool", e);
+                }
+            }
+        }
+        return connections.size();
+    }
+
+    /**
+     * Lê as carteiras mais movimentadas por id e por chave PIX, trazendo tabela e índices para os buffers.
+     */
+    private List<WalletEntity> loadHotWallets() {
+        List<String> walletIds = transactionRepository.findMostActiveWalletIdsSince(
+                LocalDateTime.now().minus(properties.lookback()), properties.hotWallets());
+        List<WalletEntity> wallets = walletRepository.findAllById(walletIds);
+        List<String> pixKeys = wallets.stream().map(WalletEntity::getPixKey).filter(Objects::nonNull).toList();
+        if (!pixKeys.isEmpty()) walletRepository.findAllByPixKeyIn(pixKeys);
+        return wallets;
+    }
+
+    private int exercise(List<WalletEntity> wallets, List<TransactionEntity> transfers, long start) {
+        if (wallets.isEmpty()) return 0;
+
+        long deadline = start + properties.timeout().toNanos();
+        String at = Instant.now().minus(properties.lookback()).toString();
+        int sample = Math.max(1, properties.iterations() / 10);
+        long firstNanos = 0;
+        long lastNanos = 0;
+        int iteration = 0;
+
+        for (; iteration < properties.iterations() && System.nanoTime() < deadline; iteration++) {
+            WalletEntity wallet = wallets.get(iteration % wallets.size());
+            long begin = System.nanoTime();
+
+            walletsService.getBalance(wallet.getId(), null);
+            walletsService.getBalance(wallet.getId(), at);
+            if (wallet.getPixKey() != null) walletsService.findByPixKey(wallet.getPixKey());
+            if (!transfers.isEmpty() && iteration % PIX_REPLAY_EVERY == 0) {
+                replay(transfers.get((iteration / PIX_REPLAY_EVERY) % transfers.size()));
+            }
+
+            long elapsed = System.nanoTime() - begin;
+            if (iteration < sample) firstNanos += elapsed;
+            if (iteration >= properties.iterations() - sample) lastNanos += elapsed;
+        }
+
+        if (iteration == 0) return 0;
+        firstIterationsMicros = firstNanos / 1_000d / Math.min(sample, iteration);
+        int lastCount = Math.max(0, iteration - (properties.iterations() - sample));
+        lastIterationsMicros = lastCount == 0 ? firstIterationsMicros : lastNanos / 1_000d / lastCount;
+        if (iteration < properties.iterations()) {
+            log.warn("Aquecimento interrompido pelo timeout após {} iterações", iteration);
+        }
+        return iteration;
+    }
+
+    /**
+     * Reenvia uma transferência já existente: o {@link PixService} retorna pelo caminho de
+     * idempotência sem escrever nada.
+     */
+    private void replay(TransactionEntity debit) {
+        String idempotencyKey = debit.getEndToEndId().substring("OUT".length());
+        pixService.transfer(idempotencyKey,
+                new PixTransferRequest(debit.getWalletId(), debit.getPixKey(), debit.getAmount().negate()));
+        MDC.put("operation", "warmup");
+    }
+}
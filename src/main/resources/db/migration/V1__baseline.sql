@@ -0,0 +1,57 @@
+-- Esquema inicial, equivalente ao gerado pelo ddl-auto a partir das entidades + schema.sql.
+-- Bancos criados antes das migrações são marcados nesta versão (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE wallet
+(
+    id              varchar(255)   NOT NULL PRIMARY KEY,
+    user_id         varchar(255)   NOT NULL,
+    current_balance numeric(38, 2) NOT NULL,
+    pix_key         varchar(255) UNIQUE,
+    created_at      timestamp(6)   NOT NULL,
+    updated_at      timestamp(6)   NOT NULL
+);
+
+CREATE INDEX idx_wallet_updated_at ON wallet (updated_at);
+
+CREATE TABLE transaction
+(
+    id            bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    end_to_end_id varchar(255)   NOT NULL UNIQUE,
+    amount        numeric(38, 2) NOT NULL,
+    status        varchar(255)   NOT NULL,
+    type          varchar(255)   NOT NULL,
+    wallet_id     varchar(255),
+    pix_key       varchar(255),
+    created_at    timestamp(6)   NOT NULL,
+    updated_at    timestamp(6)   NOT NULL
+);
+
+CREATE INDEX idx_transaction_wallet_status ON transaction (wallet_id, status);
+CREATE INDEX idx_transaction_updated_at ON transaction (updated_at);
+
+-- Índice parcial: só as transações PENDING, usado pelo sweeper de transferências expiradas
+CREATE INDEX idx_transaction_pending_created_at
+    ON transaction (created_at)
+    WHERE status = 'PENDING';
+
+CREATE TABLE event_pix
+(
+    id            bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_id      varchar(255) NOT NULL UNIQUE,
+    event_type    varchar(255) NOT NULL,
+    occurred_at   timestamp(6) NOT NULL,
+    created_at    timestamp(6) NOT NULL,
+    end_to_end_id varchar(255) NOT NULL
+);
+
+-- INCREMENT BY igual ao allocationSize da entidade (otimizador pooled do Hibernate)
+CREATE SEQUENCE outbox_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE outbox_event
+(
+    id           bigint       NOT NULL PRIMARY KEY,
+    event_type   varchar(255) NOT NULL,
+    aggregate_id varchar(255) NOT NULL,
+    payload      text         NOT NULL,
+    created_at   timestamp(6) NOT NULL
+);
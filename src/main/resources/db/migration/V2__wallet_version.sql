@@ -0,0 +1,3 @@
+-- Coluna de versão para o controle de concorrência otimista da carteira (bank.wallet-concurrency.mode)
+ALTER TABLE wallet
+    ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- Fila durável de webhooks PIX (bank.pix.webhook.inbox), drenada com FOR UPDATE SKIP LOCKED
+CREATE TABLE IF NOT EXISTS webhook_inbox
+(
+    id              bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_id        varchar(255) NOT NULL UNIQUE,
+    end_to_end_id   varchar(255) NOT NULL,
+    event_type      varchar(255) NOT NULL,
+    occurred_at     varchar(255) NOT NULL,
+    received_at     timestamp(6) NOT NULL,
+    next_attempt_at timestamp(6) NOT NULL,
+    attempts        integer      NOT NULL DEFAULT 0,
+    last_error      text
+);
+
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_end_to_end_id ON webhook_inbox (end_to_end_id, id);
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_next_attempt_at ON webhook_inbox (next_attempt_at);
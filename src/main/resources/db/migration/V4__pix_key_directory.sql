@@ -0,0 +1,10 @@
+-- Diretório global de chaves PIX (bank.sharding); usado só no shard 0
+CREATE TABLE IF NOT EXISTS pix_key_directory
+(
+    pix_key    varchar(255) NOT NULL PRIMARY KEY,
+    wallet_id  varchar(255) NOT NULL,
+    shard      integer      NOT NULL,
+    updated_at timestamp(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_pix_key_directory_wallet_id ON pix_key_directory (wallet_id);
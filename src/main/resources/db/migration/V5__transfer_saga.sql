@@ -0,0 +1,20 @@
+-- Saga das transferências PIX entre shards (bank.sharding); gravada no shard de origem
+CREATE TABLE IF NOT EXISTS transfer_saga
+(
+    end_to_end_id   varchar(255)   NOT NULL PRIMARY KEY,
+    from_wallet_id  varchar(255)   NOT NULL,
+    to_pix_key      varchar(255)   NOT NULL,
+    to_wallet_id    varchar(255),
+    to_shard        integer,
+    amount          numeric(38, 2) NOT NULL,
+    state           varchar(255)   NOT NULL,
+    attempts        integer        NOT NULL DEFAULT 0,
+    next_attempt_at timestamp(6)   NOT NULL,
+    last_error      text,
+    created_at      timestamp(6)   NOT NULL,
+    updated_at      timestamp(6)   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_transfer_saga_open ON transfer_saga (next_attempt_at)
+    WHERE state NOT IN ('CONFIRMED', 'REJECTED', 'COMPENSATED');
+CREATE INDEX IF NOT EXISTS idx_transfer_saga_from_wallet_id ON transfer_saga (from_wallet_id);
@@ -0,0 +1,5 @@
+-- Índice parcial: transações CONFIRMED por carteira e data, usado pelo saldo histórico e pela série de saldos.
+-- O INCLUDE deixa a soma dos valores ser feita só pelo índice
+CREATE INDEX IF NOT EXISTS idx_transaction_confirmed_wallet_created_at
+    ON transaction (wallet_id, created_at) INCLUDE (amount)
+    WHERE status = 'CONFIRMED';
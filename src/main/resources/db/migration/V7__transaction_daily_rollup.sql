@@ -0,0 +1,22 @@
+-- Rollups diários de transações por carteira, tipo e status (não é entidade JPA: acessada só via JDBC).
+-- Mantidos na mesma transação de cada escrita em transaction; o dia é o da criação da transação
+CREATE TABLE IF NOT EXISTS transaction_daily_rollup
+(
+    wallet_id varchar(255)   NOT NULL,
+    type      varchar(255)   NOT NULL,
+    status    varchar(255)   NOT NULL,
+    day       date           NOT NULL,
+    tx_count  bigint         NOT NULL,
+    amount    numeric(38, 2) NOT NULL,
+    PRIMARY KEY (wallet_id, type, status, day)
+);
+
+CREATE INDEX IF NOT EXISTS idx_transaction_daily_rollup_day ON transaction_daily_rollup (day);
+
+-- Carga inicial a partir das transações existentes; rollups já mantidos pelo perfil padrão são preservados
+INSERT INTO transaction_daily_rollup (wallet_id, type, status, day, tx_count, amount)
+SELECT wallet_id, type, status, CAST(created_at AS date), count(*), SUM(amount)
+FROM transaction
+WHERE wallet_id IS NOT NULL
+GROUP BY wallet_id, type, status, CAST(created_at AS date)
+ON CONFLICT (wallet_id, type, status, day) DO NOTHING;
@@ -0,0 +1,3 @@
+-- Marca de transferência PIX suspeita de duplicidade (bank.pix.duplicate-detection.mode=tag)
+ALTER TABLE transaction
+    ADD COLUMN IF NOT EXISTS suspected_duplicate boolean NOT NULL DEFAULT false;
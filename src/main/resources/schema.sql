@@ -0,0 +1,83 @@
+-- Índices que o Hibernate não consegue declarar via anotação (executado após o ddl-auto)
+
+-- Índice parcial: só as transações PENDING, usado pelo sweeper de transferências expiradas
+CREATE INDEX IF NOT EXISTS idx_transaction_pending_created_at
+    ON transaction (created_at)
+    WHERE status = 'PENDING';
+
+-- Índice parcial: transações CONFIRMED por carteira e data, usado pelo saldo histórico e pela série de saldos
+CREATE INDEX IF NOT EXISTS idx_transaction_confirmed_wallet_created_at
+    ON transaction (wallet_id, created_at) INCLUDE (amount)
+    WHERE status = 'CONFIRMED';
+
+-- Fila durável de webhooks PIX (não é entidade JPA: acessada só via JDBC)
+CREATE TABLE IF NOT EXISTS webhook_inbox
+(
+    id              bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_id        varchar(255) NOT NULL UNIQUE,
+    end_to_end_id   varchar(255) NOT NULL,
+    event_type      varchar(255) NOT NULL,
+    occurred_at     varchar(255) NOT NULL,
+    received_at     timestamp(6) NOT NULL,
+    next_attempt_at timestamp(6) NOT NULL,
+    attempts        integer      NOT NULL DEFAULT 0,
+    last_error      text
+);
+
+-- Ordem por transferência: o worker só reserva o evento mais antigo de cada endToEndId
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_end_to_end_id ON webhook_inbox (end_to_end_id, id);
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_next_attempt_at ON webhook_inbox (next_attempt_at);
+
+-- Diretório global de chaves PIX usado com sharding (não é entidade JPA: acessado só via JDBC)
+CREATE TABLE IF NOT EXISTS pix_key_directory
+(
+    pix_key    varchar(255) NOT NULL PRIMARY KEY,
+    wallet_id  varchar(255) NOT NULL,
+    shard      integer      NOT NULL,
+    updated_at timestamp(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_pix_key_directory_wallet_id ON pix_key_directory (wallet_id);
+
+-- Saga das transferências PIX entre shards (não é entidade JPA: acessada só via JDBC)
+CREATE TABLE IF NOT EXISTS transfer_saga
+(
+    end_to_end_id   varchar(255)   NOT NULL PRIMARY KEY,
+    from_wallet_id  varchar(255)   NOT NULL,
+    to_pix_key      varchar(255)   NOT NULL,
+    to_wallet_id    varchar(255),
+    to_shard        integer,
+    amount          numeric(38, 2) NOT NULL,
+    state           varchar(255)   NOT NULL,
+    attempts        integer        NOT NULL DEFAULT 0,
+    next_attempt_at timestamp(6)   NOT NULL,
+    last_error      text,
+    created_at      timestamp(6)   NOT NULL,
+    updated_at      timestamp(6)   NOT NULL
+);
+
+-- Só as sagas em andamento, varridas pela recuperação
+CREATE INDEX IF NOT EXISTS idx_transfer_saga_open ON transfer_saga (next_attempt_at)
+    WHERE state NOT IN ('CONFIRMED', 'REJECTED', 'COMPENSATED');
+CREATE INDEX IF NOT EXISTS idx_transfer_saga_from_wallet_id ON transfer_saga (from_wallet_id);
+
+-- Rollups diários de transações (não é entidade JPA: acessada só via JDBC)
+CREATE TABLE IF NOT EXISTS transaction_daily_rollup
+(
+    wallet_id varchar(255)   NOT NULL,
+    type      varchar(255)   NOT NULL,
+    status    varchar(255)   NOT NULL,
+    day       date           NOT NULL,
+    tx_count  bigint         NOT NULL,
+    amount    numeric(38, 2) NOT NULL,
+    PRIMARY KEY (wallet_id, type, status, day)
+);
+
+CREATE INDEX IF NOT EXISTS idx_transaction_daily_rollup_day ON transaction_daily_rollup (day);
+
+-- Carga inicial só quando a tabela acabou de ser criada (vazia) e já há transações
+INSERT INTO transaction_daily_rollup (wallet_id, type, status, day, tx_count, amount)
+SELECT wallet_id, type, status, CAST(created_at AS date), count(*), SUM(amount)
+FROM transaction
+WHERE wallet_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM transaction_daily_rollup)
+GROUP BY wallet_id, type, status, CAST(created_at AS date);
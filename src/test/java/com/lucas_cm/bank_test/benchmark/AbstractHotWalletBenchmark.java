@@ -0,0 +1,104 @@
+package com.lucas_cm.bank_test.benchmark;
+
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.domain.services.WalletsService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Depósitos e saques concorrentes em uma única carteira contra um PostgreSQL real, amostrando
+ * o pool do Hikari durante a carga. Sem o lock da JVM cada operação segura uma conexão enquanto
+ * espera o lock da linha; com ele as operações esperam na JVM e o pool fica livre para as
+ * demais carteiras.
+ */
+abstract class AbstractHotWalletBenchmark {
+    private static final int OPERATIONS = Integer.getInteger("benchmark.hot-wallet.operations", 5_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.hot-wallet.concurrency", 64);
+
+    @Autowired
+    private WalletsService walletsService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private WalletEntity hotWallet;
+
+    protected abstract String mode();
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        hotWallet = walletRepository.save(WalletEntity.builder()
+                .userId("benchmark-" + UUID.randomUUID())
+                .currentBalance(new BigDecimal("1000000000.00"))
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    @Test
+    void depositos_e_saques_na_mesma_carteira() throws Exception {
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        AtomicInteger maxAwaiting = new AtomicInteger();
+        LongAdder activeSum = new LongAdder();
+        LongAdder samples = new LongAdder();
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            int active = pool.getActiveConnections();
+            maxActive.accumulateAndGet(active, Math::max);
+            maxAwaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+            activeSum.add(active);
+            samples.increment();
+        }, 0, 5, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < CONCURRENCY; worker++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < OPERATIONS; i = next.getAndIncrement()) {
+                        if (i % 2 == 0) walletsService.deposit(hotWallet.getId(), BigDecimal.ONE);
+                        else walletsService.withdraw(hotWallet.getId(), BigDecimal.ONE);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            sampler.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("lock %-8s %6d operações  %8.1f ops/s  conexões ativas média %5.1f máx %3d  aguardando conexão máx %3d%n",
+                mode(), OPERATIONS, OPERATIONS * 1_000_000_000d / elapsed,
+                activeSum.sum() / (double) Math.max(1, samples.sum()), maxActive.get(), maxAwaiting.get());
+        assertThat(walletRepository.findById(hotWallet.getId()).orElseThrow().getCurrentBalance())
+                .isEqualByComparingTo(hotWallet.getCurrentBalance());
+    }
+}
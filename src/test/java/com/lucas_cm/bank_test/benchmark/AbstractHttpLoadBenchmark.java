@@ -0,0 +1,131 @@
+package com.lucas_cm.bank_test.benchmark;
+
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga HTTP de transferências PIX e consultas de saldo contra a aplicação em porta aleatória.
+ * Cada subclasse sobe o contexto com um perfil diferente, então os números das duas execuções
+ * são comparáveis no mesmo relatório do {@code ./gradlew benchmark}. Os limites de taxa por carteira
+ * e de concorrência ficam desligados: com eles a carga mediria as rejeições (429/503), não o modelo
+ * de threads.
+ */
+@TestPropertySource(properties = {"bank.rate-limit.wallet.enabled=false", "bank.concurrency-limit.enabled=false"})
+abstract class AbstractHttpLoadBenchmark {
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.http.concurrency", 500);
+    private static final int WALLETS = 50;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    private final List<WalletEntity[]> pairs = new ArrayList<>();
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    protected abstract String stack();
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < WALLETS; i++) {
+            WalletEntity source = walletRepository.save(WalletEntity.builder()
+                    .userId("benchmark-" + UUID.randomUUID())
+                    .currentBalance(new BigDecimal("1000000000.00"))
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            WalletEntity target = walletRepository.save(WalletEntity.builder()
+                    .userId("benchmark-" + UUID.randomUUID())
+                    .pixKey("benchmark-" + UUID.randomUUID())
+                    .currentBalance(BigDecimal.ZERO)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            pairs.add(new WalletEntity[]{source, target});
+        }
+    }
+
+    @Test
+    void transferencias_e_consultas_de_saldo() throws Exception {
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger unavailable = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < CONCURRENCY; worker++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < REQUESTS; i = next.getAndIncrement()) {
+                        WalletEntity[] pair = pairs.get(i % pairs.size());
+                        long begin = System.nanoTime();
+                        int status = i % 2 == 0 ? transfer(pair) : balance(pair[0]);
+                        latencies[i] = System.nanoTime() - begin;
+                        if (status == 503) unavailable.incrementAndGet();
+                        else if (status != 200) failed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-28s %6d requisições  %9.1f rps  p50 %8.1f ms  p99 %8.1f ms  503: %d  erros: %d%n",
+                stack(), REQUESTS, REQUESTS * 1_000_000_000d / elapsed,
+                latencies[REQUESTS / 2] / 1_000_000d, latencies[(int) (REQUESTS * 0.99)] / 1_000_000d,
+                unavailable.get(), failed.get());
+        assertThat(failed.get()).isZero();
+    }
+
+    private int transfer(WalletEntity[] pair) throws Exception {
+        String body = """
+                {"fromWalletId":"%s","toPixKey":"%s","amount":1.00}""".formatted(pair[0].getId(), pair[1].getPixKey());
+        HttpRequest request = HttpRequest.newBuilder(uri("/pix/transfers"))
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int balance(WalletEntity wallet) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/wallets/" + wallet.getId() + "/balance")).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,92 @@
+package com.lucas_cm.bank_test.benchmark;
+
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.exceptions.WalletLockTimeoutException;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.domain.services.WalletsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Depósitos concorrentes distribuídos em um número variável de carteiras contra um PostgreSQL
+ * real: quanto menos carteiras, maior a disputa. Roda sem o lock da JVM
+ * ({@code bank.wallet-lock.mode=none}) para medir só o controle de concorrência do banco.
+ */
+abstract class AbstractWalletConcurrencyBenchmark {
+    private static final int OPERATIONS = Integer.getInteger("benchmark.wallet-concurrency.operations", 5_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.wallet-concurrency.concurrency", 32);
+    private static final int[] WALLETS = {1, 8, 64, 512};
+
+    @Autowired
+    private WalletsService walletsService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    protected abstract String mode();
+
+    @Test
+    void depositos_por_nivel_de_disputa() throws Exception {
+        for (int wallets : WALLETS) {
+            run(createWallets(wallets));
+        }
+    }
+
+    private void run(List<WalletEntity> wallets) throws Exception {
+        long[] latencies = new long[OPERATIONS];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger gaveUp = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < CONCURRENCY; worker++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < OPERATIONS; i = next.getAndIncrement()) {
+                        long begin = System.nanoTime();
+                        try {
+                            walletsService.deposit(wallets.get(i % wallets.size()).getId(), BigDecimal.ONE);
+                        } catch (WalletLockTimeoutException e) {
+                            gaveUp.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-12s %4d carteiras  %8.1f ops/s  p50 %7.2f ms  p99 %7.2f ms  desistências: %d%n",
+                mode(), wallets.size(), OPERATIONS * 1_000_000_000d / elapsed,
+                latencies[OPERATIONS / 2] / 1_000_000d, latencies[(int) (OPERATIONS * 0.99)] / 1_000_000d,
+                gaveUp.get());
+    }
+
+    private List<WalletEntity> createWallets(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<WalletEntity> wallets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            wallets.add(walletRepository.save(WalletEntity.builder()
+                    .userId("benchmark-" + UUID.randomUUID())
+                    .currentBalance(BigDecimal.ZERO)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build()));
+        }
+        return wallets;
+    }
+}
@@ -0,0 +1,18 @@
+package com.lucas_cm.bank_test.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+@Tag("benchmark")
+@SpringBootTest
+@TestPropertySource(properties = {"bank.wallet-lock.mode=none", "bank.wallet-concurrency.mode=optimistic"})
+@DisplayName("Benchmark - Concorrência de saldo otimista por nível de disputa")
+class OptimisticWalletConcurrencyBenchmarkTest extends AbstractWalletConcurrencyBenchmark {
+
+    @Override
+    protected String mode() {
+        return "optimistic";
+    }
+}
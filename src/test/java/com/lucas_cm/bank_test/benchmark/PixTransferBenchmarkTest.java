@@ -0,0 +1,129 @@
+package com.lucas_cm.bank_test.benchmark;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.domain.services.NativePixTransferService;
+import com.lucas_cm.bank_test.domain.services.PixService;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferRequest;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara a transferência PIX via JPA com o modo native (um único comando SQL) contra um
+ * PostgreSQL real. Não roda no {@code ./gradlew test}; execute com
+ * {@code DB_URL=... DB_USER=... DB_PASSWORD=... ./gradlew benchmark}.
+ * <p>
+ * Cada worker transfere entre o seu próprio par de carteiras, então o resultado mede idas e
+ * voltas ao banco e não disputa de lock.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@DisplayName("Benchmark - Transferência PIX JPA vs native")
+class PixTransferBenchmarkTest {
+    private static final int TRANSFERS = Integer.getInteger("benchmark.transfers", 5_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 16);
+    private static final int WARMUP = Integer.getInteger("benchmark.warmup", 500);
+
+    @Autowired
+    private PixService pixService;
+
+    @Autowired
+    private NativePixTransferService nativePixTransferService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    private final List<WalletEntity[]> pairs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            WalletEntity source = walletRepository.save(WalletEntity.builder()
+                    .userId("benchmark-" + UUID.randomUUID())
+                    .currentBalance(new BigDecimal("1000000000.00"))
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            WalletEntity target = walletRepository.save(WalletEntity.builder()
+                    .userId("benchmark-" + UUID.randomUUID())
+                    .pixKey("benchmark-" + UUID.randomUUID())
+                    .currentBalance(BigDecimal.ZERO)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            pairs.add(new WalletEntity[]{source, target});
+        }
+    }
+
+    @Test
+    @DisplayName("Transferência PIX: JPA vs native")
+    void jpa_vs_native() throws Exception {
+        run("jpa (aquecimento)", WARMUP, pixService::transfer);
+        run("native (aquecimento)", WARMUP, nativePixTransferService::transfer);
+
+        Result jpa = run("jpa", TRANSFERS, pixService::transfer);
+        Result nativeMode = run("native", TRANSFERS, nativePixTransferService::transfer);
+
+        System.out.println(jpa);
+        System.out.println(nativeMode);
+        assertThat(jpa.transfers()).isEqualTo(TRANSFERS);
+        assertThat(nativeMode.transfers()).isEqualTo(TRANSFERS);
+    }
+
+    private Result run(String mode,
+                       int transfers,
+                       BiFunction<String, PixTransferRequest, PixTransferResponse> transfer) throws Exception {
+        long[] latencies = new long[transfers];
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < CONCURRENCY; worker++) {
+                WalletEntity[] pair = pairs.get(worker);
+                int first = worker;
+                futures.add(executor.submit(() -> {
+                    for (int i = first; i < transfers; i += CONCURRENCY) {
+                        PixTransferRequest request = new PixTransferRequest(
+                                pair[0].getId(), pair[1].getPixKey(), BigDecimal.ONE);
+                        long begin = System.nanoTime();
+                        PixTransferResponse response = transfer.apply(UUID.randomUUID().toString(), request);
+                        latencies[i] = System.nanoTime() - begin;
+                        assertThat(response.status()).isEqualTo(TransactionStatusEnum.PENDING);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Result(mode, transfers, transfers * 1_000_000_000d / elapsed,
+                latencies[transfers / 2] / 1_000d, latencies[(int) (transfers * 0.99)] / 1_000d);
+    }
+
+    private record Result(String mode, int transfers, double throughput, double p50Micros, double p99Micros) {
+        @Override
+        public String toString() {
+            return "%-22s %6d transferências  %9.1f tps  p50 %8.1f µs  p99 %8.1f µs"
+                    .formatted(mode, transfers, throughput, p50Micros, p99Micros);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.lucas_cm.bank_test.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("Benchmark - Carga HTTP com threads de plataforma (perfil padrão)")
+class PlatformThreadsHttpBenchmarkTest extends AbstractHttpLoadBenchmark {
+
+    @Override
+    protected String stack() {
+        return "servlet + platform threads";
+    }
+}
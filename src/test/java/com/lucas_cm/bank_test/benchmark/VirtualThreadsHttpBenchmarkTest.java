@@ -0,0 +1,18 @@
+package com.lucas_cm.bank_test.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@Tag("benchmark")
+@ActiveProfiles("virtual")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("Benchmark - Carga HTTP com virtual threads (perfil virtual)")
+class VirtualThreadsHttpBenchmarkTest extends AbstractHttpLoadBenchmark {
+
+    @Override
+    protected String stack() {
+        return "servlet + virtual threads";
+    }
+}
@@ -1,15 +1,20 @@
 package com.lucas_cm.bank_test.configuration.exception;
 
 import com.lucas_cm.bank_test.domain.exceptions.InsufficientBalanceException;
+import com.lucas_cm.bank_test.domain.exceptions.ServiceOverloadedException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletLockTimeoutException;
 import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletRateLimitExceededException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import java.math.BigDecimal;
 import java.util.Map;
@@ -253,5 +258,73 @@ class RestResponseEntityExceptionHandlerTest {
         // Não deve expor detalhes da causa
         assertThat(body.get("message")).isNotEqualTo("Erro");
     }
-}
 
+    @Test
+    @DisplayName("Dado o pool de conexões esgotado, quando tratar exceção, então deve retornar 503 SERVICE_UNAVAILABLE com código DATABASE_UNAVAILABLE")
+    void dado_pool_esgotado_quando_tratar_excecao_entao_deve_retornar_503() {
+        // Given - Dado que não foi possível obter conexão para abrir a transação
+        CannotCreateTransactionException exception =
+                new CannotCreateTransactionException("Could not open JPA EntityManager for transaction");
+
+        // When - Quando tratar a exceção
+        ResponseEntity<Object> response = exceptionHandler.handleDatabaseUnavailableError(exception);
+
+        // Then - Então deve retornar 503 com código de erro
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertThat(body).isNotNull();
+        assertThat(body.get("error_code")).isEqualTo("DATABASE_UNAVAILABLE");
+    }
+
+    @Test
+    @DisplayName("Dado uma WalletRateLimitExceededException, quando tratar exceção, então deve retornar 429 TOO_MANY_REQUESTS com Retry-After")
+    void dado_limite_por_carteira_excedido_quando_tratar_excecao_entao_deve_retornar_429_com_retry_after() {
+        // Given - Dado que o limite da carteira foi excedido
+        WalletRateLimitExceededException exception = new WalletRateLimitExceededException(3);
+
+        // When - Quando tratar a exceção
+        ResponseEntity<Object> response = exceptionHandler.handleWalletRateLimitError(exception);
+
+        // Then - Então deve retornar 429 com o cabeçalho Retry-After
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertThat(body).isNotNull();
+        assertThat(body.get("error_code")).isEqualTo("WALLET_RATE_LIMIT_EXCEEDED");
+    }
+
+    @Test
+    @DisplayName("Dado uma ServiceOverloadedException, quando tratar exceção, então deve retornar 503 SERVICE_UNAVAILABLE com código SERVICE_OVERLOADED")
+    void dado_servico_sobrecarregado_quando_tratar_excecao_entao_deve_retornar_503() {
+        // When - Quando tratar a exceção de sobrecarga
+        ResponseEntity<Object> response = exceptionHandler.handleTemporarilyUnavailableError(new ServiceOverloadedException());
+
+        // Then - Então deve retornar 503 com Retry-After e código de erro
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertThat(body).isNotNull();
+        assertThat(body.get("error_code")).isEqualTo("SERVICE_OVERLOADED");
+    }
+
+    @Test
+    @DisplayName("Dado uma WalletLockTimeoutException, quando tratar exceção, então deve retornar 503 com código WALLET_LOCK_TIMEOUT")
+    void dado_timeout_de_lock_quando_tratar_excecao_entao_deve_retornar_503() {
+        // When - Quando tratar o timeout de lock da carteira
+        ResponseEntity<Object> response = exceptionHandler.handleTemporarilyUnavailableError(new WalletLockTimeoutException());
+
+        // Then - Então deve retornar 503 com o código de erro
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertThat(body).isNotNull();
+        assertThat(body.get("error_code")).isEqualTo("WALLET_LOCK_TIMEOUT");
+    }
+}
@@ -0,0 +1,21 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CrossShardTransferException - Testes Unitários")
+class CrossShardTransferExceptionTest {
+
+    @Test
+    @DisplayName("Dado uma exceção criada, quando obter mensagem e código de erro, então deve retornar valores corretos")
+    void dado_excecao_criada_quando_obter_mensagem_e_codigo_entao_deve_retornar_valores_corretos() {
+        // Given - Dado uma exceção criada
+        CrossShardTransferException exception = new CrossShardTransferException();
+
+        // When/Then - Então deve retornar mensagem e código corretos
+        assertThat(exception.getMessage()).isEqualTo("Transferência entre carteiras de shards diferentes não é suportada.");
+        assertThat(exception.getErrorCode()).isEqualTo("CROSS_SHARD_TRANSFER");
+    }
+}
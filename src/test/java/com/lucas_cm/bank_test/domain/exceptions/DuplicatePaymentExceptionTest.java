@@ -0,0 +1,50 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DuplicatePaymentException - Testes Unitários")
+class DuplicatePaymentExceptionTest {
+
+    @Test
+    @DisplayName("Dado uma exceção com janela, quando obter mensagem, então deve incluir a janela e a orientação de idempotência")
+    void dado_excecao_com_janela_quando_obter_mensagem_entao_deve_incluir_janela() {
+        // Given - Dado uma exceção com janela de 2 minutos
+        DuplicatePaymentException exception = new DuplicatePaymentException(Duration.ofMinutes(2));
+
+        // When - Quando obter a mensagem
+        String message = exception.getMessage();
+
+        // Then - Então deve conter a janela e a orientação
+        assertThat(message).contains("há menos de PT2M").contains("mesma Idempotency-Key");
+    }
+
+    @Test
+    @DisplayName("Dado uma exceção criada, quando obter código de erro, então deve retornar código correto")
+    void dado_excecao_criada_quando_obter_codigo_erro_entao_deve_retornar_codigo_correto() {
+        // Given - Dado uma exceção criada
+        DuplicatePaymentException exception = new DuplicatePaymentException(Duration.ofMinutes(2));
+
+        // When/Then - Então deve retornar código de erro correto
+        assertThat(exception.getErrorCode()).isEqualTo("DUPLICATE_PIX_TRANSFER");
+    }
+
+    @Test
+    @DisplayName("Dado uma exceção criada, quando obter dados, então deve retornar a janela")
+    void dado_excecao_criada_quando_obter_dados_entao_deve_retornar_janela() {
+        // Given - Dado uma exceção criada
+        DuplicatePaymentException exception = new DuplicatePaymentException(Duration.ofMinutes(2));
+
+        // When - Quando obter os dados
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) exception.getData();
+
+        // Then - Então deve conter a janela
+        assertThat(data).containsEntry("window", "PT2M");
+    }
+}
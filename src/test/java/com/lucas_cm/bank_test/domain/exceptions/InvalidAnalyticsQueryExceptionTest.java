@@ -0,0 +1,50 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InvalidAnalyticsQueryException - Testes Unitários")
+class InvalidAnalyticsQueryExceptionTest {
+
+    @Test
+    @DisplayName("Dado uma exceção com janela e limite, quando obter mensagem, então deve incluir os dois")
+    void dado_excecao_com_janela_e_limite_quando_obter_mensagem_entao_deve_incluir_os_dois() {
+        // Given - Dado uma exceção com janela de 24 horas e limite 100
+        InvalidAnalyticsQueryException exception = new InvalidAnalyticsQueryException(Duration.ofHours(24), 100);
+
+        // When - Quando obter a mensagem
+        String message = exception.getMessage();
+
+        // Then - Então deve conter a janela e o limite
+        assertThat(message).contains("entre 1s e PT24H").contains("entre 1 e 100");
+    }
+
+    @Test
+    @DisplayName("Dado uma exceção criada, quando obter código de erro, então deve retornar código correto")
+    void dado_excecao_criada_quando_obter_codigo_erro_entao_deve_retornar_codigo_correto() {
+        // Given - Dado uma exceção criada
+        InvalidAnalyticsQueryException exception = new InvalidAnalyticsQueryException(Duration.ofHours(24), 100);
+
+        // When/Then - Então deve retornar código de erro correto
+        assertThat(exception.getErrorCode()).isEqualTo("INVALID_ANALYTICS_QUERY");
+    }
+
+    @Test
+    @DisplayName("Dado uma exceção criada, quando obter dados, então deve retornar a janela e o limite")
+    void dado_excecao_criada_quando_obter_dados_entao_deve_retornar_janela_e_limite() {
+        // Given - Dado uma exceção criada
+        InvalidAnalyticsQueryException exception = new InvalidAnalyticsQueryException(Duration.ofHours(24), 100);
+
+        // When - Quando obter os dados
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) exception.getData();
+
+        // Then - Então deve conter a janela e o limite
+        assertThat(data).containsEntry("window", "PT24H").containsEntry("max_limit", 100);
+    }
+}
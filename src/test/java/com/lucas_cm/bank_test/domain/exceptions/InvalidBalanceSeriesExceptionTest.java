@@ -0,0 +1,49 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InvalidBalanceSeriesException - Testes Unitários")
+class InvalidBalanceSeriesExceptionTest {
+
+    @Test
+    @DisplayName("Dado uma exceção com limite de pontos, quando obter mensagem, então deve incluir o limite")
+    void dado_excecao_com_limite_quando_obter_mensagem_entao_deve_incluir_limite() {
+        // Given - Dado uma exceção com limite de 1000 pontos
+        InvalidBalanceSeriesException exception = new InvalidBalanceSeriesException(1000);
+
+        // When - Quando obter a mensagem
+        String message = exception.getMessage();
+
+        // Then - Então deve conter o limite
+        assertThat(message).contains("no máximo 1000 pontos");
+    }
+
+    @Test
+    @DisplayName("Dado uma exceção criada, quando obter código de erro, então deve retornar código correto")
+    void dado_excecao_criada_quando_obter_codigo_erro_entao_deve_retornar_codigo_correto() {
+        // Given - Dado uma exceção criada
+        InvalidBalanceSeriesException exception = new InvalidBalanceSeriesException(1000);
+
+        // When/Then - Então deve retornar código de erro correto
+        assertThat(exception.getErrorCode()).isEqualTo("INVALID_BALANCE_SERIES");
+    }
+
+    @Test
+    @DisplayName("Dado uma exceção criada, quando obter dados, então deve retornar o limite de pontos")
+    void dado_excecao_criada_quando_obter_dados_entao_deve_retornar_limite() {
+        // Given - Dado uma exceção criada
+        InvalidBalanceSeriesException exception = new InvalidBalanceSeriesException(1000);
+
+        // When - Quando obter os dados
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) exception.getData();
+
+        // Then - Então deve conter o limite
+        assertThat(data).containsEntry("max_points", 1000);
+    }
+}
@@ -0,0 +1,49 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InvalidRollupRangeException - Testes Unitários")
+class InvalidRollupRangeExceptionTest {
+
+    @Test
+    @DisplayName("Dado uma exceção com limite de dias, quando obter mensagem, então deve incluir o limite")
+    void dado_excecao_com_limite_quando_obter_mensagem_entao_deve_incluir_limite() {
+        // Given - Dado uma exceção com limite de 366 dias
+        InvalidRollupRangeException exception = new InvalidRollupRangeException(366);
+
+        // When - Quando obter a mensagem
+        String message = exception.getMessage();
+
+        // Then - Então deve conter o limite
+        assertThat(message).contains("no máximo 366 dias");
+    }
+
+    @Test
+    @DisplayName("Dado uma exceção criada, quando obter código de erro, então deve retornar código correto")
+    void dado_excecao_criada_quando_obter_codigo_erro_entao_deve_retornar_codigo_correto() {
+        // Given - Dado uma exceção criada
+        InvalidRollupRangeException exception = new InvalidRollupRangeException(366);
+
+        // When/Then - Então deve retornar código de erro correto
+        assertThat(exception.getErrorCode()).isEqualTo("INVALID_ROLLUP_RANGE");
+    }
+
+    @Test
+    @DisplayName("Dado uma exceção criada, quando obter dados, então deve retornar o limite de dias")
+    void dado_excecao_criada_quando_obter_dados_entao_deve_retornar_limite() {
+        // Given - Dado uma exceção criada
+        InvalidRollupRangeException exception = new InvalidRollupRangeException(366);
+
+        // When - Quando obter os dados
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) exception.getData();
+
+        // Then - Então deve conter o limite
+        assertThat(data).containsEntry("max_days", 366);
+    }
+}
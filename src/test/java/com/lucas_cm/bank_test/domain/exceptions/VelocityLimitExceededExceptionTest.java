@@ -0,0 +1,56 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("VelocityLimitExceededException - Testes Unitários")
+class VelocityLimitExceededExceptionTest {
+
+    @Test
+    @DisplayName("Dado uma exceção com janela, quando obter mensagem, então deve incluir a janela")
+    void dado_excecao_com_janela_quando_obter_mensagem_entao_deve_incluir_janela() {
+        // Given - Dado uma exceção na janela de 24 horas
+        VelocityLimitExceededException exception =
+                new VelocityLimitExceededException("24h", 200, new BigDecimal("50000.00"));
+
+        // When - Quando obter a mensagem
+        String message = exception.getMessage();
+
+        // Then - Então deve conter a janela
+        assertThat(message).contains("janela de 24h");
+    }
+
+    @Test
+    @DisplayName("Dado uma exceção criada, quando obter código de erro, então deve retornar código correto")
+    void dado_excecao_criada_quando_obter_codigo_erro_entao_deve_retornar_codigo_correto() {
+        // Given - Dado uma exceção criada
+        VelocityLimitExceededException exception =
+                new VelocityLimitExceededException("1m", 10, new BigDecimal("10000.00"));
+
+        // When/Then - Então deve retornar código de erro correto
+        assertThat(exception.getErrorCode()).isEqualTo("VELOCITY_LIMIT_EXCEEDED");
+    }
+
+    @Test
+    @DisplayName("Dado uma exceção criada, quando obter dados, então deve retornar a janela e os limites")
+    void dado_excecao_criada_quando_obter_dados_entao_deve_retornar_janela_e_limites() {
+        // Given - Dado uma exceção criada
+        VelocityLimitExceededException exception =
+                new VelocityLimitExceededException("1m", 10, new BigDecimal("10000.00"));
+
+        // When - Quando obter os dados
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) exception.getData();
+
+        // Then - Então deve conter a janela e os limites
+        assertThat(data)
+                .containsEntry("window", "1m")
+                .containsEntry("max_count", 10)
+                .containsEntry("max_amount", new BigDecimal("10000.00"));
+    }
+}
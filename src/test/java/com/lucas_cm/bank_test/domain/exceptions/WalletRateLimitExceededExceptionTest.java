@@ -0,0 +1,38 @@
+package com.lucas_cm.bank_test.domain.exceptions;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("WalletRateLimitExceededException - Testes Unitários")
+class WalletRateLimitExceededExceptionTest {
+
+    @Test
+    @DisplayName("Dado uma exceção com tempo de espera, quando obter mensagem, então deve incluir o tempo")
+    void dado_excecao_com_tempo_de_espera_quando_obter_mensagem_entao_deve_incluir_tempo() {
+        // Given - Dado uma exceção com 2 segundos de espera
+        WalletRateLimitExceededException exception = new WalletRateLimitExceededException(2);
+
+        // When/Then - Então a mensagem deve conter o tempo de espera
+        assertThat(exception.getMessage())
+                .isEqualTo("Limite de requisições para esta carteira excedido. Tente novamente em 2s.");
+    }
+
+    @Test
+    @DisplayName("Dado uma exceção criada, quando obter código de erro e dados, então deve retornar código e tempo de espera")
+    void dado_excecao_criada_quando_obter_codigo_e_dados_entao_deve_retornar_codigo_e_tempo() {
+        // Given - Dado uma exceção criada
+        WalletRateLimitExceededException exception = new WalletRateLimitExceededException(2);
+
+        // When - Quando obter os dados
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) exception.getData();
+
+        // Then - Então deve retornar código e tempo de espera
+        assertThat(exception.getErrorCode()).isEqualTo("WALLET_RATE_LIMIT_EXCEEDED");
+        assertThat(data).containsEntry("retry_after_seconds", 2L);
+    }
+}
@@ -0,0 +1,85 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AdaptiveConcurrencyLimiter - Testes Unitários")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter(
+                new ConcurrencyLimitProperties(true, 4, 2, 6, 0.5, 2.0, 10), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Dado o limite atingido, quando adquirir, então deve rejeitar e contar a rejeição")
+    void dado_limite_atingido_quando_adquirir_entao_deve_rejeitar() {
+        // Given - Dado 4 requisições em andamento
+        for (int i = 0; i < 4; i++) assertThat(limiter.tryAcquire()).isEqualTo(i);
+
+        // When - Quando chegar a quinta
+        int result = limiter.tryAcquire();
+
+        // Then - Então deve ser rejeitada
+        assertThat(result).isNegative();
+        assertThat(limiter.inFlight()).isEqualTo(4);
+        assertThat(meterRegistry.get("bank.concurrency-limit.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("bank.concurrency-limit.in-flight").gauge().value()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Dado latência estável com o limite em uso, quando liberar, então deve aumentar o limite até o teto")
+    void dado_latencia_estavel_quando_liberar_entao_deve_aumentar_limite_ate_o_teto() {
+        // When - Quando várias requisições concorrentes terminam com latência estável
+        for (int i = 0; i < 5; i++) limiter.release(3, 10 * MS, false);
+
+        // Then - Então o limite deve crescer até o teto
+        assertThat(limiter.currentLimit()).isEqualTo(6);
+        assertThat(meterRegistry.get("bank.concurrency-limit.limit").gauge().value()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Dado uma latência muito acima da média, quando liberar, então deve reduzir o limite multiplicativamente")
+    void dado_latencia_degradada_quando_liberar_entao_deve_reduzir_limite() {
+        // Given - Dado uma média de longo prazo de 10ms
+        limiter.release(0, 10 * MS, false);
+
+        // When - Quando uma requisição leva 50ms
+        limiter.release(0, 50 * MS, false);
+
+        // Then - Então o limite deve cair pela metade
+        assertThat(limiter.currentLimit()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Dado respostas 5xx, quando liberar, então deve reduzir o limite sem passar do piso")
+    void dado_respostas_5xx_quando_liberar_entao_deve_respeitar_o_piso() {
+        // When - Quando várias requisições falham
+        for (int i = 0; i < 5; i++) limiter.release(0, 10 * MS, true);
+
+        // Then - Então o limite deve parar no piso
+        assertThat(limiter.currentLimit()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Dado o limite ocioso, quando liberar com latência estável, então não deve aumentar o limite")
+    void dado_limite_ocioso_quando_liberar_entao_nao_deve_aumentar() {
+        // When - Quando uma requisição termina sem concorrência
+        limiter.release(0, 10 * MS, false);
+
+        // Then - Então o limite deve continuar o mesmo
+        assertThat(limiter.currentLimit()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,131 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.NettingProperties;
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BalanceNettingEngine - Testes Unitários")
+class BalanceNettingEngineTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private BalanceNettingEngine balanceNettingEngine;
+
+    private WalletEntity walletA;
+    private WalletEntity walletB;
+
+    @BeforeEach
+    void setUp() {
+        balanceNettingEngine = new BalanceNettingEngine(
+                walletRepository,
+                transactionTemplate,
+                new NettingProperties(true, Duration.ofMillis(200), 500)
+        );
+
+        walletA = WalletEntity.builder()
+                .id("wallet-a")
+                .currentBalance(new BigDecimal("100.00"))
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+
+        walletB = WalletEntity.builder()
+                .id("wallet-b")
+                .currentBalance(new BigDecimal("0.00"))
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Dado várias confirmações para a mesma carteira, quando acumular, então deve manter um único delta líquido")
+    void dado_varias_confirmacoes_quando_acumular_entao_deve_manter_delta_liquido() {
+        // When - Quando acumular débitos e créditos
+        balanceNettingEngine.accumulate("wallet-a", new BigDecimal("-30.00"));
+        balanceNettingEngine.accumulate("wallet-a", new BigDecimal("10.00"));
+
+        // Then - Então o delta deve ser a soma
+        assertThat(balanceNettingEngine.availableDelta("wallet-a")).isEqualByComparingTo("-20.00");
+        assertThat(balanceNettingEngine.withPendingDelta("wallet-a", () -> new BigDecimal("100.00")))
+                .isEqualByComparingTo("80.00");
+        assertThat(balanceNettingEngine.availableDelta("wallet-x")).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("Dado deltas acumulados, quando executar o flush, então deve aplicar um update por carteira e limpar os deltas")
+    void dado_deltas_acumulados_quando_flush_entao_deve_aplicar_e_limpar() {
+        // Given - Dado deltas para duas carteiras
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        when(walletRepository.findAllByIdWithLock(List.of("wallet-a", "wallet-b")))
+                .thenReturn(List.of(walletA, walletB));
+        balanceNettingEngine.accumulate("wallet-b", new BigDecimal("25.00"));
+        balanceNettingEngine.accumulate("wallet-a", new BigDecimal("-25.00"));
+
+        // When - Quando executar o flush
+        balanceNettingEngine.flush();
+
+        // Then - Então os saldos devem refletir os deltas
+        assertThat(walletA.getCurrentBalance()).isEqualByComparingTo("75.00");
+        assertThat(walletB.getCurrentBalance()).isEqualByComparingTo("25.00");
+        verify(walletRepository).saveAll(List.of(walletA, walletB));
+        assertThat(balanceNettingEngine.availableDelta("wallet-a")).isEqualByComparingTo("0");
+        assertThat(balanceNettingEngine.availableDelta("wallet-b")).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("Dado uma falha no banco, quando executar o flush, então deve manter os deltas para a próxima janela")
+    void dado_falha_no_banco_quando_flush_entao_deve_manter_deltas() {
+        // Given - Dado que a transação falha
+        when(transactionTemplate.execute(any())).thenThrow(new RuntimeException("db down"));
+        balanceNettingEngine.accumulate("wallet-a", new BigDecimal("15.00"));
+
+        // When - Quando executar o flush
+        balanceNettingEngine.flush();
+
+        // Then - Então o delta deve continuar pendente
+        assertThat(balanceNettingEngine.availableDelta("wallet-a")).isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    @DisplayName("Dado o netting desabilitado, quando executar o flush, então não deve acessar o banco")
+    void dado_netting_desabilitado_quando_flush_entao_nao_deve_acessar_banco() {
+        // Given - Dado o modo desabilitado
+        balanceNettingEngine = new BalanceNettingEngine(
+                walletRepository,
+                transactionTemplate,
+                new NettingProperties(false, Duration.ofMillis(200), 500)
+        );
+        balanceNettingEngine.accumulate("wallet-a", BigDecimal.TEN);
+
+        // When - Quando executar o flush
+        balanceNettingEngine.flush();
+
+        // Then - Então nada deve ser aplicado
+        verifyNoInteractions(transactionTemplate, walletRepository);
+    }
+}
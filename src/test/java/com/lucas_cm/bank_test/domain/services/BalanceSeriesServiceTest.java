@@ -0,0 +1,108 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.BalanceSeriesProperties;
+import com.lucas_cm.bank_test.domain.exceptions.InvalidBalanceSeriesException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.models.BalancePoint;
+import com.lucas_cm.bank_test.domain.repositories.BalanceSeriesRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.BalanceSeriesDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BalanceSeriesService - Testes Unitários")
+class BalanceSeriesServiceTest {
+
+    @Mock
+    private BalanceSeriesRepository balanceSeriesRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    private BalanceSeriesService balanceSeriesService;
+
+    private final String walletId = "wallet-123";
+
+    @BeforeEach
+    void setUp() {
+        balanceSeriesService = new BalanceSeriesService(
+                balanceSeriesRepository, walletRepository, new BalanceSeriesProperties(48));
+    }
+
+    @Test
+    @DisplayName("Dado um intervalo de um dia com step de 1h, quando consultar a série, então deve pedir 25 pontos em uma única consulta")
+    void dado_intervalo_valido_quando_consultar_serie_entao_deve_pedir_todos_os_pontos_em_uma_consulta() {
+        // Given - Dado a carteira existente e a série calculada pelo banco
+        LocalDateTime from = LocalDateTime.of(2025, 10, 9, 0, 0);
+        List<BalancePoint> points = List.of(new BalancePoint(from, new BigDecimal("10.00")));
+        when(walletRepository.existsById(walletId)).thenReturn(true);
+        when(balanceSeriesRepository.findSeries(walletId, from, Duration.ofHours(1), 25)).thenReturn(points);
+
+        // When - Quando consultar a série
+        BalanceSeriesDto result = balanceSeriesService.getSeries(
+                walletId, "2025-10-09T00:00:00Z", "2025-10-10T00:00:00Z", "1h");
+
+        // Then - Então deve retornar os pontos da consulta
+        assertThat(result.walletId()).isEqualTo(walletId);
+        assertThat(result.points()).isEqualTo(points);
+        verify(balanceSeriesRepository, times(1)).findSeries(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Dado um step ISO-8601 que não divide o intervalo, quando consultar a série, então o último ponto deve ficar antes do fim")
+    void dado_step_iso_quando_consultar_serie_entao_deve_arredondar_para_baixo() {
+        // Given - Dado um intervalo de 100 minutos com step de 30 minutos
+        LocalDateTime from = LocalDateTime.of(2025, 10, 9, 0, 0);
+        when(walletRepository.existsById(walletId)).thenReturn(true);
+
+        // When - Quando consultar a série
+        balanceSeriesService.getSeries(walletId, "2025-10-09T00:00:00Z", "2025-10-09T01:40:00Z", "PT30M");
+
+        // Then - Então deve pedir os pontos 00:00, 00:30, 01:00 e 01:30
+        verify(balanceSeriesRepository).findSeries(walletId, from, Duration.ofMinutes(30), 4);
+    }
+
+    @Test
+    @DisplayName("Dado parâmetros inválidos ou pontos demais, quando consultar a série, então deve lançar InvalidBalanceSeriesException")
+    void dado_parametros_invalidos_quando_consultar_serie_entao_deve_lancar_excecao() {
+        // When/Then - Quando consultar com parâmetros inválidos, então deve lançar exceção sem ir ao banco
+        assertThatThrownBy(() -> balanceSeriesService.getSeries(walletId, "ontem", "2025-10-10T00:00:00Z", "1h"))
+                .isInstanceOf(InvalidBalanceSeriesException.class);
+        assertThatThrownBy(() -> balanceSeriesService.getSeries(walletId, "2025-10-10T00:00:00Z", "2025-10-09T00:00:00Z", "1h"))
+                .isInstanceOf(InvalidBalanceSeriesException.class);
+        assertThatThrownBy(() -> balanceSeriesService.getSeries(walletId, "2025-10-09T00:00:00Z", "2025-10-10T00:00:00Z", "500ms"))
+                .isInstanceOf(InvalidBalanceSeriesException.class);
+        assertThatThrownBy(() -> balanceSeriesService.getSeries(walletId, "2025-10-09T00:00:00Z", "2025-10-10T00:00:00Z", "30m"))
+                .isInstanceOf(InvalidBalanceSeriesException.class);
+        verifyNoInteractions(walletRepository, balanceSeriesRepository);
+    }
+
+    @Test
+    @DisplayName("Dado uma carteira inexistente, quando consultar a série, então deve lançar WalletNotFoundException")
+    void dado_carteira_inexistente_quando_consultar_serie_entao_deve_lancar_excecao() {
+        // Given - Dado que a carteira não existe
+        when(walletRepository.existsById(walletId)).thenReturn(false);
+
+        // When/Then - Quando consultar, então deve lançar exceção
+        assertThatThrownBy(() -> balanceSeriesService.getSeries(
+                walletId, "2025-10-09T00:00:00Z", "2025-10-09T12:00:00Z", "1h"))
+                .isInstanceOf(WalletNotFoundException.class);
+        verifyNoInteractions(balanceSeriesRepository);
+    }
+}
@@ -0,0 +1,153 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.DuplicatePaymentProperties;
+import com.lucas_cm.bank_test.domain.exceptions.DuplicatePaymentException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DuplicatePaymentDetector - Testes Unitários")
+class DuplicatePaymentDetectorTest {
+
+    private final AtomicLong clock = new AtomicLong(1_760_000_000_000L);
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private DuplicatePaymentDetector detector(DuplicatePaymentProperties.Mode mode) {
+        return new DuplicatePaymentDetector(
+                new DuplicatePaymentProperties(true, mode, Duration.ofMinutes(2)), meterRegistry, clock::get);
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência registrada, quando chegar outra com mesma origem, destino e valor, então deve marcar como duplicada")
+    void dado_transferencia_registrada_quando_chegar_outra_identica_entao_deve_marcar_duplicada() {
+        // Given - Dado uma transferência de 10,00
+        DuplicatePaymentDetector detector = detector(DuplicatePaymentProperties.Mode.TAG);
+        assertThat(detector.check("wallet-a", "pix-b", new BigDecimal("10.00"))).isFalse();
+
+        // When/Then - Quando chegar a mesma transferência com outra escala, então é duplicada; variações não são
+        clock.addAndGet(Duration.ofSeconds(30).toMillis());
+        assertThat(detector.check("wallet-a", "pix-b", new BigDecimal("10.0"))).isTrue();
+        assertThat(detector.check("wallet-a", "pix-b", new BigDecimal("10.01"))).isFalse();
+        assertThat(detector.check("wallet-a", "pix-c", new BigDecimal("10.00"))).isFalse();
+        assertThat(detector.check("wallet-c", "pix-b", new BigDecimal("10.00"))).isFalse();
+        assertThat(meterRegistry.get("bank.pix.duplicate-detection.flagged").tag("mode", "tag").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência registrada, quando a janela passar, então a repetição não deve ser marcada")
+    void dado_transferencia_registrada_quando_janela_passar_entao_repeticao_nao_deve_ser_marcada() {
+        // Given - Dado uma transferência registrada
+        DuplicatePaymentDetector detector = detector(DuplicatePaymentProperties.Mode.TAG);
+        detector.check("wallet-a", "pix-b", new BigDecimal("10.00"));
+
+        // When - Quando passar a janela mais um bucket
+        clock.addAndGet(Duration.ofMinutes(2).plusSeconds(15).toMillis());
+
+        // Then - Então a repetição deve passar sem marca
+        assertThat(detector.check("wallet-a", "pix-b", new BigDecimal("10.00"))).isFalse();
+        assertThat(detector.fingerprints()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência registrada em um bucket anterior, quando descartar, então a repetição não deve ser marcada")
+    void dado_transferencia_registrada_quando_descartar_entao_repeticao_nao_deve_ser_marcada() {
+        // Given - Dado uma transferência registrada fora de transação
+        DuplicatePaymentDetector detector = detector(DuplicatePaymentProperties.Mode.TAG);
+        detector.check("wallet-a", "pix-b", new BigDecimal("10.00"));
+
+        // When - Quando o tempo avançar um bucket e a impressão for descartada
+        clock.addAndGet(Duration.ofSeconds(20).toMillis());
+        detector.discard("wallet-a", "pix-b", new BigDecimal("10.00"));
+
+        // Then - Então a repetição deve passar sem marca
+        assertThat(detector.fingerprints()).isZero();
+        assertThat(detector.check("wallet-a", "pix-b", new BigDecimal("10.00"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Dado o modo reject, quando chegar uma transferência repetida, então deve lançar DuplicatePaymentException")
+    void dado_modo_reject_quando_chegar_transferencia_repetida_entao_deve_lancar_excecao() {
+        // Given - Dado uma transferência registrada no modo reject
+        DuplicatePaymentDetector detector = detector(DuplicatePaymentProperties.Mode.REJECT);
+        detector.check("wallet-a", "pix-b", new BigDecimal("10.00"));
+
+        // When/Then - Quando repetir, então deve lançar exceção
+        assertThatThrownBy(() -> detector.check("wallet-a", "pix-b", new BigDecimal("10.00")))
+                .isInstanceOf(DuplicatePaymentException.class);
+        assertThat(meterRegistry.get("bank.pix.duplicate-detection.flagged").tag("mode", "reject").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado transferências desfeitas, quando a transação não for commitada, então suas impressões devem ser removidas")
+    void dado_transferencias_desfeitas_quando_transacao_nao_commitada_entao_impressoes_devem_ser_removidas() {
+        // Given - Dado 200 transferências registradas dentro de transações
+        DuplicatePaymentDetector detector = detector(DuplicatePaymentProperties.Mode.TAG);
+        List<TransactionSynchronization> synchronizations;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            for (int i = 0; i < 200; i++) {
+                detector.check("wallet-a", "pix-b", BigDecimal.valueOf(i + 1));
+            }
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // When - Quando as transações pares forem desfeitas e as ímpares commitadas
+        for (int i = 0; i < synchronizations.size(); i++) {
+            synchronizations.get(i).afterCompletion(i % 2 == 0
+                    ? TransactionSynchronization.STATUS_ROLLED_BACK
+                    : TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        // Then - Então só as commitadas continuam na janela
+        assertThat(synchronizations).hasSize(200);
+        assertThat(detector.fingerprints()).isEqualTo(100);
+        for (int i = 0; i < 200; i++) {
+            assertThat(detector.check("wallet-a", "pix-b", BigDecimal.valueOf(i + 1))).isEqualTo(i % 2 == 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Dado duas transferências idênticas em transações, quando só a primeira for desfeita, então a impressão deve continuar na janela")
+    void dado_duas_transferencias_identicas_quando_so_a_primeira_for_desfeita_entao_impressao_deve_continuar() {
+        // Given - Dado a mesma transferência registrada em duas transações
+        DuplicatePaymentDetector detector = detector(DuplicatePaymentProperties.Mode.TAG);
+        List<TransactionSynchronization> synchronizations;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(detector.check("wallet-a", "pix-b", new BigDecimal("10.00"))).isFalse();
+            assertThat(detector.check("wallet-a", "pix-b", new BigDecimal("10.00"))).isTrue();
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // When - Quando a primeira for desfeita e a segunda commitada
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Then - Então uma terceira idêntica ainda deve ser marcada
+        assertThat(synchronizations).hasSize(2);
+        assertThat(detector.fingerprints()).isEqualTo(1);
+        assertThat(detector.check("wallet-a", "pix-b", new BigDecimal("10.00"))).isTrue();
+    }
+}
@@ -0,0 +1,154 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.ReconciliationProperties;
+import com.lucas_cm.bank_test.configuration.properties.ShardingProperties;
+import com.lucas_cm.bank_test.domain.models.ReconciliationModeEnum;
+import com.lucas_cm.bank_test.domain.models.ReconciliationStatusEnum;
+import com.lucas_cm.bank_test.domain.models.WalletDrift;
+import com.lucas_cm.bank_test.domain.repositories.LedgerReconciliationRepository;
+import com.lucas_cm.bank_test.domain.repositories.PixKeyDirectoryRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.ReconciliationReportDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LedgerReconciliationService - Testes Unitários")
+class LedgerReconciliationServiceTest {
+
+    @Mock
+    private LedgerReconciliationRepository repository;
+
+    @Mock
+    private BalanceNettingEngine balanceNettingEngine;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LedgerReconciliationService ledgerReconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ledgerReconciliationService = new LedgerReconciliationService(
+                repository,
+                balanceNettingEngine,
+                new ReconciliationProperties(true, Duration.ofMinutes(10), 2, 2, Duration.ofMinutes(5), 100),
+                new ShardRouter(new ShardingProperties(false, List.of(), 10), mock(PixKeyDirectoryRepository.class)),
+                meterRegistry
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerReconciliationService.shutdown();
+    }
+
+    private WalletDrift drift(String walletId, String currentBalance, String ledgerBalance) {
+        return new WalletDrift(walletId, new BigDecimal(currentBalance), new BigDecimal(ledgerBalance));
+    }
+
+    @Test
+    @DisplayName("Dado a primeira execução, quando reconciliar, então deve verificar todas as faixas de carteiras e reportar as divergências")
+    void dado_primeira_execucao_quando_reconciliar_entao_deve_verificar_todas_as_faixas() {
+        // Given - Dado três carteiras em duas faixas, uma delas divergente
+        when(repository.findWalletIdsAfter("", 2)).thenReturn(List.of("a", "b"));
+        when(repository.findWalletIdsAfter("b", 2)).thenReturn(List.of("c"));
+        when(repository.findDriftInRange("", "b")).thenReturn(List.of());
+        when(repository.findDriftInRange("b", "c")).thenReturn(List.of(drift("c", "10.00", "15.00")));
+
+        // When - Quando reconciliar
+        ReconciliationReportDto report = ledgerReconciliationService.run(false).orElseThrow();
+
+        // Then - Então deve reportar a carteira divergente
+        assertThat(report.mode()).isEqualTo(ReconciliationModeEnum.FULL);
+        assertThat(report.status()).isEqualTo(ReconciliationStatusEnum.COMPLETED);
+        assertThat(report.walletsChecked()).isEqualTo(3);
+        assertThat(report.walletsDrifted()).isEqualTo(1);
+        assertThat(report.totalAbsoluteDrift()).isEqualByComparingTo("5.00");
+        assertThat(report.drifts().get(0).walletId()).isEqualTo("c");
+        assertThat(meterRegistry.get("bank.reconciliation.drift.wallets").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("bank.reconciliation.wallets.checked").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Dado uma execução anterior concluída, quando reconciliar, então deve verificar apenas as carteiras alteradas e as divergentes")
+    void dado_execucao_anterior_quando_reconciliar_entao_deve_ser_incremental() {
+        // Given - Dado uma primeira execução com a carteira "c" divergente
+        when(repository.findWalletIdsAfter("", 2)).thenReturn(List.of("c"));
+        when(repository.findDriftInRange("", "c")).thenReturn(List.of(drift("c", "10.00", "15.00")));
+        ReconciliationReportDto first = ledgerReconciliationService.run(false).orElseThrow();
+
+        when(repository.findChangedWalletIdsAfter(any(), eq(""), anyInt())).thenReturn(List.of("d"));
+        when(repository.findDriftIn(List.of("d"))).thenReturn(List.of());
+        when(repository.findDriftIn(List.of("c"))).thenReturn(List.of());
+
+        // When - Quando reconciliar novamente
+        ReconciliationReportDto report = ledgerReconciliationService.run(false).orElseThrow();
+
+        // Then - Então deve usar o high-water mark menos a margem e resolver a divergência anterior
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).findChangedWalletIdsAfter(since.capture(), eq(""), eq(2));
+        assertThat(since.getValue()).isEqualTo(first.highWaterMark().minusMinutes(5));
+        assertThat(report.mode()).isEqualTo(ReconciliationModeEnum.INCREMENTAL);
+        assertThat(report.walletsChecked()).isEqualTo(2);
+        assertThat(report.walletsDrifted()).isZero();
+        verify(repository, times(1)).findWalletIdsAfter(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Dado o netting habilitado, quando a diferença for explicada pelos deltas pendentes, então não deve reportar divergência")
+    void dado_netting_habilitado_quando_diferenca_explicada_pelos_deltas_entao_nao_deve_reportar() {
+        // Given - Dado uma diferença de 5.00 ainda pendente no netting
+        when(balanceNettingEngine.isEnabled()).thenReturn(true);
+        when(repository.findWalletIdsAfter("", 2)).thenReturn(List.of("a"));
+        when(repository.findDriftInRange("", "a")).thenReturn(List.of(drift("a", "10.00", "15.00")));
+        when(repository.findLedgerBalance("a")).thenReturn(Optional.of(drift("a", "10.00", "15.00")));
+        when(balanceNettingEngine.withPendingDelta(eq("a"), any())).thenAnswer(invocation -> {
+            Supplier<BigDecimal> persisted = invocation.getArgument(1);
+            return persisted.get().add(new BigDecimal("5.00"));
+        });
+
+        // When - Quando reconciliar
+        ReconciliationReportDto report = ledgerReconciliationService.run(false).orElseThrow();
+
+        // Then - Então não deve haver divergência
+        assertThat(report.walletsDrifted()).isZero();
+    }
+
+    @Test
+    @DisplayName("Dado uma falha em uma faixa, quando reconciliar, então deve marcar como FAILED e repetir a varredura completa depois")
+    void dado_falha_em_faixa_quando_reconciliar_entao_deve_falhar_sem_avancar_high_water_mark() {
+        // Given - Dado que a consulta da faixa falha
+        when(repository.findWalletIdsAfter("", 2)).thenReturn(List.of("a"));
+        when(repository.findDriftInRange("", "a")).thenThrow(new RuntimeException("db down"));
+
+        // When - Quando reconciliar duas vezes
+        ReconciliationReportDto failed = ledgerReconciliationService.run(false).orElseThrow();
+        ReconciliationReportDto retry = ledgerReconciliationService.run(false).orElseThrow();
+
+        // Then - Então a segunda execução continua completa
+        assertThat(failed.status()).isEqualTo(ReconciliationStatusEnum.FAILED);
+        assertThat(failed.highWaterMark()).isNull();
+        assertThat(retry.mode()).isEqualTo(ReconciliationModeEnum.FULL);
+        verify(repository, never()).findChangedWalletIdsAfter(any(), any(), anyInt());
+    }
+}
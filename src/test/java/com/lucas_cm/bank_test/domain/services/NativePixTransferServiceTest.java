@@ -0,0 +1,226 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.OutboxProperties;
+import com.lucas_cm.bank_test.configuration.properties.PixTransferProperties;
+import com.lucas_cm.bank_test.configuration.properties.TransactionRollupProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.exceptions.DuplicatePaymentException;
+import com.lucas_cm.bank_test.domain.exceptions.InsufficientBalanceException;
+import com.lucas_cm.bank_test.domain.exceptions.VelocityLimitExceededException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.repositories.NativePixTransferRepository;
+import com.lucas_cm.bank_test.domain.repositories.NativePixTransferRepository.TransferResult;
+import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferRequest;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NativePixTransferService - Testes Unitários")
+class NativePixTransferServiceTest {
+
+    @Mock
+    private NativePixTransferRepository nativePixTransferRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private BalanceNettingEngine balanceNettingEngine;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    @Mock
+    private Runnable releaseVelocity;
+
+    @Mock
+    private DuplicatePaymentDetector duplicatePaymentDetector;
+
+    private NativePixTransferService nativePixTransferService;
+
+    private PixTransferRequest request;
+
+    @BeforeEach
+    void setUp() {
+        nativePixTransferService = new NativePixTransferService(
+                nativePixTransferRepository,
+                transactionRepository,
+                balanceNettingEngine,
+                new PixTransferProperties(PixTransferProperties.Mode.NATIVE),
+                new OutboxProperties(true, 1000, Duration.ofMillis(500), "file",
+                        new OutboxProperties.File("outbox/ledger-events.jsonl", true)),
+                new TransactionRollupProperties(true, 366),
+                shardRouter,
+                velocityLimiter,
+                duplicatePaymentDetector
+        );
+        request = new PixTransferRequest("wallet-a", "pix-b", new BigDecimal("30.00"));
+    }
+
+    private void registrarLimite() {
+        when(velocityLimiter.acquire("wallet-a", new BigDecimal("30.00"))).thenReturn(releaseVelocity);
+    }
+
+    private void retornar(TransferResult result) {
+        registrarLimite();
+        when(nativePixTransferRepository.transfer(eq("key-1"), eq("wallet-a"), eq("pix-b"),
+                any(), any(), anyBoolean(), anyBoolean(), anyBoolean())).thenReturn(result);
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência válida, quando transferir, então deve criar as pernas em um único comando e retornar PENDING")
+    void dado_transferencia_valida_quando_transferir_entao_deve_retornar_pending() {
+        // Given - Dado que o comando inseriu as duas pernas
+        retornar(new TransferResult(null, true, true, new BigDecimal("100.00"), true));
+
+        // When - Quando transferir
+        PixTransferResponse response = nativePixTransferService.transfer("key-1", request);
+
+        // Then - Então deve retornar PENDING repassando o outbox habilitado
+        assertThat(response.endToEndId()).isEqualTo("key-1");
+        assertThat(response.status()).isEqualTo(TransactionStatusEnum.PENDING);
+        verify(nativePixTransferRepository).transfer("key-1", "wallet-a", "pix-b",
+                new BigDecimal("30.00"), BigDecimal.ZERO, false, true, true);
+        verifyNoInteractions(transactionRepository);
+        verify(releaseVelocity, never()).run();
+        verify(duplicatePaymentDetector, never()).discard(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Dado uma chave de idempotência já usada, quando transferir, então deve retornar o status existente")
+    void dado_chave_ja_usada_quando_transferir_entao_deve_retornar_status_existente() {
+        // Given - Dado que a perna OUT já existe
+        retornar(new TransferResult(TransactionStatusEnum.CONFIRMED, false, false, null, false));
+
+        // When - Quando transferir novamente
+        PixTransferResponse response = nativePixTransferService.transfer("key-1", request);
+
+        // Then - Então deve retornar o status existente e devolver o uso do limite e a impressão
+        assertThat(response.status()).isEqualTo(TransactionStatusEnum.CONFIRMED);
+        verify(releaseVelocity).run();
+        verify(duplicatePaymentDetector).discard("wallet-a", "pix-b", new BigDecimal("30.00"));
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência idêntica a outra recente, quando transferir, então deve gravar as pernas marcadas como suspeitas")
+    void dado_transferencia_identica_quando_transferir_entao_deve_marcar_pernas() {
+        // Given - Dado que o detector marca a transferência
+        when(duplicatePaymentDetector.check("wallet-a", "pix-b", new BigDecimal("30.00"))).thenReturn(true);
+        retornar(new TransferResult(null, true, true, new BigDecimal("100.00"), true));
+
+        // When - Quando transferir
+        nativePixTransferService.transfer("key-1", request);
+
+        // Then - Então o comando deve receber a marca de duplicidade
+        verify(nativePixTransferRepository).transfer("key-1", "wallet-a", "pix-b",
+                new BigDecimal("30.00"), BigDecimal.ZERO, true, true, true);
+    }
+
+    @Test
+    @DisplayName("Dado o modo reject e uma transferência idêntica, quando transferir, então deve lançar DuplicatePaymentException sem executar o comando")
+    void dado_modo_reject_e_transferencia_identica_quando_transferir_entao_deve_lancar_excecao() {
+        // Given - Dado que o detector recusa a transferência e a chave ainda não foi usada
+        when(duplicatePaymentDetector.check("wallet-a", "pix-b", new BigDecimal("30.00")))
+                .thenThrow(new DuplicatePaymentException(Duration.ofMinutes(2)));
+        when(transactionRepository.findByEndToEndId("OUTkey-1")).thenReturn(Optional.empty());
+
+        // When/Then - Quando transferir, então deve lançar exceção sem consumir o limite
+        assertThatThrownBy(() -> nativePixTransferService.transfer("key-1", request))
+                .isInstanceOf(DuplicatePaymentException.class);
+        verifyNoInteractions(nativePixTransferRepository, velocityLimiter);
+    }
+
+    @Test
+    @DisplayName("Dado uma origem acima do limite de movimentação, quando transferir, então deve lançar VelocityLimitExceededException sem executar o comando")
+    void dado_origem_acima_do_limite_quando_transferir_entao_deve_lancar_excecao_sem_executar_comando() {
+        // Given - Dado que o limite foi atingido e a chave ainda não foi usada
+        when(velocityLimiter.acquire("wallet-a", new BigDecimal("30.00")))
+                .thenThrow(new VelocityLimitExceededException("1m", 5, new BigDecimal("1000.00")));
+        when(transactionRepository.findByEndToEndId("OUTkey-1")).thenReturn(Optional.empty());
+
+        // When/Then - Quando transferir, então deve lançar exceção e descartar a impressão
+        assertThatThrownBy(() -> nativePixTransferService.transfer("key-1", request))
+                .isInstanceOf(VelocityLimitExceededException.class);
+        verifyNoInteractions(nativePixTransferRepository);
+        verify(duplicatePaymentDetector).discard("wallet-a", "pix-b", new BigDecimal("30.00"));
+    }
+
+    @Test
+    @DisplayName("Dado uma chave já usada e a origem acima do limite, quando transferir, então deve retornar o status existente")
+    void dado_chave_ja_usada_e_origem_acima_do_limite_quando_transferir_entao_deve_retornar_status_existente() {
+        // Given - Dado que o limite foi atingido, mas a perna OUT já existe
+        when(velocityLimiter.acquire("wallet-a", new BigDecimal("30.00")))
+                .thenThrow(new VelocityLimitExceededException("1m", 5, new BigDecimal("1000.00")));
+        when(transactionRepository.findByEndToEndId("OUTkey-1")).thenReturn(Optional.of(
+                TransactionEntity.builder().status(TransactionStatusEnum.CONFIRMED).build()));
+
+        // When - Quando repetir a transferência
+        PixTransferResponse response = nativePixTransferService.transfer("key-1", request);
+
+        // Then - Então deve retornar o status existente sem executar o comando
+        assertThat(response.status()).isEqualTo(TransactionStatusEnum.CONFIRMED);
+        verifyNoInteractions(nativePixTransferRepository);
+    }
+
+    @Test
+    @DisplayName("Dado uma carteira de origem ou destino inexistente, quando transferir, então deve lançar WalletNotFoundException")
+    void dado_carteira_inexistente_quando_transferir_entao_deve_lancar_excecao() {
+        // Given - Dado que a chave PIX de destino não existe
+        retornar(new TransferResult(null, true, false, new BigDecimal("100.00"), false));
+
+        // When/Then - Quando transferir, então deve lançar exceção
+        assertThatThrownBy(() -> nativePixTransferService.transfer("key-1", request))
+                .isInstanceOf(WalletNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Dado saldo insuficiente considerando o netting, quando transferir, então deve lançar InsufficientBalanceException")
+    void dado_saldo_insuficiente_quando_transferir_entao_deve_lancar_excecao() {
+        // Given - Dado saldo persistido suficiente, mas com débitos de netting ainda não aplicados
+        when(balanceNettingEngine.isEnabled()).thenReturn(true);
+        when(balanceNettingEngine.availableDelta("wallet-a")).thenReturn(new BigDecimal("-80.00"));
+        retornar(new TransferResult(null, true, true, new BigDecimal("100.00"), false));
+
+        // When/Then - Quando transferir, então deve lançar exceção com o saldo disponível
+        assertThatThrownBy(() -> nativePixTransferService.transfer("key-1", request))
+                .isInstanceOf(InsufficientBalanceException.class);
+        verify(nativePixTransferRepository).transfer("key-1", "wallet-a", "pix-b",
+                new BigDecimal("30.00"), new BigDecimal("-80.00"), false, true, true);
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência concorrente com a mesma chave, quando transferir, então deve retornar o status da transferência commitada")
+    void dado_transferencia_concorrente_quando_transferir_entao_deve_retornar_status_commitado() {
+        // Given - Dado que outra requisição inseriu a perna OUT enquanto esta aguardava o lock
+        retornar(new TransferResult(null, true, true, new BigDecimal("100.00"), false));
+        when(transactionRepository.findByEndToEndId("OUTkey-1")).thenReturn(Optional.of(
+                TransactionEntity.builder().endToEndId("OUTkey-1").status(TransactionStatusEnum.PENDING).build()));
+
+        // When - Quando transferir
+        PixTransferResponse response = nativePixTransferService.transfer("key-1", request);
+
+        // Then - Então deve retornar o status existente
+        assertThat(response.status()).isEqualTo(TransactionStatusEnum.PENDING);
+    }
+}
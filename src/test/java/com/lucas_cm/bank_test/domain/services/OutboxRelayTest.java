@@ -0,0 +1,104 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.OutboxProperties;
+import com.lucas_cm.bank_test.domain.entities.OutboxEventEntity;
+import com.lucas_cm.bank_test.domain.entities.OutboxEventTypeEnum;
+import com.lucas_cm.bank_test.domain.repositories.OutboxEventRepository;
+import com.lucas_cm.bank_test.infrastructure.outbox.OutboxSink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxRelay - Testes Unitários")
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxSink outboxSink;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(
+                outboxEventRepository,
+                outboxSink,
+                transactionTemplate,
+                new OutboxProperties(true, 2, Duration.ofMillis(500), "file",
+                        new OutboxProperties.File("outbox/ledger-events.jsonl", true)),
+                meterRegistry
+        );
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+    }
+
+    private OutboxEventEntity event(long id) {
+        return OutboxEventEntity.builder()
+                .id(id)
+                .eventType(OutboxEventTypeEnum.DEPOSIT_CONFIRMED)
+                .aggregateId("e2e-" + id)
+                .payload("{}")
+                .createdAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Dado eventos pendentes, quando executar o relay, então deve publicar e remover em lotes até um lote incompleto")
+    void dado_eventos_pendentes_quando_executar_relay_entao_deve_publicar_em_lotes() {
+        // Given - Dado um lote cheio seguido de um lote parcial
+        List<OutboxEventEntity> first = List.of(event(1), event(2));
+        List<OutboxEventEntity> second = List.of(event(3));
+        when(outboxEventRepository.findNextBatchForUpdate(2)).thenReturn(first).thenReturn(second);
+
+        // When - Quando executar o relay
+        int published = outboxRelay.relay();
+
+        // Then - Então deve publicar e remover os dois lotes
+        assertThat(published).isEqualTo(3);
+        verify(outboxSink).publish(first);
+        verify(outboxSink).publish(second);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+        assertThat(meterRegistry.get("bank.outbox.relay.published").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("bank.outbox.relay.lag.current").gauge().value()).isGreaterThan(0.0);
+    }
+
+    @Test
+    @DisplayName("Dado uma falha no sink, quando executar o relay, então não deve remover os eventos do outbox")
+    void dado_falha_no_sink_quando_executar_relay_entao_nao_deve_remover_eventos() {
+        // Given - Dado que o sink falha
+        List<OutboxEventEntity> events = List.of(event(1));
+        when(outboxEventRepository.findNextBatchForUpdate(2)).thenReturn(events);
+        doThrow(new RuntimeException("disco cheio")).when(outboxSink).publish(events);
+
+        // When/Then - Quando executar o relay, então a falha deve abortar a transação
+        assertThatThrownBy(() -> outboxRelay.relay()).isInstanceOf(RuntimeException.class);
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+}
@@ -0,0 +1,124 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lucas_cm.bank_test.configuration.properties.OutboxProperties;
+import com.lucas_cm.bank_test.domain.entities.*;
+import com.lucas_cm.bank_test.domain.repositories.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxService - Testes Unitários")
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = outboxService(true);
+    }
+
+    private OutboxService outboxService(boolean enabled) {
+        return new OutboxService(outboxEventRepository, objectMapper, new OutboxProperties(
+                enabled, 1000, Duration.ofMillis(500), "file",
+                new OutboxProperties.File("outbox/ledger-events.jsonl", true)));
+    }
+
+    private TransactionEntity leg(String endToEndId, String walletId, String amount, TransactionTypeEnum type) {
+        return TransactionEntity.builder()
+                .endToEndId(endToEndId)
+                .walletId(walletId)
+                .amount(new BigDecimal(amount))
+                .type(type)
+                .status(TransactionStatusEnum.PENDING)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Dado um depósito, quando gravar no outbox, então deve serializar a transação como payload")
+    void dado_deposito_quando_gravar_no_outbox_entao_deve_serializar_transacao() throws Exception {
+        // Given - Dado um depósito confirmado
+        TransactionEntity deposit = leg("e2e-1", "wallet-a", "10.00", TransactionTypeEnum.DEPOSIT);
+        deposit.setStatus(TransactionStatusEnum.CONFIRMED);
+
+        // When - Quando gravar o evento
+        outboxService.appendTransaction(OutboxEventTypeEnum.DEPOSIT_CONFIRMED, deposit);
+
+        // Then - Então o payload deve conter os dados da transação
+        ArgumentCaptor<OutboxEventEntity> captor = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        verify(outboxEventRepository).save(captor.capture());
+        OutboxEventEntity event = captor.getValue();
+        assertThat(event.getEventType()).isEqualTo(OutboxEventTypeEnum.DEPOSIT_CONFIRMED);
+        assertThat(event.getAggregateId()).isEqualTo("e2e-1");
+        JsonNode payload = objectMapper.readTree(event.getPayload());
+        assertThat(payload.get("walletId").asText()).isEqualTo("wallet-a");
+        assertThat(payload.get("amount").decimalValue()).isEqualByComparingTo("10.00");
+        assertThat(payload.get("status").asText()).isEqualTo("CONFIRMED");
+    }
+
+    @Test
+    @DisplayName("Dado pernas de pagamentos PIX em lote, quando gravar no outbox, então deve gerar um evento por transferência")
+    void dado_pernas_em_lote_quando_gravar_no_outbox_entao_deve_gerar_evento_por_transferencia() throws Exception {
+        // Given - Dado duas transferências (quatro pernas)
+        List<TransactionEntity> legs = List.of(
+                leg("OUTkey-1", "treasury", "-30.00", TransactionTypeEnum.PIX_TRANSFER_OUT),
+                leg("INkey-1", "wallet-a", "30.00", TransactionTypeEnum.PIX_TRANSFER_IN),
+                leg("OUTkey-2", "treasury", "-20.00", TransactionTypeEnum.PIX_TRANSFER_OUT),
+                leg("INkey-2", "wallet-b", "20.00", TransactionTypeEnum.PIX_TRANSFER_IN)
+        );
+
+        // When - Quando gravar os eventos
+        outboxService.appendPixTransfers(OutboxEventTypeEnum.PIX_TRANSFER_CREATED, legs);
+
+        // Then - Então deve gerar dois eventos com origem e destino
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OutboxEventEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository).saveAll(captor.capture());
+        List<OutboxEventEntity> events = captor.getValue();
+        assertThat(events).hasSize(2);
+        assertThat(events.get(1).getAggregateId()).isEqualTo("key-2");
+        JsonNode payload = objectMapper.readTree(events.get(1).getPayload());
+        assertThat(payload.get("walletId").asText()).isEqualTo("treasury");
+        assertThat(payload.get("counterpartyWalletId").asText()).isEqualTo("wallet-b");
+        assertThat(payload.get("amount").decimalValue()).isEqualByComparingTo("20.00");
+    }
+
+    @Test
+    @DisplayName("Dado o outbox desabilitado, quando gravar eventos, então não deve acessar o banco")
+    void dado_outbox_desabilitado_quando_gravar_entao_nao_deve_acessar_banco() {
+        // Given - Dado o outbox desabilitado
+        outboxService = outboxService(false);
+
+        // When - Quando gravar um evento
+        outboxService.appendTransaction(OutboxEventTypeEnum.DEPOSIT_CONFIRMED,
+                leg("e2e-1", "wallet-a", "10.00", TransactionTypeEnum.DEPOSIT));
+
+        // Then - Então nada deve ser gravado
+        verify(outboxEventRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,133 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.OutboxProperties;
+import com.lucas_cm.bank_test.configuration.properties.PendingTransferSweeperProperties;
+import com.lucas_cm.bank_test.configuration.properties.TransactionRollupProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.models.PixTransferStatusChangedEvent;
+import com.lucas_cm.bank_test.domain.repositories.PendingTransferRepository;
+import com.lucas_cm.bank_test.domain.repositories.PendingTransferRepository.ExpiredTransfer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PendingTransferSweeper - Testes Unitários")
+class PendingTransferSweeperTest {
+
+    @Mock
+    private PendingTransferRepository pendingTransferRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PendingTransferSweeper pendingTransferSweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pendingTransferSweeper = sweeper(true, 3);
+    }
+
+    private PendingTransferSweeper sweeper(boolean enabled, int maxBatchesPerRun) {
+        return new PendingTransferSweeper(
+                pendingTransferRepository,
+                new PendingTransferSweeperProperties(enabled, Duration.ofMinutes(30), Duration.ofMinutes(1), 2, maxBatchesPerRun),
+                new OutboxProperties(true, 1000, Duration.ofMillis(500), "file",
+                        new OutboxProperties.File("outbox/ledger-events.jsonl", true)),
+                new TransactionRollupProperties(true, 366),
+                transactionTemplate,
+                eventPublisher,
+                meterRegistry
+        );
+    }
+
+    private void executarCallbacksDeTransacao() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+    }
+
+    private List<ExpiredTransfer> expired(int from, int count) {
+        return IntStream.range(from, from + count)
+                .mapToObj(i -> new ExpiredTransfer("e2e-" + i, "wallet-a", "wallet-b"))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Dado transferências vencidas, quando executar o sweeper, então deve expirar em lotes até um lote incompleto")
+    void dado_transferencias_vencidas_quando_executar_entao_deve_expirar_em_lotes() {
+        // Given - Dado um lote cheio seguido de um lote parcial
+        executarCallbacksDeTransacao();
+        when(pendingTransferRepository.expirePendingBefore(any(), any(), eq(2), eq(true), eq(true)))
+                .thenReturn(expired(0, 2))
+                .thenReturn(expired(2, 1));
+
+        // When - Quando executar o sweeper
+        int expired = pendingTransferSweeper.sweep();
+
+        // Then - Então deve expirar três transferências em dois lotes com o mesmo corte
+        assertThat(expired).isEqualTo(3);
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(pendingTransferRepository, times(2)).expirePendingBefore(cutoff.capture(), any(), eq(2), eq(true), eq(true));
+        assertThat(cutoff.getAllValues().get(0)).isEqualTo(cutoff.getAllValues().get(1));
+        assertThat(cutoff.getValue()).isBefore(LocalDateTime.now().minusMinutes(29));
+        assertThat(meterRegistry.get("bank.pix.sweeper.expired").counter().count()).isEqualTo(3.0);
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(eventPublisher, times(3)).publishEvent(any(PixTransferStatusChangedEvent.class));
+        verify(eventPublisher).publishEvent(new PixTransferStatusChangedEvent(
+                "e2e-2", "wallet-a", "wallet-b", TransactionStatusEnum.REJECTED));
+    }
+
+    @Test
+    @DisplayName("Dado mais transferências vencidas que o limite da execução, quando executar o sweeper, então deve parar no limite de lotes")
+    void dado_mais_vencidas_que_o_limite_quando_executar_entao_deve_parar_no_limite() {
+        // Given - Dado que todos os lotes voltam cheios
+        executarCallbacksDeTransacao();
+        when(pendingTransferRepository.expirePendingBefore(any(), any(), eq(2), eq(true), eq(true))).thenReturn(expired(0, 2));
+
+        // When - Quando executar o sweeper
+        int expired = pendingTransferSweeper.sweep();
+
+        // Then - Então deve parar após o máximo de lotes
+        assertThat(expired).isEqualTo(6);
+        verify(pendingTransferRepository, times(3)).expirePendingBefore(any(), any(), eq(2), eq(true), eq(true));
+    }
+
+    @Test
+    @DisplayName("Dado o sweeper desabilitado, quando a execução agendada disparar, então não deve acessar o banco")
+    void dado_sweeper_desabilitado_quando_agendamento_disparar_entao_nao_deve_acessar_banco() {
+        // Given - Dado o sweeper desabilitado
+        pendingTransferSweeper = sweeper(false, 3);
+
+        // When - Quando o agendamento disparar
+        pendingTransferSweeper.scheduledSweep();
+
+        // Then - Então nada deve ser executado
+        verifyNoInteractions(pendingTransferRepository, transactionTemplate, eventPublisher);
+    }
+}
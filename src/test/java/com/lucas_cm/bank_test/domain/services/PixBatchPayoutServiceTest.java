@@ -0,0 +1,342 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.PixBatchPayoutProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.exceptions.DuplicatePaymentException;
+import com.lucas_cm.bank_test.domain.exceptions.InvalidPixPayoutBatchException;
+import com.lucas_cm.bank_test.domain.exceptions.VelocityLimitExceededException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.repositories.TransactionBatchRepository;
+import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixBatchPayoutRequest;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixBatchPayoutResponse;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixPayoutItemDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PixBatchPayoutService - Testes Unitários")
+class PixBatchPayoutServiceTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionBatchRepository transactionBatchRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private BalanceNettingEngine balanceNettingEngine;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransactionRollupService transactionRollupService;
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    @Mock
+    private DuplicatePaymentDetector duplicatePaymentDetector;
+
+    private PixBatchPayoutService pixBatchPayoutService;
+
+    private WalletEntity treasury;
+    private WalletEntity destinationA;
+    private WalletEntity destinationB;
+
+    @BeforeEach
+    void setUp() {
+        pixBatchPayoutService = new PixBatchPayoutService(
+                walletRepository,
+                transactionRepository,
+                transactionBatchRepository,
+                transactionTemplate,
+                balanceNettingEngine,
+                outboxService,
+                transactionRollupService,
+                velocityLimiter,
+                duplicatePaymentDetector,
+                new PixBatchPayoutProperties(500, 3)
+        );
+
+        treasury = wallet("treasury", null, "100.00");
+        destinationA = wallet("wallet-a", "pix-a", "0.00");
+        destinationB = wallet("wallet-b", "pix-b", "0.00");
+    }
+
+    private WalletEntity wallet(String id, String pixKey, String balance) {
+        return WalletEntity.builder()
+                .id(id)
+                .userId("user-" + id)
+                .pixKey(pixKey)
+                .currentBalance(new BigDecimal(balance))
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void executarCallbacksDeTransacao() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+    }
+
+    @Test
+    @DisplayName("Dado um lote de pagamentos válido, quando processar, então deve travar a origem uma vez e inserir as pernas OUT/IN em lote")
+    void dado_lote_valido_quando_processar_entao_deve_inserir_pernas_em_lote() {
+        // Given - Dado dois pagamentos para chaves existentes
+        executarCallbacksDeTransacao();
+        when(walletRepository.findByIdWithLock("treasury")).thenReturn(Optional.of(treasury));
+        when(transactionRepository.findByEndToEndIdIn(any())).thenReturn(List.of());
+        when(walletRepository.findAllByPixKeyIn(any())).thenReturn(List.of(destinationA, destinationB));
+        PixBatchPayoutRequest request = new PixBatchPayoutRequest("treasury", List.of(
+                new PixPayoutItemDto("key-1", "pix-a", new BigDecimal("30.00")),
+                new PixPayoutItemDto("key-2", "pix-b", new BigDecimal("20.00"))
+        ));
+
+        // When - Quando processar o lote
+        PixBatchPayoutResponse response = pixBatchPayoutService.payout(request);
+
+        // Then - Então deve aceitar os dois pagamentos
+        assertThat(response.accepted()).isEqualTo(2);
+        assertThat(response.rejected()).isZero();
+        assertThat(response.payouts()).allSatisfy(result ->
+                assertThat(result.status()).isEqualTo(TransactionStatusEnum.PENDING));
+        verify(walletRepository, times(1)).findByIdWithLock("treasury");
+        verify(walletRepository, never()).findByPixKeyWithLock(any());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TransactionEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionBatchRepository).insertAll(captor.capture(), anyInt());
+        List<TransactionEntity> legs = captor.getValue();
+        assertThat(legs).hasSize(4);
+        assertThat(legs.get(0).getEndToEndId()).isEqualTo("OUTkey-1");
+        assertThat(legs.get(0).getType()).isEqualTo(TransactionTypeEnum.PIX_TRANSFER_OUT);
+        assertThat(legs.get(0).getAmount()).isEqualByComparingTo("-30.00");
+        assertThat(legs.get(1).getEndToEndId()).isEqualTo("INkey-1");
+        assertThat(legs.get(1).getWalletId()).isEqualTo("wallet-a");
+        verify(transactionRollupService).recordCreated(legs);
+        verify(velocityLimiter).acquire("treasury", new BigDecimal("30.00"));
+        verify(velocityLimiter).acquire("treasury", new BigDecimal("20.00"));
+    }
+
+    @Test
+    @DisplayName("Dado pagamentos idênticos a outros recentes, quando processar, então deve marcar as pernas no modo tag e rejeitar no modo reject")
+    void dado_pagamentos_identicos_quando_processar_entao_deve_marcar_ou_rejeitar() {
+        // Given - Dado que o primeiro pagamento é marcado e o segundo recusado pelo detector
+        executarCallbacksDeTransacao();
+        when(walletRepository.findByIdWithLock("treasury")).thenReturn(Optional.of(treasury));
+        when(transactionRepository.findByEndToEndIdIn(any())).thenReturn(List.of());
+        when(walletRepository.findAllByPixKeyIn(any())).thenReturn(List.of(destinationA, destinationB));
+        when(duplicatePaymentDetector.check("treasury", "pix-a", new BigDecimal("30.00"))).thenReturn(true);
+        when(duplicatePaymentDetector.check("treasury", "pix-b", new BigDecimal("20.00")))
+                .thenThrow(new DuplicatePaymentException(Duration.ofMinutes(2)));
+        PixBatchPayoutRequest request = new PixBatchPayoutRequest("treasury", List.of(
+                new PixPayoutItemDto("key-1", "pix-a", new BigDecimal("30.00")),
+                new PixPayoutItemDto("key-2", "pix-b", new BigDecimal("20.00"))
+        ));
+
+        // When - Quando processar o lote
+        PixBatchPayoutResponse response = pixBatchPayoutService.payout(request);
+
+        // Then - Então o primeiro deve ser aceito com as pernas marcadas e o segundo rejeitado sem consumir o limite
+        assertThat(response.accepted()).isEqualTo(1);
+        assertThat(response.payouts().get(1).errorCode()).isEqualTo("DUPLICATE_PIX_TRANSFER");
+        verify(velocityLimiter, never()).acquire("treasury", new BigDecimal("20.00"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TransactionEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionBatchRepository).insertAll(captor.capture(), anyInt());
+        assertThat(captor.getValue()).hasSize(2).allSatisfy(leg -> assertThat(leg.isSuspectedDuplicate()).isTrue());
+    }
+
+    @Test
+    @DisplayName("Dado um pagamento acima do limite de movimentação, quando processar, então deve rejeitá-lo e seguir com os demais")
+    void dado_pagamento_acima_do_limite_quando_processar_entao_deve_rejeitar_so_ele() {
+        // Given - Dado que o segundo pagamento passaria do limite da origem
+        executarCallbacksDeTransacao();
+        when(walletRepository.findByIdWithLock("treasury")).thenReturn(Optional.of(treasury));
+        when(transactionRepository.findByEndToEndIdIn(any())).thenReturn(List.of());
+        when(walletRepository.findAllByPixKeyIn(any())).thenReturn(List.of(destinationA, destinationB));
+        // lenient: os demais itens chamam o limitador com outros valores
+        lenient().doThrow(new VelocityLimitExceededException("1m", 1, new BigDecimal("1000.00")))
+                .when(velocityLimiter).acquire("treasury", new BigDecimal("20.00"));
+        PixBatchPayoutRequest request = new PixBatchPayoutRequest("treasury", List.of(
+                new PixPayoutItemDto("key-1", "pix-a", new BigDecimal("30.00")),
+                new PixPayoutItemDto("key-2", "pix-b", new BigDecimal("20.00"))
+        ));
+
+        // When - Quando processar o lote
+        PixBatchPayoutResponse response = pixBatchPayoutService.payout(request);
+
+        // Then - Então só o segundo deve ser rejeitado, com a impressão descartada, e só as pernas do primeiro inseridas
+        assertThat(response.accepted()).isEqualTo(1);
+        assertThat(response.payouts().get(1).errorCode()).isEqualTo("VELOCITY_LIMIT_EXCEEDED");
+        verify(duplicatePaymentDetector).discard("treasury", "pix-b", new BigDecimal("20.00"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TransactionEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionBatchRepository).insertAll(captor.capture(), anyInt());
+        assertThat(captor.getValue()).extracting(TransactionEntity::getEndToEndId)
+                .containsExactly("OUTkey-1", "INkey-1");
+    }
+
+    @Test
+    @DisplayName("Dado um pagamento já processado, quando reenviar o lote, então deve retornar o status existente sem reinserir")
+    void dado_pagamento_ja_processado_quando_reenviar_entao_deve_retornar_status_existente() {
+        // Given - Dado que a chave de idempotência já foi usada
+        executarCallbacksDeTransacao();
+        TransactionEntity existing = TransactionEntity.builder()
+                .endToEndId("OUTkey-1")
+                .status(TransactionStatusEnum.CONFIRMED)
+                .build();
+        when(walletRepository.findByIdWithLock("treasury")).thenReturn(Optional.of(treasury));
+        when(transactionRepository.findByEndToEndIdIn(List.of("OUTkey-1"))).thenReturn(List.of(existing));
+        PixBatchPayoutRequest request = new PixBatchPayoutRequest("treasury", List.of(
+                new PixPayoutItemDto("key-1", "pix-a", new BigDecimal("30.00"))
+        ));
+
+        // When - Quando processar o lote novamente
+        PixBatchPayoutResponse response = pixBatchPayoutService.payout(request);
+
+        // Then - Então deve retornar o status existente
+        assertThat(response.payouts().get(0).status()).isEqualTo(TransactionStatusEnum.CONFIRMED);
+        verify(walletRepository, never()).findAllByPixKeyIn(any());
+        verify(transactionBatchRepository, never()).insertAll(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Dado um total agregado maior que o saldo, quando processar, então deve rejeitar os pagamentos do chunk por saldo insuficiente")
+    void dado_total_maior_que_saldo_quando_processar_entao_deve_rejeitar_por_saldo_insuficiente() {
+        // Given - Dado pagamentos que somam mais que o saldo da origem
+        executarCallbacksDeTransacao();
+        when(walletRepository.findByIdWithLock("treasury")).thenReturn(Optional.of(treasury));
+        when(transactionRepository.findByEndToEndIdIn(any())).thenReturn(List.of());
+        when(walletRepository.findAllByPixKeyIn(any())).thenReturn(List.of(destinationA, destinationB));
+        PixBatchPayoutRequest request = new PixBatchPayoutRequest("treasury", List.of(
+                new PixPayoutItemDto("key-1", "pix-a", new BigDecimal("60.00")),
+                new PixPayoutItemDto("key-2", "pix-b", new BigDecimal("50.00"))
+        ));
+
+        // When - Quando processar o lote
+        PixBatchPayoutResponse response = pixBatchPayoutService.payout(request);
+
+        // Then - Então todos devem ser rejeitados
+        assertThat(response.rejected()).isEqualTo(2);
+        assertThat(response.payouts()).allSatisfy(result ->
+                assertThat(result.errorCode()).isEqualTo("INSUFFICIENT_BALANCE"));
+        verify(transactionBatchRepository, never()).insertAll(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Dado itens inválidos, quando processar, então deve rejeitá-los individualmente e seguir com os válidos")
+    void dado_itens_invalidos_quando_processar_entao_deve_rejeitar_individualmente() {
+        // Given - Dado uma chave duplicada e uma chave PIX inexistente
+        executarCallbacksDeTransacao();
+        when(walletRepository.findByIdWithLock("treasury")).thenReturn(Optional.of(treasury));
+        when(transactionRepository.findByEndToEndIdIn(any())).thenReturn(List.of());
+        when(walletRepository.findAllByPixKeyIn(any())).thenReturn(List.of(destinationA));
+        PixBatchPayoutRequest request = new PixBatchPayoutRequest("treasury", List.of(
+                new PixPayoutItemDto("key-1", "pix-a", new BigDecimal("10.00")),
+                new PixPayoutItemDto("key-1", "pix-a", new BigDecimal("10.00")),
+                new PixPayoutItemDto("key-3", "pix-inexistente", new BigDecimal("10.00"))
+        ));
+
+        // When - Quando processar o lote
+        PixBatchPayoutResponse response = pixBatchPayoutService.payout(request);
+
+        // Then - Então apenas o primeiro deve ser aceito
+        assertThat(response.accepted()).isEqualTo(1);
+        assertThat(response.payouts().get(1).errorCode()).isEqualTo("DUPLICATE_IDEMPOTENCY_KEY");
+        assertThat(response.payouts().get(2).errorCode()).isEqualTo("WALLET_NOT_FOUND");
+    }
+
+    @Test
+    @DisplayName("Dado uma falha no segundo chunk, quando processar, então deve rejeitar só os pagamentos do chunk e manter os já commitados")
+    void dado_falha_no_segundo_chunk_quando_processar_entao_deve_rejeitar_so_o_chunk() {
+        // Given - Dado chunks de 2 pagamentos e uma falha de banco no segundo chunk
+        PixBatchPayoutService service = new PixBatchPayoutService(walletRepository, transactionRepository,
+                transactionBatchRepository, transactionTemplate, balanceNettingEngine, outboxService,
+                transactionRollupService, velocityLimiter, duplicatePaymentDetector, new PixBatchPayoutProperties(2, 3));
+        executarCallbacksDeTransacao();
+        when(walletRepository.findByIdWithLock("treasury")).thenReturn(Optional.of(treasury));
+        when(transactionRepository.findByEndToEndIdIn(any())).thenReturn(List.of());
+        when(walletRepository.findAllByPixKeyIn(any())).thenReturn(List.of(destinationA, destinationB));
+        doNothing().doThrow(new IllegalStateException("lock timeout"))
+                .when(transactionBatchRepository).insertAll(any(), anyInt());
+        PixBatchPayoutRequest request = new PixBatchPayoutRequest("treasury", List.of(
+                new PixPayoutItemDto("key-1", "pix-a", new BigDecimal("10.00")),
+                new PixPayoutItemDto("key-2", "pix-b", new BigDecimal("10.00")),
+                new PixPayoutItemDto("key-3", "pix-a", new BigDecimal("10.00"))
+        ));
+
+        // When - Quando processar o lote
+        PixBatchPayoutResponse response = service.payout(request);
+
+        // Then - Então o primeiro chunk deve ser aceito e o segundo rejeitado com INTERNAL_ERROR
+        assertThat(response.accepted()).isEqualTo(2);
+        assertThat(response.rejected()).isEqualTo(1);
+        assertThat(response.payouts().get(0).status()).isEqualTo(TransactionStatusEnum.PENDING);
+        assertThat(response.payouts().get(2).errorCode()).isEqualTo("INTERNAL_ERROR");
+        assertThat(response.payouts().get(2).endToEndId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Dado uma carteira de origem inexistente, quando processar, então deve lançar WalletNotFoundException")
+    void dado_origem_inexistente_quando_processar_entao_deve_lancar_excecao() {
+        // Given - Dado que a carteira de origem não existe
+        executarCallbacksDeTransacao();
+        when(walletRepository.findByIdWithLock("treasury")).thenReturn(Optional.empty());
+        PixBatchPayoutRequest request = new PixBatchPayoutRequest("treasury", List.of(
+                new PixPayoutItemDto("key-1", "pix-a", new BigDecimal("10.00"))
+        ));
+
+        // When/Then - Quando processar, então deve lançar exceção
+        assertThatThrownBy(() -> pixBatchPayoutService.payout(request))
+                .isInstanceOf(WalletNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Dado um lote acima do limite, quando processar, então deve lançar InvalidPixPayoutBatchException")
+    void dado_lote_acima_do_limite_quando_processar_entao_deve_lancar_excecao() {
+        // Given - Dado um lote com mais pagamentos que o permitido
+        PixPayoutItemDto item = new PixPayoutItemDto("key", "pix-a", BigDecimal.ONE);
+        PixBatchPayoutRequest request = new PixBatchPayoutRequest("treasury", List.of(item, item, item, item));
+
+        // When/Then - Quando processar, então deve lançar exceção
+        assertThatThrownBy(() -> pixBatchPayoutService.payout(request))
+                .isInstanceOf(InvalidPixPayoutBatchException.class);
+        verifyNoInteractions(transactionTemplate);
+    }
+}
@@ -1,12 +1,18 @@
 package com.lucas_cm.bank_test.domain.services;
 
 import com.lucas_cm.bank_test.domain.entities.*;
+import com.lucas_cm.bank_test.domain.exceptions.CrossShardTransferException;
+import com.lucas_cm.bank_test.domain.exceptions.DuplicatePaymentException;
 import com.lucas_cm.bank_test.domain.exceptions.InsufficientBalanceException;
 import com.lucas_cm.bank_test.domain.exceptions.PixTransferNotFoundException;
+import com.lucas_cm.bank_test.domain.exceptions.VelocityLimitExceededException;
 import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.models.PixTransferStatusChangedEvent;
+import com.lucas_cm.bank_test.domain.models.TransactionsConfirmedEvent;
 import com.lucas_cm.bank_test.domain.repositories.EventPixRepository;
 import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
 import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.cache.CacheInvalidationBus;
 import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferRequest;
 import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferResponse;
 import com.lucas_cm.bank_test.infrastructure.dtos.PixWebhookRequest;
@@ -18,14 +24,18 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +51,33 @@ class PixServiceTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private BalanceNettingEngine balanceNettingEngine;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private PixTransferSaga pixTransferSaga;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionRollupService transactionRollupService;
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    @Mock
+    private DuplicatePaymentDetector duplicatePaymentDetector;
+
     @InjectMocks
     private PixService pixService;
 
@@ -127,6 +164,10 @@ class PixServiceTest {
         assertThat(credit.getType()).isEqualTo(TransactionTypeEnum.PIX_TRANSFER_IN);
         assertThat(credit.getStatus()).isEqualTo(TransactionStatusEnum.PENDING);
         assertThat(credit.getPixKey()).isEqualTo(toPixKey);
+        verify(transactionRollupService).recordCreated(List.of(debit, credit));
+        verify(velocityLimiter).acquire(fromWalletId, transferAmount);
+        assertThat(debit.isSuspectedDuplicate()).isFalse();
+        assertThat(credit.isSuspectedDuplicate()).isFalse();
     }
 
     @Test
@@ -161,6 +202,21 @@ class PixServiceTest {
         verify(transactionRepository, never()).save(any(TransactionEntity.class));
     }
 
+    @Test
+    @DisplayName("Dado uma chave PIX de destino em outro shard, quando transferir, então deve lançar CrossShardTransferException sem travar carteiras")
+    void dado_destino_em_outro_shard_quando_transferir_entao_deve_lancar_excecao() {
+        // Given - Dado que o destino está em outro shard
+        when(transactionRepository.findByEndToEndId("OUT" + idempotencyKey))
+                .thenReturn(Optional.empty());
+        doThrow(new CrossShardTransferException()).when(shardRouter).requireSameShard(fromWalletId, toPixKey);
+
+        // When/Then - Quando transferir, então deve lançar exceção
+        assertThatThrownBy(() -> pixService.transfer(idempotencyKey, transferRequest))
+                .isInstanceOf(CrossShardTransferException.class);
+        verify(walletRepository, never()).findByIdWithLock(any());
+        verify(transactionRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Dado uma transferência PIX com saldo insuficiente, quando transferir, então deve lançar exceção InsufficientBalanceException")
     void dado_transferencia_com_saldo_insuficiente_quando_transferir_entao_deve_lancar_excecao() {
@@ -178,6 +234,67 @@ class PixServiceTest {
         verify(walletRepository).findByIdWithLock(fromWalletId);
         verify(walletRepository).findByPixKeyWithLock(toPixKey);
         verify(transactionRepository, never()).save(any(TransactionEntity.class));
+        verify(velocityLimiter, never()).acquire(any(), any());
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência PIX idêntica a outra recente no modo tag, quando transferir, então deve marcar as duas pernas")
+    void dado_transferencia_identica_no_modo_tag_quando_transferir_entao_deve_marcar_as_duas_pernas() {
+        // Given - Dado que o detector considera a transferência repetida
+        when(transactionRepository.findByEndToEndId("OUT" + idempotencyKey))
+                .thenReturn(Optional.empty());
+        when(walletRepository.findByIdWithLock(fromWalletId)).thenReturn(Optional.of(fromWallet));
+        when(walletRepository.findByPixKeyWithLock(toPixKey)).thenReturn(Optional.of(toWallet));
+        when(transactionRepository.save(any(TransactionEntity.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(duplicatePaymentDetector.check(fromWalletId, toPixKey, transferAmount)).thenReturn(true);
+
+        // When - Quando transferir
+        PixTransferResponse response = pixService.transfer(idempotencyKey, transferRequest);
+
+        // Then - Então a transferência é criada com as duas pernas marcadas
+        assertThat(response.status()).isEqualTo(TransactionStatusEnum.PENDING);
+        ArgumentCaptor<TransactionEntity> captor = ArgumentCaptor.forClass(TransactionEntity.class);
+        verify(transactionRepository, times(2)).save(captor.capture());
+        assertThat(captor.getAllValues()).allMatch(TransactionEntity::isSuspectedDuplicate);
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência PIX idêntica a outra recente no modo reject, quando transferir, então deve lançar DuplicatePaymentException")
+    void dado_transferencia_identica_no_modo_reject_quando_transferir_entao_deve_lancar_excecao() {
+        // Given - Dado que o detector recusa a transferência repetida
+        when(transactionRepository.findByEndToEndId("OUT" + idempotencyKey))
+                .thenReturn(Optional.empty());
+        when(walletRepository.findByIdWithLock(fromWalletId)).thenReturn(Optional.of(fromWallet));
+        when(walletRepository.findByPixKeyWithLock(toPixKey)).thenReturn(Optional.of(toWallet));
+        when(duplicatePaymentDetector.check(fromWalletId, toPixKey, transferAmount))
+                .thenThrow(new DuplicatePaymentException(Duration.ofMinutes(2)));
+
+        // When/Then - Quando transferir, então deve lançar exceção sem criar transações nem consumir limites
+        assertThatThrownBy(() -> pixService.transfer(idempotencyKey, transferRequest))
+                .isInstanceOf(DuplicatePaymentException.class);
+
+        verify(transactionRepository, never()).save(any(TransactionEntity.class));
+        verify(velocityLimiter, never()).acquire(any(), any());
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência PIX acima do limite de movimentação, quando transferir, então deve lançar VelocityLimitExceededException sem criar transações")
+    void dado_transferencia_acima_do_limite_de_movimentacao_quando_transferir_entao_deve_lancar_excecao() {
+        // Given - Dado que a carteira de origem já atingiu o limite do minuto
+        when(transactionRepository.findByEndToEndId("OUT" + idempotencyKey))
+                .thenReturn(Optional.empty());
+        when(walletRepository.findByIdWithLock(fromWalletId)).thenReturn(Optional.of(fromWallet));
+        when(walletRepository.findByPixKeyWithLock(toPixKey)).thenReturn(Optional.of(toWallet));
+        doThrow(new VelocityLimitExceededException("1m", 10, new BigDecimal("10000.00")))
+                .when(velocityLimiter).acquire(fromWalletId, transferAmount);
+
+        // When/Then - Quando transferir, então deve lançar exceção
+        assertThatThrownBy(() -> pixService.transfer(idempotencyKey, transferRequest))
+                .isInstanceOf(VelocityLimitExceededException.class);
+
+        verify(transactionRepository, never()).save(any(TransactionEntity.class));
+        verify(outboxService, never()).appendPixTransfer(any(), any(), any(), any());
     }
 
     @Test
@@ -255,7 +372,7 @@ class PixServiceTest {
                 .build();
 
         when(eventPixRepository.existsByEventId(eventId)).thenReturn(false);
-        when(transactionRepository.findByEndToEndId("OUT" + endToEndId))
+        when(transactionRepository.findByEndToEndIdWithLock("OUT" + endToEndId))
                 .thenReturn(Optional.of(debit));
         when(transactionRepository.findByEndToEndId("IN" + endToEndId))
                 .thenReturn(Optional.of(credit));
@@ -280,6 +397,11 @@ class PixServiceTest {
         verify(eventPixRepository).save(any(EventPixEntity.class));
         verify(walletRepository, times(2)).findByIdWithLock(any());
         verify(walletRepository, times(2)).save(any(WalletEntity.class));
+        verify(outboxService).appendPixTransfer(OutboxEventTypeEnum.PIX_TRANSFER_STATUS_CHANGED, endToEndId, debit, credit);
+        verify(eventPublisher).publishEvent(new PixTransferStatusChangedEvent(
+                endToEndId, fromWalletId, toWalletId, TransactionStatusEnum.CONFIRMED));
+        verify(transactionRollupService).recordStatusChanges(List.of(debit, credit), TransactionStatusEnum.PENDING);
+        verify(eventPublisher).publishEvent(new TransactionsConfirmedEvent(List.of(debit, credit)));
     }
 
     @Test
@@ -320,7 +442,7 @@ class PixServiceTest {
                 .build();
 
         when(eventPixRepository.existsByEventId(eventId)).thenReturn(false);
-        when(transactionRepository.findByEndToEndId("OUT" + endToEndId))
+        when(transactionRepository.findByEndToEndIdWithLock("OUT" + endToEndId))
                 .thenReturn(Optional.of(debit));
         when(transactionRepository.findByEndToEndId("IN" + endToEndId))
                 .thenReturn(Optional.of(credit));
@@ -392,7 +514,7 @@ class PixServiceTest {
         );
 
         when(eventPixRepository.existsByEventId(eventId)).thenReturn(false);
-        when(transactionRepository.findByEndToEndId("OUT" + endToEndId))
+        when(transactionRepository.findByEndToEndIdWithLock("OUT" + endToEndId))
                 .thenReturn(Optional.empty());
 
         // When/Then - Quando processar o webhook, então deve lançar exceção
@@ -400,7 +522,7 @@ class PixServiceTest {
                 .isInstanceOf(PixTransferNotFoundException.class);
 
         verify(eventPixRepository).existsByEventId(eventId);
-        verify(transactionRepository).findByEndToEndId("OUT" + endToEndId);
+        verify(transactionRepository).findByEndToEndIdWithLock("OUT" + endToEndId);
         verify(transactionRepository, never()).save(any(TransactionEntity.class));
     }
 
@@ -441,7 +563,7 @@ class PixServiceTest {
                 .build();
 
         when(eventPixRepository.existsByEventId(eventId)).thenReturn(false);
-        when(transactionRepository.findByEndToEndId("OUT" + endToEndId))
+        when(transactionRepository.findByEndToEndIdWithLock("OUT" + endToEndId))
                 .thenReturn(Optional.of(debit));
         when(transactionRepository.findByEndToEndId("IN" + endToEndId))
                 .thenReturn(Optional.of(credit));
@@ -494,7 +616,7 @@ class PixServiceTest {
                 .build();
 
         when(eventPixRepository.existsByEventId(eventId)).thenReturn(false);
-        when(transactionRepository.findByEndToEndId("OUT" + endToEndId))
+        when(transactionRepository.findByEndToEndIdWithLock("OUT" + endToEndId))
                 .thenReturn(Optional.of(debit));
         when(transactionRepository.findByEndToEndId("IN" + endToEndId))
                 .thenReturn(Optional.of(credit));
@@ -515,6 +637,7 @@ class PixServiceTest {
         verify(eventPixRepository).save(any(EventPixEntity.class));
         verify(walletRepository, never()).findByIdWithLock(any());
         verify(walletRepository, never()).save(any(WalletEntity.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -575,7 +698,7 @@ class PixServiceTest {
                 .build();
 
         when(eventPixRepository.existsByEventId(eventId)).thenReturn(false);
-        when(transactionRepository.findByEndToEndId("OUT" + endToEndId))
+        when(transactionRepository.findByEndToEndIdWithLock("OUT" + endToEndId))
                 .thenReturn(Optional.of(debit));
         when(transactionRepository.findByEndToEndId("IN" + endToEndId))
                 .thenReturn(Optional.of(credit));
@@ -628,7 +751,7 @@ class PixServiceTest {
                 .build();
 
         when(eventPixRepository.existsByEventId(eventId)).thenReturn(false);
-        when(transactionRepository.findByEndToEndId("OUT" + endToEndId))
+        when(transactionRepository.findByEndToEndIdWithLock("OUT" + endToEndId))
                 .thenReturn(Optional.of(debit));
         when(transactionRepository.findByEndToEndId("IN" + endToEndId))
                 .thenReturn(Optional.of(credit));
@@ -643,5 +766,118 @@ class PixServiceTest {
         verify(eventPixRepository, never()).save(any(EventPixEntity.class));
         verify(walletRepository, never()).findByIdWithLock(any());
     }
-}
 
+    @Test
+    @DisplayName("Dado o netting habilitado, quando processar webhook CONFIRMED, então deve acumular os deltas sem travar as carteiras")
+    void dado_netting_habilitado_quando_processar_webhook_confirmed_entao_deve_acumular_deltas() {
+        // Given - Dado um webhook CONFIRMED com o netting habilitado
+        String endToEndId = "E2E123456789";
+        String eventId = "event-netting";
+
+        PixWebhookRequest webhookRequest = new PixWebhookRequest(
+                endToEndId,
+                eventId,
+                "CONFIRMED",
+                "2025-01-01T10:00:00Z"
+        );
+
+        TransactionEntity debit = TransactionEntity.builder()
+                .id(1L)
+                .walletId(fromWalletId)
+                .endToEndId("OUT" + endToEndId)
+                .amount(transferAmount.negate())
+                .type(TransactionTypeEnum.PIX_TRANSFER_OUT)
+                .status(TransactionStatusEnum.PENDING)
+                .build();
+
+        TransactionEntity credit = TransactionEntity.builder()
+                .id(2L)
+                .walletId(toWalletId)
+                .endToEndId("IN" + endToEndId)
+                .amount(transferAmount)
+                .type(TransactionTypeEnum.PIX_TRANSFER_IN)
+                .status(TransactionStatusEnum.PENDING)
+                .build();
+
+        when(balanceNettingEngine.isEnabled()).thenReturn(true);
+        when(eventPixRepository.existsByEventId(eventId)).thenReturn(false);
+        when(transactionRepository.findByEndToEndIdWithLock("OUT" + endToEndId))
+                .thenReturn(Optional.of(debit));
+        when(transactionRepository.findByEndToEndId("IN" + endToEndId))
+                .thenReturn(Optional.of(credit));
+
+        // When - Quando processar o webhook
+        pixService.processWebhook(webhookRequest);
+
+        // Then - Então deve acumular os deltas das duas carteiras
+        assertThat(debit.getStatus()).isEqualTo(TransactionStatusEnum.CONFIRMED);
+        verify(balanceNettingEngine).accumulate(fromWalletId, transferAmount.negate());
+        verify(balanceNettingEngine).accumulate(toWalletId, transferAmount);
+        verify(walletRepository, never()).findByIdWithLock(any());
+        verify(walletRepository, never()).save(any(WalletEntity.class));
+    }
+
+    @Test
+    @DisplayName("Dado um webhook de transferência entre shards, quando processar, então deve delegar à saga sem buscar a perna IN")
+    void dado_webhook_de_transferencia_entre_shards_quando_processar_entao_deve_delegar_a_saga() {
+        // Given - Dado que a perna OUT tem saga
+        String endToEndId = "E2E123456789";
+        PixWebhookRequest webhookRequest = new PixWebhookRequest(
+                endToEndId,
+                "event-saga",
+                "CONFIRMED",
+                "2025-01-01T10:00:00Z"
+        );
+
+        TransactionEntity debit = TransactionEntity.builder()
+                .id(1L)
+                .walletId(fromWalletId)
+                .endToEndId("OUT" + endToEndId)
+                .amount(transferAmount.negate())
+                .type(TransactionTypeEnum.PIX_TRANSFER_OUT)
+                .status(TransactionStatusEnum.PENDING)
+                .build();
+
+        when(eventPixRepository.existsByEventId("event-saga")).thenReturn(false);
+        when(transactionRepository.findByEndToEndIdWithLock("OUT" + endToEndId)).thenReturn(Optional.of(debit));
+        when(pixTransferSaga.processWebhook(eq(webhookRequest), eq(debit), eq(TransactionStatusEnum.CONFIRMED), any()))
+                .thenReturn(true);
+
+        // When - Quando processar o webhook
+        pixService.processWebhook(webhookRequest);
+
+        // Then - Então a saga deve aplicar o evento
+        verify(transactionRepository, never()).findByEndToEndId("IN" + endToEndId);
+        verify(walletRepository, never()).findByIdWithLock(any());
+        verify(eventPixRepository, never()).save(any(EventPixEntity.class));
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência existente, quando consultar o status, então deve retornar o status da perna de débito")
+    void dado_transferencia_existente_quando_consultar_status_entao_deve_retornar_status_do_debito() {
+        // Given - Dado a perna OUT confirmada
+        TransactionEntity debit = TransactionEntity.builder()
+                .walletId(fromWalletId)
+                .endToEndId("OUT" + idempotencyKey)
+                .status(TransactionStatusEnum.CONFIRMED)
+                .build();
+        when(transactionRepository.findByEndToEndId("OUT" + idempotencyKey)).thenReturn(Optional.of(debit));
+
+        // When - Quando consultar o status
+        PixTransferResponse response = pixService.findTransferStatus(idempotencyKey);
+
+        // Then - Então deve retornar o status atual
+        assertThat(response).isEqualTo(new PixTransferResponse(idempotencyKey, TransactionStatusEnum.CONFIRMED));
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência inexistente, quando consultar o status, então deve lançar PixTransferNotFoundException")
+    void dado_transferencia_inexistente_quando_consultar_status_entao_deve_lancar_excecao() {
+        // Given - Dado que não há perna OUT
+        when(transactionRepository.findByEndToEndId("OUT" + idempotencyKey)).thenReturn(Optional.empty());
+
+        // When/Then - Quando consultar, então deve lançar exceção
+        assertThatThrownBy(() -> pixService.findTransferStatus(idempotencyKey))
+                .isInstanceOf(PixTransferNotFoundException.class);
+    }
+}
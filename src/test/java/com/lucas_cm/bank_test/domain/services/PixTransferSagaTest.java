@@ -0,0 +1,394 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.PixTransferSagaProperties;
+import com.lucas_cm.bank_test.configuration.properties.ShardingProperties;
+import com.lucas_cm.bank_test.domain.entities.*;
+import com.lucas_cm.bank_test.domain.exceptions.VelocityLimitExceededException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.models.PixTransferStatusChangedEvent;
+import com.lucas_cm.bank_test.domain.models.TransactionsConfirmedEvent;
+import com.lucas_cm.bank_test.domain.models.TransferSaga;
+import com.lucas_cm.bank_test.domain.repositories.EventPixRepository;
+import com.lucas_cm.bank_test.domain.repositories.PixKeyDirectoryRepository;
+import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
+import com.lucas_cm.bank_test.domain.repositories.TransferSagaRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.cache.CacheInvalidationBus;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferRequest;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferResponse;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixWebhookRequest;
+import com.lucas_cm.bank_test.infrastructure.sharding.ShardContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PixTransferSaga - Testes Unitários")
+class PixTransferSagaTest {
+
+    @Mock
+    private TransferSagaRepository transferSagaRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private EventPixRepository eventPixRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private PixKeyDirectoryRepository pixKeyDirectoryRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionRollupService transactionRollupService;
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    @Mock
+    private DuplicatePaymentDetector duplicatePaymentDetector;
+
+    private PixTransferSaga pixTransferSaga;
+
+    private final String endToEndId = "e2e-1";
+    private final String fromWalletId = "wallet-from";
+    private final String toWalletId = "wallet-to";
+    private final String toPixKey = "pix-to";
+    private final BigDecimal amount = new BigDecimal("100.50");
+    private int sourceShard;
+    private int targetShard;
+    private WalletEntity fromWallet;
+    private WalletEntity toWallet;
+
+    @BeforeEach
+    void setUp() {
+        List<ShardingProperties.Shard> shards = Collections.nCopies(2,
+                new ShardingProperties.Shard("jdbc:postgresql://localhost/bank", "bank", "bank"));
+        ShardRouter shardRouter = new ShardRouter(new ShardingProperties(true, shards, 10), pixKeyDirectoryRepository);
+        sourceShard = shardRouter.shardOf(fromWalletId);
+        targetShard = 1 - sourceShard;
+
+        pixTransferSaga = new PixTransferSaga(
+                transferSagaRepository,
+                transactionRepository,
+                walletRepository,
+                eventPixRepository,
+                outboxService,
+                cacheInvalidationBus,
+                shardRouter,
+                transactionTemplate,
+                new PixTransferSagaProperties(Duration.ofSeconds(10), 100, Duration.ofSeconds(30)),
+                eventPublisher,
+                transactionRollupService,
+                velocityLimiter,
+                duplicatePaymentDetector,
+                new SimpleMeterRegistry()
+        );
+
+        fromWallet = WalletEntity.builder()
+                .id(fromWalletId)
+                .userId("user-from")
+                .currentBalance(new BigDecimal("1000.00"))
+                .build();
+        toWallet = WalletEntity.builder()
+                .id(toWalletId)
+                .userId("user-to")
+                .pixKey(toPixKey)
+                .currentBalance(new BigDecimal("500.00"))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ShardContext.set(null);
+    }
+
+    private void executarCallbacksDeTransacao() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+    }
+
+    private TransferSaga saga(TransferSagaStateEnum state, String toWalletId, Integer toShard) {
+        return new TransferSaga(endToEndId, fromWalletId, toPixKey, toWalletId, toShard, amount, state, 0);
+    }
+
+    private TransactionEntity leg(String prefix, String walletId, BigDecimal legAmount, TransactionStatusEnum status) {
+        return TransactionEntity.builder()
+                .endToEndId(prefix + endToEndId)
+                .walletId(walletId)
+                .amount(legAmount)
+                .status(status)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Dado um destino em outro shard, quando transferir, então deve gravar a perna OUT na origem, a IN no destino e deixar a saga PREPARED")
+    void dado_destino_em_outro_shard_quando_transferir_entao_deve_gravar_pernas_em_cada_shard() {
+        // Given - Dado a carteira de destino no outro shard
+        executarCallbacksDeTransacao();
+        TransactionEntity debit = leg("OUT", fromWalletId, amount.negate(), TransactionStatusEnum.PENDING);
+        List<Integer> savedOnShard = new ArrayList<>();
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(invocation -> {
+            savedOnShard.add(ShardContext.current());
+            return invocation.getArgument(0);
+        });
+        when(pixKeyDirectoryRepository.findShard(toPixKey)).thenReturn(Optional.of(targetShard));
+        when(transactionRepository.findByEndToEndId("OUT" + endToEndId))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(debit))
+                .thenReturn(Optional.of(debit));
+        when(walletRepository.findByIdWithLock(fromWalletId)).thenReturn(Optional.of(fromWallet));
+        when(transactionRepository.findByEndToEndIdWithLock("IN" + endToEndId)).thenReturn(Optional.empty());
+        when(walletRepository.findByPixKey(toPixKey)).thenReturn(Optional.of(toWallet));
+        when(transferSagaRepository.find(endToEndId))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.STARTED, null, null)))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.PREPARED, toWalletId, targetShard)));
+        when(transferSagaRepository.findWithLock(endToEndId))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.STARTED, null, null)))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.PREPARED, toWalletId, targetShard)));
+
+        // When - Quando transferir
+        PixTransferResponse response = pixTransferSaga.transfer(endToEndId,
+                new PixTransferRequest(fromWalletId, toPixKey, amount));
+
+        // Then - Então cada perna deve ser gravada no shard da sua carteira
+        assertThat(response.status()).isEqualTo(TransactionStatusEnum.PENDING);
+        assertThat(savedOnShard).containsExactly(sourceShard, targetShard);
+        verify(transferSagaRepository).insert(any(TransferSaga.class), any(), any());
+        verify(transferSagaRepository).updateState(eq(endToEndId), eq(TransferSagaStateEnum.PREPARED),
+                eq(toWalletId), eq(targetShard), any(), any());
+        verify(outboxService).appendCrossShardPixTransfer(
+                OutboxEventTypeEnum.PIX_TRANSFER_CREATED, endToEndId, debit, toWalletId);
+        verify(transactionRollupService, times(2)).recordCreated(any(TransactionEntity.class));
+        verify(velocityLimiter).acquire(fromWalletId, amount);
+        verify(duplicatePaymentDetector).check(fromWalletId, toPixKey, amount);
+        assertThat(fromWallet.getCurrentBalance()).isEqualByComparingTo("1000.00");
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência idêntica a outra recente, quando iniciar a saga, então deve gravar a perna OUT marcada como suspeita")
+    void dado_transferencia_identica_quando_iniciar_saga_entao_deve_marcar_perna_out() {
+        // Given - Dado que o detector marca a transferência e o destino ainda não pode ser preparado
+        executarCallbacksDeTransacao();
+        when(transactionRepository.findByEndToEndId("OUT" + endToEndId)).thenReturn(Optional.empty());
+        when(walletRepository.findByIdWithLock(fromWalletId)).thenReturn(Optional.of(fromWallet));
+        when(duplicatePaymentDetector.check(fromWalletId, toPixKey, amount)).thenReturn(true);
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transferSagaRepository.find(endToEndId)).thenThrow(new IllegalStateException("shard indisponível"));
+
+        // When - Quando transferir
+        pixTransferSaga.transfer(endToEndId, new PixTransferRequest(fromWalletId, toPixKey, amount));
+
+        // Then - Então a perna OUT deve sair marcada
+        ArgumentCaptor<TransactionEntity> captor = ArgumentCaptor.forClass(TransactionEntity.class);
+        verify(transactionRepository).save(captor.capture());
+        assertThat(captor.getValue().isSuspectedDuplicate()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Dado uma origem acima do limite de movimentação, quando transferir, então deve lançar VelocityLimitExceededException sem gravar a saga")
+    void dado_origem_acima_do_limite_quando_transferir_entao_deve_lancar_excecao_sem_gravar_saga() {
+        // Given - Dado que o limite de movimentação da origem já foi atingido
+        executarCallbacksDeTransacao();
+        when(transactionRepository.findByEndToEndId("OUT" + endToEndId)).thenReturn(Optional.empty());
+        when(walletRepository.findByIdWithLock(fromWalletId)).thenReturn(Optional.of(fromWallet));
+        doThrow(new VelocityLimitExceededException("1m", 5, new BigDecimal("1000.00")))
+                .when(velocityLimiter).acquire(fromWalletId, amount);
+
+        // When/Then - Quando transferir, então deve lançar exceção antes de gravar a perna OUT
+        assertThatThrownBy(() -> pixTransferSaga.transfer(endToEndId,
+                new PixTransferRequest(fromWalletId, toPixKey, amount)))
+                .isInstanceOf(VelocityLimitExceededException.class);
+        verify(transactionRepository, never()).save(any(TransactionEntity.class));
+        verify(transferSagaRepository, never()).insert(any(TransferSaga.class), any(), any());
+    }
+
+    @Test
+    @DisplayName("Dado uma chave sem carteira no shard de destino, quando transferir, então deve rejeitar a perna OUT e lançar WalletNotFoundException")
+    void dado_carteira_destino_inexistente_quando_transferir_entao_deve_compensar_e_lancar_excecao() {
+        // Given - Dado que a chave não pertence a nenhuma carteira do shard de destino
+        executarCallbacksDeTransacao();
+        TransactionEntity debit = leg("OUT", fromWalletId, amount.negate(), TransactionStatusEnum.PENDING);
+        when(pixKeyDirectoryRepository.findShard(toPixKey)).thenReturn(Optional.of(targetShard));
+        when(transactionRepository.findByEndToEndId("OUT" + endToEndId)).thenReturn(Optional.empty());
+        when(walletRepository.findByIdWithLock(fromWalletId)).thenReturn(Optional.of(fromWallet));
+        when(transactionRepository.findByEndToEndIdWithLock("IN" + endToEndId)).thenReturn(Optional.empty());
+        when(walletRepository.findByPixKey(toPixKey)).thenReturn(Optional.empty());
+        when(transactionRepository.findByEndToEndIdWithLock("OUT" + endToEndId)).thenReturn(Optional.of(debit));
+        when(transferSagaRepository.find(endToEndId))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.STARTED, null, null)))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.COMPENSATED, null, null)));
+        when(transferSagaRepository.findWithLock(endToEndId))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.STARTED, null, null)));
+
+        // When/Then - Quando transferir, então deve lançar exceção com a perna OUT rejeitada
+        assertThatThrownBy(() -> pixTransferSaga.transfer(endToEndId, new PixTransferRequest(fromWalletId, toPixKey, amount)))
+                .isInstanceOf(WalletNotFoundException.class);
+        assertThat(debit.getStatus()).isEqualTo(TransactionStatusEnum.REJECTED);
+        assertThat(fromWallet.getCurrentBalance()).isEqualByComparingTo("1000.00");
+        verify(transferSagaRepository).updateState(eq(endToEndId), eq(TransferSagaStateEnum.COMPENSATED),
+                isNull(), isNull(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Dado um webhook CONFIRMED de transferência com saga, quando processar, então deve debitar só a origem e marcar CONFIRMING")
+    void dado_webhook_confirmed_com_saga_quando_processar_entao_deve_debitar_origem() {
+        // Given - Dado a saga PREPARED e a perna OUT PENDING
+        TransactionEntity debit = leg("OUT", fromWalletId, amount.negate(), TransactionStatusEnum.PENDING);
+        when(transferSagaRepository.findWithLock(endToEndId))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.PREPARED, toWalletId, targetShard)));
+        when(walletRepository.findByIdWithLock(fromWalletId)).thenReturn(Optional.of(fromWallet));
+        PixWebhookRequest request = new PixWebhookRequest(endToEndId, "event-1", "CONFIRMED", "2025-01-01T10:00:00Z");
+
+        // When - Quando processar o webhook na origem
+        boolean handled = pixTransferSaga.processWebhook(request, debit, TransactionStatusEnum.CONFIRMED, LocalDateTime.now());
+
+        // Then - Então a origem deve ser debitada e o destino fica para o próximo passo
+        assertThat(handled).isTrue();
+        assertThat(debit.getStatus()).isEqualTo(TransactionStatusEnum.CONFIRMED);
+        assertThat(fromWallet.getCurrentBalance()).isEqualByComparingTo("899.50");
+        verify(eventPixRepository).save(any(EventPixEntity.class));
+        verify(transferSagaRepository).updateState(eq(endToEndId), eq(TransferSagaStateEnum.CONFIRMING),
+                isNull(), isNull(), any(), any());
+        verify(outboxService).appendCrossShardPixTransfer(
+                OutboxEventTypeEnum.PIX_TRANSFER_STATUS_CHANGED, endToEndId, debit, toWalletId);
+        verify(eventPublisher).publishEvent(new PixTransferStatusChangedEvent(
+                endToEndId, fromWalletId, toWalletId, TransactionStatusEnum.CONFIRMED));
+        verify(eventPublisher).publishEvent(new TransactionsConfirmedEvent(List.of(debit)));
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência sem saga, quando processar webhook, então deve deixar o processamento para o PixService")
+    void dado_transferencia_sem_saga_quando_processar_webhook_entao_deve_retornar_false() {
+        // Given - Dado que não há saga para o endToEndId
+        TransactionEntity debit = leg("OUT", fromWalletId, amount.negate(), TransactionStatusEnum.PENDING);
+        when(transferSagaRepository.findWithLock(endToEndId)).thenReturn(Optional.empty());
+        PixWebhookRequest request = new PixWebhookRequest(endToEndId, "event-1", "CONFIRMED", "2025-01-01T10:00:00Z");
+
+        // When - Quando processar o webhook
+        boolean handled = pixTransferSaga.processWebhook(request, debit, TransactionStatusEnum.CONFIRMED, LocalDateTime.now());
+
+        // Then - Então não deve alterar nada
+        assertThat(handled).isFalse();
+        assertThat(debit.getStatus()).isEqualTo(TransactionStatusEnum.PENDING);
+        verifyNoInteractions(eventPixRepository, walletRepository, outboxService);
+    }
+
+    @Test
+    @DisplayName("Dado uma saga CONFIRMING, quando avançar, então deve creditar o destino, confirmar a perna IN e concluir a saga")
+    void dado_saga_confirming_quando_avancar_entao_deve_creditar_destino_e_concluir() {
+        // Given - Dado a origem já debitada e a perna IN PENDING no destino
+        executarCallbacksDeTransacao();
+        TransactionEntity credit = leg("IN", toWalletId, amount, TransactionStatusEnum.PENDING);
+        when(transactionRepository.findByEndToEndIdWithLock("IN" + endToEndId)).thenReturn(Optional.of(credit));
+        when(walletRepository.findByIdWithLock(toWalletId)).thenReturn(Optional.of(toWallet));
+        when(transferSagaRepository.find(endToEndId))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.CONFIRMING, toWalletId, targetShard)))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.CONFIRMED, toWalletId, targetShard)));
+        when(transferSagaRepository.findWithLock(endToEndId))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.CONFIRMING, toWalletId, targetShard)));
+
+        // When - Quando avançar a saga
+        TransferSagaStateEnum state = pixTransferSaga.advance(sourceShard, endToEndId);
+
+        // Then - Então o destino deve ser creditado uma única vez
+        assertThat(state).isEqualTo(TransferSagaStateEnum.CONFIRMED);
+        assertThat(credit.getStatus()).isEqualTo(TransactionStatusEnum.CONFIRMED);
+        assertThat(toWallet.getCurrentBalance()).isEqualByComparingTo("600.50");
+        verify(transferSagaRepository).updateState(eq(endToEndId), eq(TransferSagaStateEnum.CONFIRMED),
+                isNull(), isNull(), any(), any());
+        verify(cacheInvalidationBus).publishWallet(toWalletId);
+    }
+
+    @Test
+    @DisplayName("Dado uma saga CONFIRMING sem carteira no destino, quando avançar, então deve estornar a origem e compensar a saga")
+    void dado_saga_confirming_sem_carteira_destino_quando_avancar_entao_deve_estornar_origem() {
+        // Given - Dado a origem debitada e a carteira de destino removida do shard
+        executarCallbacksDeTransacao();
+        fromWallet.setCurrentBalance(new BigDecimal("899.50"));
+        TransactionEntity credit = leg("IN", toWalletId, amount, TransactionStatusEnum.PENDING);
+        TransactionEntity debit = leg("OUT", fromWalletId, amount.negate(), TransactionStatusEnum.CONFIRMED);
+        when(transactionRepository.findByEndToEndIdWithLock("IN" + endToEndId)).thenReturn(Optional.of(credit));
+        when(walletRepository.findByIdWithLock(toWalletId)).thenReturn(Optional.empty());
+        when(transactionRepository.findByEndToEndIdWithLock("OUT" + endToEndId)).thenReturn(Optional.of(debit));
+        when(walletRepository.findByIdWithLock(fromWalletId)).thenReturn(Optional.of(fromWallet));
+        when(transferSagaRepository.find(endToEndId))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.CONFIRMING, toWalletId, targetShard)))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.COMPENSATED, toWalletId, targetShard)));
+        when(transferSagaRepository.findWithLock(endToEndId))
+                .thenReturn(Optional.of(saga(TransferSagaStateEnum.CONFIRMING, toWalletId, targetShard)));
+
+        // When - Quando avançar a saga
+        TransferSagaStateEnum state = pixTransferSaga.advance(sourceShard, endToEndId);
+
+        // Then - Então o débito deve ser estornado e a perna OUT rejeitada
+        assertThat(state).isEqualTo(TransferSagaStateEnum.COMPENSATED);
+        assertThat(fromWallet.getCurrentBalance()).isEqualByComparingTo("1000.00");
+        assertThat(debit.getStatus()).isEqualTo(TransactionStatusEnum.REJECTED);
+        assertThat(credit.getStatus()).isEqualTo(TransactionStatusEnum.PENDING);
+        verify(outboxService).appendCrossShardPixTransfer(
+                OutboxEventTypeEnum.PIX_TRANSFER_STATUS_CHANGED, endToEndId, debit, toWalletId);
+        verify(eventPublisher).publishEvent(new PixTransferStatusChangedEvent(
+                endToEndId, fromWalletId, toWalletId, TransactionStatusEnum.REJECTED));
+        verify(transactionRollupService).recordStatusChange(debit, TransactionStatusEnum.CONFIRMED);
+    }
+
+    @Test
+    @DisplayName("Dado uma saga reservada pela recuperação que falha, quando recuperar, então deve reagendá-la com o erro")
+    void dado_saga_que_falha_quando_recuperar_entao_deve_reagendar() {
+        // Given - Dado uma saga parada e o shard indisponível
+        when(transferSagaRepository.claim(eq(100), any(), any())).thenReturn(List.of(endToEndId));
+        when(transferSagaRepository.find(endToEndId)).thenThrow(new IllegalStateException("db down"));
+
+        // When - Quando recuperar
+        int claimed = pixTransferSaga.recover();
+
+        // Then - Então deve reagendar a saga
+        assertThat(claimed).isEqualTo(1);
+        verify(transferSagaRepository).reschedule(eq(endToEndId), any(), contains("db down"));
+        verify(transactionTemplate, never()).execute(any());
+        verify(walletRepository, never()).findByIdWithLock(any());
+        verify(transferSagaRepository, never()).updateState(any(), any(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,154 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.ShardingProperties;
+import com.lucas_cm.bank_test.domain.exceptions.CrossShardTransferException;
+import com.lucas_cm.bank_test.domain.repositories.PixKeyDirectoryRepository;
+import com.lucas_cm.bank_test.infrastructure.sharding.ShardContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShardRouter - Testes Unitários")
+class ShardRouterTest {
+
+    @Mock
+    private PixKeyDirectoryRepository pixKeyDirectoryRepository;
+
+    @AfterEach
+    void tearDown() {
+        ShardContext.set(null);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private ShardRouter router(boolean enabled, int shards) {
+        List<ShardingProperties.Shard> list = Collections.nCopies(shards,
+                new ShardingProperties.Shard("jdbc:postgresql://localhost/bank", "bank", "bank"));
+        return new ShardRouter(new ShardingProperties(enabled, list, 10), pixKeyDirectoryRepository);
+    }
+
+    private List<String> walletIds(int count) {
+        return IntStream.range(0, count).mapToObj(i -> UUID.nameUUIDFromBytes(("wallet-" + i).getBytes()).toString()).toList();
+    }
+
+    @Test
+    @DisplayName("Dado o sharding desabilitado, quando rotear, então tudo deve ir para o shard 0 sem definir o contexto")
+    void dado_sharding_desabilitado_quando_rotear_entao_deve_usar_shard_zero() {
+        // Given - Dado o sharding desabilitado
+        ShardRouter router = router(false, 4);
+
+        // When - Quando executar no shard de uma carteira
+        Integer context = router.onShard(router.shardOf("wallet-a"), ShardContext::current);
+
+        // Then - Então deve rodar sem shard definido
+        assertThat(router.shardCount()).isEqualTo(1);
+        assertThat(router.shardOf("wallet-a")).isZero();
+        assertThat(context).isNull();
+        verifyNoInteractions(pixKeyDirectoryRepository);
+    }
+
+    @Test
+    @DisplayName("Dado quatro shards, quando rotear muitas carteiras, então deve distribuir de forma estável e equilibrada")
+    void dado_quatro_shards_quando_rotear_entao_deve_distribuir_de_forma_estavel() {
+        // Given - Dado quatro shards
+        ShardRouter router = router(true, 4);
+        List<String> ids = walletIds(10_000);
+
+        // When - Quando calcular o shard de cada carteira
+        int[] counts = new int[4];
+        ids.forEach(id -> counts[router.shardOf(id)]++);
+
+        // Then - Então cada shard deve receber ~25% e o resultado não deve variar
+        assertThat(Arrays.stream(counts).boxed().toList()).allSatisfy(count -> assertThat(count).isBetween(2_200, 2_800));
+        assertThat(ids).allSatisfy(id -> assertThat(router.shardOf(id)).isEqualTo(router.shardOf(id)));
+    }
+
+    @Test
+    @DisplayName("Dado um shard novo no fim da lista, quando rotear, então só ~1/N das carteiras devem mudar e todas para o shard novo")
+    void dado_shard_novo_quando_rotear_entao_deve_mover_apenas_para_o_shard_novo() {
+        // Given - Dado a mesma base com quatro e com cinco shards
+        ShardRouter before = router(true, 4);
+        ShardRouter after = router(true, 5);
+        List<String> ids = walletIds(10_000);
+
+        // When - Quando comparar os shards
+        List<String> moved = ids.stream().filter(id -> before.shardOf(id) != after.shardOf(id)).toList();
+
+        // Then - Então as movidas devem ir para o shard 4 e ser ~20% do total
+        assertThat(moved).allSatisfy(id -> assertThat(after.shardOf(id)).isEqualTo(4));
+        assertThat(moved.size()).isBetween(1_700, 2_300);
+    }
+
+    @Test
+    @DisplayName("Dado o sharding habilitado, quando executar em um shard, então deve definir e restaurar o contexto da thread")
+    void dado_sharding_habilitado_quando_executar_em_shard_entao_deve_definir_e_restaurar_contexto() {
+        // Given - Dado dois shards
+        ShardRouter router = router(true, 2);
+
+        // When - Quando executar no shard 1
+        Integer context = router.onShard(1, ShardContext::current);
+
+        // Then - Então o shard deve valer só durante a chamada
+        assertThat(context).isEqualTo(1);
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Dado uma transação aberta em um shard, quando trocar de shard, então deve lançar IllegalStateException")
+    void dado_transacao_aberta_quando_trocar_de_shard_entao_deve_lancar_excecao() {
+        // Given - Dado uma transação ativa no shard 0
+        ShardRouter router = router(true, 2);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // When/Then - Quando trocar para o shard 1, então deve falhar; o mesmo shard continua permitido
+        assertThatThrownBy(() -> router.onShard(1, () -> "nunca"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(router.onShard(0, () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    @DisplayName("Dado uma chave PIX de outro shard, quando validar a transferência, então deve lançar CrossShardTransferException")
+    void dado_chave_de_outro_shard_quando_validar_transferencia_entao_deve_lancar_excecao() {
+        // Given - Dado que o diretório aponta a chave para o outro shard
+        ShardRouter router = router(true, 2);
+        String walletId = walletIds(100).stream().filter(id -> router.shardOf(id) == 0).findFirst().orElseThrow();
+        when(pixKeyDirectoryRepository.findShard("pix-b")).thenReturn(Optional.of(1));
+        when(pixKeyDirectoryRepository.findShard("pix-c")).thenReturn(Optional.of(0));
+
+        // When/Then - Quando validar, então só o destino em outro shard deve ser rejeitado
+        assertThatThrownBy(() -> router.requireSameShard(walletId, "pix-b"))
+                .isInstanceOf(CrossShardTransferException.class);
+        router.requireSameShard(walletId, "pix-c");
+    }
+
+    @Test
+    @DisplayName("Dado uma chave PIX de outra carteira no diretório, quando registrar, então deve lançar DuplicateKeyException")
+    void dado_chave_de_outra_carteira_quando_registrar_entao_deve_lancar_excecao() {
+        // Given - Dado que o diretório recusa o registro
+        ShardRouter router = router(true, 2);
+        when(pixKeyDirectoryRepository.register(anyString(), anyString(), anyInt())).thenReturn(false);
+
+        // When/Then - Quando registrar, então deve lançar exceção
+        assertThatThrownBy(() -> router.registerPixKey("pix-b", "wallet-a"))
+                .isInstanceOf(DuplicateKeyException.class);
+        verify(pixKeyDirectoryRepository).register("pix-b", "wallet-a", router.shardOf("wallet-a"));
+    }
+}
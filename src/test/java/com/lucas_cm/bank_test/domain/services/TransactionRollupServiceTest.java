@@ -0,0 +1,153 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.ShardingProperties;
+import com.lucas_cm.bank_test.configuration.properties.TransactionRollupProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.exceptions.InvalidRollupRangeException;
+import com.lucas_cm.bank_test.domain.models.TransactionRollup;
+import com.lucas_cm.bank_test.domain.repositories.PixKeyDirectoryRepository;
+import com.lucas_cm.bank_test.domain.repositories.TransactionRollupRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.TransactionRollupDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionRollupService - Testes Unitários")
+class TransactionRollupServiceTest {
+
+    @Mock
+    private TransactionRollupRepository transactionRollupRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private PixKeyDirectoryRepository pixKeyDirectoryRepository;
+
+    private final LocalDate day = LocalDate.of(2025, 10, 9);
+
+    private TransactionRollupService service(boolean enabled, int shards) {
+        List<ShardingProperties.Shard> shardList = Collections.nCopies(shards,
+                new ShardingProperties.Shard("jdbc:postgresql://localhost/bank", "bank", "bank"));
+        return new TransactionRollupService(transactionRollupRepository, walletRepository,
+                new ShardRouter(new ShardingProperties(shards > 1, shardList, 10), pixKeyDirectoryRepository),
+                new TransactionRollupProperties(enabled, 31));
+    }
+
+    private TransactionEntity transaction(String walletId, TransactionTypeEnum type, TransactionStatusEnum status,
+                                          String amount) {
+        return TransactionEntity.builder()
+                .walletId(walletId)
+                .amount(new BigDecimal(amount))
+                .type(type)
+                .status(status)
+                .createdAt(day.atTime(10, 0))
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Dado transações criadas no mesmo dia, quando registrar, então deve somar por chave em ordem e ignorar pernas sem carteira")
+    void dado_transacoes_criadas_quando_registrar_entao_deve_somar_por_chave_em_ordem() {
+        // Given - Dado dois depósitos na carteira B, um saque na A e uma perna sem carteira
+        List<TransactionEntity> transactions = List.of(
+                transaction("wallet-b", TransactionTypeEnum.DEPOSIT, TransactionStatusEnum.CONFIRMED, "10.00"),
+                transaction("wallet-a", TransactionTypeEnum.WITHDRAW, TransactionStatusEnum.CONFIRMED, "-5.00"),
+                transaction("wallet-b", TransactionTypeEnum.DEPOSIT, TransactionStatusEnum.CONFIRMED, "2.50"),
+                transaction(null, TransactionTypeEnum.PIX_TRANSFER_IN, TransactionStatusEnum.PENDING, "1.00"));
+
+        // When - Quando registrar a criação
+        service(true, 1).recordCreated(transactions);
+
+        // Then - Então deve gravar um delta por chave, ordenado pela carteira
+        verify(transactionRollupRepository).add(List.of(
+                new TransactionRollup("wallet-a", day, TransactionTypeEnum.WITHDRAW, TransactionStatusEnum.CONFIRMED,
+                        1, new BigDecimal("-5.00")),
+                new TransactionRollup("wallet-b", day, TransactionTypeEnum.DEPOSIT, TransactionStatusEnum.CONFIRMED,
+                        2, new BigDecimal("12.50"))));
+    }
+
+    @Test
+    @DisplayName("Dado uma perna que saiu de PENDING, quando registrar a mudança, então deve mover quantidade e valor para o novo status")
+    void dado_perna_que_saiu_de_pending_quando_registrar_entao_deve_mover_para_novo_status() {
+        // Given - Dado a perna OUT rejeitada
+        TransactionEntity debit = transaction("wallet-a", TransactionTypeEnum.PIX_TRANSFER_OUT,
+                TransactionStatusEnum.REJECTED, "-30.00");
+
+        // When - Quando registrar a mudança de status
+        service(true, 1).recordStatusChange(debit, TransactionStatusEnum.PENDING);
+
+        // Then - Então deve sair de PENDING e entrar em REJECTED no dia de criação
+        verify(transactionRollupRepository).add(List.of(
+                new TransactionRollup("wallet-a", day, TransactionTypeEnum.PIX_TRANSFER_OUT, TransactionStatusEnum.PENDING,
+                        -1, new BigDecimal("30.00")),
+                new TransactionRollup("wallet-a", day, TransactionTypeEnum.PIX_TRANSFER_OUT, TransactionStatusEnum.REJECTED,
+                        1, new BigDecimal("-30.00"))));
+    }
+
+    @Test
+    @DisplayName("Dado os rollups desabilitados, quando registrar transações, então não deve gravar nada")
+    void dado_rollups_desabilitados_quando_registrar_entao_nao_deve_gravar() {
+        // Given - Dado o serviço com rollups desabilitados
+        TransactionRollupService service = service(false, 1);
+
+        // When - Quando registrar criação e mudança de status
+        service.recordCreated(transaction("wallet-a", TransactionTypeEnum.DEPOSIT, TransactionStatusEnum.CONFIRMED, "1.00"));
+        service.recordStatusChange(transaction("wallet-a", TransactionTypeEnum.PIX_TRANSFER_OUT,
+                TransactionStatusEnum.CONFIRMED, "-1.00"), TransactionStatusEnum.PENDING);
+
+        // Then - Então o repositório não deve ser chamado
+        verifyNoInteractions(transactionRollupRepository);
+    }
+
+    @Test
+    @DisplayName("Dado um intervalo acima do limite ou invertido, quando consultar rollups, então deve lançar InvalidRollupRangeException")
+    void dado_intervalo_invalido_quando_consultar_entao_deve_lancar_excecao() {
+        // Given - Dado o limite de 31 dias
+        TransactionRollupService service = service(true, 1);
+
+        // When/Then - Quando consultar fora do limite, então deve lançar exceção sem ir ao banco
+        assertThatThrownBy(() -> service.findByWallet("wallet-a", "2025-10-01", "2025-11-01"))
+                .isInstanceOf(InvalidRollupRangeException.class);
+        assertThatThrownBy(() -> service.findTotals("2025-10-09", "2025-10-08"))
+                .isInstanceOf(InvalidRollupRangeException.class);
+        assertThatThrownBy(() -> service.findTotals("09/10/2025", "2025-10-09"))
+                .isInstanceOf(InvalidRollupRangeException.class);
+        verifyNoInteractions(transactionRollupRepository, walletRepository);
+    }
+
+    @Test
+    @DisplayName("Dado sharding habilitado, quando consultar os totais, então deve somar os totais de cada shard")
+    void dado_sharding_habilitado_quando_consultar_totais_entao_deve_somar_shards() {
+        // Given - Dado dois shards com os mesmos totais
+        when(transactionRollupRepository.findTotals(day, day)).thenReturn(List.of(
+                new TransactionRollup(null, day, TransactionTypeEnum.DEPOSIT, TransactionStatusEnum.CONFIRMED,
+                        3, new BigDecimal("30.00"))));
+
+        // When - Quando consultar os totais
+        TransactionRollupDto result = service(true, 2).findTotals("2025-10-09", "2025-10-09");
+
+        // Then - Então deve retornar a soma dos shards
+        assertThat(result.walletId()).isNull();
+        assertThat(result.rollups()).containsExactly(
+                new TransactionRollup(null, day, TransactionTypeEnum.DEPOSIT, TransactionStatusEnum.CONFIRMED,
+                        6, new BigDecimal("60.00")));
+        verify(transactionRollupRepository, times(2)).findTotals(day, day);
+    }
+}
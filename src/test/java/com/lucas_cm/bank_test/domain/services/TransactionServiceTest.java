@@ -4,6 +4,7 @@ import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
 import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
 import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
 import com.lucas_cm.bank_test.domain.exceptions.TransactionEndToEndIdAlreadyExistsException;
+import com.lucas_cm.bank_test.domain.models.TransactionsConfirmedEvent;
 import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -31,6 +33,12 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private TransactionRollupService transactionRollupService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -76,6 +84,8 @@ class TransactionServiceTest {
         assertThat(result.getAmount()).isEqualTo(transactionAmount);
         verify(transactionRepository).existsByEndToEndId(endToEndId);
         verify(transactionRepository).save(transactionEntity);
+        verify(transactionRollupService).recordCreated(transactionEntity);
+        verify(eventPublisher).publishEvent(new TransactionsConfirmedEvent(List.of(transactionEntity)));
     }
 
     @Test
@@ -0,0 +1,154 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.ShardingProperties;
+import com.lucas_cm.bank_test.configuration.properties.VelocityLimitProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.exceptions.VelocityLimitExceededException;
+import com.lucas_cm.bank_test.domain.repositories.PixKeyDirectoryRepository;
+import com.lucas_cm.bank_test.domain.repositories.TransactionVelocityRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VelocityLimiter - Testes Unitários")
+class VelocityLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_760_000_000_000L);
+
+    @Mock
+    private TransactionVelocityRepository transactionVelocityRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private VelocityLimiter limiter(int countPerMinute, String amountPerMinute, int countPerDay, String amountPerDay,
+                                    int maxWallets) {
+        return new VelocityLimiter(
+                new VelocityLimitProperties(true, countPerMinute, new BigDecimal(amountPerMinute), countPerDay,
+                        new BigDecimal(amountPerDay), maxWallets, Duration.ofMinutes(5)),
+                transactionVelocityRepository,
+                new ShardRouter(new ShardingProperties(false, List.of(), 10), mock(PixKeyDirectoryRepository.class)),
+                meterRegistry,
+                clock::get);
+    }
+
+    @Test
+    @DisplayName("Dado o limite de quantidade por minuto atingido, quando o minuto passar, então deve aceitar novamente")
+    void dado_limite_por_minuto_atingido_quando_minuto_passar_entao_deve_aceitar_novamente() {
+        // Given - Dado um limite de 2 débitos por minuto
+        VelocityLimiter limiter = limiter(2, "0", 0, "0", 10);
+
+        // When - Quando debitar 3 vezes no mesmo minuto
+        String first = limiter.tryAcquire("wallet-a", 100, clock.get());
+        String second = limiter.tryAcquire("wallet-a", 100, clock.get() + 10_000);
+        String third = limiter.tryAcquire("wallet-a", 100, clock.get() + 20_000);
+
+        // Then - Então o terceiro deve ser rejeitado até o primeiro sair da janela, sem afetar outras carteiras
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        assertThat(third).isEqualTo("1m");
+        assertThat(limiter.tryAcquire("wallet-b", 100, clock.get() + 20_000)).isNull();
+        assertThat(limiter.tryAcquire("wallet-a", 100, clock.get() + 60_000)).isNull();
+    }
+
+    @Test
+    @DisplayName("Dado o limite de valor por dia, quando o débito passar do limite, então deve rejeitar na janela de 24h")
+    void dado_limite_de_valor_por_dia_quando_debito_passar_do_limite_entao_deve_rejeitar() {
+        // Given - Dado um limite de 100,00 por dia e 60,00 já debitados
+        VelocityLimiter limiter = limiter(0, "0", 0, "100.00", 10);
+        assertThat(limiter.tryAcquire("wallet-a", 60_00, clock.get())).isNull();
+
+        // When/Then - Quando debitar 50,00 horas depois, então deve rejeitar; 40,00 ainda cabe
+        long later = clock.get() + Duration.ofHours(5).toMillis();
+        assertThat(limiter.tryAcquire("wallet-a", 50_00, later)).isEqualTo("24h");
+        assertThat(limiter.tryAcquire("wallet-a", 40_00, later)).isNull();
+        assertThat(limiter.tryAcquire("wallet-a", 90_00, clock.get() + Duration.ofHours(30).toMillis())).isNull();
+    }
+
+    @Test
+    @DisplayName("Dado o limite excedido, quando adquirir, então deve lançar VelocityLimitExceededException e contar a rejeição")
+    void dado_limite_excedido_quando_adquirir_entao_deve_lancar_excecao_e_contar_rejeicao() {
+        // Given - Dado um limite de 1 débito por minuto já usado
+        VelocityLimiter limiter = limiter(1, "0", 0, "0", 10);
+        limiter.acquire("wallet-a", new BigDecimal("10.00"));
+
+        // When/Then - Quando debitar novamente, então deve lançar exceção
+        assertThatThrownBy(() -> limiter.acquire("wallet-a", new BigDecimal("10.00")))
+                .isInstanceOf(VelocityLimitExceededException.class)
+                .extracting(e -> ((VelocityLimitExceededException) e).getWindow())
+                .isEqualTo("1m");
+        assertThat(meterRegistry.get("bank.velocity-limit.rejected").tag("window", "1m").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado débitos recentes no banco, quando reconstruir, então devem contar nos limites")
+    void dado_debitos_recentes_no_banco_quando_reconstruir_entao_devem_contar_nos_limites() {
+        // Given - Dado dois saques de 40,00 na última hora e um limite de 100,00 por dia
+        VelocityLimiter limiter = limiter(0, "0", 0, "100.00", 10);
+        LocalDateTime anHourAgo = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(clock.get()).minus(Duration.ofHours(1)), ZoneId.systemDefault());
+        when(transactionVelocityRepository.forEachDebitSince(any(), any())).thenAnswer(invocation -> {
+            Consumer<TransactionEntity> consumer = invocation.getArgument(1);
+            consumer.accept(debit("wallet-a", "-40.00", anHourAgo));
+            consumer.accept(debit("wallet-a", "-40.00", anHourAgo.plusMinutes(30)));
+            return 2L;
+        });
+
+        // When - Quando reconstruir as janelas
+        limiter.load();
+
+        // Then - Então só cabem mais 20,00 na carteira
+        assertThat(limiter.tryAcquire("wallet-a", 20_01, clock.get())).isEqualTo("24h");
+        assertThat(limiter.tryAcquire("wallet-a", 20_00, clock.get())).isNull();
+    }
+
+    @Test
+    @DisplayName("Dado carteiras sem débitos nas últimas 24 horas, quando descartar ociosas, então deve liberar a memória delas")
+    void dado_carteiras_sem_debitos_recentes_quando_descartar_entao_deve_liberar_memoria() {
+        // Given - Dado o limite de carteiras rastreadas atingido
+        VelocityLimiter limiter = limiter(1, "0", 0, "0", 1);
+        limiter.tryAcquire("wallet-a", 100, clock.get());
+
+        // When - Quando passar um dia
+        clock.addAndGet(Duration.ofHours(24).toMillis());
+        limiter.evictIdle();
+
+        // Then - Então a carteira deve sair e uma nova pode ser rastreada
+        assertThat(limiter.trackedWallets()).isZero();
+        assertThat(limiter.tryAcquire("wallet-b", 100, clock.get())).isNull();
+        assertThat(limiter.tryAcquire("wallet-b", 100, clock.get())).isEqualTo("1m");
+    }
+
+    private TransactionEntity debit(String walletId, String amount, LocalDateTime createdAt) {
+        return TransactionEntity.builder()
+                .walletId(walletId)
+                .amount(new BigDecimal(amount))
+                .createdAt(createdAt)
+                .build();
+    }
+}
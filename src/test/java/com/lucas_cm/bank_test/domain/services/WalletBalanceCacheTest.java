@@ -0,0 +1,92 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.CacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("WalletBalanceCache - Testes Unitários")
+class WalletBalanceCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private WalletBalanceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new WalletBalanceCache(
+                new CacheProperties(true, Duration.ofSeconds(30), 100, "bank_cache_invalidation", Duration.ofMillis(50)),
+                new SimpleMeterRegistry(), clock::get);
+    }
+
+    private BigDecimal load(String balance) {
+        loads.incrementAndGet();
+        return new BigDecimal(balance);
+    }
+
+    @Test
+    @DisplayName("Dado um saldo em cache, quando consultar novamente, então não deve ir ao banco")
+    void dado_saldo_em_cache_quando_consultar_entao_nao_deve_ir_ao_banco() {
+        // Given - Dado um saldo já carregado
+        cache.get("wallet-a", () -> load("10.00"));
+
+        // When - Quando consultar novamente
+        BigDecimal balance = cache.get("wallet-a", () -> load("99.00"));
+
+        // Then - Então deve retornar o valor em cache
+        assertThat(balance).isEqualByComparingTo("10.00");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado uma invalidação da carteira, quando consultar, então deve recarregar o saldo")
+    void dado_invalidacao_quando_consultar_entao_deve_recarregar() {
+        // Given - Dado um saldo em cache invalidado
+        cache.get("wallet-a", () -> load("10.00"));
+        cache.invalidate(List.of("wallet-a"), List.of());
+
+        // When - Quando consultar
+        BigDecimal balance = cache.get("wallet-a", () -> load("20.00"));
+
+        // Then - Então deve buscar o novo saldo
+        assertThat(balance).isEqualByComparingTo("20.00");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Dado uma invalidação durante a leitura, quando consultar, então não deve guardar o valor lido")
+    void dado_invalidacao_durante_leitura_quando_consultar_entao_nao_deve_guardar_valor() {
+        // When - Quando uma invalidação acontece enquanto o saldo é lido
+        cache.get("wallet-a", () -> {
+            cache.invalidate(List.of("wallet-a"), List.of());
+            return load("10.00");
+        });
+
+        // Then - Então a próxima consulta deve ir ao banco
+        cache.get("wallet-a", () -> load("20.00"));
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Dado uma entrada mais velha que o ttl, quando consultar, então deve recarregar o saldo")
+    void dado_entrada_expirada_quando_consultar_entao_deve_recarregar() {
+        // Given - Dado um saldo carregado há mais que o ttl
+        cache.get("wallet-a", () -> load("10.00"));
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        // When - Quando consultar
+        BigDecimal balance = cache.get("wallet-a", () -> load("20.00"));
+
+        // Then - Então deve recarregar
+        assertThat(balance).isEqualByComparingTo("20.00");
+    }
+}
@@ -0,0 +1,288 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.ShardingProperties;
+import com.lucas_cm.bank_test.configuration.properties.WalletBatchProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.exceptions.InvalidWalletBatchException;
+import com.lucas_cm.bank_test.domain.exceptions.VelocityLimitExceededException;
+import com.lucas_cm.bank_test.domain.exceptions.WalletBatchNotFoundException;
+import com.lucas_cm.bank_test.domain.models.BatchItemStatusEnum;
+import com.lucas_cm.bank_test.domain.models.BatchStatusEnum;
+import com.lucas_cm.bank_test.domain.models.TransactionsConfirmedEvent;
+import com.lucas_cm.bank_test.domain.models.WalletBatch;
+import com.lucas_cm.bank_test.domain.repositories.PixKeyDirectoryRepository;
+import com.lucas_cm.bank_test.domain.repositories.TransactionBatchRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.cache.CacheInvalidationBus;
+import com.lucas_cm.bank_test.infrastructure.dtos.WalletBatchDto;
+import com.lucas_cm.bank_test.infrastructure.dtos.WalletBatchItemDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WalletBatchService - Testes Unitários")
+class WalletBatchServiceTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionBatchRepository transactionBatchRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private BalanceNettingEngine balanceNettingEngine;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private TransactionRollupService transactionRollupService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    private WalletBatchService walletBatchService;
+
+    private WalletEntity walletA;
+    private WalletEntity walletB;
+
+    @BeforeEach
+    void setUp() {
+        walletBatchService = new WalletBatchService(
+                walletRepository,
+                transactionBatchRepository,
+                transactionTemplate,
+                balanceNettingEngine,
+                outboxService,
+                transactionRollupService,
+                eventPublisher,
+                new WalletBatchProperties(1, 3, Duration.ofHours(1)),
+                cacheInvalidationBus,
+                new ShardRouter(new ShardingProperties(false, List.of(), 10), mock(PixKeyDirectoryRepository.class)),
+                velocityLimiter
+        );
+
+        walletA = WalletEntity.builder()
+                .id("wallet-a")
+                .userId("user-a")
+                .currentBalance(new BigDecimal("100.00"))
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+
+        walletB = WalletEntity.builder()
+                .id("wallet-b")
+                .userId("user-b")
+                .currentBalance(new BigDecimal("10.00"))
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void executarCallbacksDeTransacao() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+    }
+
+    @Test
+    @DisplayName("Dado um lote de depósitos com itens da mesma carteira, quando processar, então deve aplicar um único update de saldo por carteira")
+    void dado_lote_de_depositos_quando_processar_entao_deve_aplicar_um_update_por_carteira() {
+        // Given - Dado dois depósitos para a mesma carteira
+        executarCallbacksDeTransacao();
+        when(walletRepository.findAllByIdWithLock(List.of("wallet-a"))).thenReturn(List.of(walletA));
+        WalletBatch batch = new WalletBatch("batch-1", TransactionTypeEnum.DEPOSIT, List.of(
+                new WalletBatchItemDto("wallet-a", new BigDecimal("10.00")),
+                new WalletBatchItemDto("wallet-a", new BigDecimal("5.50"))
+        ));
+
+        // When - Quando processar o lote
+        walletBatchService.process(batch);
+
+        // Then - Então deve somar os depósitos e inserir as transações em lote
+        WalletBatchDto result = batch.toDto();
+        assertThat(result.status()).isEqualTo(BatchStatusEnum.COMPLETED);
+        assertThat(result.succeeded()).isEqualTo(2);
+        assertThat(result.failed()).isZero();
+        assertThat(walletA.getCurrentBalance()).isEqualByComparingTo("115.50");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TransactionEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionBatchRepository).insertAll(captor.capture(), anyInt());
+        assertThat(captor.getValue()).hasSize(2)
+                .allSatisfy(transaction -> {
+                    assertThat(transaction.getType()).isEqualTo(TransactionTypeEnum.DEPOSIT);
+                    assertThat(transaction.getStatus()).isEqualTo(TransactionStatusEnum.CONFIRMED);
+                    assertThat(transaction.getWalletId()).isEqualTo("wallet-a");
+                });
+        verify(transactionRollupService).recordCreated(captor.getValue());
+        verify(eventPublisher).publishEvent(new TransactionsConfirmedEvent(captor.getValue()));
+        verify(walletRepository).saveAll(List.of(walletA));
+        verifyNoInteractions(velocityLimiter);
+    }
+
+    @Test
+    @DisplayName("Dado um lote de saques acima do saldo, quando processar, então deve falhar apenas os itens sem saldo")
+    void dado_lote_de_saques_acima_do_saldo_quando_processar_entao_deve_falhar_itens_sem_saldo() {
+        // Given - Dado saques que excedem o saldo da carteira B
+        executarCallbacksDeTransacao();
+        when(walletRepository.findAllByIdWithLock(List.of("wallet-a"))).thenReturn(List.of(walletA));
+        when(walletRepository.findAllByIdWithLock(List.of("wallet-b"))).thenReturn(List.of(walletB));
+        WalletBatch batch = new WalletBatch("batch-2", TransactionTypeEnum.WITHDRAW, List.of(
+                new WalletBatchItemDto("wallet-b", new BigDecimal("8.00")),
+                new WalletBatchItemDto("wallet-a", new BigDecimal("50.00")),
+                new WalletBatchItemDto("wallet-b", new BigDecimal("8.00"))
+        ));
+
+        // When - Quando processar o lote
+        walletBatchService.process(batch);
+
+        // Then - Então o segundo saque da carteira B deve falhar por saldo insuficiente
+        WalletBatchDto result = batch.toDto();
+        assertThat(result.processed()).isEqualTo(3);
+        assertThat(result.succeeded()).isEqualTo(2);
+        assertThat(result.items().get(2).status()).isEqualTo(BatchItemStatusEnum.FAILED);
+        assertThat(result.items().get(2).errorCode()).isEqualTo("INSUFFICIENT_BALANCE");
+        assertThat(walletA.getCurrentBalance()).isEqualByComparingTo("50.00");
+        assertThat(walletB.getCurrentBalance()).isEqualByComparingTo("2.00");
+        verify(velocityLimiter, times(2)).acquire(any(), any());
+    }
+
+    @Test
+    @DisplayName("Dado um saque acima do limite de movimentação, quando processar, então deve falhar só ele sem alterar o saldo")
+    void dado_saque_acima_do_limite_quando_processar_entao_deve_falhar_so_ele() {
+        // Given - Dado que o segundo saque da carteira A passaria do limite
+        executarCallbacksDeTransacao();
+        when(walletRepository.findAllByIdWithLock(List.of("wallet-a"))).thenReturn(List.of(walletA));
+        // lenient: os demais itens chamam o limitador com outros valores
+        lenient().doThrow(new VelocityLimitExceededException("1m", 1, new BigDecimal("1000.00")))
+                .when(velocityLimiter).acquire("wallet-a", new BigDecimal("20.00"));
+        WalletBatch batch = new WalletBatch("batch-5", TransactionTypeEnum.WITHDRAW, List.of(
+                new WalletBatchItemDto("wallet-a", new BigDecimal("10.00")),
+                new WalletBatchItemDto("wallet-a", new BigDecimal("20.00"))
+        ));
+
+        // When - Quando processar o lote
+        walletBatchService.process(batch);
+
+        // Then - Então o segundo saque deve falhar e só o primeiro sair do saldo
+        WalletBatchDto result = batch.toDto();
+        assertThat(result.succeeded()).isEqualTo(1);
+        assertThat(result.items().get(1).errorCode()).isEqualTo("VELOCITY_LIMIT_EXCEEDED");
+        assertThat(walletA.getCurrentBalance()).isEqualByComparingTo("90.00");
+    }
+
+    @Test
+    @DisplayName("Dado um lote com carteira inexistente, quando processar, então deve marcar os itens como WALLET_NOT_FOUND")
+    void dado_lote_com_carteira_inexistente_quando_processar_entao_deve_marcar_itens_como_nao_encontrados() {
+        // Given - Dado que a carteira não existe
+        executarCallbacksDeTransacao();
+        when(walletRepository.findAllByIdWithLock(List.of("wallet-x"))).thenReturn(List.of());
+        WalletBatch batch = new WalletBatch("batch-3", TransactionTypeEnum.DEPOSIT, List.of(
+                new WalletBatchItemDto("wallet-x", new BigDecimal("10.00"))
+        ));
+
+        // When - Quando processar o lote
+        walletBatchService.process(batch);
+
+        // Then - Então o item deve falhar sem inserir transações
+        WalletBatchDto result = batch.toDto();
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(result.items().get(0).errorCode()).isEqualTo("WALLET_NOT_FOUND");
+        verify(walletRepository).saveAll(List.of());
+    }
+
+    @Test
+    @DisplayName("Dado uma falha no banco durante um chunk, quando processar, então deve marcar os itens do chunk como INTERNAL_ERROR")
+    void dado_falha_no_chunk_quando_processar_entao_deve_marcar_itens_como_erro_interno() {
+        // Given - Dado que a transação do chunk falha
+        when(transactionTemplate.execute(any())).thenThrow(new RuntimeException("db down"));
+        WalletBatch batch = new WalletBatch("batch-4", TransactionTypeEnum.DEPOSIT, List.of(
+                new WalletBatchItemDto("wallet-a", new BigDecimal("10.00"))
+        ));
+
+        // When - Quando processar o lote
+        walletBatchService.process(batch);
+
+        // Then - Então o lote deve terminar com o item em erro
+        WalletBatchDto result = batch.toDto();
+        assertThat(result.status()).isEqualTo(BatchStatusEnum.COMPLETED);
+        assertThat(result.items().get(0).errorCode()).isEqualTo("INTERNAL_ERROR");
+    }
+
+    @Test
+    @DisplayName("Dado um lote vazio ou acima do limite, quando submeter, então deve lançar InvalidWalletBatchException")
+    void dado_lote_invalido_quando_submeter_entao_deve_lancar_excecao() {
+        // Given - Dado um lote com mais itens que o permitido
+        List<WalletBatchItemDto> items = List.of(
+                new WalletBatchItemDto("wallet-a", BigDecimal.ONE),
+                new WalletBatchItemDto("wallet-a", BigDecimal.ONE),
+                new WalletBatchItemDto("wallet-a", BigDecimal.ONE),
+                new WalletBatchItemDto("wallet-a", BigDecimal.ONE)
+        );
+
+        // When/Then - Quando submeter, então deve lançar exceção
+        assertThatThrownBy(() -> walletBatchService.submit(TransactionTypeEnum.DEPOSIT, items))
+                .isInstanceOf(InvalidWalletBatchException.class);
+        assertThatThrownBy(() -> walletBatchService.submit(TransactionTypeEnum.DEPOSIT, List.of()))
+                .isInstanceOf(InvalidWalletBatchException.class);
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Dado um lote submetido, quando consultar pelo id, então deve retornar o progresso do lote")
+    void dado_lote_submetido_quando_consultar_entao_deve_retornar_progresso() {
+        // Given - Dado um lote submetido
+        lenient().when(transactionTemplate.execute(any())).thenReturn(List.of());
+        WalletBatchDto submitted = walletBatchService.submit(TransactionTypeEnum.DEPOSIT, List.of(
+                new WalletBatchItemDto("wallet-a", BigDecimal.TEN)
+        ));
+
+        // When - Quando consultar o lote
+        WalletBatchDto result = walletBatchService.findById(submitted.batchId());
+
+        // Then - Então deve retornar o mesmo lote
+        assertThat(result.batchId()).isEqualTo(submitted.batchId());
+        assertThat(result.total()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado um id de lote inexistente, quando consultar, então deve lançar WalletBatchNotFoundException")
+    void dado_lote_inexistente_quando_consultar_entao_deve_lancar_excecao() {
+        // When/Then - Quando consultar um lote inexistente, então deve lançar exceção
+        assertThatThrownBy(() -> walletBatchService.findById("nao-existe"))
+                .isInstanceOf(WalletBatchNotFoundException.class);
+    }
+}
@@ -0,0 +1,116 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.WalletConcurrencyProperties;
+import com.lucas_cm.bank_test.domain.exceptions.WalletLockTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WalletConcurrencyControl - Testes Unitários")
+class WalletConcurrencyControlTest {
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private WalletConcurrencyControl control(WalletConcurrencyProperties.Mode mode,
+                                            Map<String, WalletConcurrencyProperties.Mode> overrides) {
+        return new WalletConcurrencyControl(
+                new WalletConcurrencyProperties(mode, overrides, 3, Duration.ofMillis(1), Duration.ofMillis(2)),
+                transactionTemplate, meterRegistry);
+    }
+
+    private void executarCallbacksDeTransacao() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+    }
+
+    @Test
+    @DisplayName("Dado o modo pessimista, quando executar, então deve rodar uma vez sem leitura otimista")
+    void dado_modo_pessimista_quando_executar_entao_deve_rodar_uma_vez() {
+        // Given - Dado o modo pessimista global
+        executarCallbacksDeTransacao();
+        WalletConcurrencyControl control = control(WalletConcurrencyProperties.Mode.PESSIMISTIC, null);
+        List<Boolean> calls = new ArrayList<>();
+
+        // When - Quando executar a operação
+        String result = control.execute("wallet-a", optimistic -> {
+            calls.add(optimistic);
+            return "ok";
+        });
+
+        // Then - Então deve executar uma vez em modo pessimista
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).containsExactly(false);
+    }
+
+    @Test
+    @DisplayName("Dado um conflito de versão no modo otimista, quando executar, então deve repetir em nova transação")
+    void dado_conflito_no_modo_otimista_quando_executar_entao_deve_repetir() {
+        // Given - Dado que o primeiro commit conflita
+        executarCallbacksDeTransacao();
+        WalletConcurrencyControl control = control(WalletConcurrencyProperties.Mode.OPTIMISTIC, null);
+        List<Boolean> calls = new ArrayList<>();
+
+        // When - Quando executar a operação
+        String result = control.execute("wallet-a", optimistic -> {
+            calls.add(optimistic);
+            if (calls.size() == 1) throw new ObjectOptimisticLockingFailureException("WalletEntity", "wallet-a");
+            return "ok";
+        });
+
+        // Then - Então deve repetir e contar o conflito
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).containsExactly(true, true);
+        verify(transactionTemplate, times(2)).execute(any());
+        assertThat(meterRegistry.counter("bank.wallet-concurrency.optimistic.conflicts").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado conflitos em todas as tentativas, quando executar, então deve lançar WalletLockTimeoutException")
+    void dado_conflitos_em_todas_as_tentativas_quando_executar_entao_deve_lancar_excecao() {
+        // Given - Dado que todos os commits conflitam
+        executarCallbacksDeTransacao();
+        WalletConcurrencyControl control = control(WalletConcurrencyProperties.Mode.OPTIMISTIC, null);
+
+        // When/Then - Quando executar, então deve desistir após o máximo de tentativas
+        assertThatThrownBy(() -> control.execute("wallet-a", optimistic -> {
+            throw new ObjectOptimisticLockingFailureException("WalletEntity", "wallet-a");
+        })).isInstanceOf(WalletLockTimeoutException.class);
+        verify(transactionTemplate, times(3)).execute(any());
+        assertThat(meterRegistry.counter("bank.wallet-concurrency.optimistic.exhausted").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado um override por carteira, quando executar, então deve usar o modo da carteira")
+    void dado_override_por_carteira_quando_executar_entao_deve_usar_modo_da_carteira() {
+        // Given - Dado o modo pessimista global com uma carteira otimista
+        executarCallbacksDeTransacao();
+        WalletConcurrencyControl control = control(WalletConcurrencyProperties.Mode.PESSIMISTIC,
+                Map.of("wallet-fria", WalletConcurrencyProperties.Mode.OPTIMISTIC));
+
+        // When/Then - Quando executar, então cada carteira deve usar o seu modo
+        assertThat(control.<Boolean>execute("wallet-fria", optimistic -> optimistic)).isTrue();
+        assertThat(control.<Boolean>execute("wallet-quente", optimistic -> optimistic)).isFalse();
+    }
+}
@@ -0,0 +1,151 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.WalletLockProperties;
+import com.lucas_cm.bank_test.domain.exceptions.WalletLockTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WalletLockManager - Testes Unitários")
+class WalletLockManagerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private WalletLockManager manager(WalletLockProperties.Mode mode, Duration timeout) {
+        return new WalletLockManager(new WalletLockProperties(mode, 16, timeout),
+                jdbcTemplate, transactionTemplate, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Dado operações concorrentes na mesma carteira, quando travar, então devem executar uma de cada vez")
+    void dado_operacoes_concorrentes_na_mesma_carteira_quando_travar_entao_devem_ser_serializadas() throws Exception {
+        // Given - Dado o modo local
+        WalletLockManager manager = manager(WalletLockProperties.Mode.LOCAL, Duration.ofSeconds(5));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // When - Quando 8 operações disputam a mesma carteira
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<Object>> futures = executor.invokeAll(java.util.Collections.nCopies(8, () ->
+                    manager.withLocks(List.of("wallet-a"), () -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                        running.decrementAndGet();
+                        return null;
+                    })));
+            for (Future<Object> future : futures) future.get();
+        }
+
+        // Then - Então nunca deve haver duas ao mesmo tempo
+        assertThat(maxRunning.get()).isEqualTo(1);
+        verifyNoInteractions(transactionTemplate, jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Dado uma carteira travada além do timeout, quando travar, então deve lançar WalletLockTimeoutException")
+    void dado_carteira_travada_alem_do_timeout_quando_travar_entao_deve_lancar_excecao() throws Exception {
+        // Given - Dado outra thread segurando a carteira
+        WalletLockManager manager = manager(WalletLockProperties.Mode.LOCAL, Duration.ofMillis(50));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                manager.withLocks(List.of("wallet-a"), () -> {
+                    locked.countDown();
+                    try {
+                        return release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            } catch (RuntimeException ignored) {
+            }
+        });
+        holder.start();
+        locked.await(5, TimeUnit.SECONDS);
+
+        // When/Then - Quando tentar travar a mesma carteira, então deve estourar o timeout
+        try {
+            assertThatThrownBy(() -> manager.withLocks(List.of("wallet-a", "wallet-b"), () -> "ok"))
+                    .isInstanceOf(WalletLockTimeoutException.class);
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+
+        // E os locks parciais devem ter sido liberados
+        assertThat(manager.withLocks(List.of("wallet-b"), () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    @DisplayName("Dado o modo advisory, quando travar, então deve abrir a transação e travar as chaves em ordem com pg_advisory_xact_lock")
+    void dado_modo_advisory_quando_travar_entao_deve_usar_advisory_locks_em_ordem() throws Exception {
+        // Given - Dado o modo advisory
+        WalletLockManager manager = manager(WalletLockProperties.Mode.ADVISORY, Duration.ofSeconds(5));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+
+        // When - Quando travar duas chaves fora de ordem
+        String result = manager.withLocks(List.of("wallet-b", "wallet-a"), () -> "ok");
+
+        // Then - Então deve travar em ordem dentro da transação
+        assertThat(result).isEqualTo("ok");
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).queryForObject(anyString(), eq(Integer.class), eq("wallet-a"));
+        inOrder.verify(jdbcTemplate).queryForObject(anyString(), eq(Integer.class), eq("wallet-b"));
+    }
+
+    @Test
+    @DisplayName("Dado uma operação que falha, quando travar, então deve propagar a exceção e liberar o lock")
+    void dado_operacao_que_falha_quando_travar_entao_deve_propagar_e_liberar() throws Exception {
+        // Given - Dado o modo local
+        WalletLockManager manager = manager(WalletLockProperties.Mode.LOCAL, Duration.ofMillis(50));
+
+        // When/Then - Quando a operação falhar, então a exceção deve ser propagada
+        assertThatThrownBy(() -> manager.withLocks(List.of("wallet-a"), () -> {
+            throw new IllegalStateException("falha");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // E o lock deve estar livre para outra thread
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            assertThat(executor.submit(() -> {
+                try {
+                    return manager.withLocks(List.of("wallet-a"), () -> "ok");
+                } catch (RuntimeException e) {
+                    return "erro";
+                }
+            }).get()).isEqualTo("ok");
+        }
+    }
+}
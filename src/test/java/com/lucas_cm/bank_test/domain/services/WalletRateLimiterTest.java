@@ -0,0 +1,113 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.WalletRateLimitProperties;
+import com.lucas_cm.bank_test.domain.exceptions.WalletRateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("WalletRateLimiter - Testes Unitários")
+class WalletRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private WalletRateLimiter limiter(int capacity, double refillPerSecond, int maxWallets) {
+        return new WalletRateLimiter(
+                new WalletRateLimitProperties(true, capacity, refillPerSecond, maxWallets, Duration.ofSeconds(10)),
+                meterRegistry, clock::get);
+    }
+
+    @Test
+    @DisplayName("Dado um bucket cheio, quando consumir além da capacidade, então deve rejeitar com o tempo até o próximo token")
+    void dado_bucket_cheio_quando_consumir_alem_da_capacidade_entao_deve_rejeitar() {
+        // Given - Dado um bucket de 3 tokens com reposição de 2 por segundo
+        WalletRateLimiter limiter = limiter(3, 2, 10);
+
+        // When - Quando consumir 4 tokens no mesmo instante
+        long first = limiter.tryAcquire("wallet-a");
+        limiter.tryAcquire("wallet-a");
+        limiter.tryAcquire("wallet-a");
+        long fourth = limiter.tryAcquire("wallet-a");
+
+        // Then - Então o quarto deve esperar meio segundo
+        assertThat(first).isZero();
+        assertThat(fourth).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    @DisplayName("Dado um bucket vazio, quando o tempo de reposição passar, então deve aceitar novamente")
+    void dado_bucket_vazio_quando_tempo_passar_entao_deve_aceitar_novamente() {
+        // Given - Dado um bucket esvaziado
+        WalletRateLimiter limiter = limiter(1, 2, 10);
+        limiter.tryAcquire("wallet-a");
+        assertThat(limiter.tryAcquire("wallet-a")).isPositive();
+
+        // When - Quando passar meio segundo
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        // Then - Então deve haver um token, sem afetar outras carteiras
+        assertThat(limiter.tryAcquire("wallet-a")).isZero();
+        assertThat(limiter.tryAcquire("wallet-b")).isZero();
+    }
+
+    @Test
+    @DisplayName("Dado o limite excedido, quando adquirir, então deve lançar exceção com Retry-After arredondado para cima e contar a rejeição")
+    void dado_limite_excedido_quando_adquirir_entao_deve_lancar_excecao_e_contar_rejeicao() {
+        // Given - Dado um bucket de 1 token com reposição de 1 a cada 4 segundos
+        WalletRateLimiter limiter = limiter(1, 0.25, 10);
+        limiter.acquire("wallet-a", "deposit");
+
+        // When/Then - Quando adquirir novamente, então deve lançar exceção
+        assertThatThrownBy(() -> limiter.acquire("wallet-a", "deposit"))
+                .isInstanceOf(WalletRateLimitExceededException.class)
+                .extracting(e -> ((WalletRateLimitExceededException) e).getRetryAfterSeconds())
+                .isEqualTo(4L);
+        assertThat(meterRegistry.get("bank.rate-limit.wallet.rejected").tag("operation", "deposit").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado buckets ociosos, quando despejar, então deve liberar a memória apenas dos buckets cheios há mais que o timeout")
+    void dado_buckets_ociosos_quando_despejar_entao_deve_remover_apenas_os_ociosos() {
+        // Given - Dado uma carteira ociosa e outra recém usada
+        WalletRateLimiter limiter = limiter(5, 10, 10);
+        limiter.tryAcquire("wallet-ociosa");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        limiter.tryAcquire("wallet-ativa");
+
+        // When - Quando despejar
+        limiter.evictIdle();
+
+        // Then - Então apenas a carteira ativa deve continuar rastreada
+        assertThat(limiter.trackedWallets()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado o limite de carteiras rastreadas atingido, quando chegar uma nova carteira, então deve aceitar sem rastrear")
+    void dado_limite_de_carteiras_atingido_quando_nova_carteira_entao_deve_aceitar_sem_rastrear() {
+        // Given - Dado o máximo de uma carteira rastreada, ainda ativa
+        WalletRateLimiter limiter = limiter(5, 10, 1);
+        limiter.tryAcquire("wallet-a");
+
+        // When - Quando chegar outra carteira
+        long wait = limiter.tryAcquire("wallet-b");
+
+        // Then - Então deve aceitar sem crescer o mapa
+        assertThat(wait).isZero();
+        assertThat(limiter.trackedWallets()).isEqualTo(1);
+    }
+}
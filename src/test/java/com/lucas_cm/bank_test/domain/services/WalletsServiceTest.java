@@ -1,13 +1,17 @@
 package com.lucas_cm.bank_test.domain.services;
 
+import com.lucas_cm.bank_test.configuration.properties.ShardingProperties;
 import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
 import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
 import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
 import com.lucas_cm.bank_test.domain.entities.WalletEntity;
 import com.lucas_cm.bank_test.domain.exceptions.InsufficientBalanceException;
 import com.lucas_cm.bank_test.domain.exceptions.UserAlreadyHasWalletException;
+import com.lucas_cm.bank_test.domain.exceptions.VelocityLimitExceededException;
 import com.lucas_cm.bank_test.domain.exceptions.WalletNotFoundException;
+import com.lucas_cm.bank_test.domain.repositories.PixKeyDirectoryRepository;
 import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.infrastructure.cache.CacheInvalidationBus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,15 +19,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +44,28 @@ class WalletsServiceTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private BalanceNettingEngine balanceNettingEngine;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private WalletConcurrencyControl walletConcurrencyControl;
+
+    @Mock
+    private WalletBalanceCache walletBalanceCache;
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(
+            new ShardingProperties(false, List.of(), 10), mock(PixKeyDirectoryRepository.class));
+
     @InjectMocks
     private WalletsService walletsService;
 
@@ -60,6 +90,10 @@ class WalletsServiceTest {
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
+
+        // Modo pessimista: executa a operação uma única vez
+        lenient().when(walletConcurrencyControl.execute(any(), any())).thenAnswer(invocation ->
+                invocation.<Function<Boolean, ?>>getArgument(1).apply(false));
     }
 
     @Test
@@ -300,6 +334,7 @@ class WalletsServiceTest {
 
         verify(walletRepository).findByIdWithLock(walletId);
         verify(walletRepository).save(any(WalletEntity.class));
+        verify(velocityLimiter).acquire(walletId, withdrawAmount);
     }
 
     @Test
@@ -321,6 +356,25 @@ class WalletsServiceTest {
         verify(walletRepository).findByIdWithLock(walletId);
         verify(transactionService, never()).create(any(TransactionEntity.class));
         verify(walletRepository, never()).save(any(WalletEntity.class));
+        verify(velocityLimiter, never()).acquire(any(), any());
+    }
+
+    @Test
+    @DisplayName("Dado um saque acima do limite de movimentação, quando realizar saque, então deve lançar VelocityLimitExceededException sem alterar o saldo")
+    void dado_saque_acima_do_limite_de_movimentacao_quando_realizar_saque_entao_deve_lancar_excecao() {
+        // Given - Dado que a carteira já atingiu o limite do dia
+        BigDecimal withdrawAmount = new BigDecimal("100.00");
+        when(walletRepository.findByIdWithLock(walletId)).thenReturn(Optional.of(walletEntity));
+        doThrow(new VelocityLimitExceededException("24h", 200, new BigDecimal("50000.00")))
+                .when(velocityLimiter).acquire(walletId, withdrawAmount);
+
+        // When/Then - Quando realizar o saque, então deve lançar exceção
+        assertThatThrownBy(() -> walletsService.withdraw(walletId, withdrawAmount))
+                .isInstanceOf(VelocityLimitExceededException.class);
+
+        assertThat(walletEntity.getCurrentBalance()).isEqualByComparingTo(initialBalance);
+        verify(transactionService, never()).create(any(TransactionEntity.class));
+        verify(walletRepository, never()).save(any(WalletEntity.class));
     }
 
     @Test
@@ -414,5 +468,22 @@ class WalletsServiceTest {
         WalletEntity savedWallet = walletCaptor.getValue();
         assertThat(savedWallet.getUpdatedAt()).isAfterOrEqualTo(originalUpdatedAt);
     }
-}
 
+    @Test
+    @DisplayName("Dado o modo otimista, quando realizar depósito, então deve ler a carteira sem lock pessimista")
+    void dado_modo_otimista_quando_realizar_deposito_entao_deve_ler_sem_lock() {
+        // Given - Dado o modo otimista para a carteira
+        doAnswer(invocation -> invocation.<Function<Boolean, ?>>getArgument(1).apply(true))
+                .when(walletConcurrencyControl).execute(eq(walletId), any());
+        when(walletRepository.findById(walletId)).thenReturn(Optional.of(walletEntity));
+        when(walletRepository.save(any(WalletEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When - Quando realizar o depósito
+        WalletEntity result = walletsService.deposit(walletId, new BigDecimal("50.00"));
+
+        // Then - Então deve usar a leitura simples, validada pela versão no commit
+        assertThat(result.getCurrentBalance()).isEqualByComparingTo("1050.00");
+        verify(walletRepository).findById(walletId);
+        verify(walletRepository, never()).findByIdWithLock(any());
+    }
+}
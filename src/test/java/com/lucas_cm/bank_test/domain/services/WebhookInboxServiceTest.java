@@ -0,0 +1,175 @@
+package com.lucas_cm.bank_test.domain.services;
+
+import com.lucas_cm.bank_test.configuration.properties.WebhookInboxProperties;
+import com.lucas_cm.bank_test.domain.exceptions.PixTransferNotFoundException;
+import com.lucas_cm.bank_test.domain.models.WebhookInboxEntry;
+import com.lucas_cm.bank_test.domain.repositories.WebhookInboxRepository;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixWebhookRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WebhookInboxService - Testes Unitários")
+class WebhookInboxServiceTest {
+
+    @Mock
+    private WebhookInboxRepository webhookInboxRepository;
+
+    @Mock
+    private PixService pixService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private WebhookInboxService webhookInboxService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        webhookInboxService = new WebhookInboxService(
+                webhookInboxRepository,
+                pixService,
+                transactionTemplate,
+                new WebhookInboxProperties(true, 1, 2, Duration.ofMillis(200), Duration.ofSeconds(30), 3, Duration.ofSeconds(1)),
+                shardRouter,
+                meterRegistry
+        );
+        lenient().doAnswer(invocation -> {
+            Consumer<TransactionStatus> callback = invocation.getArgument(0);
+            callback.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        webhookInboxService.shutdown();
+    }
+
+    private WebhookInboxEntry entry(long id, int attempts, String eventId) {
+        return new WebhookInboxEntry(id, attempts,
+                new PixWebhookRequest("E2E-" + id, eventId, "CONFIRMED", "2025-01-01T10:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Dado um webhook recebido, quando enfileirar, então deve apenas gravar na fila")
+    void dado_webhook_recebido_quando_enfileirar_entao_deve_apenas_gravar_na_fila() {
+        // Given - Dado um webhook recebido
+        PixWebhookRequest request = new PixWebhookRequest("E2E-1", "event-1", "CONFIRMED", "2025-01-01T10:00:00Z");
+        when(webhookInboxRepository.enqueue(eq(request), any())).thenReturn(true);
+
+        // When - Quando enfileirar
+        webhookInboxService.enqueue(request);
+
+        // Then - Então não deve processar na requisição
+        verify(webhookInboxRepository).enqueue(eq(request), any());
+        verifyNoInteractions(pixService, transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Dado webhooks na fila, quando drenar, então deve processar em ordem e remover cada um na mesma transação")
+    void dado_webhooks_na_fila_quando_drenar_entao_deve_processar_em_ordem_e_remover() {
+        // Given - Dado um lote cheio seguido de um lote parcial
+        WebhookInboxEntry first = entry(1, 1, "event-1");
+        WebhookInboxEntry second = entry(2, 1, "event-2");
+        WebhookInboxEntry third = entry(3, 1, "event-3");
+        when(webhookInboxRepository.claim(eq(2), eq(3), any(), any()))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+
+        // When - Quando drenar a fila
+        int processed = webhookInboxService.drain();
+
+        // Then - Então deve processar os três em ordem
+        assertThat(processed).isEqualTo(3);
+        InOrder inOrder = inOrder(pixService, webhookInboxRepository);
+        inOrder.verify(pixService).processWebhook(first.request());
+        inOrder.verify(webhookInboxRepository).delete(1L);
+        inOrder.verify(pixService).processWebhook(second.request());
+        inOrder.verify(webhookInboxRepository).delete(2L);
+        inOrder.verify(pixService).processWebhook(third.request());
+        inOrder.verify(webhookInboxRepository).delete(3L);
+        assertThat(meterRegistry.counter("bank.pix.webhook.inbox.processed").count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Dado sharding habilitado, quando processar, então deve processar e remover sem transação compartilhada")
+    void dado_sharding_habilitado_quando_processar_entao_deve_processar_sem_transacao_compartilhada() {
+        // Given - Dado que a fila e a transferência podem estar em shards diferentes
+        when(shardRouter.isEnabled()).thenReturn(true);
+        WebhookInboxEntry entry = entry(5, 1, "event-5");
+
+        // When - Quando processar
+        webhookInboxService.process(entry);
+
+        // Then - Então deve processar antes de remover, fora de uma transação comum
+        InOrder inOrder = inOrder(pixService, webhookInboxRepository);
+        inOrder.verify(pixService).processWebhook(entry.request());
+        inOrder.verify(webhookInboxRepository).delete(5L);
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Dado um webhook que falha, quando processar, então deve reagendar com espera proporcional às tentativas")
+    void dado_webhook_que_falha_quando_processar_entao_deve_reagendar() {
+        // Given - Dado que o processamento falha na segunda tentativa
+        WebhookInboxEntry failing = entry(7, 2, "event-7");
+        doThrow(new PixTransferNotFoundException()).when(pixService).processWebhook(failing.request());
+        LocalDateTime before = LocalDateTime.now();
+
+        // When - Quando processar
+        webhookInboxService.process(failing);
+
+        // Then - Então deve manter na fila e reagendar em ~2s
+        verify(webhookInboxRepository, never()).delete(anyLong());
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(webhookInboxRepository).reschedule(eq(7L), nextAttempt.capture(), anyString());
+        assertThat(nextAttempt.getValue()).isAfterOrEqualTo(before.plusSeconds(2));
+        assertThat(meterRegistry.counter("bank.pix.webhook.inbox.failed").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("bank.pix.webhook.inbox.exhausted").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Dado um webhook na última tentativa, quando falhar, então deve contar como esgotado")
+    void dado_webhook_na_ultima_tentativa_quando_falhar_entao_deve_contar_como_esgotado() {
+        // Given - Dado a última tentativa permitida
+        WebhookInboxEntry failing = entry(9, 3, "event-9");
+        doThrow(new IllegalStateException("falha")).when(pixService).processWebhook(failing.request());
+
+        // When - Quando processar
+        webhookInboxService.process(failing);
+
+        // Then - Então deve ficar parado na fila
+        verify(webhookInboxRepository).reschedule(eq(9L), any(), anyString());
+        assertThat(meterRegistry.counter("bank.pix.webhook.inbox.exhausted").count()).isEqualTo(1);
+        verify(webhookInboxRepository, never()).claim(anyInt(), anyInt(), any(), any());
+    }
+}
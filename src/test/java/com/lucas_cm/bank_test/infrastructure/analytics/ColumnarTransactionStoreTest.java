@@ -0,0 +1,129 @@
+package com.lucas_cm.bank_test.infrastructure.analytics;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.infrastructure.dtos.AnalyticsBucketDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ColumnarTransactionStore - Testes Unitários")
+class ColumnarTransactionStoreTest {
+    private static final long HOUR = 3_600_000L;
+
+    private final long t0 = LocalDateTime.of(2025, 10, 9, 10, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    private ColumnarTransactionStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Segmentos de 2 linhas para exercitar várias partições
+        store = new ColumnarTransactionStore(2, 3);
+    }
+
+    @Test
+    @DisplayName("Dado transações em vários segmentos, quando agregar por tipo, então deve somar valores absolutos só a partir do início")
+    void dado_transacoes_em_varios_segmentos_quando_agregar_por_tipo_entao_deve_somar_a_partir_do_inicio() {
+        // Given - Dado uma transação antiga e quatro recentes distribuídas em três segmentos
+        store.append("wallet-a", TransactionTypeEnum.DEPOSIT, 99_00, t0 - HOUR);
+        store.append("wallet-a", TransactionTypeEnum.DEPOSIT, 10_00, t0);
+        store.append("wallet-b", TransactionTypeEnum.WITHDRAW, -2_50, t0 + 1);
+        store.append("wallet-b", TransactionTypeEnum.DEPOSIT, 5_00, t0 + 2);
+        store.append("wallet-c", TransactionTypeEnum.WITHDRAW, -1_00, t0 + 3);
+
+        // When - Quando agregar a partir de t0
+        List<AnalyticsBucketDto> buckets = store.volumeByType(t0);
+
+        // Then - Então a transação antiga fica de fora e os saques contam pelo valor absoluto
+        assertThat(store.rows()).isEqualTo(5);
+        assertThat(buckets).containsExactly(
+                new AnalyticsBucketDto("DEPOSIT", 2, new BigDecimal("15.00")),
+                new AnalyticsBucketDto("WITHDRAW", 2, new BigDecimal("3.50")));
+    }
+
+    @Test
+    @DisplayName("Dado volumes por carteira, quando consultar o ranking, então deve retornar as maiores em ordem decrescente até o limite")
+    void dado_volumes_por_carteira_quando_consultar_ranking_entao_deve_retornar_maiores_ate_limite() {
+        // Given - Dado três carteiras com volumes diferentes
+        store.append("wallet-a", TransactionTypeEnum.DEPOSIT, 1_00, t0);
+        store.append("wallet-b", TransactionTypeEnum.DEPOSIT, 7_00, t0);
+        store.append("wallet-c", TransactionTypeEnum.WITHDRAW, -3_00, t0);
+        store.append("wallet-a", TransactionTypeEnum.PIX_TRANSFER_IN, 1_00, t0);
+
+        // When - Quando consultar as duas maiores
+        List<AnalyticsBucketDto> top = store.topWallets(t0, 2);
+
+        // Then - Então deve retornar B e C, nessa ordem
+        assertThat(top).containsExactly(
+                new AnalyticsBucketDto("wallet-b", 1, new BigDecimal("7.00")),
+                new AnalyticsBucketDto("wallet-c", 1, new BigDecimal("3.00")));
+        assertThat(store.wallets()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Dado transações em horas diferentes, quando agregar por hora, então deve retornar um bucket por hora, inclusive vazias")
+    void dado_transacoes_em_horas_diferentes_quando_agregar_por_hora_entao_deve_incluir_horas_vazias() {
+        // Given - Dado transações na primeira e na terceira hora
+        store.append("wallet-a", TransactionTypeEnum.DEPOSIT, 4_00, t0 + 10);
+        store.append("wallet-a", TransactionTypeEnum.DEPOSIT, 6_00, t0 + 2 * HOUR + 10);
+
+        // When - Quando agregar de t0 até o meio da terceira hora
+        List<AnalyticsBucketDto> hours = store.volumeByHour(t0, t0 + 2 * HOUR + HOUR / 2);
+
+        // Then - Então a hora do meio deve vir vazia
+        assertThat(hours).containsExactly(
+                new AnalyticsBucketDto("2025-10-09T10:00", 1, new BigDecimal("4.00")),
+                new AnalyticsBucketDto("2025-10-09T11:00", 0, new BigDecimal("0.00")),
+                new AnalyticsBucketDto("2025-10-09T12:00", 1, new BigDecimal("6.00")));
+    }
+
+    @Test
+    @DisplayName("Dado segmentos fechados fora da janela, quando descartar, então deve remover só eles e manter o segmento ativo")
+    void dado_segmentos_fora_da_janela_quando_descartar_entao_deve_manter_segmento_ativo() {
+        // Given - Dado um segmento fechado antigo, um recente e o ativo com uma linha antiga
+        store.append("wallet-a", TransactionTypeEnum.DEPOSIT, 1_00, t0 - 2 * HOUR);
+        store.append("wallet-a", TransactionTypeEnum.DEPOSIT, 1_00, t0 - 2 * HOUR);
+        store.append("wallet-a", TransactionTypeEnum.DEPOSIT, 1_00, t0 - 2 * HOUR);
+        store.append("wallet-a", TransactionTypeEnum.DEPOSIT, 1_00, t0);
+        store.append("wallet-a", TransactionTypeEnum.DEPOSIT, 1_00, t0 - 2 * HOUR);
+
+        // When - Quando descartar o que é anterior a t0
+        int evicted = store.evictBefore(t0);
+
+        // Then - Então só o primeiro segmento sai
+        assertThat(evicted).isEqualTo(2);
+        assertThat(store.rows()).isEqualTo(3);
+        assertThat(store.volumeByType(t0)).containsExactly(
+                new AnalyticsBucketDto("DEPOSIT", 1, new BigDecimal("1.00")));
+    }
+
+    @Test
+    @DisplayName("Dado carteiras só em segmentos descartados, quando descartar, então deve tirá-las do dicionário e manter o ranking")
+    void dado_carteiras_so_em_segmentos_descartados_quando_descartar_entao_deve_compactar_dicionario() {
+        // Given - Dado A e B só no segmento antigo e C e D nos recentes
+        store.append("wallet-a", TransactionTypeEnum.DEPOSIT, 1_00, t0 - 2 * HOUR);
+        store.append("wallet-b", TransactionTypeEnum.DEPOSIT, 1_00, t0 - 2 * HOUR);
+        store.append("wallet-c", TransactionTypeEnum.DEPOSIT, 2_00, t0);
+        store.append("wallet-d", TransactionTypeEnum.WITHDRAW, -5_00, t0);
+        store.append("wallet-c", TransactionTypeEnum.DEPOSIT, 4_00, t0 + 1);
+
+        // When - Quando descartar o que é anterior a t0 e continuar acrescentando
+        int evicted = store.evictBefore(t0);
+        store.append("wallet-e", TransactionTypeEnum.DEPOSIT, 1_00, t0 + 2);
+
+        // Then - Então só C, D e E ficam no dicionário e o ranking continua certo
+        assertThat(evicted).isEqualTo(2);
+        assertThat(store.wallets()).isEqualTo(3);
+        assertThat(store.rows()).isEqualTo(4);
+        assertThat(store.topWallets(t0, 3)).containsExactly(
+                new AnalyticsBucketDto("wallet-c", 2, new BigDecimal("6.00")),
+                new AnalyticsBucketDto("wallet-d", 1, new BigDecimal("5.00")),
+                new AnalyticsBucketDto("wallet-e", 1, new BigDecimal("1.00")));
+    }
+}
@@ -0,0 +1,113 @@
+package com.lucas_cm.bank_test.infrastructure.analytics;
+
+import com.lucas_cm.bank_test.configuration.properties.AnalyticsCacheProperties;
+import com.lucas_cm.bank_test.configuration.properties.ShardingProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.exceptions.InvalidAnalyticsQueryException;
+import com.lucas_cm.bank_test.domain.models.TransactionsConfirmedEvent;
+import com.lucas_cm.bank_test.domain.repositories.PixKeyDirectoryRepository;
+import com.lucas_cm.bank_test.domain.repositories.TransactionAnalyticsRepository;
+import com.lucas_cm.bank_test.domain.services.ShardRouter;
+import com.lucas_cm.bank_test.infrastructure.dtos.AnalyticsBucketDto;
+import com.lucas_cm.bank_test.infrastructure.dtos.AnalyticsReportDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionAnalyticsCache - Testes Unitários")
+class TransactionAnalyticsCacheTest {
+
+    @Mock
+    private TransactionAnalyticsRepository transactionAnalyticsRepository;
+
+    private TransactionAnalyticsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TransactionAnalyticsCache(
+                transactionAnalyticsRepository,
+                new ShardRouter(new ShardingProperties(false, List.of(), 10), mock(PixKeyDirectoryRepository.class)),
+                new AnalyticsCacheProperties(true, Duration.ofHours(24), 1024, 2, 100, Duration.ofMinutes(1)),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Dado confirmações no banco anteriores ao cache, quando carregar, então deve agregá-las")
+    void dado_confirmacoes_anteriores_quando_carregar_entao_deve_agregar() {
+        // Given - Dado uma confirmação de 10 minutos atrás no banco
+        TransactionEntity deposit = confirmed("wallet-1", TransactionTypeEnum.DEPOSIT, "100.00",
+                LocalDateTime.now().minusMinutes(10));
+        when(transactionAnalyticsRepository.forEachConfirmed(any(), any(), any())).thenAnswer(invocation -> {
+            Consumer<TransactionEntity> consumer = invocation.getArgument(2);
+            consumer.accept(deposit);
+            return 1L;
+        });
+
+        // When - Quando carregar e consultar a última hora
+        cache.load();
+        AnalyticsReportDto report = cache.volumeByType("1h");
+
+        // Then - Então a confirmação deve aparecer no volume do tipo
+        assertThat(report.buckets()).containsExactly(
+                new AnalyticsBucketDto("DEPOSIT", 1, new BigDecimal("100.00")));
+    }
+
+    @Test
+    @DisplayName("Dado eventos de confirmação, quando receber, então deve ignorar as anteriores ao cache e as não confirmadas")
+    void dado_eventos_de_confirmacao_quando_receber_entao_deve_ignorar_anteriores_e_nao_confirmadas() {
+        // Given - Dado uma confirmação já coberta pela carga, uma pendente e uma nova
+        TransactionEntity loaded = confirmed("wallet-1", TransactionTypeEnum.DEPOSIT, "10.00",
+                LocalDateTime.now().minusMinutes(5));
+        TransactionEntity pending = confirmed("wallet-1", TransactionTypeEnum.PIX_TRANSFER_OUT, "-20.00",
+                LocalDateTime.now().plusSeconds(1));
+        pending.setStatus(TransactionStatusEnum.PENDING);
+        TransactionEntity fresh = confirmed("wallet-2", TransactionTypeEnum.WITHDRAW, "-30.00",
+                LocalDateTime.now().plusSeconds(1));
+
+        // When - Quando receber o evento
+        cache.onConfirmed(new TransactionsConfirmedEvent(List.of(loaded, pending, fresh)));
+
+        // Then - Então só a nova confirmação entra
+        assertThat(cache.topWallets("1h", 10).buckets()).containsExactly(
+                new AnalyticsBucketDto("wallet-2", 1, new BigDecimal("30.00")));
+    }
+
+    @Test
+    @DisplayName("Dado consultas fora dos limites, quando consultar, então deve lançar InvalidAnalyticsQueryException")
+    void dado_consultas_fora_dos_limites_quando_consultar_entao_deve_lancar_excecao() {
+        // Then - Então duração maior que a janela, inválida ou limite fora da faixa são recusados
+        assertThatThrownBy(() -> cache.volumeByType("2d")).isInstanceOf(InvalidAnalyticsQueryException.class);
+        assertThatThrownBy(() -> cache.volumeByHour("ontem")).isInstanceOf(InvalidAnalyticsQueryException.class);
+        assertThatThrownBy(() -> cache.topWallets("1h", 0)).isInstanceOf(InvalidAnalyticsQueryException.class);
+        assertThatThrownBy(() -> cache.topWallets("1h", 101)).isInstanceOf(InvalidAnalyticsQueryException.class);
+    }
+
+    private TransactionEntity confirmed(String walletId, TransactionTypeEnum type, String amount, LocalDateTime updatedAt) {
+        return TransactionEntity.builder()
+                .walletId(walletId)
+                .type(type)
+                .amount(new BigDecimal(amount))
+                .status(TransactionStatusEnum.CONFIRMED)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
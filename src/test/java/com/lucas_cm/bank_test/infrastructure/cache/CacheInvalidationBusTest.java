@@ -0,0 +1,135 @@
+package com.lucas_cm.bank_test.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lucas_cm.bank_test.configuration.properties.CacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CacheInvalidationBus - Testes Unitários")
+class CacheInvalidationBusTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CacheInvalidationListener listener;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bus = new CacheInvalidationBus(
+                new CacheProperties(true, Duration.ofSeconds(30), 100, "bank_cache_invalidation", Duration.ofMillis(50)),
+                dataSource, jdbcTemplate, objectMapper, List.of(listener), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Dado mudanças dentro de uma transação, quando commitar, então deve invalidar localmente e enviar uma única notificação")
+    void dado_mudancas_em_transacao_quando_commitar_entao_deve_invalidar_e_coalescer() throws Exception {
+        // Given - Dado três mudanças na mesma carteira dentro de uma transação
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publishWallet("wallet-a");
+        bus.publishWallet("wallet-a");
+        bus.publish(List.of("wallet-a"), List.of("chave-a"));
+        verifyNoInteractions(listener);
+
+        // When - Quando a transação commitar e a janela fechar
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        bus.flush();
+
+        // Then - Então deve enviar uma notificação com as chaves sem repetição
+        verify(listener, times(3)).invalidate(any(), any());
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(1)).queryForObject(eq("SELECT pg_notify(?, ?)"), eq(Object.class),
+                eq("bank_cache_invalidation"), payload.capture());
+        CacheInvalidationBus.InvalidationMessage message =
+                objectMapper.readValue(payload.getValue(), CacheInvalidationBus.InvalidationMessage.class);
+        assertThat(message.walletIds()).containsExactly("wallet-a");
+        assertThat(message.pixKeys()).containsExactly("chave-a");
+    }
+
+    @Test
+    @DisplayName("Dado uma transação desfeita, quando publicar, então não deve invalidar nem notificar")
+    void dado_transacao_desfeita_quando_publicar_entao_nao_deve_notificar() {
+        // Given - Dado uma mudança em uma transação que não commita
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publishWallet("wallet-a");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // When - Quando a janela fechar
+        bus.flush();
+
+        // Then - Então nada deve ser enviado
+        verifyNoInteractions(listener, jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Dado uma notificação de outra instância, quando receber, então deve invalidar os caches locais e medir o atraso")
+    void dado_notificacao_de_outra_instancia_quando_receber_entao_deve_invalidar() throws Exception {
+        // Given - Dado uma notificação enviada por outra instância
+        String payload = objectMapper.writeValueAsString(new CacheInvalidationBus.InvalidationMessage(
+                "outra-instancia", System.currentTimeMillis(), List.of("wallet-b"), List.of()));
+
+        // When - Quando receber a notificação
+        bus.onNotification(payload);
+
+        // Then - Então deve invalidar e registrar o atraso
+        verify(listener).invalidate(List.of("wallet-b"), List.of());
+        assertThat(meterRegistry.timer("bank.cache.invalidation.lag").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado muitas chaves, quando dividir o payload, então cada notificação deve caber no limite do NOTIFY")
+    void dado_muitas_chaves_quando_dividir_entao_cada_notificacao_deve_caber_no_limite() throws Exception {
+        // Given - Dado mil carteiras com ids de UUID
+        List<String> walletIds = IntStream.range(0, 1000)
+                .mapToObj(i -> "00000000-0000-0000-0000-%012d".formatted(i)).toList();
+
+        // When - Quando dividir em notificações
+        List<CacheInvalidationBus.InvalidationMessage> messages = bus.split(walletIds, List.of());
+
+        // Then - Então todas as chaves devem ser enviadas em payloads abaixo de 8000 bytes
+        assertThat(messages).hasSizeGreaterThan(1);
+        assertThat(messages.stream().mapToInt(message -> message.walletIds().size()).sum()).isEqualTo(1000);
+        for (CacheInvalidationBus.InvalidationMessage message : messages) {
+            assertThat(objectMapper.writeValueAsString(message).length()).isLessThan(8000);
+        }
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Object.class), any(), any());
+    }
+}
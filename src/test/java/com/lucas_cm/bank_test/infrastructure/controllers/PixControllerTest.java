@@ -1,25 +1,34 @@
 package com.lucas_cm.bank_test.infrastructure.controllers;
 
 import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.services.NativePixTransferService;
+import com.lucas_cm.bank_test.domain.services.PixBatchPayoutService;
 import com.lucas_cm.bank_test.domain.services.PixService;
-import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferRequest;
-import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferResponse;
-import com.lucas_cm.bank_test.infrastructure.dtos.PixWebhookRequest;
+import com.lucas_cm.bank_test.domain.services.PixTransferSaga;
+import com.lucas_cm.bank_test.domain.services.WalletRateLimiter;
+import com.lucas_cm.bank_test.domain.services.WebhookInboxService;
+import com.lucas_cm.bank_test.infrastructure.dtos.*;
+import com.lucas_cm.bank_test.infrastructure.streaming.PixTransferStatusStreams;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,6 +39,24 @@ class PixControllerTest {
     @Mock
     private PixService pixService;
 
+    @Mock
+    private PixBatchPayoutService pixBatchPayoutService;
+
+    @Mock
+    private NativePixTransferService nativePixTransferService;
+
+    @Mock
+    private WalletRateLimiter walletRateLimiter;
+
+    @Mock
+    private WebhookInboxService webhookInboxService;
+
+    @Mock
+    private PixTransferSaga pixTransferSaga;
+
+    @Mock
+    private PixTransferStatusStreams pixTransferStatusStreams;
+
     @InjectMocks
     private PixController pixController;
 
@@ -89,6 +116,7 @@ class PixControllerTest {
         // Then - Então deve chamar o serviço com a chave de idempotência e a requisição
         // corretas
         verify(pixService).transfer(idempotencyKey, request);
+        verify(walletRateLimiter).acquire("wallet-123", "pix-transfer");
     }
 
     @Test
@@ -132,6 +160,55 @@ class PixControllerTest {
     }
 
 
+    @Test
+    @DisplayName("Dado o modo de transferência native habilitado, quando o endpoint for chamado, então deve usar o serviço native")
+    void dado_modo_native_quando_chamar_endpoint_entao_deve_usar_servico_native() {
+        // Given - Dado que o modo native está habilitado
+        when(nativePixTransferService.isEnabled()).thenReturn(true);
+        when(nativePixTransferService.transfer(idempotencyKey, request)).thenReturn(expectedResponse);
+
+        // When - Quando o endpoint de transferência for chamado
+        ResponseEntity<PixTransferResponse> response = pixController.transferPix(idempotencyKey, request);
+
+        // Then - Então deve responder pelo serviço native sem passar pelo JPA
+        assertThat(response.getBody()).isEqualTo(expectedResponse);
+        verify(pixService, never()).transfer(any(), any());
+    }
+
+    @Test
+    @DisplayName("Dado um destino em outro shard, quando o endpoint for chamado, então deve usar a saga")
+    void dado_destino_em_outro_shard_quando_chamar_endpoint_entao_deve_usar_saga() {
+        // Given - Dado que a chave de destino está em outro shard
+        when(pixTransferSaga.isCrossShard(request)).thenReturn(true);
+        when(pixTransferSaga.transfer(idempotencyKey, request)).thenReturn(expectedResponse);
+
+        // When - Quando o endpoint de transferência for chamado
+        ResponseEntity<PixTransferResponse> response = pixController.transferPix(idempotencyKey, request);
+
+        // Then - Então deve responder pela saga sem usar os serviços de um único shard
+        assertThat(response.getBody()).isEqualTo(expectedResponse);
+        verify(pixService, never()).transfer(any(), any());
+        verify(nativePixTransferService, never()).transfer(any(), any());
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência, quando assinar os eventos, então deve abrir o stream a partir do status atual")
+    void dado_transferencia_quando_assinar_eventos_entao_deve_abrir_stream_com_status_atual() {
+        // Given - Dado o status atual da transferência
+        SseEmitter emitter = new SseEmitter();
+        when(pixService.findTransferStatus(idempotencyKey)).thenReturn(expectedResponse);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Supplier<PixTransferResponse>> captor = ArgumentCaptor.forClass(Supplier.class);
+        when(pixTransferStatusStreams.subscribeTransfer(eq(idempotencyKey), captor.capture())).thenReturn(emitter);
+
+        // When - Quando o endpoint de eventos for chamado
+        SseEmitter response = pixController.transferEvents(idempotencyKey);
+
+        // Then - Então o stream deve ler o status atual pelo serviço
+        assertThat(response).isSameAs(emitter);
+        assertThat(captor.getValue().get()).isEqualTo(expectedResponse);
+    }
+
     @Test
     @DisplayName("Dado um webhook válido do arranjo PIX, quando o endpoint for chamado, então deve retornar 200 OK")
     void dado_webhook_valido_quando_chamar_endpoint_entao_deve_retornar_200_ok() {
@@ -209,4 +286,37 @@ class PixControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    @DisplayName("Dado a fila de webhooks habilitada, quando o endpoint for chamado, então deve gravar na fila e responder sem processar")
+    void dado_fila_de_webhooks_habilitada_quando_chamar_endpoint_entao_deve_gravar_na_fila() {
+        // Given - Dado a fila de webhooks habilitada
+        when(webhookInboxService.isEnabled()).thenReturn(true);
+
+        // When - Quando o endpoint de webhook for chamado
+        ResponseEntity<Void> response = pixController.receiveWebhook(webhookRequest);
+
+        // Then - Então deve gravar na fila e responder 200 OK sem processar na requisição
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(webhookInboxService).enqueue(webhookRequest);
+        verify(pixService, never()).processWebhook(any());
+    }
+
+    @Test
+    @DisplayName("Dado um lote de pagamentos PIX, quando o endpoint for chamado, então deve retornar 200 OK com o resultado por pagamento")
+    void dado_lote_de_pagamentos_quando_chamar_endpoint_entao_deve_retornar_resultado_por_pagamento() {
+        // Given - Dado um lote com um pagamento aceito
+        PixBatchPayoutRequest batchRequest = new PixBatchPayoutRequest("wallet-123", List.of(
+                new PixPayoutItemDto("key-1", "pix-key-456", new BigDecimal("10.00"))));
+        PixBatchPayoutResponse batchResponse = new PixBatchPayoutResponse("wallet-123", 1, 1, 0, List.of(
+                new PixPayoutResultDto("key-1", "key-1", TransactionStatusEnum.PENDING, null)));
+        when(pixBatchPayoutService.payout(batchRequest)).thenReturn(batchResponse);
+
+        // When - Quando o endpoint de lote for chamado
+        ResponseEntity<PixBatchPayoutResponse> response = pixController.transferPixBatch(batchRequest);
+
+        // Then - Então deve retornar 200 OK com o resultado do serviço
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(batchResponse);
+        verify(pixBatchPayoutService).payout(batchRequest);
+    }
 }
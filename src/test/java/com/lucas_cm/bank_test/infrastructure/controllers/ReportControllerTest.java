@@ -0,0 +1,49 @@
+package com.lucas_cm.bank_test.infrastructure.controllers;
+
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.models.TransactionRollup;
+import com.lucas_cm.bank_test.domain.services.TransactionRollupService;
+import com.lucas_cm.bank_test.infrastructure.dtos.TransactionRollupDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReportController - Testes Unitários")
+class ReportControllerTest {
+
+    @Mock
+    private TransactionRollupService transactionRollupService;
+
+    @InjectMocks
+    private ReportController reportController;
+
+    @Test
+    @DisplayName("Dado um intervalo de dias, quando consultar os totais diários, então deve retornar os totais do serviço")
+    void dado_intervalo_de_dias_quando_consultar_totais_entao_deve_retornar_totais() {
+        // Given - Dado os totais de todas as carteiras no período
+        LocalDate from = LocalDate.of(2025, 10, 1);
+        LocalDate to = LocalDate.of(2025, 10, 31);
+        TransactionRollupDto totals = new TransactionRollupDto(null, from, to, List.of(
+                new TransactionRollup(null, from, TransactionTypeEnum.WITHDRAW, TransactionStatusEnum.CONFIRMED,
+                        3, new BigDecimal("-45.00"))));
+        when(transactionRollupService.findTotals("2025-10-01", "2025-10-31")).thenReturn(totals);
+
+        // When - Quando o endpoint de totais for chamado
+        TransactionRollupDto response = reportController.dailyTransactions("2025-10-01", "2025-10-31");
+
+        // Then - Então deve retornar os totais do serviço
+        assertThat(response).isEqualTo(totals);
+    }
+}
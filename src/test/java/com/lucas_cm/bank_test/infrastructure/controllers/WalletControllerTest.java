@@ -1,11 +1,19 @@
 package com.lucas_cm.bank_test.infrastructure.controllers;
 
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
 import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.models.BatchStatusEnum;
+import com.lucas_cm.bank_test.domain.exceptions.WalletRateLimitExceededException;
+import com.lucas_cm.bank_test.domain.models.BalancePoint;
+import com.lucas_cm.bank_test.domain.models.TransactionRollup;
+import com.lucas_cm.bank_test.domain.services.BalanceSeriesService;
+import com.lucas_cm.bank_test.domain.services.TransactionRollupService;
+import com.lucas_cm.bank_test.domain.services.WalletBatchService;
+import com.lucas_cm.bank_test.domain.services.WalletRateLimiter;
 import com.lucas_cm.bank_test.domain.services.WalletsService;
-import com.lucas_cm.bank_test.infrastructure.dtos.CreateWalletDto;
-import com.lucas_cm.bank_test.infrastructure.dtos.DepositDto;
-import com.lucas_cm.bank_test.infrastructure.dtos.GetBalanceDto;
-import com.lucas_cm.bank_test.infrastructure.dtos.RegisterPixKeyDto;
+import com.lucas_cm.bank_test.infrastructure.dtos.*;
+import com.lucas_cm.bank_test.infrastructure.streaming.PixTransferStatusStreams;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,14 +21,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +46,21 @@ class WalletControllerTest {
     @Mock
     private WalletsService walletsService;
 
+    @Mock
+    private WalletBatchService walletBatchService;
+
+    @Mock
+    private BalanceSeriesService balanceSeriesService;
+
+    @Mock
+    private TransactionRollupService transactionRollupService;
+
+    @Mock
+    private WalletRateLimiter walletRateLimiter;
+
+    @Mock
+    private PixTransferStatusStreams pixTransferStatusStreams;
+
     @InjectMocks
     private WalletController walletController;
 
@@ -260,5 +291,118 @@ class WalletControllerTest {
         // Then - Então deve chamar o serviço com o walletId e o valor corretos
         verify(walletsService).withdraw(walletId, withdrawAmount);
     }
-}
 
+    @Test
+    @DisplayName("Dado um lote de depósitos, quando o endpoint for chamado, então deve retornar 202 com o id do lote")
+    void dado_lote_de_depositos_quando_chamar_endpoint_entao_deve_retornar_202_com_id_do_lote() {
+        // Given - Dado um lote de depósitos aceito pelo serviço
+        List<WalletBatchItemDto> items = List.of(new WalletBatchItemDto(walletId, new BigDecimal("10.00")));
+        WalletBatchDto accepted = new WalletBatchDto("batch-1", TransactionTypeEnum.DEPOSIT, BatchStatusEnum.PENDING,
+                1, 0, 0, 0, LocalDateTime.now(), null, List.of());
+        when(walletBatchService.submit(TransactionTypeEnum.DEPOSIT, items)).thenReturn(accepted);
+
+        // When - Quando o endpoint de lote de depósitos for chamado
+        ResponseEntity<WalletBatchDto> response = walletController.depositBatch(new WalletBatchRequest(items));
+
+        // Then - Então deve retornar 202 com o lote
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getBody()).isEqualTo(accepted);
+        verify(walletBatchService).submit(TransactionTypeEnum.DEPOSIT, items);
+    }
+
+    @Test
+    @DisplayName("Dado um lote de saques, quando o endpoint for chamado, então deve submeter o lote como WITHDRAW")
+    void dado_lote_de_saques_quando_chamar_endpoint_entao_deve_submeter_como_withdraw() {
+        // Given - Dado um lote de saques
+        List<WalletBatchItemDto> items = List.of(new WalletBatchItemDto(walletId, new BigDecimal("10.00")));
+        WalletBatchDto accepted = new WalletBatchDto("batch-2", TransactionTypeEnum.WITHDRAW, BatchStatusEnum.PENDING,
+                1, 0, 0, 0, LocalDateTime.now(), null, List.of());
+        when(walletBatchService.submit(TransactionTypeEnum.WITHDRAW, items)).thenReturn(accepted);
+
+        // When - Quando o endpoint de lote de saques for chamado
+        ResponseEntity<WalletBatchDto> response = walletController.withdrawBatch(new WalletBatchRequest(items));
+
+        // Then - Então deve retornar 202 com o lote de saques
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getBody().type()).isEqualTo(TransactionTypeEnum.WITHDRAW);
+    }
+
+    @Test
+    @DisplayName("Dado um id de lote, quando consultar o lote, então deve retornar o progresso informado pelo serviço")
+    void dado_id_de_lote_quando_consultar_entao_deve_retornar_progresso() {
+        // Given - Dado um lote em processamento
+        WalletBatchDto progress = new WalletBatchDto("batch-1", TransactionTypeEnum.DEPOSIT, BatchStatusEnum.PROCESSING,
+                10, 4, 4, 0, LocalDateTime.now(), null, List.of());
+        when(walletBatchService.findById("batch-1")).thenReturn(progress);
+
+        // When - Quando consultar o lote
+        WalletBatchDto response = walletController.getBatch("batch-1");
+
+        // Then - Então deve retornar o progresso
+        assertThat(response.processed()).isEqualTo(4);
+        verify(walletBatchService).findById("batch-1");
+    }
+
+    @Test
+    @DisplayName("Dado uma carteira acima do limite de requisições, quando fazer saque, então deve rejeitar antes de chamar o serviço")
+    void dado_carteira_acima_do_limite_quando_fazer_saque_entao_deve_rejeitar_antes_do_servico() {
+        // Given - Dado que o bucket da carteira está vazio
+        doThrow(new WalletRateLimitExceededException(1)).when(walletRateLimiter).acquire(walletId, "withdraw");
+
+        // When/Then - Quando fazer saque, então deve lançar exceção sem tocar no serviço
+        assertThatThrownBy(() -> walletController.withdraw(walletId, new DepositDto(BigDecimal.TEN)))
+                .isInstanceOf(WalletRateLimitExceededException.class);
+        verifyNoInteractions(walletsService);
+    }
+
+    @Test
+    @DisplayName("Dado uma carteira, quando assinar os eventos de transferência, então deve abrir o stream da carteira")
+    void dado_carteira_quando_assinar_eventos_entao_deve_abrir_stream_da_carteira() {
+        // Given - Dado o stream da carteira
+        SseEmitter emitter = new SseEmitter();
+        when(pixTransferStatusStreams.subscribeWallet(walletId)).thenReturn(emitter);
+
+        // When - Quando o endpoint de eventos for chamado
+        SseEmitter response = walletController.transferEvents(walletId);
+
+        // Then - Então deve passar pelo rate limit e retornar o stream
+        assertThat(response).isSameAs(emitter);
+        verify(walletRateLimiter).acquire(walletId, "transfer-events");
+    }
+
+    @Test
+    @DisplayName("Dado um intervalo e um step, quando consultar a série de saldos, então deve retornar os pontos do serviço")
+    void dado_intervalo_e_step_quando_consultar_serie_entao_deve_retornar_pontos() {
+        // Given - Dado a série calculada pelo serviço
+        BalanceSeriesDto series = new BalanceSeriesDto(walletId, List.of(
+                new BalancePoint(LocalDateTime.of(2025, 10, 9, 0, 0), balance)));
+        when(balanceSeriesService.getSeries(walletId, "2025-10-09T00:00:00Z", "2025-10-09T00:00:00Z", "1h"))
+                .thenReturn(series);
+
+        // When - Quando o endpoint da série for chamado
+        BalanceSeriesDto response = walletController.getBalanceSeries(
+                walletId, "2025-10-09T00:00:00Z", "2025-10-09T00:00:00Z", "1h");
+
+        // Then - Então deve retornar a série e passar pelo rate limit
+        assertThat(response).isEqualTo(series);
+        verify(walletRateLimiter).acquire(walletId, "balance");
+    }
+
+    @Test
+    @DisplayName("Dado um intervalo de dias, quando consultar os rollups diários, então deve retornar os rollups do serviço")
+    void dado_intervalo_de_dias_quando_consultar_rollups_entao_deve_retornar_rollups() {
+        // Given - Dado os rollups da carteira no período
+        LocalDate day = LocalDate.of(2025, 10, 9);
+        TransactionRollupDto rollups = new TransactionRollupDto(walletId, day, day, List.of(
+                new TransactionRollup(walletId, day, TransactionTypeEnum.DEPOSIT, TransactionStatusEnum.CONFIRMED,
+                        2, new BigDecimal("150.00"))));
+        when(transactionRollupService.findByWallet(walletId, "2025-10-09", "2025-10-09")).thenReturn(rollups);
+
+        // When - Quando o endpoint de rollups for chamado
+        TransactionRollupDto response = walletController.getDailyRollups(walletId, "2025-10-09", "2025-10-09");
+
+        // Then - Então deve retornar os rollups e passar pelo rate limit
+        assertThat(response).isEqualTo(rollups);
+        verify(walletRateLimiter).acquire(walletId, "rollups");
+    }
+}
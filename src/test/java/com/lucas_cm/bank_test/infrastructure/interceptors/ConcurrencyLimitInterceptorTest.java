@@ -0,0 +1,83 @@
+package com.lucas_cm.bank_test.infrastructure.interceptors;
+
+import com.lucas_cm.bank_test.domain.exceptions.ServiceOverloadedException;
+import com.lucas_cm.bank_test.domain.services.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConcurrencyLimitInterceptor - Testes Unitários")
+class ConcurrencyLimitInterceptorTest {
+
+    @Mock
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @InjectMocks
+    private ConcurrencyLimitInterceptor interceptor;
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest("POST", "/pix/transfers");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("Dado vaga disponível, quando a requisição terminar com 500, então deve liberar a vaga sinalizando sobrecarga")
+    void dado_vaga_disponivel_quando_terminar_com_500_entao_deve_liberar_como_sobrecarga() {
+        // Given - Dado que o limitador aceita a requisição
+        when(limiter.isEnabled()).thenReturn(true);
+        when(limiter.tryAcquire()).thenReturn(3);
+
+        // When - Quando a requisição passar e terminar com 500
+        boolean proceed = interceptor.preHandle(request, response, new Object());
+        response.setStatus(500);
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        // Then - Então deve liberar a vaga como sobrecarga
+        assertThat(proceed).isTrue();
+        verify(limiter).release(eq(3), anyLong(), eq(true));
+    }
+
+    @Test
+    @DisplayName("Dado o limite atingido, quando a requisição chegar, então deve lançar ServiceOverloadedException sem liberar vaga")
+    void dado_limite_atingido_quando_requisicao_chegar_entao_deve_lancar_excecao() {
+        // Given - Dado que o limitador rejeita
+        when(limiter.isEnabled()).thenReturn(true);
+        when(limiter.tryAcquire()).thenReturn(-1);
+
+        // When/Then - Quando a requisição chegar, então deve lançar exceção
+        assertThatThrownBy(() -> interceptor.preHandle(request, response, new Object()))
+                .isInstanceOf(ServiceOverloadedException.class);
+        interceptor.afterCompletion(request, response, new Object(), null);
+        verify(limiter, never()).release(anyInt(), anyLong(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Dado o limitador desabilitado, quando a requisição chegar, então deve seguir sem adquirir vaga")
+    void dado_limitador_desabilitado_quando_requisicao_chegar_entao_deve_seguir() {
+        // When - Quando a requisição chegar com o limitador desabilitado
+        boolean proceed = interceptor.preHandle(request, response, new Object());
+
+        // Then - Então deve seguir sem interagir com o limite
+        assertThat(proceed).isTrue();
+        verify(limiter, never()).tryAcquire();
+    }
+}
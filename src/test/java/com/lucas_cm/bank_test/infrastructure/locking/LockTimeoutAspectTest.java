@@ -0,0 +1,147 @@
+package com.lucas_cm.bank_test.infrastructure.locking;
+
+import com.lucas_cm.bank_test.configuration.properties.LockTimeoutProperties;
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.exceptions.WalletLockTimeoutException;
+import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LockTimeoutAspect - Testes Unitários")
+class LockTimeoutAspectTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private WalletRepository proxy(LockTimeoutProperties.Mode mode) {
+        return proxy(walletRepository, WalletRepository.class, mode);
+    }
+
+    private <T> T proxy(T repository, Class<T> type, LockTimeoutProperties.Mode mode) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(repository);
+        factory.addInterface(type);
+        factory.addAspect(new LockTimeoutAspect(
+                new LockTimeoutProperties(mode, Duration.ofMillis(1500)), jdbcTemplate, meterRegistry));
+        return factory.getProxy();
+    }
+
+    private void iniciarTransacao() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(0));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Dado uma transação com dois locks, quando buscar carteiras, então deve configurar o lock_timeout uma única vez")
+    void dado_transacao_com_dois_locks_quando_buscar_entao_deve_configurar_lock_timeout_uma_vez() {
+        // Given - Dado uma transação ativa
+        iniciarTransacao();
+        when(walletRepository.findByIdWithLock("wallet-a")).thenReturn(Optional.of(new WalletEntity()));
+        when(walletRepository.findByPixKeyWithLock("chave-b")).thenReturn(Optional.of(new WalletEntity()));
+        WalletRepository repository = proxy(LockTimeoutProperties.Mode.TIMEOUT);
+
+        // When - Quando travar origem e destino
+        repository.findByIdWithLock("wallet-a");
+        repository.findByPixKeyWithLock("chave-b");
+
+        // Then - Então deve executar o SET LOCAL apenas uma vez
+        verify(jdbcTemplate, times(1)).execute("SET LOCAL lock_timeout = 1500");
+    }
+
+    @Test
+    @DisplayName("Dado um lock que estoura o timeout, quando buscar carteira, então deve lançar WalletLockTimeoutException e contar por endpoint")
+    void dado_lock_que_estoura_timeout_quando_buscar_entao_deve_lancar_excecao_e_contar() {
+        // Given - Dado uma requisição HTTP e um lock que estoura o timeout
+        iniciarTransacao();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/pix/transfers");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        when(walletRepository.findByIdWithLock("wallet-a"))
+                .thenThrow(new CannotAcquireLockException("canceling statement due to lock timeout"));
+        WalletRepository repository = proxy(LockTimeoutProperties.Mode.FAIL_FAST);
+
+        // When/Then - Quando travar, então deve lançar a exceção retentável
+        assertThatThrownBy(() -> repository.findByIdWithLock("wallet-a"))
+                .isInstanceOf(WalletLockTimeoutException.class);
+        verify(jdbcTemplate).execute("SET LOCAL lock_timeout = 1");
+        assertThat(meterRegistry.counter("bank.lock-timeout", "endpoint", "/pix/transfers").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado locks de lote e de webhook fora de requisições, quando estourarem o timeout, então devem ser contados pelo caminho de lock")
+    void dado_locks_de_lote_e_webhook_quando_estourarem_timeout_entao_devem_ser_contados_pelo_caminho() {
+        // Given - Dado os locks do flush do netting e da fila de webhooks estourando o timeout
+        iniciarTransacao();
+        when(walletRepository.findAllByIdWithLock(List.of("wallet-a", "wallet-b")))
+                .thenThrow(new CannotAcquireLockException("canceling statement due to lock timeout"));
+        when(transactionRepository.findByEndToEndIdWithLock("OUTe2e-1"))
+                .thenThrow(new CannotAcquireLockException("canceling statement due to lock timeout"));
+        WalletRepository wallets = proxy(LockTimeoutProperties.Mode.TIMEOUT);
+        TransactionRepository transactions = proxy(
+                transactionRepository, TransactionRepository.class, LockTimeoutProperties.Mode.TIMEOUT);
+
+        // When/Then - Quando travar, então devem lançar a exceção retentável
+        assertThatThrownBy(() -> wallets.findAllByIdWithLock(List.of("wallet-a", "wallet-b")))
+                .isInstanceOf(WalletLockTimeoutException.class);
+        assertThatThrownBy(() -> transactions.findByEndToEndIdWithLock("OUTe2e-1"))
+                .isInstanceOf(WalletLockTimeoutException.class);
+        verify(jdbcTemplate, times(1)).execute("SET LOCAL lock_timeout = 1500");
+        assertThat(meterRegistry.counter("bank.lock-timeout", "endpoint", "wallet-batch-lock").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("bank.lock-timeout", "endpoint", "pix-webhook").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado o modo wait, quando buscar carteira, então não deve configurar lock_timeout")
+    void dado_modo_wait_quando_buscar_entao_nao_deve_configurar_lock_timeout() {
+        // Given - Dado o modo wait
+        iniciarTransacao();
+        when(walletRepository.findByIdWithLock("wallet-a")).thenReturn(Optional.of(new WalletEntity()));
+
+        // When - Quando travar a carteira
+        proxy(LockTimeoutProperties.Mode.WAIT).findByIdWithLock("wallet-a");
+
+        // Then - Então deve manter o comportamento padrão do Postgres
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
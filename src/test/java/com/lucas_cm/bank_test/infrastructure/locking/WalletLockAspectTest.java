@@ -0,0 +1,115 @@
+package com.lucas_cm.bank_test.infrastructure.locking;
+
+import com.lucas_cm.bank_test.domain.services.WalletLockManager;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WalletLockAspect - Testes Unitários")
+class WalletLockAspectTest {
+
+    @Mock
+    private WalletLockManager walletLockManager;
+
+    @Mock
+    private WalletLockKeys walletLockKeys;
+
+    private LockedOperations operations;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new LockedOperations());
+        factory.setProxyTargetClass(true);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("walletLockKeys", walletLockKeys);
+        factory.addAspect(new WalletLockAspect(walletLockManager, beanFactory));
+        operations = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Dado o lock habilitado, quando chamar método anotado, então deve travar as chaves avaliadas dos parâmetros")
+    @SuppressWarnings("unchecked")
+    void dado_lock_habilitado_quando_chamar_metodo_anotado_entao_deve_travar_chaves_avaliadas() throws Throwable {
+        // Given - Dado o lock habilitado repassando a chamada
+        when(walletLockManager.isEnabled()).thenReturn(true);
+        when(walletLockManager.withLocks(any(), any())).thenAnswer(invocation ->
+                invocation.<WalletLockManager.LockedCall<?>>getArgument(1).call());
+        when(walletLockKeys.walletIdOfPixKey("chave-b")).thenReturn("wallet-b");
+
+        // When - Quando chamar a transferência
+        String result = operations.transfer(new PixTransferRequest("wallet-a", "chave-b", BigDecimal.TEN));
+
+        // Then - Então deve travar a origem e a carteira da chave de destino
+        assertThat(result).isEqualTo("transferido");
+        ArgumentCaptor<Collection<String>> keys = ArgumentCaptor.forClass(Collection.class);
+        verify(walletLockManager).withLocks(keys.capture(), any());
+        assertThat(keys.getValue()).containsExactly("wallet-a", "wallet-b");
+    }
+
+    @Test
+    @DisplayName("Dado uma expressão que resulta em coleção, quando chamar método anotado, então deve travar cada carteira")
+    @SuppressWarnings("unchecked")
+    void dado_expressao_com_colecao_quando_chamar_metodo_anotado_entao_deve_travar_cada_carteira() throws Throwable {
+        // Given - Dado as carteiras das duas pernas da transferência
+        when(walletLockManager.isEnabled()).thenReturn(true);
+        when(walletLockManager.withLocks(any(), any())).thenAnswer(invocation ->
+                invocation.<WalletLockManager.LockedCall<?>>getArgument(1).call());
+        when(walletLockKeys.walletIdsOfTransfer("e2e-1")).thenReturn(List.of("wallet-b", "wallet-a"));
+
+        // When - Quando processar o webhook
+        String result = operations.webhook("e2e-1");
+
+        // Then - Então deve travar as duas carteiras
+        assertThat(result).isEqualTo("processado");
+        ArgumentCaptor<Collection<String>> keys = ArgumentCaptor.forClass(Collection.class);
+        verify(walletLockManager).withLocks(keys.capture(), any());
+        assertThat(keys.getValue()).containsExactly("wallet-b", "wallet-a");
+    }
+
+    @Test
+    @DisplayName("Dado o lock desabilitado, quando chamar método anotado, então deve executar sem travar")
+    void dado_lock_desabilitado_quando_chamar_metodo_anotado_entao_deve_executar_sem_travar() throws Throwable {
+        // Given - Dado o lock desabilitado
+        when(walletLockManager.isEnabled()).thenReturn(false);
+
+        // When - Quando chamar o depósito
+        String result = operations.deposit("wallet-a");
+
+        // Then - Então deve executar diretamente
+        assertThat(result).isEqualTo("depositado");
+        verify(walletLockManager, never()).withLocks(any(), any());
+    }
+
+    static class LockedOperations {
+        @WalletLocked("#walletId")
+        public String deposit(String walletId) {
+            return "depositado";
+        }
+
+        @WalletLocked({"#request.fromWalletId()", "@walletLockKeys.walletIdOfPixKey(#request.toPixKey())"})
+        public String transfer(PixTransferRequest request) {
+            return "transferido";
+        }
+
+        @WalletLocked("@walletLockKeys.walletIdsOfTransfer(#endToEndId)")
+        public String webhook(String endToEndId) {
+            return "processado";
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.lucas_cm.bank_test.infrastructure.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lucas_cm.bank_test.configuration.properties.OutboxProperties;
+import com.lucas_cm.bank_test.domain.entities.OutboxEventEntity;
+import com.lucas_cm.bank_test.domain.entities.OutboxEventTypeEnum;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FileOutboxSink - Testes Unitários")
+class FileOutboxSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @TempDir
+    Path directory;
+
+    private OutboxEventEntity event(long id, String payload) {
+        return OutboxEventEntity.builder()
+                .id(id)
+                .eventType(OutboxEventTypeEnum.DEPOSIT_CONFIRMED)
+                .aggregateId("e2e-" + id)
+                .payload(payload)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Dado lotes de eventos, quando publicar, então deve anexar uma linha JSON por evento com o payload embutido")
+    void dado_lotes_de_eventos_quando_publicar_entao_deve_anexar_linhas_json() throws Exception {
+        // Given - Dado um sink apontando para um arquivo em diretório ainda inexistente
+        Path file = directory.resolve("outbox/events.jsonl");
+        FileOutboxSink sink = new FileOutboxSink(objectMapper, new OutboxProperties(
+                true, 1000, Duration.ofMillis(500), "file", new OutboxProperties.File(file.toString(), true)));
+
+        // When - Quando publicar dois lotes
+        sink.publish(List.of(event(1, "{\"amount\":10.00}"), event(2, "{\"amount\":5.00}")));
+        sink.publish(List.of(event(3, "{\"amount\":1.00}")));
+        sink.close();
+
+        // Then - Então o arquivo deve conter as três linhas em ordem
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(3);
+        JsonNode last = objectMapper.readTree(lines.get(2));
+        assertThat(last.get("id").asLong()).isEqualTo(3L);
+        assertThat(last.get("eventType").asText()).isEqualTo("DEPOSIT_CONFIRMED");
+        assertThat(last.get("payload").get("amount").decimalValue()).isEqualByComparingTo("1.00");
+    }
+}
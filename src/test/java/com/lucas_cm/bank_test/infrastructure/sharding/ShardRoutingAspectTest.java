@@ -0,0 +1,150 @@
+package com.lucas_cm.bank_test.infrastructure.sharding;
+
+import com.lucas_cm.bank_test.configuration.properties.ShardingProperties;
+import com.lucas_cm.bank_test.domain.repositories.PixKeyDirectoryRepository;
+import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
+import com.lucas_cm.bank_test.domain.services.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShardRoutingAspect - Testes Unitários")
+class ShardRoutingAspectTest {
+
+    @Mock
+    private PixKeyDirectoryRepository pixKeyDirectoryRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @AfterEach
+    void tearDown() {
+        ShardContext.set(null);
+    }
+
+    private ShardRouter router(boolean enabled) {
+        List<ShardingProperties.Shard> shards = Collections.nCopies(2,
+                new ShardingProperties.Shard("jdbc:postgresql://localhost/bank", "bank", "bank"));
+        return new ShardRouter(new ShardingProperties(enabled, shards, 10), pixKeyDirectoryRepository);
+    }
+
+    private ShardedOperations proxy(ShardRouter router, ShardedOperations target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ShardRoutingAspect(router, transactionRepository));
+        return factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Dado o sharding habilitado, quando chamar método anotado com id de carteira, então deve executar no shard do hash")
+    void dado_sharding_habilitado_quando_chamar_com_id_de_carteira_entao_deve_executar_no_shard_do_hash() {
+        // Given - Dado uma carteira que mora no shard 1
+        ShardRouter router = router(true);
+        ShardedOperations operations = proxy(router, new ShardedOperations());
+        String walletId = IntStream.range(0, 100).mapToObj(i -> UUID.nameUUIDFromBytes(("wallet-" + i).getBytes()).toString())
+                .filter(id -> router.shardOf(id) == 1)
+                .findFirst()
+                .orElseThrow();
+
+        // When - Quando chamar o método anotado
+        Integer shard = operations.byWallet(walletId);
+
+        // Then - Então deve executar no shard 1 e restaurar o contexto
+        assertThat(shard).isEqualTo(1);
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Dado uma chave PIX no diretório, quando chamar método anotado por chave, então deve executar no shard do diretório")
+    void dado_chave_no_diretorio_quando_chamar_por_chave_entao_deve_executar_no_shard_do_diretorio() {
+        // Given - Dado que o diretório aponta a chave para o shard 1
+        ShardedOperations operations = proxy(router(true), new ShardedOperations());
+        when(pixKeyDirectoryRepository.findShard("pix-b")).thenReturn(Optional.of(1));
+
+        // When/Then - Quando chamar, então deve executar no shard 1
+        assertThat(operations.byPixKey("pix-b")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência no shard 1, quando chamar método anotado por endToEndId, então deve localizar a perna de débito")
+    void dado_transferencia_no_shard_1_quando_chamar_por_end_to_end_id_entao_deve_localizar_debito() {
+        // Given - Dado que a perna OUT só existe no shard 1
+        ShardedOperations operations = proxy(router(true), new ShardedOperations());
+        when(transactionRepository.existsByEndToEndId("OUTE2E-1"))
+                .thenAnswer(invocation -> Integer.valueOf(1).equals(ShardContext.current()));
+
+        // When/Then - Quando chamar, então deve executar no shard 1
+        assertThat(operations.byEndToEndId("E2E-1")).isEqualTo(1);
+        verify(transactionRepository, times(2)).existsByEndToEndId("OUTE2E-1");
+    }
+
+    @Test
+    @DisplayName("Dado o sharding habilitado, quando chamar método anotado com OnEachShard, então deve executar uma vez por shard")
+    void dado_sharding_habilitado_quando_chamar_on_each_shard_entao_deve_executar_em_cada_shard() {
+        // Given - Dado dois shards
+        ShardedOperations target = new ShardedOperations();
+        ShardedOperations operations = proxy(router(true), target);
+
+        // When - Quando chamar o job
+        operations.job();
+
+        // Then - Então deve rodar nos shards 0 e 1
+        assertThat(target.jobShards).containsExactly(0, 1);
+    }
+
+    @Test
+    @DisplayName("Dado o sharding desabilitado, quando chamar métodos anotados, então deve executar direto sem consultar diretório")
+    void dado_sharding_desabilitado_quando_chamar_metodos_anotados_entao_deve_executar_direto() {
+        // Given - Dado o sharding desabilitado
+        ShardedOperations target = new ShardedOperations();
+        ShardedOperations operations = proxy(router(false), target);
+
+        // When - Quando chamar os métodos
+        Integer shard = operations.byPixKey("pix-b");
+        operations.job();
+
+        // Then - Então não deve definir shard nem repetir o job
+        assertThat(shard).isNull();
+        assertThat(target.jobShards).hasSize(1);
+        verifyNoInteractions(pixKeyDirectoryRepository, transactionRepository);
+    }
+
+    static class ShardedOperations {
+        final List<Integer> jobShards = new ArrayList<>();
+
+        @ShardedBy("#walletId")
+        public Integer byWallet(String walletId) {
+            return ShardContext.current();
+        }
+
+        @ShardedBy(value = "#pixKey", key = ShardedBy.Key.PIX_KEY)
+        public Integer byPixKey(String pixKey) {
+            return ShardContext.current();
+        }
+
+        @ShardedBy(value = "#endToEndId", key = ShardedBy.Key.END_TO_END_ID)
+        public Integer byEndToEndId(String endToEndId) {
+            return ShardContext.current();
+        }
+
+        @OnEachShard
+        public void job() {
+            jobShards.add(ShardContext.current());
+        }
+    }
+}
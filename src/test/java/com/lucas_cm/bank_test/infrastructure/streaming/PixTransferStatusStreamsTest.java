@@ -0,0 +1,110 @@
+package com.lucas_cm.bank_test.infrastructure.streaming;
+
+import com.lucas_cm.bank_test.configuration.properties.PixStatusStreamProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionStatusEnum;
+import com.lucas_cm.bank_test.domain.exceptions.PixTransferNotFoundException;
+import com.lucas_cm.bank_test.domain.exceptions.ServiceOverloadedException;
+import com.lucas_cm.bank_test.domain.models.PixTransferStatusChangedEvent;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PixTransferStatusStreams - Testes Unitários")
+class PixTransferStatusStreamsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private PixTransferStatusStreams streams(int maxConnections, int bufferSize, Executor executor) {
+        return new PixTransferStatusStreams(
+                new PixStatusStreamProperties(maxConnections, bufferSize, Duration.ofMinutes(5)), meterRegistry, executor);
+    }
+
+    @Test
+    @DisplayName("Dado o limite de conexões atingido, quando assinar, então deve lançar ServiceOverloadedException")
+    void dado_limite_de_conexoes_atingido_quando_assinar_entao_deve_lancar_excecao() {
+        // Given - Dado uma instância que aceita um único stream
+        PixTransferStatusStreams streams = streams(1, 16, Runnable::run);
+        streams.subscribeWallet("wallet-1");
+
+        // When/Then - Quando assinar de novo, então deve recusar
+        assertThatThrownBy(() -> streams.subscribeWallet("wallet-2"))
+                .isInstanceOf(ServiceOverloadedException.class);
+        assertThat(streams.connections()).isEqualTo(1);
+        assertThat(meterRegistry.counter("bank.pix.status-stream.rejected").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência já confirmada, quando assinar, então deve enviar o status e encerrar o stream")
+    void dado_transferencia_ja_confirmada_quando_assinar_entao_deve_encerrar_stream() {
+        // Given - Dado o status atual CONFIRMED
+        PixTransferStatusStreams streams = streams(10, 16, Runnable::run);
+
+        // When - Quando assinar a transferência
+        streams.subscribeTransfer("e2e-1", () -> new PixTransferResponse("e2e-1", TransactionStatusEnum.CONFIRMED));
+
+        // Then - Então a conexão deve ser liberada
+        assertThat(streams.connections()).isZero();
+    }
+
+    @Test
+    @DisplayName("Dado uma transferência inexistente, quando assinar, então deve liberar a conexão e propagar a exceção")
+    void dado_transferencia_inexistente_quando_assinar_entao_deve_liberar_conexao() {
+        // Given - Dado que a leitura do status atual falha
+        PixTransferStatusStreams streams = streams(10, 16, Runnable::run);
+
+        // When/Then - Quando assinar, então deve propagar a exceção sem manter a conexão
+        assertThatThrownBy(() -> streams.subscribeTransfer("e2e-1", () -> {
+            throw new PixTransferNotFoundException();
+        })).isInstanceOf(PixTransferNotFoundException.class);
+        assertThat(streams.connections()).isZero();
+    }
+
+    @Test
+    @DisplayName("Dado streams da transferência e da carteira, quando o status final chegar, então deve encerrar só o stream da transferência")
+    void dado_streams_abertos_quando_status_final_chegar_entao_deve_encerrar_stream_da_transferencia() {
+        // Given - Dado um stream da transferência PENDING e um da carteira de origem
+        PixTransferStatusStreams streams = streams(10, 16, Runnable::run);
+        streams.subscribeTransfer("e2e-1", () -> new PixTransferResponse("e2e-1", TransactionStatusEnum.PENDING));
+        streams.subscribeWallet("wallet-from");
+        assertThat(streams.connections()).isEqualTo(2);
+
+        // When - Quando a confirmação for commitada
+        streams.onStatusChanged(new PixTransferStatusChangedEvent(
+                "e2e-1", "wallet-from", "wallet-to", TransactionStatusEnum.CONFIRMED));
+
+        // Then - Então o stream da carteira continua aberto
+        assertThat(streams.connections()).isEqualTo(1);
+        assertThat(meterRegistry.counter("bank.pix.status-stream.dropped").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Dado um assinante que não acompanha os eventos, quando o buffer encher, então deve ser desconectado")
+    void dado_assinante_lento_quando_buffer_encher_entao_deve_ser_desconectado() {
+        // Given - Dado um stream cujo envio nunca é drenado e buffer de um evento
+        PixTransferStatusStreams streams = streams(10, 1, task -> { });
+        streams.subscribeWallet("wallet-from");
+
+        // When - Quando chegarem dois eventos
+        streams.onStatusChanged(new PixTransferStatusChangedEvent(
+                "e2e-1", "wallet-from", "wallet-to", TransactionStatusEnum.CONFIRMED));
+        streams.onStatusChanged(new PixTransferStatusChangedEvent(
+                "e2e-2", "wallet-from", "wallet-to", TransactionStatusEnum.REJECTED));
+
+        // Then - Então o assinante deve ser desconectado
+        assertThat(streams.connections()).isZero();
+        assertThat(meterRegistry.counter("bank.pix.status-stream.dropped").count()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,127 @@
+package com.lucas_cm.bank_test.infrastructure.warmup;
+
+import com.lucas_cm.bank_test.configuration.properties.WarmupProperties;
+import com.lucas_cm.bank_test.domain.entities.TransactionEntity;
+import com.lucas_cm.bank_test.domain.entities.TransactionTypeEnum;
+import com.lucas_cm.bank_test.domain.entities.WalletEntity;
+import com.lucas_cm.bank_test.domain.repositories.TransactionRepository;
+import com.lucas_cm.bank_test.domain.repositories.WalletRepository;
+import com.lucas_cm.bank_test.domain.services.PixService;
+import com.lucas_cm.bank_test.domain.services.WalletsService;
+import com.lucas_cm.bank_test.infrastructure.dtos.PixTransferRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ApplicationWarmup - Testes Unitários")
+class ApplicationWarmupTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private WalletsService walletsService;
+
+    @Mock
+    private PixService pixService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private ApplicationWarmup warmup(boolean enabled) {
+        return new ApplicationWarmup(dataSource, walletRepository, transactionRepository, walletsService, pixService,
+                new WarmupProperties(enabled, Duration.ofSeconds(30), 20, 10, Duration.ofHours(1)),
+                eventPublisher, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Dado carteiras e transferências recentes, quando aquecer, então deve preencher o pool e exercitar leituras e replays idempotentes")
+    void dado_carteiras_recentes_quando_aquecer_entao_deve_exercitar_caminhos_de_leitura() throws Exception {
+        // Given - Dado uma carteira movimentada com chave PIX e uma transferência recente
+        when(dataSource.getConnection()).thenReturn(connection);
+        WalletEntity wallet = WalletEntity.builder().id("wallet-a").pixKey("pix-a").build();
+        when(transactionRepository.findMostActiveWalletIdsSince(any(), eq(10))).thenReturn(List.of("wallet-a"));
+        when(walletRepository.findAllById(List.of("wallet-a"))).thenReturn(List.of(wallet));
+        when(transactionRepository.findByTypeAndUpdatedAtAfterOrderByUpdatedAtDesc(
+                eq(TransactionTypeEnum.PIX_TRANSFER_OUT), any(), any()))
+                .thenReturn(List.of(TransactionEntity.builder()
+                        .endToEndId("OUTkey-1")
+                        .walletId("wallet-a")
+                        .pixKey("pix-b")
+                        .amount(new BigDecimal("-10.00"))
+                        .build()));
+
+        // When - Quando aquecer
+        warmup(true).run(null);
+
+        // Then - Então deve abrir conexão, carregar chaves PIX e exercitar os serviços
+        verify(connection).close();
+        verify(walletRepository).findAllByPixKeyIn(List.of("pix-a"));
+        verify(walletsService, times(20)).getBalance("wallet-a", null);
+        verify(walletsService, times(20)).findByPixKey("pix-a");
+        verify(pixService, times(2)).transfer("key-1",
+                new PixTransferRequest("wallet-a", "pix-b", new BigDecimal("10.00")));
+        verify(eventPublisher).publishEvent(any(AvailabilityChangeEvent.class));
+        assertThat(meterRegistry.get("bank.warmup.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado uma falha durante o aquecimento, quando aquecer, então não deve impedir o startup")
+    void dado_falha_quando_aquecer_entao_nao_deve_impedir_startup() throws Exception {
+        // Given - Dado que a consulta das carteiras falha
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(transactionRepository.findMostActiveWalletIdsSince(any(), anyInt()))
+                .thenThrow(new RuntimeException("db down"));
+
+        // When/Then - Quando aquecer, então não deve lançar exceção
+        assertThatCode(() -> warmup(true).run(null)).doesNotThrowAnyException();
+        assertThat(meterRegistry.get("bank.warmup.duration").timer().count()).isEqualTo(1);
+        verifyNoInteractions(walletsService, pixService);
+    }
+
+    @Test
+    @DisplayName("Dado o aquecimento desabilitado, quando iniciar, então não deve tocar no banco")
+    void dado_aquecimento_desabilitado_quando_iniciar_entao_nao_deve_tocar_no_banco() {
+        // When - Quando iniciar com o aquecimento desabilitado
+        warmup(false).run(null);
+
+        // Then - Então nada deve ser executado
+        verifyNoInteractions(dataSource, transactionRepository, walletsService, pixService, eventPublisher);
+    }
+}